@@ -0,0 +1,77 @@
+package com.waldhauser.tasklist.config.heavyhitters;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Count-Min sketch: the approximate sum of the amounts added per key, in a fixed table of counters no matter
+ * how many distinct keys are added.
+ * <p>
+ * Every key is counted in one counter of each of the {@code depth} rows, the estimate of a key is the smallest
+ * of its counters. Keys sharing counters make the estimate larger than the true sum, never smaller: with a
+ * width of {@code w} the estimate exceeds the true sum by more than {@code e/w} of the total of all keys with a
+ * probability of at most {@code e^-depth}. A width of 2048 and a depth of 4 (64 KB) overestimate by less than
+ * 0.14 % of the total with 98 % probability.
+ * <p>
+ * The keys are given as 64-bit hashes, which must be well mixed (see {@link HeavyHitters#hash(long)}); the
+ * counters of a key are derived from the two halves of its hash.
+ * <p>
+ * Thread Safety:
+ * - Adding is lock-free: one atomic increment per row. An estimate read during concurrent adds may miss the
+ *   adds still in progress.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param width the counters per row, rounded up to a power of two
+     * @param depth the number of rows
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Width and depth must be positive");
+        }
+        int columns = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = columns - 1;
+        this.counters = new AtomicLongArray(columns * depth);
+    }
+
+    /**
+     * Adds an amount to a key.
+     *
+     * @param hash the hash of the key
+     * @param amount the amount to add, not negative
+     * @return the estimate of the key including the amount
+     */
+    public long add(long hash, long amount) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.addAndGet(index(hash, row), amount));
+        }
+        return estimate;
+    }
+
+    /**
+     * @param hash the hash of the key
+     * @return the estimated sum of the amounts added to the key, at least the true sum
+     */
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    // double hashing (Kirsch-Mitzenmacher): the rows behave like independent hash functions
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+}
@@ -0,0 +1,283 @@
+package com.waldhauser.tasklist.config.heavyhitters;
+
+import com.waldhauser.tasklist.config.metrics.QueryBudgetFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * HeavyHitters finds the owners producing a disproportionate share of the load, e.g. integrations that poll,
+ * without keeping anything per owner.
+ * <p>
+ * Responsibilities:
+ * - Counts the authenticated requests per owner and per endpoint (method and URI template) in
+ *   {@link CountMinSketch}es, and the DB time per owner: the statement execution time the
+ *   {@link QueryBudgetFilter} measured for the request.
+ * - Keeps the owners with the most requests, the owners with the most DB time and the endpoints with the most
+ *   requests in a {@link TopK} each, and the distinct active owners in a {@link HyperLogLog}.
+ * - Counts in windows of {@code app.heavy-hitters.window} (default one minute). The first request after the end
+ *   of a window starts the next one, the completed window is kept for reading, older windows are dropped.
+ * <p>
+ * The memory is fixed no matter how many owners there are: per window three sketches of
+ * {@code app.heavy-hitters.sketch-width} (default 2048) times {@code app.heavy-hitters.sketch-depth} (default 4)
+ * counters, 4096 HyperLogLog registers and twice {@code app.heavy-hitters.top} (default 20) top entries, about
+ * 210 KB. The counts are estimates: never below the true count, and above by a fraction of the window total
+ * only (see {@link CountMinSketch}); the distinct owners are within a few percent.
+ * <p>
+ * Fed by the JwtAuthenticationFilter and read by the {@link HeavyHittersEndpoint}.
+ * {@code app.heavy-hitters.enabled=false} switches the counting off. The DB time is only known with the query
+ * budget enabled ({@code app.query-budget.enabled}, the default).
+ * <p>
+ * Thread Safety:
+ * - Recording is lock-free: atomic counter updates, compare-and-set on the top slots and on the start of a new
+ *   window. A request finishing right at the end of a window may still be counted in the completed window.
+ */
+@Component
+public class HeavyHitters {
+
+    private static final int HLL_PRECISION = 12;
+
+    private final boolean enabled;
+    private final Duration window;
+    private final int top;
+    private final int sketchWidth;
+    private final int sketchDepth;
+    private final LongSupplier clock;
+    private final AtomicReference<Windows> windows;
+
+    @Autowired
+    public HeavyHitters(@Value("${app.heavy-hitters.enabled:true}") boolean enabled,
+                        @Value("${app.heavy-hitters.window:1m}") Duration window,
+                        @Value("${app.heavy-hitters.top:20}") int top,
+                        @Value("${app.heavy-hitters.sketch-width:2048}") int sketchWidth,
+                        @Value("${app.heavy-hitters.sketch-depth:4}") int sketchDepth) {
+        this(enabled, window, top, sketchWidth, sketchDepth, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs the counters with a given clock, e.g. for tests.
+     *
+     * @param enabled false to count nothing
+     * @param window the length of a counting window
+     * @param top the number of owners and endpoints read per top
+     * @param sketchWidth the counters per row of a sketch
+     * @param sketchDepth the rows of a sketch
+     * @param clock the current time in milliseconds
+     */
+    public HeavyHitters(boolean enabled, Duration window, int top, int sketchWidth, int sketchDepth, LongSupplier clock) {
+        this.enabled = enabled;
+        this.window = window;
+        this.top = top;
+        this.sketchWidth = sketchWidth;
+        this.sketchDepth = sketchDepth;
+        this.clock = clock;
+        this.windows = new AtomicReference<>(new Windows(newWindow(clock.getAsLong()), null));
+    }
+
+    /**
+     * Counts a completed request of an authenticated owner, with the endpoint and the DB time the request
+     * attributes hold.
+     *
+     * @param owner the authenticated owner
+     * @param request the completed request
+     */
+    public void record(UUID owner, HttpServletRequest request) {
+        if (!enabled) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+        long dbNanos = request.getAttribute(QueryBudgetFilter.EXECUTION_NANOS_ATTRIBUTE) instanceof Long nanos ? nanos : 0;
+        record(owner, endpoint, dbNanos);
+    }
+
+    /**
+     * Counts a request of an owner.
+     *
+     * @param owner the owner
+     * @param endpoint the method and URI template of the request
+     * @param dbNanos the statement execution time of the request, in nanoseconds
+     */
+    public void record(UUID owner, String endpoint, long dbNanos) {
+        if (enabled) {
+            current().record(owner, endpoint, dbNanos);
+        }
+    }
+
+    /**
+     * @return the tops of the window in progress and of the completed window before it
+     */
+    public Summary summary() {
+        Windows current = windows.get();
+        long now = clock.getAsLong();
+        if (now >= current.current.end()) {
+            // nothing recorded since the end of the window: it is the completed one
+            return now >= current.current.end() + window.toMillis()
+                    ? new Summary(window, null, null)
+                    : new Summary(window, null, current.current.summarize(top, window.toMillis()));
+        }
+        WindowSummary previous = current.previous == null ? null : current.previous.summarize(top, window.toMillis());
+        return new Summary(window, current.current.summarize(top, now - current.current.start), previous);
+    }
+
+    /**
+     * Mixes a 64-bit value into a well-distributed hash (the finalizer of MurmurHash3), as the sketches expect.
+     *
+     * @param value the value
+     * @return the hash
+     */
+    public static long hash(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long hash(UUID owner) {
+        return hash(owner.getMostSignificantBits() * 0x9e3779b97f4a7c15L + owner.getLeastSignificantBits());
+    }
+
+    private Window current() {
+        long now = clock.getAsLong();
+        Windows current = windows.get();
+        while (now >= current.current.end()) {
+            Window next = newWindow(now);
+            // the completed window is kept only if it is the one right before
+            Window previous = next.start == current.current.end() ? current.current : null;
+            if (windows.compareAndSet(current, new Windows(next, previous))) {
+                return next;
+            }
+            current = windows.get();
+        }
+        return current.current;
+    }
+
+    private Window newWindow(long now) {
+        long length = window.toMillis();
+        return new Window(now - Math.floorMod(now, length), length, sketchWidth, sketchDepth, 2 * top);
+    }
+
+    private record Windows(Window current, Window previous) {
+    }
+
+    private static final class Window {
+
+        private final long start;
+        private final long length;
+        private final LongAdder requests = new LongAdder();
+        private final HyperLogLog owners = new HyperLogLog(HLL_PRECISION);
+        private final CountMinSketch ownerRequests;
+        private final CountMinSketch ownerDbMicros;
+        private final CountMinSketch endpointRequests;
+        private final TopK<UUID> topOwnerRequests;
+        private final TopK<UUID> topOwnerDbMicros;
+        private final TopK<String> topEndpointRequests;
+
+        private Window(long start, long length, int sketchWidth, int sketchDepth, int capacity) {
+            this.start = start;
+            this.length = length;
+            this.ownerRequests = new CountMinSketch(sketchWidth, sketchDepth);
+            this.ownerDbMicros = new CountMinSketch(sketchWidth, sketchDepth);
+            this.endpointRequests = new CountMinSketch(sketchWidth, sketchDepth);
+            this.topOwnerRequests = new TopK<>(capacity);
+            this.topOwnerDbMicros = new TopK<>(capacity);
+            this.topEndpointRequests = new TopK<>(capacity);
+        }
+
+        private long end() {
+            return start + length;
+        }
+
+        private void record(UUID owner, String endpoint, long dbNanos) {
+            long ownerHash = hash(owner);
+            requests.increment();
+            owners.add(ownerHash);
+            topOwnerRequests.offer(owner, ownerHash, ownerRequests.add(ownerHash, 1));
+            long dbMicros = TimeUnit.NANOSECONDS.toMicros(dbNanos);
+            if (dbMicros > 0) {
+                topOwnerDbMicros.offer(owner, ownerHash, ownerDbMicros.add(ownerHash, dbMicros));
+            }
+            long endpointHash = hash(endpoint.hashCode());
+            topEndpointRequests.offer(endpoint, endpointHash, endpointRequests.add(endpointHash, 1));
+        }
+
+        private WindowSummary summarize(int limit, long elapsedMillis) {
+            double seconds = Math.max(1, elapsedMillis) / 1000.0;
+            List<OwnerRate> byRequests = topOwnerRequests.top(limit).stream()
+                    .map(entry -> new OwnerRate(entry.key(), entry.estimate(), entry.estimate() / seconds))
+                    .toList();
+            List<OwnerDbTime> byDbTime = topOwnerDbMicros.top(limit).stream()
+                    .map(entry -> new OwnerDbTime(entry.key(), entry.estimate() / 1000.0, entry.estimate() / 1000.0 / seconds))
+                    .toList();
+            List<EndpointRate> endpoints = topEndpointRequests.top(limit).stream()
+                    .map(entry -> new EndpointRate(entry.key(), entry.estimate(), entry.estimate() / seconds))
+                    .toList();
+            return new WindowSummary(Instant.ofEpochMilli(start), Instant.ofEpochMilli(start + elapsedMillis),
+                    requests.sum(), owners.estimate(), byRequests, byDbTime, endpoints);
+        }
+    }
+
+    /**
+     * The tops of the windows.
+     *
+     * @param window the length of a window
+     * @param current the window in progress, null if nothing was recorded in it
+     * @param previous the completed window before, null if nothing was recorded in it
+     */
+    public record Summary(Duration window, WindowSummary current, WindowSummary previous) {
+    }
+
+    /**
+     * The tops of one window. The rates are per second of the window, up to now for the window in progress.
+     *
+     * @param start the start of the window
+     * @param end the end of the window, or now for the window in progress
+     * @param requests the authenticated requests
+     * @param activeOwners the estimated number of distinct owners with a request
+     * @param ownersByRequests the owners with the most requests, most first
+     * @param ownersByDbTime the owners with the most statement execution time, most first
+     * @param endpoints the endpoints with the most authenticated requests, most first
+     */
+    public record WindowSummary(Instant start, Instant end, long requests, long activeOwners,
+                                List<OwnerRate> ownersByRequests, List<OwnerDbTime> ownersByDbTime,
+                                List<EndpointRate> endpoints) {
+    }
+
+    /**
+     * @param owner the owner
+     * @param requests the estimated requests, at least the true count
+     * @param perSecond the estimated requests per second
+     */
+    public record OwnerRate(UUID owner, long requests, double perSecond) {
+    }
+
+    /**
+     * @param owner the owner
+     * @param dbMillis the estimated statement execution time, at least the true time
+     * @param millisPerSecond the estimated statement execution time per second
+     */
+    public record OwnerDbTime(UUID owner, double dbMillis, double millisPerSecond) {
+    }
+
+    /**
+     * @param endpoint the method and URI template, e.g. {@code GET /task/get/{id}}
+     * @param requests the estimated authenticated requests, at least the true count
+     * @param perSecond the estimated requests per second
+     */
+    public record EndpointRate(String endpoint, long requests, double perSecond) {
+    }
+}
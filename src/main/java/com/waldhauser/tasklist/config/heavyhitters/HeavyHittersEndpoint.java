@@ -0,0 +1,41 @@
+package com.waldhauser.tasklist.config.heavyhitters;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint {@code /actuator/heavyhitters} of the {@link HeavyHitters}.
+ * <p>
+ * Operations:
+ * - {@code GET /actuator/heavyhitters}: for the window in progress and the completed window before it, the
+ *   distinct active owners and the owners with the most requests and the most DB time, with their rates, and the
+ *   endpoints with the most requests, at most {@code app.heavy-hitters.top} (default 20) each.
+ * <p>
+ * Unlike the metrics, the endpoint lists owner ids. Like every actuator endpoint it has to be exposed
+ * ({@code management.endpoints.web.exposure.include}), and only on the internal management port
+ * ({@code management.server.port}): the application has no admin role to restrict it to.
+ * <p>
+ * Thread Safety:
+ * - The endpoint is thread-safe, it only reads the counters.
+ */
+@Component
+@WebEndpoint(id = "heavyhitters")
+public class HeavyHittersEndpoint {
+
+    private final HeavyHitters heavyHitters;
+
+    public HeavyHittersEndpoint(HeavyHitters heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
+    /**
+     * Lists the heavy hitters of the current and of the previous window.
+     *
+     * @return the tops of the windows
+     */
+    @ReadOperation
+    public HeavyHitters.Summary heavyHitters() {
+        return heavyHitters.summary();
+    }
+}
@@ -0,0 +1,73 @@
+package com.waldhauser.tasklist.config.heavyhitters;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A HyperLogLog counter: the approximate number of distinct keys added, in a fixed number of registers no matter
+ * how many keys are added.
+ * <p>
+ * The first {@code precision} bits of the hash of a key select a register, the register keeps the longest run of
+ * leading zeros seen in the remaining bits. With {@code 2^precision} registers the standard error of the
+ * estimate is {@code 1.04 / sqrt(2^precision)}, e.g. 1.6 % with a precision of 12 (4096 registers). Small
+ * counts, with registers still empty, are estimated by linear counting and are close to exact.
+ * <p>
+ * The keys are given as 64-bit hashes, which must be well mixed (see {@link HeavyHitters#hash(long)}).
+ * <p>
+ * Thread Safety:
+ * - Adding is lock-free: a register only grows, by compare-and-set, and a key already counted is a plain read.
+ */
+public final class HyperLogLog {
+
+    private final int precision;
+    private final AtomicIntegerArray registers;
+
+    /**
+     * Constructs an empty counter.
+     *
+     * @param precision the bits of the hash selecting the register, between 4 and 18
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new AtomicIntegerArray(1 << precision);
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param hash the hash of the key
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // the marker bit bounds the run to the remaining 64 - precision bits
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        int current = registers.get(index);
+        while (rank > current && !registers.compareAndSet(index, current, rank)) {
+            current = registers.get(index);
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct keys added
+     */
+    public long estimate() {
+        int m = registers.length();
+        double sum = 0;
+        int empty = 0;
+        for (int i = 0; i < m; i++) {
+            int register = registers.get(i);
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                empty++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && empty > 0) {
+            estimate = m * Math.log((double) m / empty);
+        }
+        return Math.round(estimate);
+    }
+}
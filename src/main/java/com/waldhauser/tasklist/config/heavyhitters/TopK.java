@@ -0,0 +1,119 @@
+package com.waldhauser.tasklist.config.heavyhitters;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The keys with the largest estimates of a {@link CountMinSketch}, in a fixed number of slots.
+ * <p>
+ * Every add to the sketch offers the key with its new estimate. A key already in a slot gets the new estimate,
+ * another key replaces the smallest entry if its estimate is larger. Since the estimates only grow, a key that
+ * got frequent late still makes it in. Keeping more slots than are read (e.g. twice as many) keeps the keys
+ * near the border of the top from pushing each other out.
+ * <p>
+ * The slots are an array of immutable entries replaced by compare-and-set instead of a shared heap, which would
+ * need a lock; the entries are sorted when the top is read. Two threads offering the same new key at once may
+ * put it into two slots, the top lists it once with the larger estimate.
+ * <p>
+ * Most offers are of keys far from the top. A floor, the smallest estimate of the last full scan, lets them
+ * return without scanning: the entries only grow, so no entry is below the floor and a key with an estimate
+ * up to it can neither be in the top with a smaller estimate nor replace an entry.
+ * <p>
+ * Thread Safety:
+ * - Offering is lock-free, a lost compare-and-set rescans the slots.
+ *
+ * @param <K> the type of the keys
+ */
+public final class TopK<K> {
+
+    private final AtomicReferenceArray<Entry<K>> slots;
+    // a lower bound of the estimates in the slots, -1 while a slot is empty
+    private volatile long floor = -1;
+
+    /**
+     * Constructs an empty top.
+     *
+     * @param capacity the number of keys kept
+     */
+    public TopK(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Offers a key with its current estimate.
+     *
+     * @param key the key
+     * @param hash the hash of the key, to compare keys cheaply
+     * @param estimate the estimate of the key in the sketch
+     */
+    public void offer(K key, long hash, long estimate) {
+        if (estimate <= floor) {
+            return;
+        }
+        scan:
+        while (true) {
+            int smallest = 0;
+            Entry<K> smallestEntry = null;
+            long smallestEstimate = Long.MAX_VALUE;
+            for (int i = 0; i < slots.length(); i++) {
+                Entry<K> entry = slots.get(i);
+                if (entry != null && entry.hash() == hash && entry.key().equals(key)) {
+                    if (entry.estimate() >= estimate || slots.compareAndSet(i, entry, new Entry<>(key, hash, estimate))) {
+                        return;
+                    }
+                    continue scan;
+                }
+                // an empty slot is smaller than every entry
+                long slotEstimate = entry == null ? -1 : entry.estimate();
+                if (slotEstimate < smallestEstimate) {
+                    smallest = i;
+                    smallestEntry = entry;
+                    smallestEstimate = slotEstimate;
+                }
+            }
+            if (smallestEstimate >= estimate) {
+                // a racing stale write only lowers the floor, which is safe
+                floor = smallestEstimate;
+                return;
+            }
+            if (slots.compareAndSet(smallest, smallestEntry, new Entry<>(key, hash, estimate))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param limit the maximum number of keys
+     * @return the keys with the largest estimates, largest first
+     */
+    public List<Entry<K>> top(int limit) {
+        Map<K, Entry<K>> distinct = new HashMap<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Entry<K> entry = slots.get(i);
+            if (entry != null) {
+                distinct.merge(entry.key(), entry, (a, b) -> a.estimate() >= b.estimate() ? a : b);
+            }
+        }
+        List<Entry<K>> top = new ArrayList<>(distinct.values());
+        top.sort(Comparator.comparingLong(Entry<K>::estimate).reversed());
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+
+    /**
+     * A key with its estimate at the time it was offered.
+     *
+     * @param key the key
+     * @param hash the hash of the key
+     * @param estimate the estimate
+     * @param <K> the type of the key
+     */
+    public record Entry<K>(K key, long hash, long estimate) {
+    }
+}
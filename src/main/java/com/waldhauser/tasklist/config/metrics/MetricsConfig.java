@@ -0,0 +1,145 @@
+package com.waldhauser.tasklist.config.metrics;
+
+import com.waldhauser.tasklist.config.support.ConcurrencyLimitingDataSource;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Configuration class for the Micrometer metrics of the application.
+ * <p>
+ * Responsibilities:
+ * - Registers the {@link TimedAspect}, so the {@code @Timed} service classes record the timer
+ *   {@code tasklist.service} (tags {@code class}, {@code method}, {@code exception}).
+ * - Gives the latency timers percentile histograms and SLO buckets ({@code app.metrics.slo-ms}), so
+ *   percentiles can be aggregated across instances in Prometheus: {@code http.server.requests} per endpoint,
+ *   {@code tasklist.service} per service method, {@code spring.data.repository.invocations} per repository
+ *   query, {@code tasklist.jwt.verify} and the other {@code tasklist.*} timers. No client-side percentiles
+ *   are computed, recording stays a few atomic increments.
+ * - Drops owner and user id tags from every meter, whoever adds them. Every id would create its own time
+ *   series, the tag cardinality has to stay bounded.
+ * - Exports the permits of the {@link ConcurrencyLimitingDataSource} (virtual threads) as
+ *   {@code tasklist.jdbc.permits.*} gauges, next to the Hikari pool gauges {@code hikaricp.connections.*}
+ *   bound by Spring Boot.
+ * - Registers the {@link QueryBudget} statement inspector and execution listener with Hibernate, the
+ *   {@link QueryBudgetFilter} uses them to count the statements of every request.
+ * <p>
+ * Thread Safety:
+ * - This class relies on Spring Framework's configuration management and is inherently thread-safe.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final List<String> LATENCY_TIMERS = List.of(
+            "http.server.requests", "spring.data.repository.invocations", "graphql.request", "tasklist.");
+
+    private static final String[] ID_TAGS = {"owner", "ownerId", "owner.id", "user", "userId", "user.id"};
+
+    /**
+     * Provides the aspect recording the {@code @Timed} methods, unless Spring Boot already provides one.
+     *
+     * @param meterRegistry the registry of the timers
+     * @return the TimedAspect instance
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Removes id tags from all meters.
+     *
+     * @return the MeterFilter ignoring the id tags
+     */
+    @Bean
+    public MeterFilter idTagsMeterFilter() {
+        return MeterFilter.ignoreTags(ID_TAGS);
+    }
+
+    /**
+     * Configures percentile histograms and SLO buckets of the latency timers.
+     *
+     * @param sloMs the SLO bucket boundaries in milliseconds
+     * @return the MeterFilter configuring the distribution statistics
+     */
+    @Bean
+    public MeterFilter latencyHistogramMeterFilter(@Value("${app.metrics.slo-ms:5,10,25,50,100,250,500,1000,2500}") long[] sloMs) {
+        double[] slos = Arrays.stream(sloMs).mapToDouble(ms -> Duration.ofMillis(ms).toNanos()).toArray();
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER || LATENCY_TIMERS.stream().noneMatch(id.getName()::startsWith)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .serviceLevelObjectives(slos)
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    /**
+     * Registers the statement counting of {@link QueryBudget} with Hibernate, unless the query budget is disabled.
+     * The execution listener is also registered for the {@code db} phase of {@link ServerTiming}.
+     *
+     * @param enabled false to leave Hibernate untouched
+     * @param serverTiming true if the Server-Timing header is enabled
+     * @return the HibernatePropertiesCustomizer instance
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryBudgetHibernateProperties(@Value("${app.query-budget.enabled:true}") boolean enabled,
+                                                                        @Value("${app.server-timing.enabled:false}") boolean serverTiming) {
+        return properties -> {
+            if (enabled) {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryBudget.Inspector());
+            }
+            if (enabled || serverTiming) {
+                properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryBudget.ExecutionListener.class.getName());
+            }
+        };
+    }
+
+    /**
+     * Binds the permit gauges of the ConcurrencyLimitingDataSource, if the DataSource is wrapped into one.
+     *
+     * @param dataSource the application DataSource
+     * @return the MeterBinder of the permit gauges
+     */
+    @Bean
+    public MeterBinder concurrencyLimitingDataSourceMetrics(ObjectProvider<DataSource> dataSource) {
+        return registry -> {
+            if (dataSource.getIfAvailable() instanceof ConcurrencyLimitingDataSource limited) {
+                Gauge.builder("tasklist.jdbc.permits.in-use", limited, ConcurrencyLimitingDataSource::getInUse)
+                        .description("JDBC connections in use through the concurrency limiter")
+                        .register(registry);
+                Gauge.builder("tasklist.jdbc.permits.waiting", limited, ConcurrencyLimitingDataSource::getWaiting)
+                        .description("Callers waiting for a JDBC connection permit")
+                        .register(registry);
+                Gauge.builder("tasklist.jdbc.permits.max", limited, ConcurrencyLimitingDataSource::getMaxConcurrency)
+                        .description("Maximum number of JDBC connections in use at once")
+                        .register(registry);
+            }
+        };
+    }
+}
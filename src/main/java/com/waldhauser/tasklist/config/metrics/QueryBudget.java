@@ -0,0 +1,310 @@
+package com.waldhauser.tasklist.config.metrics;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * QueryBudget records the SQL statements Hibernate runs on the current thread, e.g. during one HTTP request,
+ * so statement counts, repeated statement shapes (N+1) and slow statements can be attributed to the request.
+ * <p>
+ * Responsibilities:
+ * - {@link #open(long)} starts a {@link Recording} for the current thread, {@link Recording#close()} ends it.
+ *   Statements outside of a recording are not looked at.
+ * - {@link Inspector}, registered as the Hibernate {@code StatementInspector}, counts every statement Hibernate
+ *   prepares. The counting is a map increment per statement, fingerprints are only computed when the recording is
+ *   evaluated, once per distinct statement.
+ * - {@link ExecutionListener}, registered as Hibernate session event listener, times the executions, sums them
+ *   up and keeps the statements slower than the threshold of the recording. It also sums up how long the thread held a JDBC
+ *   connection, from the acquisition to the release by Hibernate.
+ * - {@link #fingerprint(String)} turns a statement into its bind-free shape: literals become {@code ?},
+ *   IN lists collapse to {@code (?+)} and whitespace is normalized, so statements differing only in values
+ *   are counted as one shape and no user data ends up in logs.
+ * <p>
+ * Unlike the global Hibernate {@code Statistics}, which only know totals of the whole session factory, the
+ * recording attributes statements to the thread that runs them.
+ * <p>
+ * Thread Safety:
+ * - A recording belongs to the thread that opened it and must only be used by that thread.
+ */
+public final class QueryBudget {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private QueryBudget() {
+    }
+
+    /**
+     * Starts recording the statements of the current thread, replacing a recording already open.
+     *
+     * @param slowQueryNanos the execution time from which a statement counts as slow, in nanoseconds
+     * @return the new recording
+     */
+    public static Recording open(long slowQueryNanos) {
+        Recording recording = new Recording(slowQueryNanos);
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    /**
+     * Retrieves the recording of the current thread.
+     *
+     * @return the open recording, or null if the current thread is not recorded
+     */
+    public static Recording current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Computes the bind-free shape of a statement.
+     *
+     * @param sql the SQL statement
+     * @return the statement with literals replaced by {@code ?}, IN lists collapsed and whitespace normalized
+     */
+    public static String fingerprint(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?+)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").strip();
+    }
+
+    /**
+     * The statements run on one thread between {@link QueryBudget#open(long)} and {@link #close()}.
+     */
+    public static final class Recording implements AutoCloseable {
+
+        private final long slowQueryNanos;
+        private final Map<String, Integer> statements = new HashMap<>();
+        private final List<SlowQuery> slowQueries = new ArrayList<>();
+        private int statementCount;
+        private String lastStatement;
+        private long executionStart;
+        private int connectionsHeld;
+        private long connectionAcquiredAt;
+        private long connectionHoldNanos;
+        private long executionNanos;
+
+        private Recording(long slowQueryNanos) {
+            this.slowQueryNanos = slowQueryNanos;
+        }
+
+        /**
+         * Retrieves the number of statements run.
+         *
+         * @return the number of statements prepared since the recording was opened or reset
+         */
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        /**
+         * Retrieves the statements run, grouped by their fingerprint.
+         *
+         * @return the number of statements per fingerprint, the most frequent first
+         */
+        public Map<String, Integer> getStatements() {
+            Map<String, Integer> byFingerprint = new HashMap<>();
+            statements.forEach((sql, count) -> byFingerprint.merge(fingerprint(sql), count, Integer::sum));
+            Map<String, Integer> sorted = new LinkedHashMap<>();
+            byFingerprint.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+            return sorted;
+        }
+
+        /**
+         * Retrieves the statement shapes run at least {@code threshold} times, the typical sign of an N+1 pattern.
+         *
+         * @param threshold the number of runs from which a shape counts as repeated
+         * @return the number of statements per repeated fingerprint, the most frequent first
+         */
+        public Map<String, Integer> getRepeatedStatements(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            getStatements().forEach((fingerprint, count) -> {
+                if (count >= threshold) {
+                    repeated.put(fingerprint, count);
+                }
+            });
+            return repeated;
+        }
+
+        /**
+         * Retrieves the statements slower than the threshold of the recording.
+         *
+         * @return the slow statements, in the order they ran
+         */
+        public List<SlowQuery> getSlowQueries() {
+            return Collections.unmodifiableList(slowQueries);
+        }
+
+        /**
+         * Retrieves how long the thread held a JDBC connection. Time in which it held several connections at once
+         * (e.g. a nested {@code REQUIRES_NEW} transaction) counts once.
+         *
+         * @return the time with at least one connection acquired, in nanoseconds, up to now if one is still held
+         */
+        public long getConnectionHoldNanos() {
+            return connectionsHeld > 0 ? connectionHoldNanos + System.nanoTime() - connectionAcquiredAt : connectionHoldNanos;
+        }
+
+        /**
+         * Retrieves how long the statements ran, from the start to the end of their executions.
+         *
+         * @return the summed execution time of the statements, in nanoseconds
+         */
+        public long getExecutionNanos() {
+            return executionNanos;
+        }
+
+        /**
+         * Forgets the statements and the connection hold time recorded so far, e.g. the set-up of a test.
+         */
+        public void reset() {
+            statements.clear();
+            slowQueries.clear();
+            statementCount = 0;
+            lastStatement = null;
+            connectionHoldNanos = 0;
+            executionNanos = 0;
+            connectionAcquiredAt = System.nanoTime();
+        }
+
+        /**
+         * Ends the recording of the current thread.
+         */
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                CURRENT.remove();
+            }
+        }
+
+        private void onStatement(String sql) {
+            statementCount++;
+            statements.merge(sql, 1, Integer::sum);
+            lastStatement = sql;
+        }
+
+        private void onExecutionEnd() {
+            if (executionStart == 0) {
+                return;
+            }
+            long duration = System.nanoTime() - executionStart;
+            executionNanos += duration;
+            if (duration >= slowQueryNanos && lastStatement != null) {
+                slowQueries.add(new SlowQuery(fingerprint(lastStatement), duration / 1_000_000));
+            }
+            executionStart = 0;
+        }
+
+        private void onConnectionAcquired() {
+            if (connectionsHeld++ == 0) {
+                connectionAcquiredAt = System.nanoTime();
+            }
+        }
+
+        private void onConnectionReleased() {
+            // a connection acquired before the recording was opened is not counted
+            if (connectionsHeld > 0 && --connectionsHeld == 0) {
+                connectionHoldNanos += System.nanoTime() - connectionAcquiredAt;
+            }
+        }
+    }
+
+    /**
+     * A statement slower than the threshold.
+     *
+     * @param fingerprint the bind-free shape of the statement
+     * @param millis the execution time in milliseconds
+     */
+    public record SlowQuery(String fingerprint, long millis) {
+    }
+
+    /**
+     * Hibernate {@code StatementInspector} counting the statements of the current recording. The statement is
+     * passed on unchanged.
+     */
+    public static final class Inspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            Recording recording = CURRENT.get();
+            if (recording != null) {
+                recording.onStatement(sql);
+            }
+            return sql;
+        }
+    }
+
+    /**
+     * Hibernate session event listener timing the statement executions and the connection hold time of the
+     * current recording. It also marks the executions as {@code db} phase of the {@link ServerTiming} of the
+     * thread. Hibernate creates one instance per session.
+     */
+    public static final class ExecutionListener implements SessionEventListener {
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            executionStarted();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            executionEnded();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            executionStarted();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            executionEnded();
+        }
+
+        @Override
+        public void jdbcConnectionAcquisitionEnd() {
+            Recording recording = CURRENT.get();
+            if (recording != null) {
+                recording.onConnectionAcquired();
+            }
+        }
+
+        @Override
+        public void jdbcConnectionReleaseEnd() {
+            Recording recording = CURRENT.get();
+            if (recording != null) {
+                recording.onConnectionReleased();
+            }
+        }
+
+        private static void executionStarted() {
+            ServerTiming.enter(ServerTiming.Phase.DB);
+            Recording recording = CURRENT.get();
+            if (recording != null) {
+                recording.executionStart = System.nanoTime();
+            }
+        }
+
+        private static void executionEnded() {
+            Recording recording = CURRENT.get();
+            if (recording != null) {
+                recording.onExecutionEnd();
+            }
+            ServerTiming.exit(ServerTiming.Phase.DB);
+        }
+    }
+}
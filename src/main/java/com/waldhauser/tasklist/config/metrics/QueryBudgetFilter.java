@@ -0,0 +1,181 @@
+package com.waldhauser.tasklist.config.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The QueryBudgetFilter records the SQL statements of every request with {@link QueryBudget} and flags requests
+ * that need too many of them, the cheap production replacement for {@code spring.jpa.show-sql}.
+ * <p>
+ * Responsibilities:
+ * - Opens a recording for the request thread, evaluates and closes it when the request is done.
+ * - Logs a warning when the request ran more than {@code app.query-budget.max-statements} statements, with the
+ *   statement shapes it ran, and counts it in {@code tasklist.queries.budget.exceeded}.
+ * - Logs a warning for every statement shape run at least {@code app.query-budget.repeated-threshold} times in
+ *   the request (N+1: one query per row of a previous query), counted in {@code tasklist.queries.repeated}.
+ * - Logs every statement slower than {@code app.query-budget.slow-query-ms} with its bind-free fingerprint and
+ *   its execution time, counted in {@code tasklist.queries.slow}.
+ * - Records the statements per request in the distribution summary {@code tasklist.request.queries} and the time
+ *   the request held a JDBC connection in the timer {@code tasklist.request.connection.hold}.
+ * - Leaves the execution time of the statements in the request attribute {@link #EXECUTION_NANOS_ATTRIBUTE},
+ *   for the filters around it, e.g. the per owner DB time of the HeavyHitters.
+ * <p>
+ * All meters are tagged with the method and the URI template of the request only (e.g. {@code /task/get/{id}}),
+ * never with ids, and registered once per endpoint. Statements run on other threads, e.g. by asynchronous stream completions, are not attributed
+ * to the request. {@code app.query-budget.enabled=false} switches the recording off.
+ * <p>
+ * Thread Safety:
+ * - The filter is thread-safe, the recording of a request is confined to the request thread.
+ */
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute with the summed statement execution time of the request in nanoseconds, a {@link Long}.
+     */
+    public static final String EXECUTION_NANOS_ATTRIBUTE = QueryBudgetFilter.class.getName() + ".EXECUTION_NANOS";
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final boolean enabled;
+    private final int maxStatements;
+    private final int repeatedThreshold;
+    private final long slowQueryNanos;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Endpoint, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QueryBudgetFilter(@Value("${app.query-budget.enabled:true}") boolean enabled,
+                             @Value("${app.query-budget.max-statements:20}") int maxStatements,
+                             @Value("${app.query-budget.repeated-threshold:5}") int repeatedThreshold,
+                             @Value("${app.query-budget.slow-query-ms:200}") long slowQueryMs,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        this(enabled, maxStatements, repeatedThreshold, slowQueryMs, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * Constructs the filter with a given registry, e.g. for tests.
+     *
+     * @param enabled false to let every request pass unrecorded
+     * @param maxStatements the number of statements a request may run without being flagged
+     * @param repeatedThreshold the number of runs from which a statement shape counts as N+1
+     * @param slowQueryMs the execution time from which a statement counts as slow, in milliseconds
+     * @param meterRegistry the registry of the query metrics
+     */
+    public QueryBudgetFilter(boolean enabled, int maxStatements, int repeatedThreshold, long slowQueryMs,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxStatements = maxStatements;
+        this.repeatedThreshold = Math.max(2, repeatedThreshold);
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // an enclosing recording, e.g. of a test, keeps counting
+        return !enabled || QueryBudget.current() != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try (QueryBudget.Recording recording = QueryBudget.open(slowQueryNanos)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                evaluate(request, recording);
+            }
+        }
+    }
+
+    private void evaluate(HttpServletRequest request, QueryBudget.Recording recording) {
+        String method = request.getMethod();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        int statements = recording.getStatementCount();
+        request.setAttribute(EXECUTION_NANOS_ATTRIBUTE, recording.getExecutionNanos());
+
+        EndpointMeters endpoint = meters(method, uri);
+        endpoint.queries().record(statements);
+        if (statements == 0) {
+            return;
+        }
+        endpoint.connectionHold().record(recording.getConnectionHoldNanos(), TimeUnit.NANOSECONDS);
+
+        if (statements > maxStatements) {
+            endpoint.budgetExceeded().increment();
+            logger.warn("{} {} ran {} SQL statements, budget {}: {}", method, uri, statements, maxStatements, describe(recording.getStatements()));
+        }
+        for (Map.Entry<String, Integer> repeated : recording.getRepeatedStatements(repeatedThreshold).entrySet()) {
+            endpoint.repeated().increment();
+            logger.warn("{} {} ran the same statement {} times (N+1?): {}", method, uri, repeated.getValue(), repeated.getKey());
+        }
+        for (QueryBudget.SlowQuery slow : recording.getSlowQueries()) {
+            endpoint.slow().increment();
+            logger.warn("{} {} ran a slow statement ({} ms): {}", method, uri, slow.millis(), slow.fingerprint());
+        }
+    }
+
+    // "3x select ..., 1x select ..."
+    private static String describe(Map<String, Integer> statements) {
+        return statements.entrySet().stream()
+                .map(entry -> entry.getValue() + "x " + entry.getKey())
+                .collect(Collectors.joining(", "));
+    }
+
+    private EndpointMeters meters(String method, String uri) {
+        return meters.computeIfAbsent(new Endpoint(method, uri), endpoint -> new EndpointMeters(
+                DistributionSummary.builder("tasklist.request.queries")
+                        .description("SQL statements run by a request")
+                        .baseUnit("statements")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(meterRegistry),
+                Timer.builder("tasklist.request.connection.hold")
+                        .description("Time a request held a JDBC connection")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(meterRegistry),
+                counter("tasklist.queries.budget.exceeded", "Requests running more statements than the budget", method, uri),
+                counter("tasklist.queries.repeated", "Statement shapes repeated within a request (N+1)", method, uri),
+                counter("tasklist.queries.slow", "Statements slower than the slow query threshold", method, uri)));
+    }
+
+    private Counter counter(String name, String description, String method, String uri) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+
+    private record Endpoint(String method, String uri) {
+    }
+
+    private record EndpointMeters(DistributionSummary queries, Timer connectionHold, Counter budgetExceeded,
+                                  Counter repeated, Counter slow) {
+    }
+}
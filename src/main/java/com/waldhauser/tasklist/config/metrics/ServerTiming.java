@@ -0,0 +1,234 @@
+package com.waldhauser.tasklist.config.metrics;
+
+/**
+ * ServerTiming splits the time of a request on the current thread into phases, for the {@code Server-Timing}
+ * response header written by the {@link ServerTimingFilter}.
+ * <p>
+ * Responsibilities:
+ * - {@link #start()} starts a {@link Timing} for the current thread, {@link Timing#close()} ends it.
+ * - {@link #enter(Phase)} and {@link #exit(Phase)} mark where a phase begins and ends. They are called by the
+ *   JWT filter, the controller and service interceptors and the Hibernate {@link QueryBudget.ExecutionListener}.
+ *   Without a timing on the thread both are a thread-local lookup and nothing else, no allocation.
+ * <p>
+ * The phases are exclusive: a phase entered within another one pauses the outer phase, e.g. the statements a
+ * service runs count as {@code db} and not as {@code svc}. The phases of a request therefore add up to at most
+ * its total, the rest is spent in the framework (filters, argument resolution, exception handling).
+ * All times come from {@link System#nanoTime()}, one call per phase change.
+ * <p>
+ * Thread Safety:
+ * - A timing belongs to the thread that started it and must only be used by that thread.
+ */
+public final class ServerTiming {
+
+    private static final ThreadLocal<Timing> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+    // deeper nesting (a service calling services calling services...) stays in the outer phase
+    private static final int MAX_DEPTH = 16;
+
+    private ServerTiming() {
+    }
+
+    /**
+     * A phase of the request, named as in the {@code Server-Timing} header.
+     */
+    public enum Phase {
+        /** Everything not covered by another phase. */
+        OTHER("other"),
+        /** Verification of the bearer token. */
+        JWT("jwt"),
+        /** The controller method, without the services it calls. */
+        CONTROLLER("ctrl"),
+        /** The service methods, without their statements. */
+        SERVICE("svc"),
+        /** SQL statement executions. */
+        DB("db"),
+        /** Writing the response body, from the return of the controller to the completion of the handler. */
+        SERIALIZATION("ser");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        /**
+         * @return the name of the phase in the {@code Server-Timing} header
+         */
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    /**
+     * Starts timing the current thread, replacing a timing already started.
+     *
+     * @return the new timing
+     */
+    public static Timing start() {
+        Timing timing = new Timing(System.nanoTime());
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * Retrieves the timing of the current thread.
+     *
+     * @return the started timing, or null if the current thread is not timed
+     */
+    public static Timing current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Marks the beginning of a phase on the current thread, if it is timed.
+     *
+     * @param phase the phase that begins
+     */
+    public static void enter(Phase phase) {
+        Timing timing = CURRENT.get();
+        if (timing != null) {
+            timing.enter(phase);
+        }
+    }
+
+    /**
+     * Marks the end of a phase on the current thread, if it is timed. An end without a matching beginning is
+     * ignored.
+     *
+     * @param phase the phase that ends
+     */
+    public static void exit(Phase phase) {
+        Timing timing = CURRENT.get();
+        if (timing != null) {
+            timing.exit(phase);
+        }
+    }
+
+    /**
+     * The phases of one thread between {@link ServerTiming#start()} and {@link #close()}.
+     */
+    public static final class Timing implements AutoCloseable {
+
+        private final long startNanos;
+        private final long[] phaseNanos = new long[PHASES.length];
+        private final Phase[] outer = new Phase[MAX_DEPTH];
+        private int depth;
+        private int ignored;
+        private Phase phase = Phase.OTHER;
+        private long switchedAt;
+        private long totalNanos = -1;
+        private int statements;
+
+        private Timing(long startNanos) {
+            this.startNanos = startNanos;
+            this.switchedAt = startNanos;
+        }
+
+        private void enter(Phase next) {
+            if (totalNanos >= 0) {
+                return;
+            }
+            if (depth == MAX_DEPTH) {
+                ignored++;
+                return;
+            }
+            account();
+            outer[depth++] = phase;
+            phase = next;
+        }
+
+        private void exit(Phase current) {
+            if (ignored > 0) {
+                ignored--;
+                return;
+            }
+            if (phase != current || depth == 0 || totalNanos >= 0) {
+                return;
+            }
+            --depth;
+            account();
+            if (current == Phase.DB) {
+                statements++;
+            }
+            phase = outer[depth];
+        }
+
+        private void account() {
+            long now = System.nanoTime();
+            phaseNanos[phase.ordinal()] += now - switchedAt;
+            switchedAt = now;
+        }
+
+        /**
+         * Stops the clock of the request, later phase changes are no longer counted.
+         */
+        public void stop() {
+            if (totalNanos < 0) {
+                account();
+                totalNanos = switchedAt - startNanos;
+            }
+        }
+
+        /**
+         * @param phase a phase
+         * @return the time spent in the phase so far, in nanoseconds
+         */
+        public long getNanos(Phase phase) {
+            return phaseNanos[phase.ordinal()];
+        }
+
+        /**
+         * @return the time from the start to {@link #stop()}, or to now if not stopped yet, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos >= 0 ? totalNanos : System.nanoTime() - startNanos;
+        }
+
+        /**
+         * @return the number of SQL statement executions (batches count once)
+         */
+        public int getStatementCount() {
+            return statements;
+        }
+
+        /**
+         * Formats the phases as the value of a {@code Server-Timing} header, durations in milliseconds:
+         * {@code jwt;dur=0.412, ctrl;dur=0.031, svc;dur=0.120, db;dur=1.502;desc="2 statements", ser;dur=0.310, total;dur=3.004}
+         *
+         * @return the header value
+         */
+        public String toHeaderValue() {
+            StringBuilder header = new StringBuilder(160);
+            for (Phase each : PHASES) {
+                if (each == Phase.OTHER) {
+                    continue;
+                }
+                appendMillis(header.append(each.metricName()).append(";dur="), getNanos(each));
+                if (each == Phase.DB) {
+                    header.append(";desc=\"").append(statements).append(statements == 1 ? " statement\"" : " statements\"");
+                }
+                header.append(", ");
+            }
+            return appendMillis(header.append("total;dur="), getTotalNanos()).toString();
+        }
+
+        @Override
+        public void close() {
+            stop();
+            if (CURRENT.get() == this) {
+                CURRENT.remove();
+            }
+        }
+
+        // milliseconds with microsecond precision, without String.format
+        static StringBuilder appendMillis(StringBuilder target, long nanos) {
+            long micros = nanos / 1000;
+            long fraction = micros % 1000;
+            target.append(micros / 1000).append('.');
+            if (fraction < 100) {
+                target.append(fraction < 10 ? "00" : "0");
+            }
+            return target.append(fraction);
+        }
+    }
+}
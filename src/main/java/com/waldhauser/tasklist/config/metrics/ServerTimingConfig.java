@@ -0,0 +1,147 @@
+package com.waldhauser.tasklist.config.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Configuration class for the {@code Server-Timing} header, only active with {@code app.server-timing.enabled=true}.
+ * Without it none of the beans exist: no filter, no proxies around the controllers, and the {@link ServerTiming}
+ * hooks of the JWT filter and Hibernate find no timing and return.
+ * <p>
+ * Responsibilities:
+ * - Registers the {@link ServerTimingFilter}, sampling {@code app.server-timing.sample-percent} percent of the
+ *   requests (default 100).
+ * - Marks the {@code @RestController} methods as {@code ctrl} and the {@code @Service} methods as {@code svc}
+ *   phase with two method interceptors. The interceptors are stateless lambdas, they allocate nothing per call.
+ * - Ends the {@code ser} phase, which starts when the controller method returns, when the handler is completed,
+ *   and lets responses of asynchronous and streaming handlers (e.g. {@code SseEmitter}) bypass the buffer of
+ *   the filter.
+ * <p>
+ * The fast-start (AOT) build fixes the condition at build time, the property has to be set for the build.
+ * <p>
+ * Thread Safety:
+ * - This class relies on Spring Framework's configuration management and is inherently thread-safe.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig implements WebMvcConfigurer {
+
+    private static final List<Class<?>> ASYNC_RETURN_TYPES = List.of(ResponseBodyEmitter.class,
+            StreamingResponseBody.class, Callable.class, DeferredResult.class, WebAsyncTask.class, CompletionStage.class);
+
+    /**
+     * Provides the filter timing the sampled requests.
+     *
+     * @param samplePercent the percentage of the requests to time
+     * @return the ServerTimingFilter instance
+     */
+    @Bean
+    public ServerTimingFilter serverTimingFilter(@Value("${app.server-timing.sample-percent:100}") double samplePercent) {
+        return new ServerTimingFilter(samplePercent);
+    }
+
+    /**
+     * Provides the interceptor marking the controller methods as {@code ctrl} phase, followed by the {@code ser}
+     * phase.
+     *
+     * @return the Advisor of the controllers
+     */
+    @Bean
+    public static Advisor serverTimingControllerAdvisor() {
+        MethodInterceptor interceptor = invocation -> {
+            ServerTiming.enter(ServerTiming.Phase.CONTROLLER);
+            try {
+                return invocation.proceed();
+            } finally {
+                ServerTiming.exit(ServerTiming.Phase.CONTROLLER);
+                ServerTiming.enter(ServerTiming.Phase.SERIALIZATION);
+            }
+        };
+        return advisor(RestController.class, interceptor);
+    }
+
+    /**
+     * Provides the interceptor marking the service methods as {@code svc} phase.
+     *
+     * @return the Advisor of the services
+     */
+    @Bean
+    public static Advisor serverTimingServiceAdvisor() {
+        MethodInterceptor interceptor = invocation -> {
+            ServerTiming.enter(ServerTiming.Phase.SERVICE);
+            try {
+                return invocation.proceed();
+            } finally {
+                ServerTiming.exit(ServerTiming.Phase.SERVICE);
+            }
+        };
+        return advisor(Service.class, interceptor);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // unsampled requests are not buffered
+                if (ServerTiming.current() != null && handler instanceof HandlerMethod handlerMethod && isAsync(handlerMethod)) {
+                    ServerTimingFilter.streaming(response);
+                }
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                ServerTiming.exit(ServerTiming.Phase.SERIALIZATION);
+            }
+        });
+    }
+
+    private static Advisor advisor(Class<? extends Annotation> stereotype, MethodInterceptor interceptor) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(stereotype, true), interceptor);
+        // outermost, so the other advice (transactions, @Timed) is part of the phase
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    private static boolean isAsync(HandlerMethod handlerMethod) {
+        ResolvableType returnType = ResolvableType.forMethodReturnType(handlerMethod.getMethod());
+        if (ResponseEntity.class.isAssignableFrom(returnType.toClass())) {
+            returnType = returnType.getGeneric(0);
+        }
+        Class<?> type = returnType.toClass();
+        for (Class<?> async : ASYNC_RETURN_TYPES) {
+            if (async.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
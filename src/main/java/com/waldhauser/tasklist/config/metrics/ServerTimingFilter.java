@@ -0,0 +1,161 @@
+package com.waldhauser.tasklist.config.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The ServerTimingFilter adds a {@code Server-Timing} header to sampled responses, splitting the request into
+ * the phases of {@link ServerTiming}, and logs the same breakdown as one line per request:
+ * <pre>
+ * Server-Timing: jwt;dur=0.412, ctrl;dur=0.031, svc;dur=0.120, db;dur=1.502;desc="2 statements", ser;dur=0.310, total;dur=3.004
+ * </pre>
+ * <p>
+ * Responsibilities:
+ * - Times {@code app.server-timing.sample-percent} percent of the requests, the others pass untouched.
+ * - Buffers the body of a timed response, so the header can still be set after the body was serialized.
+ *   Streaming responses (Server-Sent Events) are not buffered and get no header, see {@link #streaming(HttpServletResponse)}.
+ * - Logs the phases at INFO, in the message and as key-value pairs ({@code jwt_ms}, {@code db_ms},
+ *   {@code statements}, ...) for structured log formats. Only the method and the URI template of the request
+ *   are logged, never ids.
+ * <p>
+ * The filter runs before the Spring Security filter chain, so the JWT verification is part of the timing.
+ * It is only registered with {@code app.server-timing.enabled=true}, see {@link ServerTimingConfig}.
+ * Browsers show the header in the network panel of the developer tools, cross-origin callers only with
+ * {@code Timing-Allow-Origin}.
+ * <p>
+ * Thread Safety:
+ * - The filter is thread-safe, the timing of a request is confined to the request thread.
+ */
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    private final double sampleRate;
+
+    /**
+     * Constructs the filter.
+     *
+     * @param samplePercent the percentage of the requests to time, 0 to 100
+     */
+    public ServerTimingFilter(double samplePercent) {
+        this.sampleRate = Math.clamp(samplePercent / 100, 0, 1);
+    }
+
+    /**
+     * Lets a streaming response bypass the buffer of the timed request. Must be called before anything is
+     * written, {@link ServerTimingConfig} does it for handlers returning an emitter or a streaming body.
+     *
+     * @param response the response of the handler
+     */
+    public static void streaming(HttpServletResponse response) {
+        TimedResponse timed = WebUtils.getNativeResponse(response, TimedResponse.class);
+        if (timed != null) {
+            timed.streaming = true;
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        TimedResponse timedResponse = new TimedResponse(response);
+        try (ServerTiming.Timing timing = ServerTiming.start()) {
+            try {
+                filterChain.doFilter(request, timedResponse);
+            } finally {
+                timing.stop();
+                if (!timedResponse.streaming && !request.isAsyncStarted()) {
+                    String header = timing.toHeaderValue();
+                    timedResponse.setHeader(HEADER, header);
+                    log(request, timedResponse.getStatus(), timing, header);
+                }
+                timedResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    private static void log(HttpServletRequest request, int status, ServerTiming.Timing timing, String header) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        logger.atInfo()
+                .setMessage("{} {} {} {}: {}")
+                .addArgument(request.getMethod())
+                .addArgument(uri)
+                .addArgument(status)
+                .addArgument(HEADER)
+                .addArgument(header)
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("uri", uri)
+                .addKeyValue("status", status)
+                .addKeyValue("jwt_ms", millis(timing.getNanos(ServerTiming.Phase.JWT)))
+                .addKeyValue("ctrl_ms", millis(timing.getNanos(ServerTiming.Phase.CONTROLLER)))
+                .addKeyValue("svc_ms", millis(timing.getNanos(ServerTiming.Phase.SERVICE)))
+                .addKeyValue("db_ms", millis(timing.getNanos(ServerTiming.Phase.DB)))
+                .addKeyValue("statements", timing.getStatementCount())
+                .addKeyValue("ser_ms", millis(timing.getNanos(ServerTiming.Phase.SERIALIZATION)))
+                .addKeyValue("total_ms", millis(timing.getTotalNanos()))
+                .log();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000 / 1000.0;
+    }
+
+    /**
+     * Buffers the body until the timing is done, unless the response was switched to streaming before anything
+     * was written.
+     */
+    private static final class TimedResponse extends ContentCachingResponseWrapper {
+
+        private boolean streaming;
+
+        TimedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return streaming ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return streaming ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (streaming) {
+                getResponse().flushBuffer();
+            } else {
+                super.flushBuffer();
+            }
+        }
+    }
+}
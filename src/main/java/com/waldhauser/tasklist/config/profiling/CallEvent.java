@@ -0,0 +1,29 @@
+package com.waldhauser.tasklist.config.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * The fields shared by the JFR events of service and repository calls. The duration is the one of the event itself.
+ * <p>
+ * The owner is recorded as hash of its id only, a recording must not contain user ids.
+ */
+abstract class CallEvent extends Event {
+
+    @Label("Operation")
+    @Description("Class and method, e.g. TaskServiceImpl.getAllTasksByOwnerId")
+    String operation;
+
+    @Label("Owner Hash")
+    @Description("Hash of the owner id of the call, 0 if there is none")
+    int ownerHash;
+
+    @Label("Rows")
+    @Description("Elements of a returned collection, the number of a returned count, 1 for another result, 0 for none")
+    int rows;
+
+    @Label("Exception")
+    @Description("Simple class name of the exception thrown by the call")
+    String exception;
+}
@@ -0,0 +1,124 @@
+package com.waldhauser.tasklist.config.profiling;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Method interceptor emitting a {@link ServiceCallEvent} or {@link RepositoryCallEvent} per call.
+ * <p>
+ * The fields are only filled in when the event is committed: as long as no recording enables the event,
+ * {@code isEnabled()} is false and the call is passed on directly. With a threshold only the calls over it are
+ * filled in. The operation name and the position of the {@code ownerId} parameter are looked up once per method.
+ * Calls without an {@code ownerId} parameter take the owner from the security context.
+ * <p>
+ * Thread Safety:
+ * - The interceptor is thread-safe, the cache of the methods is a concurrent map.
+ */
+final class CallEventInterceptor implements MethodInterceptor {
+
+    private final boolean repository;
+    private final String className;
+    private final ConcurrentMap<Method, CallSite> callSites = new ConcurrentHashMap<>();
+
+    private CallEventInterceptor(boolean repository, String className) {
+        this.repository = repository;
+        this.className = className;
+    }
+
+    /**
+     * @return the interceptor of the service methods, named after the class declaring the method
+     */
+    static CallEventInterceptor services() {
+        return new CallEventInterceptor(false, null);
+    }
+
+    /**
+     * @param repositoryInterface the repository interface, which names the operations
+     * @return the interceptor of the methods of one repository
+     */
+    static CallEventInterceptor repository(Class<?> repositoryInterface) {
+        return new CallEventInterceptor(true, repositoryInterface.getSimpleName());
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        CallEvent event = repository ? new RepositoryCallEvent() : new ServiceCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                CallSite callSite = callSites.computeIfAbsent(invocation.getMethod(), this::callSite);
+                event.operation = callSite.operation();
+                event.ownerHash = ownerHash(callSite, invocation.getArguments());
+                event.rows = rows(result);
+                event.exception = failure != null ? failure.getClass().getSimpleName() : null;
+                event.commit();
+            }
+        }
+    }
+
+    private CallSite callSite(Method method) {
+        String owner = className != null ? className : method.getDeclaringClass().getSimpleName();
+        Parameter[] parameters = method.getParameters();
+        int ownerIndex = -1;
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].getType() == UUID.class && parameters[i].getName().equals("ownerId")) {
+                ownerIndex = i;
+            }
+        }
+        return new CallSite(owner + "." + method.getName(), ownerIndex);
+    }
+
+    private static int ownerHash(CallSite callSite, Object[] arguments) {
+        if (callSite.ownerIndex() >= 0) {
+            return arguments[callSite.ownerIndex()] instanceof UUID ownerId ? ownerId.hashCode() : 0;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return 0;
+        }
+        try {
+            return UUID.fromString(authentication.getName()).hashCode();
+        } catch (IllegalArgumentException e) {
+            // anonymous
+            return 0;
+        }
+    }
+
+    private static int rows(Object result) {
+        return switch (result) {
+            case null -> 0;
+            case Collection<?> collection -> collection.size();
+            case Map<?, ?> map -> map.size();
+            case Optional<?> optional -> optional.isPresent() ? 1 : 0;
+            case Number number -> number.intValue();
+            case Boolean ignored -> 0;
+            default -> 1;
+        };
+    }
+
+    private record CallSite(String operation, int ownerIndex) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.waldhauser.tasklist.config.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Runs a Java Flight Recorder recording for the whole life of the application and keeps rolling aggregates
+ * of it, read by the {@link ProfilingEndpoint}.
+ * <p>
+ * Responsibilities:
+ * - Records with the JDK settings {@code app.profiling.settings} ({@code default}: designed for continuous use
+ *   in production, allocation samples throttled to 150/s, no method profiling) plus the service, repository
+ *   and JWT events of the application, over the threshold {@code app.profiling.threshold-ms} (default 0).
+ * - Keeps the last {@code app.profiling.window} (default 10 minutes) of the recording on disk, so
+ *   {@link #dump(Path)} can write it out after something happened.
+ * - Consumes the recording with the JFR streaming API, about once per second, and adds the calls and the
+ *   allocation samples ({@code jdk.ObjectAllocationSample}) to the {@link ProfileAggregates} of the same window.
+ *   An allocation is attributed to the innermost frame of the application, or to the innermost frame if the
+ *   stack has none.
+ * <p>
+ * Only active with {@code app.profiling.enabled=true}. The events are processed on the JFR stream thread,
+ * request threads only commit them.
+ * <p>
+ * Thread Safety:
+ * - Start and stop are synchronized, the aggregates synchronize themselves.
+ */
+@Component
+@ConditionalOnProperty(name = "app.profiling.enabled", havingValue = "true")
+public class ContinuousProfiler implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContinuousProfiler.class);
+    private static final String APPLICATION_PACKAGE = "com.waldhauser.tasklist.";
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+
+    private final String settings;
+    private final Duration window;
+    private final Duration threshold;
+    private final ProfileAggregates aggregates;
+    private RecordingStream stream;
+
+    public ContinuousProfiler(@Value("${app.profiling.settings:default}") String settings,
+                              @Value("${app.profiling.window:10m}") Duration window,
+                              @Value("${app.profiling.threshold-ms:0}") long thresholdMs) {
+        this.settings = settings;
+        this.window = window;
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.aggregates = new ProfileAggregates(window, 10, System::currentTimeMillis);
+    }
+
+    @Override
+    public synchronized void start() {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Unknown JFR settings '" + settings + "'", e);
+        }
+        RecordingStream recording = new RecordingStream(configuration);
+        recording.setMaxAge(window);
+        for (String event : List.of(ServiceCallEvent.NAME, RepositoryCallEvent.NAME, JwtVerificationEvent.NAME)) {
+            recording.enable(event).withThreshold(threshold).withoutStackTrace();
+        }
+        recording.onEvent(ServiceCallEvent.NAME, event -> recordCall("service", event));
+        recording.onEvent(RepositoryCallEvent.NAME, event -> recordCall("repository", event));
+        recording.onEvent(JwtVerificationEvent.NAME, event -> {
+            String outcome = event.getString("outcome");
+            aggregates.recordOperation("jwt", outcome, event.getDuration().toNanos(), 0, "error".equals(outcome));
+        });
+        recording.onEvent(ALLOCATION_SAMPLE, this::recordAllocation);
+        recording.startAsync();
+        stream = recording;
+        logger.info("Continuous JFR recording started with settings '{}', window {}", settings, window);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+
+    /**
+     * Writes the recording of the last window to a file, while the recording goes on.
+     *
+     * @param file the file to write
+     */
+    public synchronized void dump(Path file) {
+        if (stream == null) {
+            throw new IllegalStateException("The recording is not running");
+        }
+        try {
+            stream.dump(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not dump the JFR recording", e);
+        }
+    }
+
+    /**
+     * @return the aggregates of the recording
+     */
+    public ProfileAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * @return the time covered by the aggregates and by a dump
+     */
+    public Duration getWindow() {
+        return window;
+    }
+
+    private void recordCall(String type, RecordedEvent event) {
+        aggregates.recordOperation(type, event.getString("operation"), event.getDuration().toNanos(),
+                event.getInt("rows"), event.getString("exception") != null);
+    }
+
+    private void recordAllocation(RecordedEvent event) {
+        aggregates.recordAllocation(site(event.getStackTrace()), event.getClass("objectClass").getName(),
+                event.getLong("weight"));
+    }
+
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame site = stackTrace.getFrames().getFirst();
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                site = frame;
+                break;
+            }
+        }
+        return site.getMethod().getType().getName() + "." + site.getMethod().getName() + ":" + site.getLineNumber();
+    }
+}
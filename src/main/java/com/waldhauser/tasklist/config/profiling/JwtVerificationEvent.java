@@ -0,0 +1,46 @@
+package com.waldhauser.tasklist.config.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of the verification of a bearer token, by the REST filter or the gRPC interceptor.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * JwtVerificationEvent event = new JwtVerificationEvent();
+ * event.begin();
+ * ...
+ * event.complete("valid");
+ * }</pre>
+ * Without a recording of the event the JIT removes the event object and the calls.
+ */
+@Name(JwtVerificationEvent.NAME)
+@Label("JWT Verification")
+@Category({"Tasklist", "Security"})
+@StackTrace(false)
+public final class JwtVerificationEvent extends Event {
+
+    static final String NAME = "com.waldhauser.tasklist.JwtVerification";
+
+    @Label("Outcome")
+    @Description("valid, invalid or error")
+    String outcome;
+
+    /**
+     * Ends the event and commits it with the outcome, if it is recorded.
+     *
+     * @param outcome valid, invalid or error
+     */
+    public void complete(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.waldhauser.tasklist.config.profiling;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Rolling aggregates of the recorded calls and allocation samples over a time window, e.g. the last ten minutes.
+ * <p>
+ * The window is split into buckets. Recording adds to the bucket of the current time, a bucket older than the
+ * window is cleared when its slot is reused, and the tops are summed over the buckets still inside the window.
+ * The window therefore moves in steps of one bucket.
+ * <p>
+ * Thread Safety:
+ * - All methods are synchronized. They are called by the JFR stream thread and the profiling endpoint only.
+ */
+public class ProfileAggregates {
+
+    private final long bucketMillis;
+    private final Bucket[] buckets;
+    private final LongSupplier clock;
+
+    /**
+     * Constructs the aggregates.
+     *
+     * @param window the time covered by the aggregates
+     * @param bucketCount the number of steps of the window
+     * @param clock the current time in milliseconds
+     */
+    public ProfileAggregates(Duration window, int bucketCount, LongSupplier clock) {
+        this.bucketMillis = Math.max(1, window.toMillis() / bucketCount);
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Adds a call.
+     *
+     * @param type the kind of call: service, repository or jwt
+     * @param operation the called method, or the outcome of a JWT verification
+     * @param nanos the duration of the call
+     * @param rows the rows returned by the call
+     * @param failed true if the call failed
+     */
+    public synchronized void recordOperation(String type, String operation, long nanos, int rows, boolean failed) {
+        Operation stats = current().operations.computeIfAbsent(new OperationKey(type, operation), key -> new Operation());
+        stats.count++;
+        stats.errors += failed ? 1 : 0;
+        stats.nanos += nanos;
+        stats.maxNanos = Math.max(stats.maxNanos, nanos);
+        stats.rows += rows;
+    }
+
+    /**
+     * Adds an allocation sample.
+     *
+     * @param site the allocating frame, e.g. {@code com.waldhauser.tasklist.service.impl.TaskServiceImpl.toResponse:120}
+     * @param objectClass the class of the allocated object
+     * @param bytes the bytes the sample stands for (its weight)
+     */
+    public synchronized void recordAllocation(String site, String objectClass, long bytes) {
+        long[] stats = current().allocations.computeIfAbsent(new AllocationKey(site, objectClass), key -> new long[2]);
+        stats[0]++;
+        stats[1] += bytes;
+    }
+
+    /**
+     * @param limit the maximum number of operations
+     * @return the operations of the window with the most time spent in them, slowest first
+     */
+    public synchronized List<OperationStats> topOperations(int limit) {
+        Map<OperationKey, Operation> sums = new HashMap<>();
+        for (Bucket bucket : liveBuckets()) {
+            bucket.operations.forEach((key, stats) -> {
+                Operation sum = sums.computeIfAbsent(key, ignored -> new Operation());
+                sum.count += stats.count;
+                sum.errors += stats.errors;
+                sum.nanos += stats.nanos;
+                sum.maxNanos = Math.max(sum.maxNanos, stats.maxNanos);
+                sum.rows += stats.rows;
+            });
+        }
+        return sums.entrySet().stream()
+                .map(entry -> entry.getValue().toStats(entry.getKey()))
+                .sorted(Comparator.comparingDouble(OperationStats::totalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * @param limit the maximum number of sites
+     * @return the allocation sites of the window with the most bytes allocated, largest first
+     */
+    public synchronized List<AllocationSite> topAllocations(int limit) {
+        Map<AllocationKey, long[]> sums = new HashMap<>();
+        for (Bucket bucket : liveBuckets()) {
+            bucket.allocations.forEach((key, stats) -> {
+                long[] sum = sums.computeIfAbsent(key, ignored -> new long[2]);
+                sum[0] += stats[0];
+                sum[1] += stats[1];
+            });
+        }
+        return sums.entrySet().stream()
+                .map(entry -> new AllocationSite(entry.getKey().site(), entry.getKey().objectClass(),
+                        entry.getValue()[0], entry.getValue()[1]))
+                .sorted(Comparator.comparingLong(AllocationSite::bytes).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private Bucket current() {
+        long index = clock.getAsLong() / bucketMillis;
+        Bucket bucket = buckets[(int) (index % buckets.length)];
+        if (bucket.index != index) {
+            bucket.index = index;
+            bucket.operations.clear();
+            bucket.allocations.clear();
+        }
+        return bucket;
+    }
+
+    private List<Bucket> liveBuckets() {
+        long index = clock.getAsLong() / bucketMillis;
+        return Arrays.stream(buckets)
+                .filter(bucket -> bucket.index > index - buckets.length && bucket.index <= index)
+                .toList();
+    }
+
+    /**
+     * Aggregate of the calls of one operation.
+     *
+     * @param type the kind of call: service, repository or jwt
+     * @param operation the called method, or the outcome of a JWT verification
+     * @param count the number of calls
+     * @param errors the number of failed calls
+     * @param totalMillis the time spent in the calls
+     * @param meanMillis the mean duration of a call
+     * @param maxMillis the longest call
+     * @param rows the rows returned by all calls
+     */
+    public record OperationStats(String type, String operation, long count, long errors, double totalMillis,
+                                 double meanMillis, double maxMillis, long rows) {
+    }
+
+    /**
+     * Aggregate of the allocation samples of one frame and class.
+     *
+     * @param site the allocating frame
+     * @param objectClass the class of the allocated objects
+     * @param samples the number of samples
+     * @param bytes the estimated bytes allocated
+     */
+    public record AllocationSite(String site, String objectClass, long samples, long bytes) {
+    }
+
+    private record OperationKey(String type, String operation) {
+    }
+
+    private record AllocationKey(String site, String objectClass) {
+    }
+
+    private static final class Bucket {
+        private long index = Long.MIN_VALUE;
+        private final Map<OperationKey, Operation> operations = new HashMap<>();
+        private final Map<AllocationKey, long[]> allocations = new HashMap<>();
+    }
+
+    private static final class Operation {
+        private long count;
+        private long errors;
+        private long nanos;
+        private long maxNanos;
+        private long rows;
+
+        private OperationStats toStats(OperationKey key) {
+            return new OperationStats(key.type(), key.operation(), count, errors, millis(nanos),
+                    millis(nanos / count), millis(maxNanos), rows);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1000 / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.waldhauser.tasklist.config.profiling;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Service;
+
+/**
+ * Configuration class for the custom Java Flight Recorder events of the application.
+ * <p>
+ * Responsibilities:
+ * - Emits a {@link ServiceCallEvent} ({@code com.waldhauser.tasklist.ServiceCall}) for every call of a
+ *   {@code @Service} method, with operation, owner hash, row count and duration.
+ * - Emits a {@link RepositoryCallEvent} ({@code com.waldhauser.tasklist.RepositoryCall}) for every call of a
+ *   Spring Data repository method. The interceptor is added to the proxy Spring Data creates anyway, like the
+ *   invocation listener of the {@code spring.data.repository.invocations} timer.
+ * - The {@link JwtVerificationEvent} ({@code com.waldhauser.tasklist.JwtVerification}) is emitted by the JWT
+ *   filter and the gRPC interceptor themselves.
+ * <p>
+ * The events are always there and cost nothing until a recording enables them, e.g. the in-app
+ * {@link ContinuousProfiler} or {@code java -XX:StartFlightRecording ...}. They are enabled by default in
+ * every recording, without stack traces and without threshold; a threshold keeps fast calls out:
+ * <pre>
+ * java -XX:StartFlightRecording:settings=default,com.waldhauser.tasklist.RepositoryCall#threshold=1ms ...
+ * </pre>
+ * <p>
+ * Thread Safety:
+ * - This class relies on Spring Framework's configuration management and is inherently thread-safe.
+ */
+@Configuration
+public class ProfilingConfig {
+
+    /**
+     * Provides the interceptor emitting the service call events.
+     *
+     * @return the Advisor of the services
+     */
+    @Bean
+    public static Advisor serviceCallEventAdvisor() {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Service.class, true),
+                CallEventInterceptor.services());
+        // outside of the transaction, the commit is part of the call
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+
+    /**
+     * Adds the interceptor emitting the repository call events to every Spring Data repository.
+     *
+     * @return the BeanPostProcessor of the repository factory beans
+     */
+    @Bean
+    public static BeanPostProcessor repositoryCallEventPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                    CallEventInterceptor.repository(repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
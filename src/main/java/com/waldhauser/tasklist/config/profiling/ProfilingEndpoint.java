@@ -0,0 +1,117 @@
+package com.waldhauser.tasklist.config.profiling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Actuator endpoint {@code /actuator/profiling} of the {@link ContinuousProfiler}.
+ * <p>
+ * Operations:
+ * - {@code GET /actuator/profiling}: the operations with the most time spent in them and the allocation hot spots
+ *   of the window, at most {@code app.profiling.top} (default 20) each.
+ * - {@code POST /actuator/profiling}: the recording of the window as {@code .jfr} file, for JDK Mission Control or
+ *   {@code jfr print}.
+ * <p>
+ * Like every actuator endpoint it has to be exposed ({@code management.endpoints.web.exposure.include}), best on
+ * the internal management port only: the allocation sites and operation names describe the code, not the users.
+ * <p>
+ * Thread Safety:
+ * - The endpoint is thread-safe, the profiler synchronizes the dumps.
+ */
+@Component
+@WebEndpoint(id = "profiling")
+@ConditionalOnProperty(name = "app.profiling.enabled", havingValue = "true")
+public class ProfilingEndpoint {
+
+    private final ContinuousProfiler profiler;
+    private final int top;
+
+    public ProfilingEndpoint(ContinuousProfiler profiler, @Value("${app.profiling.top:20}") int top) {
+        this.profiler = profiler;
+        this.top = top;
+    }
+
+    /**
+     * Summarizes the recording of the window.
+     *
+     * @return the slowest operations and the allocation hot spots
+     */
+    @ReadOperation
+    public ProfilingSummary profiling() {
+        ProfileAggregates aggregates = profiler.getAggregates();
+        return new ProfilingSummary(profiler.getWindow(), aggregates.topOperations(top), aggregates.topAllocations(top));
+    }
+
+    /**
+     * Dumps the recording of the window.
+     *
+     * @return the JFR file, deleted once it is sent
+     */
+    @WriteOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump() {
+        try {
+            Path file = Files.createTempFile("tasklist-", ".jfr");
+            profiler.dump(file);
+            return new WebEndpointResponse<>(new TemporaryFileResource(file), WebEndpointResponse.STATUS_OK);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the dump file", e);
+        }
+    }
+
+    /**
+     * The summary of the recording.
+     *
+     * @param window the time covered
+     * @param operations the service, repository and JWT operations with the most time spent in them
+     * @param allocations the frames and classes with the most bytes allocated
+     */
+    public record ProfilingSummary(Duration window, List<ProfileAggregates.OperationStats> operations,
+                                   List<ProfileAggregates.AllocationSite> allocations) {
+    }
+
+    // like the heap dump of the actuator: read as stream, deleted when the stream is closed
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private final Path file;
+
+        private TemporaryFileResource(Path file) {
+            super(file);
+            this.file = file;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+    }
+}
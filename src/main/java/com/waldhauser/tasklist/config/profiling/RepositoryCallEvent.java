@@ -0,0 +1,18 @@
+package com.waldhauser.tasklist.config.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a call of a Spring Data repository method, e.g. {@code TaskRepository.findByOwnerId}.
+ */
+@Name(RepositoryCallEvent.NAME)
+@Label("Repository Call")
+@Category({"Tasklist", "Repository"})
+@StackTrace(false)
+final class RepositoryCallEvent extends CallEvent {
+
+    static final String NAME = "com.waldhauser.tasklist.RepositoryCall";
+}
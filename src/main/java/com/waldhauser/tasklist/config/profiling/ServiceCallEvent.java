@@ -0,0 +1,18 @@
+package com.waldhauser.tasklist.config.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a call of a {@code @Service} method (TaskService, TasklistService, UserService, BatchService).
+ */
+@Name(ServiceCallEvent.NAME)
+@Label("Service Call")
+@Category({"Tasklist", "Service"})
+@StackTrace(false)
+final class ServiceCallEvent extends CallEvent {
+
+    static final String NAME = "com.waldhauser.tasklist.ServiceCall";
+}
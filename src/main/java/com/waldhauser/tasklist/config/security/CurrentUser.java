@@ -0,0 +1,37 @@
+package com.waldhauser.tasklist.config.security;
+
+import com.waldhauser.tasklist.domain.error.NotAuthenticatedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+
+/**
+ * CurrentUser gives the id of the user the {@link JwtAuthenticationFilter} authenticated for the current request.
+ * <p>
+ * A request without a valid token carries the anonymous authentication of Spring Security, or none. The
+ * SecurityConfig answers such requests to the protected endpoints with 401 before they reach a controller; should
+ * one get through anyway, e.g. an endpoint missing in the rules, it fails with the preallocated
+ * {@link NotAuthenticatedException}, 401, instead of parsing the name {@code anonymousUser} as UUID.
+ * <p>
+ * Thread Safety:
+ * - Reads the security context of the calling thread.
+ */
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    /**
+     * @return the id of the authenticated user
+     * @throws NotAuthenticatedException if the request is not authenticated
+     */
+    public static UUID id() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            throw NotAuthenticatedException.INSTANCE;
+        }
+        return UUID.fromString(authentication.getName());
+    }
+}
@@ -1,12 +1,19 @@
 package com.waldhauser.tasklist.config.security;
 
+import com.waldhauser.tasklist.config.heavyhitters.HeavyHitters;
+import com.waldhauser.tasklist.config.metrics.ServerTiming;
+import com.waldhauser.tasklist.config.profiling.JwtVerificationEvent;
 import com.waldhauser.tasklist.config.support.JwtChecker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,6 +24,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The JwtAuthenticationFilter is a custom filter that processes incoming HTTP requests for JWT-based authentication.
@@ -32,9 +40,16 @@ import java.util.UUID;
  * - Extract the user ID from the valid token and populate the SecurityContext with an authenticated
  *   UsernamePasswordAuthenticationToken containing a default ROLE_USER authority.
  * - In case of invalid tokens or exceptions during processing, clear the SecurityContext.
+ * - Times the verification of the token as {@code tasklist.jwt.verify}, tagged with the outcome
+ *   ({@code valid}, {@code invalid}, {@code error}) only, never with the user, and as {@code jwt} phase of the
+ *   {@link ServerTiming} of the request. Emits a {@link JwtVerificationEvent} for Java Flight Recorder.
+ * - Counts the request of an authenticated user in the {@link HeavyHitters} once it completed, with its endpoint
+ *   and DB time.
  * <p>
  * Dependencies:
  * - JwtChecker: Used for verifying the validity of the JWT token and extracting user-related information.
+ * - MeterRegistry: Records the verification timer, a SimpleMeterRegistry is used if none is available.
+ * - HeavyHitters: Counts the requests per user, optional.
  * <p>
  * Usage:
  * This filter should be registered within the Spring Security filter chain using methods such as
@@ -53,14 +68,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private final JwtChecker jwtChecker;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+    private final Timer errorTimer;
+    private final HeavyHitters heavyHitters;
 
     /**
      * Constructs a new JwtAuthenticationFilter with a specified JwtChecker.
      *
      * @param jwtChecker the JwtChecker instance used to validate and parse JWT tokens
+     * @param meterRegistry the registry of the verification timer
+     * @param heavyHitters the counters of the requests per user, none to count nothing
      */
-    public JwtAuthenticationFilter(JwtChecker jwtChecker) {
+    public JwtAuthenticationFilter(JwtChecker jwtChecker, ObjectProvider<MeterRegistry> meterRegistry,
+                                   ObjectProvider<HeavyHitters> heavyHitters) {
         this.jwtChecker = jwtChecker;
+        this.heavyHitters = heavyHitters.getIfAvailable();
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.validTimer = verifyTimer(registry, "valid");
+        this.invalidTimer = verifyTimer(registry, "invalid");
+        this.errorTimer = verifyTimer(registry, "error");
     }
 
     /**
@@ -88,9 +115,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String token = authHeader.substring(7);
 
+        long start = System.nanoTime();
+        Timer outcome = errorTimer;
+        String outcomeName = "error";
+        UUID authenticated = null;
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        ServerTiming.enter(ServerTiming.Phase.JWT);
         try {
             if (jwtChecker.isValid(token)) {
                 UUID userId = jwtChecker.getUserIdFromToken(token);
+                outcome = validTimer;
+                outcomeName = "valid";
 
                 // For simplicity, assign a default ROLE_USER authority
                 List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
@@ -106,17 +142,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 // Set the authentication in the security context
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                authenticated = userId;
 
                 logger.debug("JWT authentication successful for userId: {}", userId);
             } else {
+                outcome = invalidTimer;
+                outcomeName = "invalid";
                 logger.debug("Invalid JWT token");
             }
         } catch (Exception e) {
             logger.error("JWT processing failed: {}", e.getMessage());
             // Optionally clear context or handle exception
             SecurityContextHolder.clearContext();
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.complete(outcomeName);
+            ServerTiming.exit(ServerTiming.Phase.JWT);
         }
 
-        filterChain.doFilter(request, response);
+        if (authenticated == null || heavyHitters == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // after the chain, so the URI template and the DB time of the request are known
+            heavyHitters.record(authenticated, request);
+        }
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("tasklist.jwt.verify")
+                .description("Verification of the JWT of a request")
+                .tag("outcome", outcome)
+                .register(registry);
     }
 }
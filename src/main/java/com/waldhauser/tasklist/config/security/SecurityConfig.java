@@ -1,7 +1,12 @@
 package com.waldhauser.tasklist.config.security;
 
+import jakarta.servlet.DispatcherType;
+import com.waldhauser.tasklist.config.support.AdaptiveConcurrencyLimitFilter;
+import com.waldhauser.tasklist.config.support.BulkheadFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
@@ -17,14 +22,24 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
  * - Configures session management to be stateless, avoiding the use of HTTP sessions.
  * - Sets up authorization rules for various HTTP endpoints:
  *   - Allows access to public endpoints such as authentication (e.g., login, register).
- *   - Requires authentication for protected resources (/task, /tasklist).
+ *   - Requires authentication for protected resources (/task, /tasklist, /batch, /events, /graphql).
+ *   - Permits async dispatches, which only complete a request that was already authorized (SSE streams).
  *   - Permits access to all other unspecified endpoints.
+ * - Answers requests to protected resources without a valid token with 401 Unauthorized and
+ *   {@code WWW-Authenticate: Bearer}, written directly. The default entry point answered 403 through
+ *   {@code sendError}, which dispatched every rejected request a second time through the filter chain to the
+ *   /error page.
  * - Integrates the JwtAuthenticationFilter for processing JWT-based authentication before the default
  *   UsernamePasswordAuthenticationFilter.
+ * - Puts the AdaptiveConcurrencyLimitFilter in front of the JwtAuthenticationFilter, so requests over the
+ *   concurrency limit are rejected before any work is done for them.
+ * - Puts the BulkheadFilter between the two, so auth, read and write traffic run in separate bounded lanes.
  * <p>
  * Dependencies:
  * - JwtAuthenticationFilter: A custom filter responsible for validating and processing JWT tokens
  *   provided with incoming requests.
+ * - AdaptiveConcurrencyLimitFilter: Admission control, rejects excess requests with 503.
+ * - BulkheadFilter: Bulkhead isolation of auth, read and write traffic, rejects requests of a saturated lane with 503.
  * <p>
  * Thread Safety:
  * This class relies on Spring Framework's configuration management and is inherently thread-safe.
@@ -33,6 +48,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final AdaptiveConcurrencyLimitFilter adaptiveConcurrencyLimitFilter;
+    private final BulkheadFilter bulkheadFilter;
 
     /**
      * Constructs a new SecurityConfig instance with the specified JwtAuthenticationFilter.
@@ -40,9 +57,15 @@ public class SecurityConfig {
      * within the Spring Security filter chain.
      *
      * @param jwtAuthenticationFilter the JwtAuthenticationFilter instance to be integrated into the security configuration
+     * @param adaptiveConcurrencyLimitFilter the admission control filter running before the BulkheadFilter
+     * @param bulkheadFilter the bulkhead filter running before the JwtAuthenticationFilter
      */
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                          AdaptiveConcurrencyLimitFilter adaptiveConcurrencyLimitFilter,
+                          BulkheadFilter bulkheadFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.adaptiveConcurrencyLimitFilter = adaptiveConcurrencyLimitFilter;
+        this.bulkheadFilter = bulkheadFilter;
     }
 
     /**
@@ -67,13 +90,28 @@ public class SecurityConfig {
 
                 // Define URL authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Completion of authorized streams
                         .requestMatchers("/auth/**").permitAll()   // Public endpoints (login, register)
-                        .requestMatchers("/task/**", "/tasklist/**").authenticated() // Protected endpoints
+                        .requestMatchers("/task/**", "/tasklist/**", "/batch/**", "/events/**", "/graphql").authenticated() // Protected endpoints
                         .anyRequest().permitAll() // Other endpoints accessible without auth
                 )
 
+                // 401 with the bearer challenge, without an error dispatch
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint((request, response, authException) -> {
+                            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+                            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                        })
+                )
+
                 // Add JWT filter before Spring Security's username/password filter
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+
+                // Run auth, read and write requests in separate bounded lanes before the JWT is verified
+                .addFilterBefore(bulkheadFilter, JwtAuthenticationFilter.class)
+
+                // Reject requests over the adaptive concurrency limit before they enter a lane
+                .addFilterBefore(adaptiveConcurrencyLimitFilter, BulkheadFilter.class);
 
         return http.build();
     }
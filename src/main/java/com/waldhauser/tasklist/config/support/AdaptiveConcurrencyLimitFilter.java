@@ -0,0 +1,173 @@
+package com.waldhauser.tasklist.config.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * The AdaptiveConcurrencyLimitFilter is an admission control filter in front of the API. It limits the number of
+ * requests in flight to what the application and Postgres can currently sustain and fast-fails the excess
+ * with {@code 503 Service Unavailable} and a {@code Retry-After} header, instead of letting requests pile up
+ * on Tomcat threads while the database is slow.
+ * <p>
+ * Responsibilities:
+ * - Classifies requests as reads (GET, HEAD, OPTIONS) or writes (everything else), each with its own
+ *   {@link AdaptiveLimit}, so a backlog of slow writes does not starve reads and vice versa.
+ * - Learns the limits from the observed latency of the admitted requests. Responses with a 5xx status or
+ *   exceptions count as overload. Client errors (4xx, e.g. a 401 of the JWT filter) are mostly answered without
+ *   the database and do not feed the latency signal.
+ * - Exports the gauges {@code tasklist.limiter.limit} and {@code tasklist.limiter.inflight} and the counter
+ *   {@code tasklist.limiter.rejected}, tagged with {@code class=read|write}.
+ * <p>
+ * The filter runs before the JwtAuthenticationFilter (see SecurityConfig), rejected requests do not pay for
+ * the JWT verification. Long-lived event streams, actuator and API docs are not limited.
+ * <p>
+ * Configuration ({@code app.limiter.*}): {@code enabled}, {@code read.initial/min/max},
+ * {@code write.initial/min/max}, {@code tolerance}, {@code backoff}, {@code probe-interval}, {@code retry-after-seconds}.
+ * <p>
+ * Thread Safety:
+ * - The filter is thread-safe, all state lives in the thread-safe AdaptiveLimit instances.
+ */
+@Component
+public class AdaptiveConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimitFilter.class);
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final Set<String> UNLIMITED_PREFIXES = Set.of("/events", "/actuator", "/v3/api-docs", "/swagger-ui");
+
+    private final boolean enabled;
+    private final AdaptiveLimit readLimit;
+    private final AdaptiveLimit writeLimit;
+    private final String retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final Counter readRejected;
+    private final Counter writeRejected;
+
+    @Autowired
+    public AdaptiveConcurrencyLimitFilter(@Value("${app.limiter.enabled:true}") boolean enabled,
+                                          @Value("${app.limiter.read.initial:20}") int readInitial,
+                                          @Value("${app.limiter.read.min:4}") int readMin,
+                                          @Value("${app.limiter.read.max:200}") int readMax,
+                                          @Value("${app.limiter.write.initial:10}") int writeInitial,
+                                          @Value("${app.limiter.write.min:2}") int writeMin,
+                                          @Value("${app.limiter.write.max:100}") int writeMax,
+                                          @Value("${app.limiter.tolerance:2.0}") double tolerance,
+                                          @Value("${app.limiter.backoff:0.9}") double backoff,
+                                          @Value("${app.limiter.probe-interval:1000}") int probeInterval,
+                                          @Value("${app.limiter.retry-after-seconds:1}") int retryAfterSeconds,
+                                          ObjectMapper objectMapper,
+                                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this(enabled,
+                new AdaptiveLimit(readInitial, readMin, readMax, tolerance, backoff, probeInterval),
+                new AdaptiveLimit(writeInitial, writeMin, writeMax, tolerance, backoff, probeInterval),
+                retryAfterSeconds, objectMapper, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * Constructs the filter with given limits, e.g. for tests.
+     *
+     * @param enabled false to let every request pass
+     * @param readLimit the limit of GET, HEAD and OPTIONS requests
+     * @param writeLimit the limit of all other requests
+     * @param retryAfterSeconds the value of the Retry-After header of rejected requests
+     * @param objectMapper the ObjectMapper writing the error body
+     * @param meterRegistry the registry of the limiter metrics
+     */
+    public AdaptiveConcurrencyLimitFilter(boolean enabled, AdaptiveLimit readLimit, AdaptiveLimit writeLimit,
+                                          int retryAfterSeconds, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        this.objectMapper = objectMapper;
+        this.readRejected = register(meterRegistry, "read", readLimit);
+        this.writeRejected = register(meterRegistry, "write", writeLimit);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return UNLIMITED_PREFIXES.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean read = isRead(request);
+        AdaptiveLimit limit = read ? readLimit : writeLimit;
+
+        if (!limit.tryAcquire()) {
+            (read ? readRejected : writeRejected).increment();
+            logger.debug("Rejected {} {}, {} of {} in flight", request.getMethod(), request.getRequestURI(),
+                    limit.getInFlight(), limit.getLimit());
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            if (status >= 400 && status < 500) {
+                limit.releaseWithoutSample();
+            } else {
+                limit.release(start, status >= 500);
+            }
+        }
+    }
+
+    /**
+     * Classifies a request as read (GET, HEAD, OPTIONS), shared with the {@link BulkheadFilter} lanes.
+     */
+    static boolean isRead(HttpServletRequest request) {
+        return READ_METHODS.contains(request.getMethod());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new RestResponseEntityExceptionHandler.ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(), HttpStatus.SERVICE_UNAVAILABLE.name(), "Server is overloaded, retry later"));
+    }
+
+    private static Counter register(MeterRegistry registry, String requestClass, AdaptiveLimit limit) {
+        Gauge.builder("tasklist.limiter.limit", limit, AdaptiveLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("class", requestClass)
+                .register(registry);
+        Gauge.builder("tasklist.limiter.inflight", limit, AdaptiveLimit::getInFlight)
+                .description("Requests currently in flight")
+                .tag("class", requestClass)
+                .register(registry);
+        return Counter.builder("tasklist.limiter.rejected")
+                .description("Requests rejected with 503 by the concurrency limiter")
+                .tag("class", requestClass)
+                .register(registry);
+    }
+}
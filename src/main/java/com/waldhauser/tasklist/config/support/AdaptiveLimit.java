@@ -0,0 +1,169 @@
+package com.waldhauser.tasklist.config.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * AdaptiveLimit is a concurrency limit that learns the sustainable number of in-flight requests from the
+ * observed latency, in the style of TCP congestion control (AIMD).
+ * <p>
+ * Algorithm:
+ * - The no-load latency is measured by probing: the limit drops to {@code minLimit} until the requests in
+ *   flight have drained, and the latency of the next requests is taken as the no-load latency. The first probe
+ *   runs on the first requests, later ones every {@code probeInterval} samples, so a limiter starting under
+ *   overload or a database that got permanently slower does not leave it with a wrong baseline. Samples between
+ *   probes never lower the no-load latency, so a share of cheap requests cannot sink the baseline and with it
+ *   the limit.
+ * - A sample slower than {@code tolerance} times the no-load latency, or a failed request, signals queueing:
+ *   the limit is multiplied by {@code backoff}, at most once per no-load latency.
+ * - Otherwise, while the limit is actually used (at least half of it in flight), it grows by
+ *   {@code 1 / limit} per sample, i.e. by about one per round trip.
+ * - The limit stays between {@code minLimit} and {@code maxLimit}.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. Acquiring is lock-free, the limit update on release is synchronized.
+ */
+public class AdaptiveLimit {
+
+    private static final int PROBE_SAMPLES = 3;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoff;
+    private final int probeInterval;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private long noLoadRtt = Long.MAX_VALUE;
+    private long lastDecreaseNanos;
+    private int samplesSinceProbe;
+    private boolean probing = true;
+    private long drainedAtNanos;
+    private int probeSamples;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoff, int probeInterval) {
+        this(initialLimit, minLimit, maxLimit, tolerance, backoff, probeInterval, System::nanoTime);
+    }
+
+    /**
+     * Constructs the limit with a given clock, e.g. for tests.
+     *
+     * @param initialLimit the limit until the first decrease or increase
+     * @param minLimit the lowest limit, used while probing
+     * @param maxLimit the highest limit
+     * @param tolerance the factor by which a sample may exceed the no-load latency before it signals queueing
+     * @param backoff the factor the limit is multiplied by on queueing
+     * @param probeInterval the number of samples between two probes
+     * @param clock the current time in nanoseconds, the clock of the start times passed to {@link #release}
+     */
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoff,
+                         int probeInterval, LongSupplier clock) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.probeInterval = probeInterval;
+        this.clock = clock;
+        this.estimatedLimit = initialLimit;
+        this.limit = minLimit;
+    }
+
+    /**
+     * Takes an in-flight slot if the limit allows it.
+     *
+     * @return true if the request may proceed and {@link #release} has to be called, false if it has to be rejected
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot of a finished request and updates the limit from its latency.
+     *
+     * @param startNanos the time of the clock, by default {@link System#nanoTime()}, at which the request was admitted
+     * @param failed true if the request failed in a way indicating overload (5xx, timeouts)
+     */
+    public void release(long startNanos, boolean failed) {
+        long now = clock.getAsLong();
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        update(startNanos, now, failed, inFlightAtRelease);
+    }
+
+    /**
+     * Frees the slot of a finished request without taking its latency as a sample, for requests whose latency
+     * says nothing about the load, e.g. client errors answered before the database was asked.
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void update(long startNanos, long now, boolean failed, int inFlightAtRelease) {
+        long rtt = now - startNanos;
+
+        if (probing) {
+            probe(startNanos, now, rtt, failed, inFlightAtRelease);
+            return;
+        }
+
+        if (failed || rtt > noLoadRtt * tolerance) {
+            if (now - lastDecreaseNanos >= noLoadRtt) {
+                estimatedLimit = Math.max(minLimit, estimatedLimit * backoff);
+                lastDecreaseNanos = now;
+            }
+        } else if (inFlightAtRelease * 2 >= estimatedLimit) {
+            estimatedLimit = Math.min(maxLimit, estimatedLimit + 1.0 / estimatedLimit);
+        }
+
+        if (++samplesSinceProbe >= probeInterval) {
+            probing = true;
+            drainedAtNanos = 0;
+            probeSamples = 0;
+            limit = minLimit;
+        } else {
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    // only requests admitted after the backlog drained measure the no-load latency
+    private void probe(long startNanos, long now, long rtt, boolean failed, int inFlightAtRelease) {
+        if (drainedAtNanos == 0) {
+            if (inFlightAtRelease - 1 <= minLimit) {
+                drainedAtNanos = now;
+            }
+            return;
+        }
+        if (startNanos < drainedAtNanos || failed) {
+            return;
+        }
+        noLoadRtt = probeSamples == 0 ? rtt : Math.min(noLoadRtt, rtt);
+        if (++probeSamples >= PROBE_SAMPLES) {
+            probing = false;
+            samplesSinceProbe = 0;
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,88 @@
+package com.waldhauser.tasklist.config.support;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead is a bounded execution lane: at most {@code maxConcurrent} callers run at the same time, at most
+ * {@code maxWaiting} further callers wait for a slot, each for at most {@code maxWaitMillis}. Everybody else is
+ * turned away immediately.
+ * <p>
+ * The lane is counted in permits, not in dedicated threads, so it works the same way with Tomcat's platform
+ * threads and with virtual threads. With platform threads the waiting callers still hold their Tomcat thread,
+ * the sum of {@code maxConcurrent + maxWaiting} over all lanes should stay below {@code server.tomcat.threads.max}.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe, it is built on a fair Semaphore and an atomic waiting counter.
+ */
+public class Bulkhead {
+
+    /**
+     * The outcome of {@link #tryEnter()}.
+     */
+    public enum Admission { ADMITTED, QUEUE_FULL, TIMED_OUT }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWaitMillis;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public Bulkhead(String name, int maxConcurrent, int maxWaiting, long maxWaitMillis) {
+        if (maxConcurrent < 1 || maxWaiting < 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("invalid bulkhead limits for " + name);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Enters the lane, waiting for a slot if the lane is busy but its queue is not full.
+     * {@link #exit()} has to be called after an {@code ADMITTED} outcome.
+     *
+     * @return whether the caller was admitted, and why not otherwise
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Admission tryEnter() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return Admission.ADMITTED;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            return Admission.QUEUE_FULL;
+        }
+        try {
+            return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS) ? Admission.ADMITTED : Admission.TIMED_OUT;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Leaves the lane, freeing the slot for the next caller.
+     */
+    public void exit() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+}
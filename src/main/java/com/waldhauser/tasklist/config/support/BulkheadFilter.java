@@ -0,0 +1,196 @@
+package com.waldhauser.tasklist.config.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BulkheadFilter isolates the traffic of the UserController, TaskController and TasklistController into
+ * three bounded lanes, so one kind of traffic cannot take all Tomcat threads from the others: a flood of slow
+ * reads does not block logins, and a login storm does not block reads.
+ * <p>
+ * Lanes:
+ * - auth: {@code /auth/**} (login, register).
+ * - read: {@code GET}, {@code HEAD} and {@code OPTIONS} on {@code /task/**} and {@code /tasklist/**}, the same
+ *   read methods as the {@link AdaptiveConcurrencyLimitFilter}, and {@code /graphql}.
+ * - write: all other methods on {@code /task/**} and {@code /tasklist/**}, and {@code /batch}.
+ * <p>
+ * Each lane is a {@link Bulkhead} configured with {@code app.bulkhead.<lane>.max-concurrent},
+ * {@code .max-waiting} and {@code .max-wait-ms}. Requests finding the lane and its queue full, or waiting
+ * longer than allowed, get {@code 503 Service Unavailable} with {@code Retry-After}. {@code app.bulkhead.enabled=false}
+ * switches the filter off.
+ * <p>
+ * Metrics, tagged with {@code lane}: the gauges {@code tasklist.bulkhead.active}, {@code tasklist.bulkhead.waiting}
+ * and {@code tasklist.bulkhead.max}, the timer {@code tasklist.bulkhead.wait} and the counter
+ * {@code tasklist.bulkhead.rejected} (tag {@code reason=queue-full|timeout}), all registered once per lane.
+ * <p>
+ * Thread Safety:
+ * - The filter is thread-safe, all state lives in the thread-safe Bulkhead instances.
+ */
+@Component
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    /**
+     * The execution lanes of the API.
+     */
+    public enum Lane { AUTH, READ, WRITE }
+
+    private final boolean enabled;
+    private final Map<Lane, Bulkhead> bulkheads;
+    private final String retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final Map<Lane, LaneMeters> meters = new EnumMap<>(Lane.class);
+
+    @Autowired
+    public BulkheadFilter(@Value("${app.bulkhead.enabled:true}") boolean enabled,
+                          @Value("${app.bulkhead.auth.max-concurrent:20}") int authMaxConcurrent,
+                          @Value("${app.bulkhead.auth.max-waiting:20}") int authMaxWaiting,
+                          @Value("${app.bulkhead.auth.max-wait-ms:500}") long authMaxWaitMs,
+                          @Value("${app.bulkhead.read.max-concurrent:60}") int readMaxConcurrent,
+                          @Value("${app.bulkhead.read.max-waiting:40}") int readMaxWaiting,
+                          @Value("${app.bulkhead.read.max-wait-ms:1000}") long readMaxWaitMs,
+                          @Value("${app.bulkhead.write.max-concurrent:40}") int writeMaxConcurrent,
+                          @Value("${app.bulkhead.write.max-waiting:20}") int writeMaxWaiting,
+                          @Value("${app.bulkhead.write.max-wait-ms:1000}") long writeMaxWaitMs,
+                          @Value("${app.bulkhead.retry-after-seconds:1}") int retryAfterSeconds,
+                          ObjectMapper objectMapper,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this(enabled,
+                Map.of(Lane.AUTH, new Bulkhead("auth", authMaxConcurrent, authMaxWaiting, authMaxWaitMs),
+                        Lane.READ, new Bulkhead("read", readMaxConcurrent, readMaxWaiting, readMaxWaitMs),
+                        Lane.WRITE, new Bulkhead("write", writeMaxConcurrent, writeMaxWaiting, writeMaxWaitMs)),
+                retryAfterSeconds, objectMapper, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * Constructs the filter with given bulkheads, e.g. for tests.
+     *
+     * @param enabled false to let every request pass
+     * @param bulkheads the bulkhead of every lane
+     * @param retryAfterSeconds the value of the Retry-After header of rejected requests
+     * @param objectMapper the ObjectMapper writing the error body
+     * @param meterRegistry the registry of the bulkhead metrics
+     */
+    public BulkheadFilter(boolean enabled, Map<Lane, Bulkhead> bulkheads, int retryAfterSeconds,
+                          ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.bulkheads = new EnumMap<>(bulkheads);
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        this.objectMapper = objectMapper;
+        this.bulkheads.forEach((lane, bulkhead) -> meters.put(lane, register(meterRegistry, bulkhead)));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || lane(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Lane lane = lane(request);
+        Bulkhead bulkhead = bulkheads.get(lane);
+        LaneMeters laneMeters = meters.get(lane);
+
+        long start = System.nanoTime();
+        Bulkhead.Admission admission;
+        try {
+            admission = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admission = Bulkhead.Admission.TIMED_OUT;
+        }
+        laneMeters.waitTime().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (admission != Bulkhead.Admission.ADMITTED) {
+            (admission == Bulkhead.Admission.QUEUE_FULL ? laneMeters.queueFull() : laneMeters.timedOut()).increment();
+            reject(response, bulkhead);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.exit();
+        }
+    }
+
+    private static Lane lane(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/auth/")) {
+            return Lane.AUTH;
+        }
+        if (path.equals("/graphql")) {
+            return Lane.READ;
+        }
+        if (path.equals("/batch")) {
+            return Lane.WRITE;
+        }
+        if (path.startsWith("/task/") || path.startsWith("/tasklist/")) {
+            return AdaptiveConcurrencyLimitFilter.isRead(request) ? Lane.READ : Lane.WRITE;
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, Bulkhead bulkhead) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new RestResponseEntityExceptionHandler.ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(), HttpStatus.SERVICE_UNAVAILABLE.name(),
+                "Too many " + bulkhead.getName() + " requests, retry later"));
+    }
+
+    private static LaneMeters register(MeterRegistry meterRegistry, Bulkhead bulkhead) {
+        Gauge.builder("tasklist.bulkhead.active", bulkhead, Bulkhead::getActive)
+                .description("Requests running in the lane")
+                .tag("lane", bulkhead.getName())
+                .register(meterRegistry);
+        Gauge.builder("tasklist.bulkhead.waiting", bulkhead, Bulkhead::getWaiting)
+                .description("Requests waiting for a slot in the lane")
+                .tag("lane", bulkhead.getName())
+                .register(meterRegistry);
+        Gauge.builder("tasklist.bulkhead.max", bulkhead, Bulkhead::getMaxConcurrent)
+                .description("Maximum number of requests running in the lane")
+                .tag("lane", bulkhead.getName())
+                .register(meterRegistry);
+        Timer waitTime = Timer.builder("tasklist.bulkhead.wait")
+                .description("Time spent waiting for a slot in the lane")
+                .tag("lane", bulkhead.getName())
+                .register(meterRegistry);
+        return new LaneMeters(waitTime, rejected(meterRegistry, bulkhead, "queue-full"),
+                rejected(meterRegistry, bulkhead, "timeout"));
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, Bulkhead bulkhead, String reason) {
+        return Counter.builder("tasklist.bulkhead.rejected")
+                .description("Requests rejected because their lane was saturated")
+                .tag("lane", bulkhead.getName())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record LaneMeters(Timer waitTime, Counter queueFull, Counter timedOut) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.waldhauser.tasklist.config.support;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ConcurrencyLimitingDataSource is a DataSource wrapper that limits the number of JDBC connections
+ * which can be in use at the same time, independently of the number of request threads.
+ * <p>
+ * With virtual threads every request gets its own thread, so the amount of threads no longer
+ * protects Postgres. This wrapper hands out at most {@code maxConcurrency} connections and lets
+ * other callers wait (fairly) for a free permit. If no permit becomes available within the
+ * acquire timeout, a {@link SQLTransientConnectionException} is thrown instead of queueing forever.
+ * <p>
+ * Responsibilities:
+ * - Acquires a permit before a connection is taken from the delegate (usually the Hikari pool).
+ * - Releases the permit exactly once when the connection is closed, or when getConnection fails.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe, all state is kept in a fair {@link Semaphore}.
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutMs;
+
+    /**
+     * Constructs a new ConcurrencyLimitingDataSource around the given DataSource.
+     *
+     * @param targetDataSource the DataSource connections are taken from
+     * @param maxConcurrency the maximum number of connections in use at the same time
+     * @param acquireTimeoutMs how long a caller waits for a free permit before failing, in milliseconds
+     */
+    public ConcurrencyLimitingDataSource(DataSource targetDataSource, int maxConcurrency, long acquireTimeoutMs) {
+        super(targetDataSource);
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the number of connections which are currently handed out.
+     *
+     * @return the number of connections in use
+     */
+    public int getInUse() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Retrieves the number of callers waiting for a free permit.
+     *
+     * @return the approximate number of waiting callers
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Retrieves the configured maximum number of connections in use at the same time.
+     *
+     * @return the concurrency limit
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "JDBC concurrency limit of " + maxConcurrency + " reached, no connection within " + acquireTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a JDBC connection", e);
+        }
+    }
+
+    // wraps the connection so that close() gives the permit back, exactly once
+    private Connection limited(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                ConcurrencyLimitingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    if ("unwrap".equals(method.getName()) && Connection.class.equals(args[0])) {
+                        return proxy;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
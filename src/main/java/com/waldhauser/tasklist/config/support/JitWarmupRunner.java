@@ -0,0 +1,233 @@
+package com.waldhauser.tasklist.config.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waldhauser.tasklist.domain.model.Task;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.domain.model.User;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import com.waldhauser.tasklist.service.api.TaskService;
+import com.waldhauser.tasklist.service.api.TasklistService;
+import com.waldhauser.tasklist.service.support.KnownIds;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JitWarmupRunner exercises the hot paths of the task API before the application reports ready, so the first
+ * real requests after a deployment do not run in the interpreter.
+ * <p>
+ * Responsibilities:
+ * - Runs as an ApplicationRunner. Spring Boot switches readiness to ACCEPTING_TRAFFIC only after all runners
+ *   finished, so {@code /actuator/health/readiness} stays down during the warm-up while Tomcat is already up.
+ * - Creates a synthetic owner with a tasklist of {@code app.warmup.tasks} tasks inside a transaction that is
+ *   rolled back at the end, nothing is left in the database. The synthetic task is never committed, so the
+ *   runner adds its id to the {@link KnownIds} itself, again in every iteration, as the rebuild of the filters at
+ *   startup may replace them during the warm-up.
+ * - Every iteration signs and verifies a JWT (JwtMaker, JwtChecker), reads the tasks and tasklists of the
+ *   synthetic owner through TaskService and TasklistService (repository queries, entity hydration, DTO mapping)
+ *   and serializes the TaskResponse and TasklistResponse lists with the application's ObjectMapper.
+ * - Stops after {@code app.warmup.iterations} iterations or when {@code app.warmup.budget-ms} is used up,
+ *   whichever comes first. A failing warm-up (e.g. database not reachable) is logged and does not block startup.
+ * - Reports the effect: the time per iteration of the first and the last round and the JIT compilation time
+ *   spent meanwhile, in the log and as the gauges {@code tasklist.warmup.iterations},
+ *   {@code tasklist.warmup.duration}, {@code tasklist.warmup.first.round} and {@code tasklist.warmup.last.round}.
+ * <p>
+ * The warm-up is off unless {@code app.warmup.enabled=true}. The flag is read at runtime, it works the same with
+ * an AOT-processed context.
+ * <p>
+ * Thread Safety:
+ * - The runner runs once on the main thread during startup, the report is published through a volatile field.
+ */
+@Component
+public class JitWarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(JitWarmupRunner.class);
+    private static final int ROUNDS = 20;
+
+    private final boolean enabled;
+    private final int iterations;
+    private final long budgetMs;
+    private final int tasks;
+    private final JwtMaker jwtMaker;
+    private final JwtChecker jwtChecker;
+    private final TaskService taskService;
+    private final TasklistService tasklistService;
+    private final TaskRepository taskRepository;
+    private final TasklistRepository tasklistRepository;
+    private final KnownIds knownIds;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private volatile WarmupReport report;
+
+    public JitWarmupRunner(@Value("${app.warmup.enabled:false}") boolean enabled,
+                           @Value("${app.warmup.iterations:10000}") int iterations,
+                           @Value("${app.warmup.budget-ms:30000}") long budgetMs,
+                           @Value("${app.warmup.tasks:20}") int tasks,
+                           JwtMaker jwtMaker, JwtChecker jwtChecker,
+                           TaskService taskService, TasklistService tasklistService,
+                           TaskRepository taskRepository, TasklistRepository tasklistRepository,
+                           KnownIds knownIds, EntityManager entityManager, ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.budgetMs = budgetMs;
+        this.tasks = tasks;
+        this.jwtMaker = jwtMaker;
+        this.jwtChecker = jwtChecker;
+        this.taskService = taskService;
+        this.tasklistService = tasklistService;
+        this.taskRepository = taskRepository;
+        this.tasklistRepository = tasklistRepository;
+        this.knownIds = knownIds;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || iterations < 1) {
+            return;
+        }
+        try {
+            report = transactionTemplate.execute(status -> {
+                // the synthetic data is never committed
+                status.setRollbackOnly();
+                return warmUp();
+            });
+            registerGauges(report);
+            logger.info("JIT warm-up: {} iterations in {} ms{}, {} us per iteration in the first round, {} us in the last ({}x), {} ms JIT compilation",
+                    report.iterations(), report.durationMillis(), report.budgetExhausted() ? " (time budget used up)" : "",
+                    Math.round(report.firstRoundMicros()), Math.round(report.lastRoundMicros()),
+                    String.format("%.1f", report.firstRoundMicros() / report.lastRoundMicros()), report.compilationMillis());
+        } catch (RuntimeException e) {
+            logger.warn("JIT warm-up failed, starting without it: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the result of the warm-up.
+     *
+     * @return the report of the finished warm-up, or null if it is disabled, failed or did not run yet
+     */
+    public WarmupReport getReport() {
+        return report;
+    }
+
+    private WarmupReport warmUp() {
+        UUID ownerId = UUID.randomUUID();
+        Tasklist tasklist = tasklistRepository.save(new Tasklist(ownerId, "Warm-up", "Synthetic tasklist of the JIT warm-up", new ArrayList<>()));
+        UUID taskId = null;
+        for (int i = 0; i < Math.max(1, tasks); i++) {
+            taskId = taskRepository.save(new Task(tasklist, ownerId, "Warm-up task " + i, "Synthetic task of the JIT warm-up")).getId();
+        }
+        entityManager.flush();
+        User user = new User(ownerId, "warm-up", null);
+
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        boolean compilationTimed = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        long compilationStart = compilationTimed ? compilation.getTotalCompilationTime() : 0;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        int roundSize = Math.max(1, iterations / ROUNDS);
+
+        int done = 0;
+        double firstRound = 0;
+        double lastRound = 0;
+        boolean budgetExhausted = false;
+        while (done < iterations && !budgetExhausted) {
+            long roundStart = System.nanoTime();
+            int n = 0;
+            while (n < roundSize && done + n < iterations) {
+                iteration(user, ownerId, taskId);
+                n++;
+                if (System.nanoTime() - deadline >= 0) {
+                    budgetExhausted = done + n < iterations;
+                    break;
+                }
+            }
+            done += n;
+            lastRound = (System.nanoTime() - roundStart) / 1000.0 / n;
+            if (firstRound == 0) {
+                firstRound = lastRound;
+            }
+        }
+
+        long compilationMillis = compilationTimed ? compilation.getTotalCompilationTime() - compilationStart : -1;
+        return new WarmupReport(ownerId, done, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                firstRound, lastRound, compilationMillis, budgetExhausted);
+    }
+
+    private void iteration(User user, UUID ownerId, UUID taskId) {
+        String token = jwtMaker.generateToken(user);
+        if (!jwtChecker.isValid(token) || !ownerId.equals(jwtChecker.getUserIdFromToken(token))) {
+            throw new IllegalStateException("warm-up token not accepted");
+        }
+        // every iteration loads and maps the entities again, like a new request
+        entityManager.clear();
+        knownIds.addTask(taskId);
+        try {
+            objectMapper.writeValueAsBytes(taskService.getAllTasksByOwnerId(ownerId));
+            objectMapper.writeValueAsBytes(taskService.getTaskById(taskId, ownerId).orElseThrow());
+            objectMapper.writeValueAsBytes(tasklistService.getAllTasklistsByOwnerId(ownerId));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void registerGauges(WarmupReport report) {
+        Gauge.builder("tasklist.warmup.iterations", report, WarmupReport::iterations)
+                .description("Iterations of the JIT warm-up before readiness")
+                .register(meterRegistry);
+        Gauge.builder("tasklist.warmup.duration", report, WarmupReport::durationMillis)
+                .description("Duration of the JIT warm-up")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("tasklist.warmup.first.round", report, WarmupReport::firstRoundMicros)
+                .description("Time per warm-up iteration in the first round")
+                .baseUnit("microseconds")
+                .register(meterRegistry);
+        Gauge.builder("tasklist.warmup.last.round", report, WarmupReport::lastRoundMicros)
+                .description("Time per warm-up iteration in the last round")
+                .baseUnit("microseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The result of the warm-up.
+     *
+     * @param ownerId the synthetic owner, its data was rolled back
+     * @param iterations the number of iterations run
+     * @param durationMillis the duration of the iterations
+     * @param firstRoundMicros the time per iteration in the first round
+     * @param lastRoundMicros the time per iteration in the last round
+     * @param compilationMillis the JIT compilation time during the warm-up, -1 if not supported by the JVM
+     * @param budgetExhausted true if the time budget ended the warm-up
+     */
+    public record WarmupReport(UUID ownerId, int iterations, long durationMillis, double firstRoundMicros,
+                               double lastRoundMicros, long compilationMillis, boolean budgetExhausted) {
+    }
+}
@@ -1,10 +1,16 @@
 package com.waldhauser.tasklist.config.support;
 
+import com.waldhauser.tasklist.domain.error.DomainException;
+import com.waldhauser.tasklist.domain.error.NotAuthenticatedException;
+import com.waldhauser.tasklist.domain.error.NotFoundException;
+import com.waldhauser.tasklist.service.support.RepositoryGuard;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
@@ -15,13 +21,20 @@ import java.time.LocalDateTime;
 /**
  * RestResponseEntityExceptionHandler is a global exception handler for REST APIs, extending
  * Spring's ResponseEntityExceptionHandler. It provides a centralized way to handle and format
- * exceptions, specifically for cases where method arguments fail validation.
+ * exceptions, specifically for cases where method arguments fail validation, a domain error occurs or the database
+ * is unavailable.
  * <p>
  * Responsibilities:
  * - Overrides and customizes the behavior of the handleMethodArgumentNotValid method
  *   to handle MethodArgumentNotValidException, which is thrown when a request's validation fails.
  * - Constructs a response payload containing error details, including a timestamp, HTTP status code,
  *   error type, and validation failure message, and returns it with the appropriate HTTP status.
+ * - Maps the DatabaseUnavailableException of the open repository circuit breaker to 503 Service Unavailable
+ *   with a Retry-After header.
+ * - Maps the {@link DomainException}s, the stackless preallocated errors thrown by controllers and services, to
+ *   their status codes: {@link NotFoundException} to 404 Not Found, {@link NotAuthenticatedException} to
+ *   401 Unauthorized with {@code WWW-Authenticate: Bearer}. The hierarchy is sealed, so a new domain error does not
+ *   compile without its mapping here. EntityNotFoundException of JPA itself maps to 404 as well.
  * <p>
  * Thread Safety:
  * - This class is stateless and thread-safe, relying on Spring's built-in exception handling mechanisms.
@@ -53,6 +66,55 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
         return new ResponseEntity(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles `DatabaseUnavailableException` thrown while the repository circuit breaker is open.
+     * The Retry-After header tells the client when the breaker lets the next call through.
+     *
+     * @param ex the exception carrying the remaining open time of the breaker
+     * @return a `ResponseEntity` containing the error response and the `SERVICE_UNAVAILABLE` status
+     */
+    @ExceptionHandler(RepositoryGuard.DatabaseUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleDatabaseUnavailable(RepositoryGuard.DatabaseUnavailableException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.name(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (ex.getRetryAfterMillis() + 999) / 1000)))
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles the domain errors thrown for requests of clients, e.g. a scanner trying random ids. The exceptions
+     * are preallocated and stackless, so the error path costs no more than a successful response.
+     *
+     * @param ex the domain error
+     * @return a `ResponseEntity` containing the error response and the status of the error
+     */
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<ErrorResponse> handleDomainException(DomainException ex) {
+        return switch (ex) {
+            case NotFoundException notFound -> error(HttpStatus.NOT_FOUND, notFound.getMessage());
+            case NotAuthenticatedException notAuthenticated -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                    .body(new ErrorResponse(HttpStatus.UNAUTHORIZED.value(), HttpStatus.UNAUTHORIZED.name(),
+                            notAuthenticated.getMessage()));
+        };
+    }
+
+    /**
+     * Handles `EntityNotFoundException` thrown by JPA itself, e.g. for a reference to a row deleted meanwhile.
+     *
+     * @param ex the exception of the persistence provider
+     * @return a `ResponseEntity` containing the error response and the `NOT_FOUND` status
+     */
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleEntityNotFound(EntityNotFoundException ex) {
+        return error(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(new ErrorResponse(status.value(), status.name(), message));
+    }
+
     /**
      * ErrorResponse is a record that encapsulates error details intended for use in
      * error responses in a REST API. It provides a standardized way to represent
@@ -78,7 +140,7 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
      * - The record is immutable, providing thread safety and promoting best practices
      *   for handling error responses in concurrent environments.
      */
-    private record ErrorResponse (
+    record ErrorResponse (
         LocalDateTime timestamp,
         int status,
         String error,
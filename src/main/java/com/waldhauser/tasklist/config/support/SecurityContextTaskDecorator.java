@@ -0,0 +1,37 @@
+package com.waldhauser.tasklist.config.support;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * SecurityContextTaskDecorator copies the Spring Security context of the submitting thread
+ * into tasks executed by the application task executor (e.g. {@code @Async} methods).
+ * <p>
+ * The SecurityContextHolder is ThreadLocal based. Virtual threads are never reused, so a task
+ * running on one would otherwise see no authentication at all. The context is set before the
+ * task runs and always cleared afterwards, so nothing leaks into the next task of a pooled thread.
+ * <p>
+ * Thread Safety:
+ * - The class is stateless and thread-safe.
+ */
+public class SecurityContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        SecurityContext context = SecurityContextHolder.getContext();
+        return () -> {
+            SecurityContext previous = SecurityContextHolder.getContext();
+            try {
+                SecurityContextHolder.setContext(context);
+                runnable.run();
+            } finally {
+                if (previous.getAuthentication() == null) {
+                    SecurityContextHolder.clearContext();
+                } else {
+                    SecurityContextHolder.setContext(previous);
+                }
+            }
+        };
+    }
+}
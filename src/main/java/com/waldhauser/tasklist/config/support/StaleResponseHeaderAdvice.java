@@ -0,0 +1,43 @@
+package com.waldhauser.tasklist.config.support;
+
+import com.waldhauser.tasklist.service.support.RepositoryGuard;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * StaleResponseHeaderAdvice flags response bodies served from a snapshot while the database was unavailable.
+ * <p>
+ * When the RepositoryGuard answered a read from its snapshot, it stores the age of the snapshot in the request
+ * attribute {@link RepositoryGuard#STALE_AGE_ATTRIBUTE}. This advice copies it into the {@code X-Stale-Age}
+ * response header (seconds), before the body is written. Fresh responses carry no such header.
+ * <p>
+ * Thread Safety:
+ * - This class is stateless and thread-safe.
+ */
+@RestControllerAdvice
+public class StaleResponseHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STALE_AGE_HEADER = "X-Stale-Age";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(RepositoryGuard.STALE_AGE_ATTRIBUTE) instanceof Long age) {
+            response.getHeaders().set(STALE_AGE_HEADER, String.valueOf(age));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,114 @@
+package com.waldhauser.tasklist.config.support;
+
+import com.google.protobuf.Message;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+import com.waldhauser.tasklist.rest.proto.ProtobufMapper;
+import com.waldhauser.tasklist.rest.proto.TaskMessageList;
+import com.waldhauser.tasklist.rest.proto.TasklistMessageList;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * TaskProtobufHttpMessageConverter writes the task and tasklist responses as protobuf messages
+ * (see src/main/proto/tasklist.proto) when a client asks for {@code application/x-protobuf}.
+ * <p>
+ * Supported response types:
+ * - {@code TaskResponse} and {@code List<TaskResponse>}
+ * - {@code TasklistResponse}, {@code List<TasklistResponse>} and the {@code Tasklist} entity
+ * <p>
+ * The converter is write-only, requests are still sent as JSON (or CBOR/Smile through Jackson).
+ * <p>
+ * Thread Safety:
+ * - The class is stateless and thread-safe.
+ */
+public class TaskProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public TaskProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    // lists are narrowed down to task and tasklist elements by canWrite(Type, Class, MediaType)
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz)
+                || TaskResponse.class.isAssignableFrom(clazz)
+                || TasklistResponse.class.isAssignableFrom(clazz)
+                || Tasklist.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        ResolvableType resolved = ResolvableType.forType(type != null ? type : clazz);
+        if (List.class.isAssignableFrom(resolved.toClass())) {
+            Class<?> element = resolved.asCollection().resolveGeneric(0);
+            return element != null && (TaskResponse.class.isAssignableFrom(element) || TasklistResponse.class.isAssignableFrom(element));
+        }
+        return supports(resolved.toClass());
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        toMessage(body, type).writeTo(outputMessage.getBody());
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    private Message toMessage(Object body, Type type) {
+        if (body instanceof TaskResponse task) {
+            return ProtobufMapper.toMessage(task);
+        }
+        if (body instanceof TasklistResponse tasklist) {
+            return ProtobufMapper.toMessage(tasklist);
+        }
+        if (body instanceof Tasklist tasklist) {
+            return ProtobufMapper.toMessage(tasklist);
+        }
+        List<?> list = (List<?>) body;
+        Class<?> element = type == null ? null : ResolvableType.forType(type).asCollection().resolveGeneric(0);
+        if (TasklistResponse.class.equals(element)) {
+            TasklistMessageList.Builder builder = TasklistMessageList.newBuilder();
+            list.forEach(tasklist -> builder.addTasklists(ProtobufMapper.toMessage((TasklistResponse) tasklist)));
+            return builder.build();
+        }
+        TaskMessageList.Builder builder = TaskMessageList.newBuilder();
+        list.forEach(task -> builder.addTasks(ProtobufMapper.toMessage((TaskResponse) task)));
+        return builder.build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.waldhauser.tasklist.config.threads;
+
+import com.waldhauser.tasklist.config.support.ConcurrencyLimitingDataSource;
+import com.waldhauser.tasklist.config.support.SecurityContextTaskDecorator;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration class for the thread model of the application.
+ * <p>
+ * The virtual-thread mode is switched on with Spring Boot's {@code spring.threads.virtual.enabled=true}.
+ * Spring Boot then runs Tomcat requests, the application task executor and scheduled tasks on virtual threads.
+ * This class adds the parts Spring Boot does not provide:
+ * - Optionally a {@link ConcurrencyLimitingDataSource} around the JDBC pool. Off by default: the Hikari pool
+ *   already bounds the connections an unlimited number of virtual threads can take, and its
+ *   {@code connection-timeout} bounds their wait. Setting {@code app.jdbc.max-concurrency} below the pool size
+ *   caps the connections in use without resizing the pool, e.g. while the database is degraded, with a separate
+ *   fail-fast wait of {@code app.jdbc.acquire-timeout-ms}.
+ * - A {@link SecurityContextTaskDecorator}, which Spring Boot applies to the application task executor,
+ *   so tasks handed to it (e.g. async MVC request processing) see the authentication of the request that
+ *   started them.
+ * - Scheduling, used for the heartbeat and housekeeping of the event streams.
+ * <p>
+ * Thread Safety:
+ * This class relies on Spring Framework's configuration management and is inherently thread-safe.
+ */
+@Configuration
+@EnableScheduling
+public class ThreadingConfig {
+
+    /**
+     * Provides the task decorator propagating the Spring Security context into async tasks.
+     *
+     * @return the SecurityContextTaskDecorator instance
+     */
+    @Bean
+    public TaskDecorator securityContextTaskDecorator() {
+        return new SecurityContextTaskDecorator();
+    }
+
+    /**
+     * Wraps the application DataSource into a {@link ConcurrencyLimitingDataSource} when virtual threads are enabled
+     * and {@code app.jdbc.max-concurrency} is set.
+     * The method is static so the post processor is registered before the DataSource bean is created.
+     *
+     * @param environment the Spring environment used to read the limiter settings
+     * @return a BeanPostProcessor wrapping every DataSource bean
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                Integer maxConcurrency = environment.getProperty("app.jdbc.max-concurrency", Integer.class);
+                if (maxConcurrency != null && bean instanceof DataSource dataSource
+                        && !(bean instanceof ConcurrencyLimitingDataSource)) {
+                    long acquireTimeoutMs = environment.getProperty("app.jdbc.acquire-timeout-ms", Long.class, 5000L);
+                    return new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
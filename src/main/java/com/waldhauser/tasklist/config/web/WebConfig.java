@@ -0,0 +1,27 @@
+package com.waldhauser.tasklist.config.web;
+
+import com.waldhauser.tasklist.config.support.TaskProtobufHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuration class for Spring MVC.
+ * <p>
+ * Responsibilities:
+ * - Registers the {@link TaskProtobufHttpMessageConverter} for {@code Accept: application/x-protobuf}.
+ * <p>
+ * CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) need no registration,
+ * Spring MVC adds Jackson converters for both because the dataformat modules are on the classpath.
+ * Both formats write UUIDs as 16 raw bytes. JSON stays the default when no Accept header is sent.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new TaskProtobufHttpMessageConverter());
+    }
+}
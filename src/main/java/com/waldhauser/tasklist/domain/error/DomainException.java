@@ -0,0 +1,30 @@
+package com.waldhauser.tasklist.domain.error;
+
+/**
+ * DomainException is the base of the expected errors of the application: outcomes a client can cause on every
+ * request, e.g. by asking for a random id, not faults of the application.
+ * <p>
+ * Responsibilities:
+ * - Carries a fixed message for the client and nothing else: no stack trace, no cause, no suppressed exceptions.
+ *   The stack trace is what makes an exception expensive (it is filled in at construction, for every frame of
+ *   the request thread), and it is never looked at for these errors.
+ * - Since the exceptions are immutable, the subclasses preallocate one instance per message, so throwing one
+ *   allocates nothing.
+ * <p>
+ * The API layers map the subclasses to their status codes in one place each: the
+ * RestResponseEntityExceptionHandler for REST, GrpcCalls for gRPC.
+ * <p>
+ * Thread Safety:
+ * - The exceptions are immutable and shared between threads.
+ */
+public abstract sealed class DomainException extends RuntimeException permits NotAuthenticatedException, NotFoundException {
+
+    /**
+     * Constructs a stackless exception.
+     *
+     * @param message the message for the client
+     */
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
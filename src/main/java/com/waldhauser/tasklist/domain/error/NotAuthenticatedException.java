@@ -0,0 +1,14 @@
+package com.waldhauser.tasklist.domain.error;
+
+/**
+ * Thrown when a request that acts for a user carries no valid token. Mapped to 401 Unauthorized with a
+ * {@code WWW-Authenticate: Bearer} header.
+ */
+public final class NotAuthenticatedException extends DomainException {
+
+    public static final NotAuthenticatedException INSTANCE = new NotAuthenticatedException();
+
+    private NotAuthenticatedException() {
+        super("Authentication required");
+    }
+}
@@ -0,0 +1,16 @@
+package com.waldhauser.tasklist.domain.error;
+
+/**
+ * Thrown when a task or tasklist does not exist or belongs to another owner. The lookups are owner-scoped, so
+ * both cases are the same error and the existence of ids of other users is not revealed. Mapped to
+ * 404 Not Found and gRPC {@code NOT_FOUND}.
+ */
+public final class NotFoundException extends DomainException {
+
+    public static final NotFoundException TASK = new NotFoundException("Task not found");
+    public static final NotFoundException TASKLIST = new NotFoundException("Tasklist not found");
+
+    private NotFoundException(String message) {
+        super(message);
+    }
+}
@@ -28,9 +28,14 @@ import java.util.UUID;
  * - The id field is generated by the database automatically and should not be manually set.
  * - The tasklist association must be valid and non-null to ensure that the task belongs to a
  *   specific task list.
+ * - owner_id and tasklist_id are indexed: every read filters by one of them (findByOwnerId, findByTasklistId),
+ *   and a foreign key column does not get an index of its own in PostgreSQL.
  */
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_owner_id", columnList = "owner_id"),
+        @Index(name = "idx_tasks_tasklist_id", columnList = "tasklist_id")
+})
 public class Task {
 
     @Id
@@ -32,9 +32,10 @@ import java.util.List;
  * - It is important to assign a valid ownerId to associate the task list with a specific user.
  * - All tasks within the task list are managed through the cascade and orphan removal settings,
  *   ensuring that task operations are propagated appropriately when modifying the task list.
+ * - owner_id is indexed, the task lists of a user are always looked up by it (findByOwnerId).
  */
 @Entity
-@Table(name = "tasklists")
+@Table(name = "tasklists", indexes = @Index(name = "idx_tasklists_owner_id", columnList = "owner_id"))
 public class Tasklist {
 
     @Id
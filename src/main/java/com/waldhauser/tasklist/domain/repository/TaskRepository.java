@@ -1,10 +1,15 @@
 package com.waldhauser.tasklist.domain.repository;
 
 import com.waldhauser.tasklist.domain.model.Task;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,6 +17,9 @@ import java.util.UUID;
  * TaskRepository provides data access and query methods for Task entities in the database.
  * This repository extends JpaRepository, allowing CRUD operations and custom query methods
  * for the Task entity.
+ * <p>
+ * The queries load the tasks only. Their tasklist stays an uninitialized reference, of which only the id (the
+ * foreign key column) is read, so it can be used after the transaction as well.
  */
 @Repository
 public interface TaskRepository extends JpaRepository<Task, UUID> {
@@ -34,8 +42,69 @@ public interface TaskRepository extends JpaRepository<Task, UUID> {
     /**
      * Retrieves a list of tasks that are associated with the specified task list.
      *
+     * The derived query would join the tasklists table and filter on its id, which the database cannot answer
+     * from the index on tasks.tasklist_id; comparing the foreign key column can.
+     *
      * @param tasklistId the unique identifier of the task list whose tasks are to be retrieved
      * @return a list of tasks belonging to the specified task list
      */
-    List<Task> findByTasklistId(UUID tasklistId);
+    @Query("select t from Task t where t.tasklist.id = :tasklistId")
+    List<Task> findByTasklistId(@Param("tasklistId") UUID tasklistId);
+
+    /**
+     * Retrieves the tasks of several task lists with one IN-query, but only those belonging to the given owner.
+     * Used to load the tasks of many task lists at once instead of one query per task list.
+     *
+     * Like {@link #findByTasklistId(UUID)} it compares the foreign key column instead of joining the task lists.
+     *
+     * @param tasklistIds the unique identifiers of the task lists whose tasks are to be retrieved
+     * @param ownerId the unique identifier of the owner the tasks must belong to
+     * @return a list of tasks belonging to the specified task lists and owner
+     */
+    @Query("select t from Task t where t.tasklist.id in :tasklistIds and t.ownerId = :ownerId")
+    List<Task> findByTasklistIdInAndOwnerId(@Param("tasklistIds") Collection<UUID> tasklistIds, @Param("ownerId") UUID ownerId);
+
+    /**
+     * Retrieves a Task entity by its unique identifier, but only if it belongs to the given owner.
+     * Tasks of other owners are filtered out by the query itself and never loaded.
+     *
+     * @param id the unique identifier of the task to be retrieved
+     * @param ownerId the unique identifier of the owner the task must belong to
+     * @return an Optional containing the Task if found and owned by the owner, or an empty Optional otherwise
+     */
+    Optional<Task> findByIdAndOwnerId(UUID id, UUID ownerId);
+
+    /**
+     * Deletes a task by its unique identifier, but only if it belongs to the given owner.
+     *
+     * @param id the unique identifier of the task to be deleted
+     * @param ownerId the unique identifier of the owner the task must belong to
+     * @return the number of deleted rows, 0 if the task does not exist or belongs to someone else
+     */
+    @Modifying
+    @Query("delete from Task t where t.id = :id and t.ownerId = :ownerId")
+    int deleteByIdAndOwnerId(@Param("id") UUID id, @Param("ownerId") UUID ownerId);
+
+    /**
+     * Deletes all tasks of a task list, but only if the task list belongs to the given owner.
+     *
+     * @param tasklistId the unique identifier of the task list whose tasks are to be deleted
+     * @param ownerId the unique identifier of the owner the task list must belong to
+     * @return the number of deleted rows
+     */
+    @Modifying
+    @Query("delete from Task t where t.tasklist.id in " +
+            "(select l.id from Tasklist l where l.id = :tasklistId and l.ownerId = :ownerId)")
+    int deleteByTasklistIdAndTasklistOwnerId(@Param("tasklistId") UUID tasklistId, @Param("ownerId") UUID ownerId);
+
+    /**
+     * Retrieves the ids of the tasks following the given id in id order, one page of a key scan over all ids.
+     * Every page is a range scan of the primary key index, as cheap as the first one, unlike an offset.
+     *
+     * @param after the last id of the previous page, the nil UUID for the first page
+     * @param limit the maximum number of ids of the page
+     * @return the ids greater than {@code after}, ascending
+     */
+    @Query("select t.id from Task t where t.id > :after order by t.id")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Limit limit);
 }
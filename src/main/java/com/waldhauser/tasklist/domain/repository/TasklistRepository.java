@@ -1,10 +1,16 @@
 package com.waldhauser.tasklist.domain.repository;
 
 import com.waldhauser.tasklist.domain.model.Tasklist;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,6 +25,12 @@ import java.util.UUID;
  * Key Methods:
  * - {@link #findById(UUID)}: Retrieves a Tasklist by its unique identifier.
  * - {@link #findByOwnerId(UUID)}: Retrieves a list of Tasklists associated with a specific owner.
+ * - {@link #findWithTasksByOwnerId(UUID)}: Retrieves the Tasklists of an owner together with their tasks.
+ * - {@link #findWithTasksByIdAndOwnerId(UUID, UUID)}: Retrieves a Tasklist of the given owner together with its tasks.
+ * - {@link #findByIdAndOwnerId(UUID, UUID)}: Retrieves a Tasklist only if it belongs to the given owner.
+ * - {@link #findByIdInAndOwnerId(Collection, UUID)}: Retrieves several Tasklists of the given owner at once.
+ * - {@link #deleteByIdAndOwnerId(UUID, UUID)}: Deletes a Tasklist only if it belongs to the given owner.
+ * - {@link #findIdsAfter(UUID, Limit)}: Retrieves the ids of all Tasklists page by page, e.g. for the KnownIds filter.
  * <p>
  * Responsibilities:
  * - Abstracts the interaction with the database for Tasklist entities.
@@ -26,6 +38,9 @@ import java.util.UUID;
  * <p>
  * Usage Considerations:
  * - Ensure that Tasklist entities are correctly mapped in the persistence layer.
+ * - The tasks of a Tasklist are loaded lazily and open-session-in-view is off: a read which needs the tasks
+ *   outside of its transaction, e.g. to build a response, uses the {@code findWithTasks...} methods, which fetch
+ *   them with the same statement.
  * - The methods provided by this interface are designed to operate on UUID-based identifiers
  *   for both Tasklists and their owners.
  */
@@ -47,4 +62,66 @@ public interface TasklistRepository extends JpaRepository<Tasklist, UUID> {
      * @return a list of Tasklist entities associated with the specified owner, or an empty list if no Tasklists exist for the owner
      */
     List<Tasklist> findByOwnerId(UUID ownerId);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the Tasklist entities of the specified owner with their tasks, in one statement (a join fetch)
+     * instead of one additional statement per Tasklist.
+     *
+     * @param ownerId the unique identifier (UUID) of the owner whose Tasklists are to be retrieved
+     * @return a list of Tasklist entities with initialized tasks, or an empty list if the owner has none
+     */
+    @EntityGraph(attributePaths = "tasks")
+    List<Tasklist> findWithTasksByOwnerId(UUID ownerId);
+
+    /**
+     * Retrieves a Tasklist entity by its unique identifier, but only if it belongs to the given owner.
+     * Tasklists of other owners are filtered out by the query itself and never loaded.
+     *
+     * @param id the unique identifier (UUID) of the Tasklist to retrieve
+     * @param ownerId the unique identifier (UUID) of the owner the Tasklist must belong to
+     * @return an Optional containing the Tasklist if found and owned by the owner, or an empty Optional otherwise
+     */
+    Optional<Tasklist> findByIdAndOwnerId(UUID id, UUID ownerId);
+
+    /**
+     * Retrieves a Tasklist entity with its tasks by its unique identifier, but only if it belongs to the given owner.
+     *
+     * @param id the unique identifier (UUID) of the Tasklist to retrieve
+     * @param ownerId the unique identifier (UUID) of the owner the Tasklist must belong to
+     * @return an Optional containing the Tasklist with initialized tasks if found and owned by the owner
+     */
+    @EntityGraph(attributePaths = "tasks")
+    Optional<Tasklist> findWithTasksByIdAndOwnerId(UUID id, UUID ownerId);
+
+    /**
+     * Retrieves several Tasklist entities with one IN-query, but only those belonging to the given owner.
+     *
+     * @param ids the unique identifiers (UUID) of the Tasklists to retrieve
+     * @param ownerId the unique identifier (UUID) of the owner the Tasklists must belong to
+     * @return a list of the found Tasklists owned by the owner, missing or foreign IDs are left out
+     */
+    List<Tasklist> findByIdInAndOwnerId(Collection<UUID> ids, UUID ownerId);
+
+    /**
+     * Deletes a Tasklist by its unique identifier, but only if it belongs to the given owner.
+     * Tasks of the Tasklist are not removed by this statement and have to be deleted beforehand.
+     *
+     * @param id the unique identifier (UUID) of the Tasklist to delete
+     * @param ownerId the unique identifier (UUID) of the owner the Tasklist must belong to
+     * @return the number of deleted rows, 0 if the Tasklist does not exist or belongs to someone else
+     */
+    @Modifying
+    @Query("delete from Tasklist l where l.id = :id and l.ownerId = :ownerId")
+    int deleteByIdAndOwnerId(@Param("id") UUID id, @Param("ownerId") UUID ownerId);
+
+    /**
+     * Retrieves the ids of the Tasklists following the given id in id order, one page of a key scan over all ids.
+     * Every page is a range scan of the primary key index, as cheap as the first one, unlike an offset.
+     *
+     * @param after the last id of the previous page, the nil UUID for the first page
+     * @param limit the maximum number of ids of the page
+     * @return the ids greater than {@code after}, ascending
+     */
+    @Query("select l.id from Tasklist l where l.id > :after order by l.id")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Limit limit);
+}
@@ -0,0 +1,47 @@
+package com.waldhauser.tasklist.graphql;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the cost limits of GraphQL queries, protecting the database from queries that
+ * nest the {@code Tasklist.tasks} / {@code Task.tasklist} cycle deeply or fan out over large lists.
+ * <p>
+ * Both limits are checked before execution, a rejected query runs no statement:
+ * - Depth: at most {@code app.graphql.max-depth} nested selection levels (default 6).
+ * - Complexity: every field costs 1 plus its selection, list fields multiply their selection by
+ *   {@code app.graphql.list-factor} (default 10) as an estimate of their size. The total must not exceed
+ *   {@code app.graphql.max-complexity} (default 1000).
+ * <p>
+ * Spring Boot registers the Instrumentation beans with the GraphQL engine.
+ * <p>
+ * Thread Safety:
+ * This class relies on Spring Framework's configuration management and is inherently thread-safe.
+ */
+@Configuration
+public class GraphQlLimitsConfig {
+
+    @Bean
+    public Instrumentation maxQueryDepthInstrumentation(@Value("${app.graphql.max-depth:6}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public Instrumentation maxQueryComplexityInstrumentation(@Value("${app.graphql.max-complexity:1000}") int maxComplexity,
+                                                             @Value("${app.graphql.list-factor:10}") int listFactor) {
+        FieldComplexityCalculator calculator = (environment, childComplexity) -> {
+            GraphQLType type = GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType());
+            int cost = 1 + childComplexity;
+            return type instanceof GraphQLList ? cost * listFactor : cost;
+        };
+        return new MaxQueryComplexityInstrumentation(maxComplexity, calculator);
+    }
+}
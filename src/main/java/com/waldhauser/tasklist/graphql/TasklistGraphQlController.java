@@ -0,0 +1,99 @@
+package com.waldhauser.tasklist.graphql;
+
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+import com.waldhauser.tasklist.service.api.TaskService;
+import com.waldhauser.tasklist.service.api.TasklistService;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * TasklistGraphQlController resolves the GraphQL schema in {@code graphql/schema.graphqls} over the
+ * tasklists and tasks of the authenticated user.
+ * <p>
+ * Responsibilities:
+ * - Resolves the root queries through the existing services, always scoped to the authenticated owner.
+ * - Resolves the nested fields {@code Tasklist.tasks} and {@code Task.tasklist} with {@code @BatchMapping}.
+ *   Spring for GraphQL backs them with a DataLoader, which collects the keys of one query level and loads
+ *   them with a single IN-query, so a query costs one statement per level regardless of the list sizes.
+ * <p>
+ * Query depth and complexity are limited by {@link GraphQlLimitsConfig}.
+ * <p>
+ * Dependencies:
+ * - TasklistService and TaskService for all reads.
+ * <p>
+ * Thread Safety:
+ * - The controller is stateless and thread-safe.
+ */
+@Controller
+public class TasklistGraphQlController {
+
+    private final TasklistService tasklistService;
+    private final TaskService taskService;
+
+    public TasklistGraphQlController(TasklistService tasklistService, TaskService taskService) {
+        this.tasklistService = tasklistService;
+        this.taskService = taskService;
+    }
+
+    // ---------- root queries ----------
+    @QueryMapping
+    public List<TasklistResponse> tasklists(Principal principal) {
+        return tasklistService.getTasklistSummariesByOwnerId(ownerId(principal));
+    }
+
+    @QueryMapping
+    public TasklistResponse tasklist(@Argument UUID id, Principal principal) {
+        return tasklistService.getTasklistSummariesByIds(List.of(id), ownerId(principal)).stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    @QueryMapping
+    public List<TaskResponse> tasks(Principal principal) {
+        return taskService.getAllTasksByOwnerId(ownerId(principal));
+    }
+
+    @QueryMapping
+    public TaskResponse task(@Argument UUID id, Principal principal) {
+        return taskService.getTaskById(id, ownerId(principal)).orElse(null);
+    }
+
+    // ---------- nested fields, one statement per query level ----------
+    @BatchMapping(typeName = "Tasklist", field = "tasks")
+    public Map<TasklistResponse, List<TaskResponse>> tasks(List<TasklistResponse> tasklists, Principal principal) {
+        Map<UUID, List<TaskResponse>> tasksByTasklist = taskService.getTasksByTasklistIds(
+                tasklists.stream().map(TasklistResponse::getId).collect(Collectors.toSet()), ownerId(principal));
+
+        Map<TasklistResponse, List<TaskResponse>> result = new LinkedHashMap<>();
+        tasklists.forEach(tasklist -> result.put(tasklist, tasksByTasklist.getOrDefault(tasklist.getId(), List.of())));
+        return result;
+    }
+
+    @BatchMapping(typeName = "Task", field = "tasklist")
+    public Map<TaskResponse, TasklistResponse> tasklist(List<TaskResponse> tasks, Principal principal) {
+        Set<UUID> tasklistIds = tasks.stream().map(TaskResponse::getTasklistId).collect(Collectors.toSet());
+        Map<UUID, TasklistResponse> tasklistsById = tasklistService.getTasklistSummariesByIds(tasklistIds, ownerId(principal))
+                .stream()
+                .collect(Collectors.toMap(TasklistResponse::getId, Function.identity()));
+
+        Map<TaskResponse, TasklistResponse> result = new LinkedHashMap<>();
+        tasks.forEach(task -> result.put(task, tasklistsById.get(task.getTasklistId())));
+        return result;
+    }
+
+    private static UUID ownerId(Principal principal) {
+        return UUID.fromString(principal.getName());
+    }
+}
@@ -0,0 +1,72 @@
+package com.waldhauser.tasklist.grpc;
+
+import com.waldhauser.tasklist.domain.error.NotAuthenticatedException;
+import com.waldhauser.tasklist.domain.error.NotFoundException;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Helpers shared by the gRPC services: running a unary call and translating the exceptions
+ * thrown by the services into gRPC status codes, the same way the REST API maps them to HTTP status codes.
+ */
+final class GrpcCalls {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcCalls.class);
+
+    private GrpcCalls() {
+    }
+
+    /**
+     * Runs a unary call and completes the observer with the result or with a mapped error status.
+     */
+    static <T> void unary(StreamObserver<T> responseObserver, Callable<T> call) {
+        T result;
+        try {
+            result = call.call();
+        } catch (Exception e) {
+            responseObserver.onError(toStatus(e).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(result);
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Validates a request model with the same bean validation constraints as the REST endpoints.
+     *
+     * @throws IllegalArgumentException with the first violation message if the model is invalid
+     */
+    static <T> T validate(Validator validator, T request) {
+        Set<ConstraintViolation<T>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.iterator().next().getMessage());
+        }
+        return request;
+    }
+
+    /**
+     * Maps a service exception to the matching gRPC status. Unexpected exceptions are logged and answered with
+     * {@code INTERNAL} and a fixed description, so no internal detail reaches the client.
+     */
+    static Status toStatus(Exception e) {
+        if (e instanceof NotFoundException || e instanceof EntityNotFoundException) {
+            return Status.NOT_FOUND.withDescription(e.getMessage());
+        }
+        if (e instanceof NotAuthenticatedException) {
+            return Status.UNAUTHENTICATED.withDescription(e.getMessage());
+        }
+        if (e instanceof IllegalArgumentException) {
+            return Status.INVALID_ARGUMENT.withDescription(e.getMessage());
+        }
+        logger.error("gRPC call failed", e);
+        return Status.INTERNAL.withDescription("Internal server error").withCause(e);
+    }
+}
@@ -0,0 +1,98 @@
+package com.waldhauser.tasklist.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gRPC server inside the Spring Boot application, started and stopped with the application context.
+ * <p>
+ * Configuration:
+ * - {@code app.grpc.enabled=true} switches the server on, it is off by default.
+ * - {@code app.grpc.port} is the TCP port (default 9090), a negative value disables the network listener.
+ * - {@code app.grpc.in-process-name}, if set, additionally registers an in-process server under that name,
+ *   so components of the same JVM can call the API without any network.
+ * <p>
+ * Every service is wrapped with the {@link JwtServerInterceptor}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.grpc.enabled", havingValue = "true")
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final List<BindableService> services;
+    private final JwtServerInterceptor jwtServerInterceptor;
+    private final int port;
+    private final String inProcessName;
+    private final List<Server> servers = new ArrayList<>();
+
+    public GrpcServerLifecycle(List<BindableService> services,
+                               JwtServerInterceptor jwtServerInterceptor,
+                               @Value("${app.grpc.port:9090}") int port,
+                               @Value("${app.grpc.in-process-name:}") String inProcessName) {
+        this.services = services;
+        this.jwtServerInterceptor = jwtServerInterceptor;
+        this.port = port;
+        this.inProcessName = inProcessName;
+    }
+
+    @Override
+    public synchronized void start() {
+        try {
+            if (port >= 0) {
+                servers.add(build(Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())).start());
+                logger.info("gRPC server listening on port {}", port);
+            }
+            if (!inProcessName.isBlank()) {
+                servers.add(build(InProcessServerBuilder.forName(inProcessName).directExecutor()).start());
+                logger.info("gRPC in-process server registered as '{}'", inProcessName);
+            }
+        } catch (IOException e) {
+            stop();
+            throw new UncheckedIOException("Could not start gRPC server", e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        for (Server server : servers) {
+            server.shutdown();
+            try {
+                if (!server.awaitTermination(10, TimeUnit.SECONDS)) {
+                    server.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                server.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        servers.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return !servers.isEmpty();
+    }
+
+    private Server build(ServerBuilder<?> builder) {
+        services.forEach(service -> builder.addService(ServerInterceptors.intercept(service, jwtServerInterceptor)));
+        return builder.build();
+    }
+}
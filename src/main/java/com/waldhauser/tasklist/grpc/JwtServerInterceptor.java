@@ -0,0 +1,152 @@
+package com.waldhauser.tasklist.grpc;
+
+import com.waldhauser.tasklist.config.profiling.JwtVerificationEvent;
+import com.waldhauser.tasklist.config.support.JwtChecker;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The gRPC counterpart of the JwtAuthenticationFilter. It validates the JWT sent as
+ * "authorization: Bearer &lt;token&gt;" metadata with the same {@link JwtChecker} as the REST API.
+ * <p>
+ * Responsibilities:
+ * - Closes calls without a valid token with {@code UNAUTHENTICATED}, before any service code runs.
+ * - Exposes the user ID through the gRPC {@link #USER_ID} context key.
+ * - Emits a {@link JwtVerificationEvent} for Java Flight Recorder, like the JwtAuthenticationFilter.
+ * - Installs a fresh Spring Security context around every listener callback and restores the previous one
+ *   afterwards, because gRPC may run the callbacks of one call on different threads, including a caller of an
+ *   in-process channel with its own context. The services read the user from it, exactly as for REST requests.
+ * <p>
+ * Thread Safety:
+ * - This interceptor is thread-safe as it does not maintain any mutable state outside of a single call.
+ */
+@Component
+public class JwtServerInterceptor implements ServerInterceptor {
+
+    public static final Context.Key<UUID> USER_ID = Context.key("userId");
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtServerInterceptor.class);
+    private static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final JwtChecker jwtChecker;
+
+    public JwtServerInterceptor(JwtChecker jwtChecker) {
+        this.jwtChecker = jwtChecker;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String authHeader = headers.get(AUTHORIZATION);
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return reject(call, "Missing bearer token");
+        }
+
+        String token = authHeader.substring(7);
+        UUID userId;
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        try {
+            if (!jwtChecker.isValid(token)) {
+                event.complete("invalid");
+                logger.debug("Invalid JWT token");
+                return reject(call, "Invalid token");
+            }
+            userId = jwtChecker.getUserIdFromToken(token);
+            event.complete("valid");
+        } catch (Exception e) {
+            event.complete("error");
+            logger.error("JWT processing failed: {}", e.getMessage());
+            return reject(call, "Invalid token");
+        }
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                userId.toString(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        Context context = Context.current().withValue(USER_ID, userId);
+
+        return new SecurityContextListener<>(Contexts.interceptCall(context, call, headers, next), authentication);
+    }
+
+    /**
+     * Retrieves the authenticated user ID of the current call.
+     *
+     * @return the user ID set by this interceptor
+     */
+    public static UUID currentUserId() {
+        return USER_ID.get();
+    }
+
+    private static <ReqT, RespT> ServerCall.Listener<ReqT> reject(ServerCall<ReqT, RespT> call, String description) {
+        call.close(Status.UNAUTHENTICATED.withDescription(description), new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+
+    private static final class SecurityContextListener<ReqT>
+            extends ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT> {
+
+        private final Authentication authentication;
+
+        private SecurityContextListener(ServerCall.Listener<ReqT> delegate, Authentication authentication) {
+            super(delegate);
+            this.authentication = authentication;
+        }
+
+        @Override
+        public void onMessage(ReqT message) {
+            withAuthentication(() -> super.onMessage(message));
+        }
+
+        @Override
+        public void onHalfClose() {
+            withAuthentication(super::onHalfClose);
+        }
+
+        @Override
+        public void onCancel() {
+            withAuthentication(super::onCancel);
+        }
+
+        @Override
+        public void onComplete() {
+            withAuthentication(super::onComplete);
+        }
+
+        @Override
+        public void onReady() {
+            withAuthentication(super::onReady);
+        }
+
+        private void withAuthentication(Runnable callback) {
+            SecurityContext previous = SecurityContextHolder.getContext();
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+            try {
+                callback.run();
+            } finally {
+                SecurityContextHolder.setContext(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.waldhauser.tasklist.grpc;
+
+import com.google.protobuf.Empty;
+import com.waldhauser.tasklist.domain.error.NotFoundException;
+import com.waldhauser.tasklist.grpc.proto.CreateTaskRequest;
+import com.waldhauser.tasklist.grpc.proto.TaskApiGrpc;
+import com.waldhauser.tasklist.grpc.proto.TaskIdRequest;
+import com.waldhauser.tasklist.grpc.proto.UpdateTaskRequest;
+import com.waldhauser.tasklist.rest.model.task.TaskCreateRequest;
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import com.waldhauser.tasklist.rest.model.task.TaskUpdateRequest;
+import com.waldhauser.tasklist.rest.proto.ProtobufMapper;
+import com.waldhauser.tasklist.rest.proto.TaskMessage;
+import com.waldhauser.tasklist.rest.proto.TaskMessageList;
+import com.waldhauser.tasklist.service.api.TaskService;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import static com.waldhauser.tasklist.rest.proto.ProtobufMapper.toUuid;
+
+/**
+ * gRPC implementation of the TaskApi service defined in tasklist_service.proto.
+ * It delegates to the same {@link TaskService} as the TaskController, so ownership checks and
+ * persistence behave exactly as for REST requests.
+ */
+@Component
+public class TaskGrpcService extends TaskApiGrpc.TaskApiImplBase {
+
+    private final TaskService taskService;
+    private final Validator validator;
+
+    public TaskGrpcService(TaskService taskService, Validator validator) {
+        this.taskService = taskService;
+        this.validator = validator;
+    }
+
+    @Override
+    public void getTask(TaskIdRequest request, StreamObserver<TaskMessage> responseObserver) {
+        GrpcCalls.unary(responseObserver, () -> ProtobufMapper.toMessage(
+                taskService.getTaskById(toUuid(request.getId()), JwtServerInterceptor.currentUserId())
+                        .orElseThrow(() -> NotFoundException.TASK)));
+    }
+
+    @Override
+    public void createTask(CreateTaskRequest request, StreamObserver<TaskMessage> responseObserver) {
+        GrpcCalls.unary(responseObserver, () -> create(request));
+    }
+
+    @Override
+    public void updateTask(UpdateTaskRequest request, StreamObserver<TaskMessage> responseObserver) {
+        GrpcCalls.unary(responseObserver, () -> {
+            TaskUpdateRequest update = new TaskUpdateRequest();
+            update.setId(toUuid(request.getId()));
+            update.setName(request.getName());
+            update.setDescription(request.hasDescription() ? request.getDescription() : null);
+            return ProtobufMapper.toMessage(taskService.update(GrpcCalls.validate(validator, update)));
+        });
+    }
+
+    @Override
+    public void deleteTask(TaskIdRequest request, StreamObserver<Empty> responseObserver) {
+        GrpcCalls.unary(responseObserver, () -> {
+            taskService.delete(toUuid(request.getId()));
+            return Empty.getDefaultInstance();
+        });
+    }
+
+    @Override
+    public void listTasks(Empty request, StreamObserver<TaskMessage> responseObserver) {
+        try {
+            for (TaskResponse task : taskService.getAllTasksByOwnerId(JwtServerInterceptor.currentUserId())) {
+                responseObserver.onNext(ProtobufMapper.toMessage(task));
+            }
+        } catch (Exception e) {
+            responseObserver.onError(GrpcCalls.toStatus(e).asRuntimeException());
+            return;
+        }
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Creates every task streamed by the client as soon as it arrives. Each task is stored on its own,
+     * so tasks created before a failing one are kept. The created tasks are returned when the client
+     * completes the stream, or the first error is returned instead.
+     */
+    @Override
+    public StreamObserver<CreateTaskRequest> bulkCreateTasks(StreamObserver<TaskMessageList> responseObserver) {
+        return new StreamObserver<>() {
+
+            private final TaskMessageList.Builder created = TaskMessageList.newBuilder();
+            private boolean failed;
+
+            @Override
+            public void onNext(CreateTaskRequest request) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    created.addTasks(create(request));
+                } catch (Exception e) {
+                    failed = true;
+                    responseObserver.onError(GrpcCalls.toStatus(e).asRuntimeException());
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // the client cancelled the stream, nothing left to answer
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!failed) {
+                    responseObserver.onNext(created.build());
+                    responseObserver.onCompleted();
+                }
+            }
+        };
+    }
+
+    private TaskMessage create(CreateTaskRequest request) {
+        TaskCreateRequest create = new TaskCreateRequest();
+        create.setTasklistId(toUuid(request.getTasklistId()));
+        create.setName(request.getName());
+        create.setDescription(request.getDescription());
+        GrpcCalls.validate(validator, create);
+        return ProtobufMapper.toMessage(taskService.create(create, create.getTasklistId()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.waldhauser.tasklist.grpc;
+
+import com.google.protobuf.Empty;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.grpc.proto.CreateTasklistRequest;
+import com.waldhauser.tasklist.grpc.proto.TasklistApiGrpc;
+import com.waldhauser.tasklist.grpc.proto.TasklistIdRequest;
+import com.waldhauser.tasklist.grpc.proto.UpdateTasklistRequest;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistCreateRequest;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistUpdateRequest;
+import com.waldhauser.tasklist.rest.proto.ProtobufMapper;
+import com.waldhauser.tasklist.rest.proto.TasklistMessage;
+import com.waldhauser.tasklist.service.api.TasklistService;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+
+import static com.waldhauser.tasklist.rest.proto.ProtobufMapper.toUuid;
+
+/**
+ * gRPC implementation of the TasklistApi service defined in tasklist_service.proto.
+ * It delegates to the same {@link TasklistService} as the TasklistController.
+ */
+@Component
+public class TasklistGrpcService extends TasklistApiGrpc.TasklistApiImplBase {
+
+    private final TasklistService tasklistService;
+    private final Validator validator;
+
+    public TasklistGrpcService(TasklistService tasklistService, Validator validator) {
+        this.tasklistService = tasklistService;
+        this.validator = validator;
+    }
+
+    @Override
+    public void getTasklist(TasklistIdRequest request, StreamObserver<TasklistMessage> responseObserver) {
+        GrpcCalls.unary(responseObserver, () -> ProtobufMapper.toMessage(
+                tasklistService.getTasklistById(toUuid(request.getId()), JwtServerInterceptor.currentUserId())));
+    }
+
+    @Override
+    public void createTasklist(CreateTasklistRequest request, StreamObserver<TasklistMessage> responseObserver) {
+        GrpcCalls.unary(responseObserver, () -> {
+            TasklistCreateRequest create = GrpcCalls.validate(validator,
+                    new TasklistCreateRequest(request.getName(), request.getDescription()));
+            return ProtobufMapper.toMessage(tasklistService.create(new Tasklist(
+                    JwtServerInterceptor.currentUserId(),
+                    create.getName(),
+                    create.getDescription(),
+                    new ArrayList<>()
+            )));
+        });
+    }
+
+    @Override
+    public void updateTasklist(UpdateTasklistRequest request, StreamObserver<TasklistMessage> responseObserver) {
+        GrpcCalls.unary(responseObserver, () -> {
+            TasklistUpdateRequest update = GrpcCalls.validate(validator, new TasklistUpdateRequest(
+                    toUuid(request.getId()),
+                    request.getName(),
+                    request.hasDescription() ? request.getDescription() : null));
+            return ProtobufMapper.toMessage(tasklistService.update(update));
+        });
+    }
+
+    @Override
+    public void deleteTasklist(TasklistIdRequest request, StreamObserver<Empty> responseObserver) {
+        GrpcCalls.unary(responseObserver, () -> {
+            tasklistService.delete(toUuid(request.getId()));
+            return Empty.getDefaultInstance();
+        });
+    }
+
+    @Override
+    public void listTasklists(Empty request, StreamObserver<TasklistMessage> responseObserver) {
+        try {
+            for (TasklistResponse tasklist : tasklistService.getAllTasklistsByOwnerId(JwtServerInterceptor.currentUserId())) {
+                responseObserver.onNext(ProtobufMapper.toMessage(tasklist));
+            }
+        } catch (Exception e) {
+            responseObserver.onError(GrpcCalls.toStatus(e).asRuntimeException());
+            return;
+        }
+        responseObserver.onCompleted();
+    }
+}
@@ -0,0 +1,66 @@
+package com.waldhauser.tasklist.rest.controller;
+
+import com.waldhauser.tasklist.config.security.CurrentUser;
+import com.waldhauser.tasklist.domain.error.NotFoundException;
+import com.waldhauser.tasklist.rest.model.batch.BatchOperation;
+import com.waldhauser.tasklist.rest.model.batch.BatchResponse;
+import com.waldhauser.tasklist.rest.model.batch.BatchResult;
+import com.waldhauser.tasklist.service.api.BatchService;
+import com.waldhauser.tasklist.service.api.BatchService.BatchOperationException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rest controller that executes several task and tasklist operations in one request and one transaction.
+ * A client creating a tasklist with its tasks sends one request instead of one per entity, which saves the
+ * round trips, the JWT verifications and the transactions of the individual calls.
+ */
+@RestController
+@RequestMapping(path = "batch")
+@Tag(name = "Batch", description = "Endpoint for executing several task and tasklist operations at once.")
+public class BatchController {
+
+    private final BatchService batchService;
+
+    public BatchController(BatchService batchService) {
+        this.batchService = batchService;
+    }
+
+    /**
+     * Executes an ordered list of operations for the authenticated user in one transaction.
+     * Later operations can reference entities created by earlier ones with {@code $ref}.
+     * If an operation fails, nothing is written and the response tells which operation failed.
+     *
+     * @param operations the operations to be executed, in order
+     * @return a {@code BatchResponse} with the result of every operation, or of the failed one
+     */
+    @Operation(summary = "Execute several task and tasklist operations in one transaction.")
+    @ApiResponse(responseCode = "200", description = "All operations executed and committed")
+    @ApiResponse(responseCode = "400", description = "An operation was invalid, nothing was committed")
+    @ApiResponse(responseCode = "404", description = "An operation referenced a missing entity, nothing was committed")
+    @PostMapping
+    public ResponseEntity<BatchResponse> execute(@RequestBody List<BatchOperation> operations) {
+        UUID userId = CurrentUser.id();
+
+        try {
+            return ResponseEntity.ok(new BatchResponse(true, batchService.execute(operations, userId)));
+        } catch (BatchOperationException e) {
+            HttpStatus status = e.getCause() instanceof NotFoundException ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+            BatchResult failed = new BatchResult(e.getIndex(), e.getOp(), status.value(), null, null, e.getCause().getMessage());
+            return ResponseEntity.status(status).body(new BatchResponse(false, List.of(failed)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.waldhauser.tasklist.rest.controller;
+
+import com.waldhauser.tasklist.config.security.CurrentUser;
+import com.waldhauser.tasklist.service.event.TaskEventHub;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+/**
+ * Rest controller that pushes changes of tasks and tasklists to the authenticated user as Server-Sent Events.
+ * Clients keep the stream open instead of polling the getAll endpoints. Only changes of the user's own
+ * tasks and tasklists are sent.
+ */
+@RestController
+@RequestMapping(path = "events")
+@Tag(name = "Events", description = "Server-Sent Events stream of task and tasklist changes.")
+public class EventController {
+
+    private final TaskEventHub taskEventHub;
+
+    public EventController(TaskEventHub taskEventHub) {
+        this.taskEventHub = taskEventHub;
+    }
+
+    /**
+     * Opens an event stream of the changes of the authenticated user's tasks and tasklists.
+     * A reconnecting client sends the {@code Last-Event-ID} header (browsers' EventSource does this by itself)
+     * and receives the events it missed, or a single {@code resync} event if they are no longer available.
+     *
+     * @param lastEventId the ID of the last event the client received, if it is reconnecting
+     * @return the SseEmitter streaming the events
+     */
+    @Operation(summary = "Stream changes of the authenticated user's tasks and tasklists.")
+    @ApiResponse(responseCode = "200", description = "Event stream opened")
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@Parameter(description = "ID of the last received event, for replay after a reconnect.")
+                             @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        UUID userId = CurrentUser.id();
+
+        return taskEventHub.subscribe(userId, lastEventId);
+    }
+}
@@ -1,5 +1,7 @@
 package com.waldhauser.tasklist.rest.controller;
 
+import com.waldhauser.tasklist.config.security.CurrentUser;
+import com.waldhauser.tasklist.domain.error.NotFoundException;
 import com.waldhauser.tasklist.rest.model.task.TaskCreateRequest;
 import com.waldhauser.tasklist.rest.model.task.TaskResponse;
 import com.waldhauser.tasklist.rest.model.task.TaskUpdateRequest;
@@ -10,12 +12,8 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
-import org.springframework.http.HttpStatus;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.UUID;
@@ -48,60 +46,45 @@ public class TaskController {
     @GetMapping("/getAll")
     public List<TaskResponse> getAllTasksByOwnerId() {
         // Get the authenticated user ID from Spring Security context
-        String userIdString = SecurityContextHolder.getContext().getAuthentication().getName();
-        UUID userId = UUID.fromString(userIdString);
+        UUID userId = CurrentUser.id();
 
         return taskService.getAllTasksByOwnerId(userId);
     }
 
     /**
      * Retrieves a single task by its ID if the authenticated user is the owner.
-     * The method checks the owner's ID of the task against the authenticated user's ID.
-     * If the task does not exist or the user is not the owner, a {@code ResponseStatusException} is thrown.
+     * The owner is part of the lookup, so tasks of other users are reported as not found.
      *
      * @param id the unique identifier of the task to be retrieved
      * @return a {@code TaskResponse} object representing the details of the retrieved task
-     * @throws ResponseStatusException if the task is not found or the user is not authorized
+     * @throws NotFoundException if the task is not found or the user is not the owner
      */
     @Operation(summary = "Get a single task by its ID if the authenticated user is the owner.")
     @ApiResponse(responseCode = "200", description = "Task retrieved successfully")
-    @ApiResponse(responseCode = "404", description = "Task not found")
-    @ApiResponse(responseCode = "401", description = "User is not authorized to access the task")
+    @ApiResponse(responseCode = "404", description = "Task not found or not owned by the user")
     @GetMapping("/get/{id}")
     public TaskResponse getTaskById(@Parameter(description = "ID of the task to be taken.") @PathVariable UUID id) {
-        String userIdString = SecurityContextHolder.getContext().getAuthentication().getName();
-        UUID userId = UUID.fromString(userIdString);
-
-        try {
-            TaskResponse taskResponse = taskService.getTaskById(id)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-
-            if (!taskResponse.getOwnerId().equals(userId)) {
-                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "You aren't the owner of task");
-            }
-            return taskResponse;
-
-        } catch (Exception e) {
-            throw new ResponseStatusException(
-                    HttpStatus.UNAUTHORIZED, "Tasklist owner doesn't match"
-            );
-        }
+        UUID userId = CurrentUser.id();
 
+        // preallocated and stackless, a scanner trying random ids costs no exception construction
+        return taskService.getTaskById(id, userId)
+                .orElseThrow(() -> NotFoundException.TASK);
     }
 
     /**
      * Creates a new task for the authenticated user within the specified tasklist.
      * The method retrieves the authenticated user's ID from the Spring Security context,
      * associates the task with the proper tasklist, and delegates the creation process to the task service.
-     * If the specified tasklist is not found, an {@code EntityNotFoundException} is thrown.
+     * If the specified tasklist is not found, a {@code NotFoundException} is thrown.
      *
      * @param request the {@code TaskCreateRequest} object containing details of the task to be created
      *                such as name, description, due date, and the ID of the tasklist to associate with
      * @return the created {@code Task} object after successful persistence
-     * @throws EntityNotFoundException if the specified tasklist does not exist
+     * @throws NotFoundException if the specified tasklist does not exist
      */
     @Operation(summary = "Create a new task for the authenticated user within the specified tasklist.")
     @ApiResponse(responseCode = "200", description = "Task created successfully")
+    @ApiResponse(responseCode = "404", description = "Tasklist not found or not owned by the user")
     @PostMapping("/create")
     public TaskResponse createTask(@Valid @io.swagger.v3.oas.annotations.parameters.RequestBody(
             description = "Task request for creation", required = true,
@@ -119,15 +102,16 @@ public class TaskController {
      * @param task the {@code TaskUpdateRequest} object containing updated details for the task
      *             such as name, description, due date, and other attributes to be modified
      * @return the updated {@code TaskResponse} object containing the details of the task after the update
-     * @throws IllegalAccessException if the user is not authorized to update the task
+     * @throws NotFoundException if the task is not found or the user is not the owner
      */
     @Operation(summary = "Update an existing task based on the details provided in the request.")
     @ApiResponse(responseCode = "200", description = "Task updated successfully")
+    @ApiResponse(responseCode = "404", description = "Task not found or not owned by the user")
     @PostMapping("/update")
     public TaskResponse updateTask(@Valid @io.swagger.v3.oas.annotations.parameters.RequestBody(
             description = "Task request to be upodated", required = true,
             content = @Content(mediaType = "application/json",
-                    schema = @Schema(implementation = TaskCreateRequest.class))) @RequestBody TaskUpdateRequest task) throws IllegalAccessException {
+                    schema = @Schema(implementation = TaskCreateRequest.class))) @RequestBody TaskUpdateRequest task) {
         return taskService.update(task);
     }
 
@@ -136,12 +120,13 @@ public class TaskController {
      * Delegates the deletion operation to the task service.
      *
      * @param id the unique identifier of the task to be deleted
-     * @throws IllegalAccessException if the user is not authorized to delete the task
+     * @throws NotFoundException if the task is not found or the user is not the owner
      */
     @Operation(summary = "Delete a task based on the provided unique identifier.")
     @ApiResponse(responseCode = "200", description = "Task deleted successfully")
+    @ApiResponse(responseCode = "404", description = "Task not found or not owned by the user")
     @DeleteMapping("/delete/{id}")
-    public void deleteTask(@Parameter(description = "ID of the task to be deleted") @PathVariable("id") UUID id) throws IllegalAccessException {
+    public void deleteTask(@Parameter(description = "ID of the task to be deleted") @PathVariable("id") UUID id) {
         taskService.delete(id);
     }
 
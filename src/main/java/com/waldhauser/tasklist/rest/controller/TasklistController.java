@@ -1,5 +1,7 @@
 package com.waldhauser.tasklist.rest.controller;
 
+import com.waldhauser.tasklist.config.security.CurrentUser;
+import com.waldhauser.tasklist.domain.error.NotFoundException;
 import com.waldhauser.tasklist.domain.model.Tasklist;
 import com.waldhauser.tasklist.rest.model.tasklist.TasklistCreateRequest;
 import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
@@ -12,10 +14,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.http.HttpStatus;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -53,41 +52,28 @@ public class TasklistController {
     @GetMapping("/getAll")
     public List<TasklistResponse> getAll() {
         // Get the authenticated user ID from Spring Security context
-        String userIdString = SecurityContextHolder.getContext().getAuthentication().getName();
-        UUID userId = UUID.fromString(userIdString);
+        UUID userId = CurrentUser.id();
 
         return tasklistService.getAllTasklistsByOwnerId(userId);
     }
 
     /**
-     * Retrieves a specific tasklist by its unique identifier. Ensures that the authenticated user
-     * is the owner of the requested tasklist.
+     * Retrieves a specific tasklist by its unique identifier. Only tasklists owned by the
+     * authenticated user are found, tasklists of other users are reported as not found.
      *
      * @param id the unique identifier of the tasklist to be retrieved
      * @return the {@code TasklistResponse} object representing the details of the tasklist
-     * @throws ResponseStatusException if the authenticated user does not own the tasklist or if any errors occur during retrieval
+     * @throws NotFoundException if the tasklist does not exist or is not owned by the authenticated user
      */
     @Operation(summary = "Get a specific tasklist by its unique identifier.")
     @ApiResponse(responseCode = "200", description = "Tasklist retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Tasklist not found or not owned by the user")
     @GetMapping("/get/{id}")
     public TasklistResponse get(@Parameter(description = "ID of the Task list to be returned.") @PathVariable("id") UUID id) {
-        // JWT validation is handled by the security filter
-        String userIdString = SecurityContextHolder.getContext().getAuthentication().getName();
-        UUID userId = UUID.fromString(userIdString);
-
-        try {
-            TasklistResponse tasklistResponse = tasklistService.getTasklistById(id);
-
-            if(!tasklistResponse.getOwnerId().equals(userId)){
-                throw new ResponseStatusException(
-                        HttpStatus.UNAUTHORIZED, "You aren't the owner of this tasklist");
-            }
-            return tasklistResponse;
-
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        // JWT validation is handled by the security filter, not found errors by the exception handler
+        UUID userId = CurrentUser.id();
 
+        return tasklistService.getTasklistById(id, userId);
     }
 
     /**
@@ -103,10 +89,8 @@ public class TasklistController {
             description = "Task list request for creation", required = true,
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = TasklistCreateRequest.class))) @RequestBody TasklistCreateRequest tasklist) {
-        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
-
         return tasklistService.create(new Tasklist(
-                UUID.fromString(userId),
+                CurrentUser.id(),
                 tasklist.getName(),
                 tasklist.getDescription(),
                 new ArrayList<>()
@@ -118,9 +102,11 @@ public class TasklistController {
      *
      * @param tasklist the {@code TasklistUpdateRequest} object containing the updated information for the tasklist
      * @return the updated {@code Tasklist} object
+     * @throws NotFoundException if the tasklist does not exist or is not owned by the authenticated user
      */
     @Operation(summary = "Update an existing tasklist with the provided details.")
     @ApiResponse(responseCode = "200", description = "Tasklist updated successfully")
+    @ApiResponse(responseCode = "404", description = "Tasklist not found or not owned by the user")
     @PostMapping("/update")
     public Tasklist update(@Valid @io.swagger.v3.oas.annotations.parameters.RequestBody(
             description = "Task list request for update", required = true,
@@ -133,12 +119,13 @@ public class TasklistController {
      * Deletes a tasklist identified by its unique identifier.
      *
      * @param id the unique identifier of the tasklist to be deleted
-     * @throws IllegalAccessException if the operation is not permitted for the current user
+     * @throws NotFoundException if the tasklist does not exist or is not owned by the authenticated user
      */
     @Operation(summary = "Delete a tasklist identified by its unique identifier.")
     @ApiResponse(responseCode = "200", description = "Tasklist deleted successfully")
+    @ApiResponse(responseCode = "404", description = "Tasklist not found or not owned by the user")
     @DeleteMapping("/delete/{id}")
-    public void delete(@Parameter(description = "ID of the task list to be deleted") @PathVariable("id") UUID id) throws IllegalAccessException {
+    public void delete(@Parameter(description = "ID of the task list to be deleted") @PathVariable("id") UUID id) {
         tasklistService.delete(id);
     }
 }
\ No newline at end of file
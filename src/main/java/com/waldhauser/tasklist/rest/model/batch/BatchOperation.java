@@ -0,0 +1,74 @@
+package com.waldhauser.tasklist.rest.model.batch;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Represents a single operation of a {@code POST /batch} request.
+ * <p>
+ * The {@code op} field selects the action, one of {@code tasklist.create}, {@code tasklist.update},
+ * {@code tasklist.delete}, {@code task.create}, {@code task.update} and {@code task.delete}. The remaining
+ * fields carry the same values as the request bodies and path variables of the corresponding
+ * {@code /task} and {@code /tasklist} endpoints.
+ * <p>
+ * The {@code id} and {@code tasklistId} fields take either a UUID or a reference {@code $name} to an entity
+ * created earlier in the same batch by an operation with {@code ref} set to {@code name}.
+ */
+public class BatchOperation {
+
+    @NotNull(message = "Operation cannot be null")
+    private String op;
+    private String ref;
+    private String id;
+    private String tasklistId;
+    private String name;
+    private String description;
+
+    /**
+     * Constructs an empty {@code BatchOperation} object, used for deserialization.
+     */
+    public BatchOperation() {
+    }
+
+    /**
+     * Constructs a new {@code BatchOperation} object with all fields.
+     *
+     * @param op the action to be executed, e.g. {@code task.create}
+     * @param ref the name under which the created entity can be referenced by later operations, may be null
+     * @param id the UUID or reference of the task or tasklist to be updated or deleted, may be null
+     * @param tasklistId the UUID or reference of the tasklist a task is created in, may be null
+     * @param name the name of the created or updated task or tasklist, may be null
+     * @param description the description of the created or updated task or tasklist, may be null
+     */
+    public BatchOperation(String op, String ref, String id, String tasklistId, String name, String description) {
+        this.op = op;
+        this.ref = ref;
+        this.id = id;
+        this.tasklistId = tasklistId;
+        this.name = name;
+        this.description = description;
+    }
+
+    public String getOp() { return op; }
+
+    public void setOp(String op) { this.op = op; }
+
+    public String getRef() { return ref; }
+
+    public void setRef(String ref) { this.ref = ref; }
+
+    public String getId() { return id; }
+
+    public void setId(String id) { this.id = id; }
+
+    public String getTasklistId() { return tasklistId; }
+
+    public void setTasklistId(String tasklistId) { this.tasklistId = tasklistId; }
+
+    public String getName() { return name; }
+
+    public void setName(String name) { this.name = name; }
+
+    public String getDescription() { return description; }
+
+    public void setDescription(String description) { this.description = description; }
+}
@@ -0,0 +1,16 @@
+package com.waldhauser.tasklist.rest.model.batch;
+
+import java.util.List;
+
+/**
+ * The response of a {@code POST /batch} request.
+ * <p>
+ * All operations run in one transaction. If every operation succeeded, {@code committed} is true and
+ * {@code results} holds one entry per operation, in request order. Otherwise nothing was written,
+ * {@code committed} is false and {@code results} holds only the failed operation.
+ *
+ * @param committed whether the changes of the batch were committed
+ * @param results the outcomes of the operations
+ */
+public record BatchResponse(boolean committed, List<BatchResult> results) {
+}
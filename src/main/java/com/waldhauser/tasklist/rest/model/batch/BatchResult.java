@@ -0,0 +1,19 @@
+package com.waldhauser.tasklist.rest.model.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+/**
+ * The outcome of a single operation of a {@code POST /batch} request.
+ *
+ * @param index the position of the operation in the request
+ * @param op the action of the operation
+ * @param status the HTTP status the operation would have had as an individual request
+ * @param id the unique identifier of the created, updated or deleted entity, if known
+ * @param result the {@code TaskResponse} or {@code TasklistResponse} of creates and updates
+ * @param error the reason the operation failed
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResult(int index, String op, int status, UUID id, Object result, String error) {
+}
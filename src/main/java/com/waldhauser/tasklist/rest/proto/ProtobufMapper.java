@@ -0,0 +1,151 @@
+package com.waldhauser.tasklist.rest.proto;
+
+import com.google.protobuf.ByteString;
+import com.waldhauser.tasklist.domain.model.Task;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ProtobufMapper converts the REST response models into the messages generated from tasklist.proto and back.
+ * <p>
+ * UUIDs are encoded as 16 raw bytes, most significant bits first. Protobuf does not accept null values,
+ * so null fields are left unset and read back as null.
+ * <p>
+ * Thread Safety:
+ * - The class is stateless and thread-safe.
+ */
+public final class ProtobufMapper {
+
+    private ProtobufMapper() {
+    }
+
+    /**
+     * Converts a {@code TaskResponse} into its protobuf message.
+     *
+     * @param task the task response to convert
+     * @return the corresponding {@code TaskMessage}
+     */
+    public static TaskMessage toMessage(TaskResponse task) {
+        TaskMessage.Builder builder = TaskMessage.newBuilder()
+                .setId(toBytes(task.getId()))
+                .setOwnerId(toBytes(task.getOwnerId()))
+                .setTasklistId(toBytes(task.getTasklistId()));
+        if (task.getTitle() != null) {
+            builder.setTitle(task.getTitle());
+        }
+        if (task.getDescription() != null) {
+            builder.setDescription(task.getDescription());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts a {@code TasklistResponse} including its tasks into its protobuf message.
+     *
+     * @param tasklist the tasklist response to convert
+     * @return the corresponding {@code TasklistMessage}
+     */
+    public static TasklistMessage toMessage(TasklistResponse tasklist) {
+        TasklistMessage.Builder builder = TasklistMessage.newBuilder()
+                .setId(toBytes(tasklist.getId()))
+                .setOwnerId(toBytes(tasklist.getOwnerId()));
+        if (tasklist.getName() != null) {
+            builder.setName(tasklist.getName());
+        }
+        if (tasklist.getDescription() != null) {
+            builder.setDescription(tasklist.getDescription());
+        }
+        if (tasklist.getTasks() != null) {
+            tasklist.getTasks().forEach(task -> builder.addTasks(toMessage(task)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts a {@code Tasklist} entity, as returned by the create and update endpoints, into its protobuf message.
+     *
+     * @param tasklist the tasklist entity to convert
+     * @return the corresponding {@code TasklistMessage}
+     */
+    public static TasklistMessage toMessage(Tasklist tasklist) {
+        List<TaskResponse> tasks = tasklist.getTasks() == null ? List.of() : tasklist.getTasks().stream()
+                .map(ProtobufMapper::toResponse)
+                .toList();
+        return toMessage(new TasklistResponse(
+                tasklist.getId(), tasklist.getOwnerId(), tasklist.getName(), tasklist.getDescription(), tasks));
+    }
+
+    /**
+     * Converts a {@code TaskMessage} back into a {@code TaskResponse}.
+     *
+     * @param message the protobuf message to convert
+     * @return the corresponding {@code TaskResponse}
+     */
+    public static TaskResponse toResponse(TaskMessage message) {
+        return new TaskResponse(
+                toUuid(message.getId()),
+                toUuid(message.getOwnerId()),
+                message.getTitle(),
+                message.getDescription(),
+                toUuid(message.getTasklistId()));
+    }
+
+    /**
+     * Converts a {@code TasklistMessage} back into a {@code TasklistResponse}.
+     *
+     * @param message the protobuf message to convert
+     * @return the corresponding {@code TasklistResponse}
+     */
+    public static TasklistResponse toResponse(TasklistMessage message) {
+        return new TasklistResponse(
+                toUuid(message.getId()),
+                toUuid(message.getOwnerId()),
+                message.getName(),
+                message.getDescription(),
+                message.getTasksList().stream().map(ProtobufMapper::toResponse).toList());
+    }
+
+    /**
+     * Encodes a UUID as 16 raw bytes.
+     *
+     * @param uuid the UUID to encode, may be null
+     * @return the 16 byte representation, or an empty ByteString for null
+     */
+    public static ByteString toBytes(UUID uuid) {
+        if (uuid == null) {
+            return ByteString.EMPTY;
+        }
+        return ByteString.copyFrom(ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array());
+    }
+
+    /**
+     * Decodes a UUID from 16 raw bytes.
+     *
+     * @param bytes the 16 byte representation
+     * @return the decoded UUID, or null if the bytes are empty
+     * @throws IllegalArgumentException if the bytes are neither empty nor 16 bytes long
+     */
+    public static UUID toUuid(ByteString bytes) {
+        if (bytes.isEmpty()) {
+            return null;
+        }
+        if (bytes.size() != 16) {
+            throw new IllegalArgumentException("UUID must be 16 bytes, was " + bytes.size());
+        }
+        ByteBuffer buffer = bytes.asReadOnlyByteBuffer();
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static TaskResponse toResponse(Task task) {
+        return new TaskResponse(task.getId(), task.getOwnerId(), task.getName(), task.getDescription(),
+                task.getTasklist() == null ? null : task.getTasklist().getId());
+    }
+}
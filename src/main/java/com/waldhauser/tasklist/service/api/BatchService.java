@@ -0,0 +1,44 @@
+package com.waldhauser.tasklist.service.api;
+
+import com.waldhauser.tasklist.rest.model.batch.BatchOperation;
+import com.waldhauser.tasklist.rest.model.batch.BatchResult;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * BatchService executes an ordered list of task and tasklist operations as one unit of work.
+ * All operations run in a single transaction, either all of them are committed or none is.
+ */
+public interface BatchService {
+
+    /**
+     * Executes the operations in order on behalf of the given owner.
+     *
+     * @param operations the operations to be executed
+     * @param ownerId the unique identifier of the user executing the batch
+     * @return one {@code BatchResult} per operation, in request order
+     * @throws BatchOperationException if an operation fails, the whole batch is rolled back
+     */
+    List<BatchResult> execute(List<BatchOperation> operations, UUID ownerId);
+
+    /**
+     * Thrown when an operation of a batch fails. Carries the position of the operation, the cause
+     * tells what went wrong.
+     */
+    class BatchOperationException extends RuntimeException {
+
+        private final int index;
+        private final String op;
+
+        public BatchOperationException(int index, String op, RuntimeException cause) {
+            super("Operation " + index + " (" + op + ") failed: " + cause.getMessage(), cause);
+            this.index = index;
+            this.op = op;
+        }
+
+        public int getIndex() { return index; }
+
+        public String getOp() { return op; }
+    }
+}
@@ -5,7 +5,9 @@ import com.waldhauser.tasklist.rest.model.task.TaskCreateRequest;
 import com.waldhauser.tasklist.rest.model.task.TaskResponse;
 import com.waldhauser.tasklist.rest.model.task.TaskUpdateRequest;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,11 +26,23 @@ public interface TaskService {
     List<TaskResponse> getAllTasksByOwnerId(UUID ownerId);
 
     /**
-     * Retrieves a task by its unique identifier.
+     * Retrieves a task by its unique identifier if it belongs to the given owner.
      *
      * @param taskId the unique identifier of the task to be retrieved
-     * @return an {@code Optional<TaskResponse>} containing the task information if found, or an empty {@code Optional} if the task does not*/
-    Optional<TaskResponse> getTaskById(UUID taskId);
+     * @param ownerId the unique identifier of the owner the task must belong to
+     * @return an {@code Optional<TaskResponse>} containing the task information if found, or an empty {@code Optional}
+     *         if the task does not exist or belongs to another owner
+     */
+    Optional<TaskResponse> getTaskById(UUID taskId, UUID ownerId);
+
+    /**
+     * Retrieves the tasks of several tasklists at once, grouped by tasklist, if they belong to the given owner.
+     *
+     * @param tasklistIds the unique identifiers of the tasklists whose tasks are to be retrieved
+     * @param ownerId the unique identifier of the owner the tasks must belong to
+     * @return a map from tasklist ID to its tasks; tasklists without tasks of the owner are missing from the map
+     */
+    Map<UUID, List<TaskResponse>> getTasksByTasklistIds(Collection<UUID> tasklistIds, UUID ownerId);
 
     /**
      * Creates a new task within a specified task list based on the provided {@code TaskCreateRequest}.
@@ -40,8 +54,8 @@ public interface TaskService {
      */
     TaskResponse create(TaskCreateRequest request, UUID tasklistId);
 
-    TaskResponse update(TaskUpdateRequest updatedTask) throws IllegalAccessException;
+    TaskResponse update(TaskUpdateRequest updatedTask);
 
-    void delete(UUID taskId) throws IllegalAccessException;
+    void delete(UUID taskId);
 
 }
@@ -4,6 +4,7 @@ import com.waldhauser.tasklist.domain.model.Tasklist;
 import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
 import com.waldhauser.tasklist.rest.model.tasklist.TasklistUpdateRequest;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,10 +24,32 @@ public interface TasklistService {
     List<TasklistResponse> getAllTasklistsByOwnerId(UUID ownerId);
 
     /**
-     * Retrieves a tasklist by its unique identifier.
+     * Retrieves a tasklist by its unique identifier if it belongs to the given owner.
      *
-     * @param tasklistId the unique identifier of*/
-    TasklistResponse getTasklistById(UUID tasklistId);
+     * @param tasklistId the unique identifier of the tasklist to be retrieved
+     * @param ownerId the unique identifier of the owner the tasklist must belong to
+     * @return a {@code TasklistResponse} object representing the tasklist
+     * @throws com.waldhauser.tasklist.domain.error.NotFoundException if the tasklist does not exist or belongs to another owner
+     */
+    TasklistResponse getTasklistById(UUID tasklistId, UUID ownerId);
+
+    /**
+     * Retrieves all tasklists of an owner without their tasks, for callers loading the tasks separately.
+     *
+     * @param ownerId the unique identifier of the owner whose tasklists are to be retrieved
+     * @return a list of {@code TasklistResponse} objects with {@code tasks} set to null
+     */
+    List<TasklistResponse> getTasklistSummariesByOwnerId(UUID ownerId);
+
+    /**
+     * Retrieves several tasklists at once without their tasks, if they belong to the given owner.
+     *
+     * @param tasklistIds the unique identifiers of the tasklists to be retrieved
+     * @param ownerId the unique identifier of the owner the tasklists must belong to
+     * @return a list of the found {@code TasklistResponse} objects with {@code tasks} set to null;
+     *         missing or foreign tasklists are left out
+     */
+    List<TasklistResponse> getTasklistSummariesByIds(Collection<UUID> tasklistIds, UUID ownerId);
 
     /**
      * Creates and saves a new task list in the system.
@@ -45,8 +68,9 @@ public interface TasklistService {
      * Deletes a tasklist identified by its unique identifier.
      *
      * @param tasklistId the unique identifier of the tasklist to be deleted
-     * @throws IllegalAccessException if the operation is not permitted for the current user
+     * @throws com.waldhauser.tasklist.domain.error.NotFoundException if the tasklist does not exist or belongs to
+     *         another owner
      */
-    void delete(UUID tasklistId) throws IllegalAccessException;
+    void delete(UUID tasklistId);
 
 }
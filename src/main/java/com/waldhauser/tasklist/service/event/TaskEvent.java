@@ -0,0 +1,27 @@
+package com.waldhauser.tasklist.service.event;
+
+import java.util.UUID;
+
+/**
+ * A change of a task or tasklist, pushed to the connected clients of the owner.
+ *
+ * @param id the unique, increasing event ID, sent as SSE id and used for Last-Event-ID replay
+ * @param type the kind of change, e.g. {@code task.created} or {@code tasklist.deleted}
+ * @param entityId the unique identifier of the changed task or tasklist
+ * @param payload the new state of the task or tasklist, null for deletions and resync events
+ */
+public record TaskEvent(long id, String type, UUID entityId, Object payload) {
+
+    public static final String TASK_CREATED = "task.created";
+    public static final String TASK_UPDATED = "task.updated";
+    public static final String TASK_DELETED = "task.deleted";
+    public static final String TASKLIST_CREATED = "tasklist.created";
+    public static final String TASKLIST_UPDATED = "tasklist.updated";
+    public static final String TASKLIST_DELETED = "tasklist.deleted";
+
+    /**
+     * Sent instead of events that were dropped (slow consumer) or can no longer be replayed.
+     * The client has to reload its data with the REST endpoints.
+     */
+    public static final String RESYNC = "resync";
+}
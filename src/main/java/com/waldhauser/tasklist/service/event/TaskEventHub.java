@@ -0,0 +1,303 @@
+package com.waldhauser.tasklist.service.event;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TaskEventHub is the in-process fan-out of task and tasklist changes to the Server-Sent Events
+ * connections of their owner.
+ * <p>
+ * Responsibilities:
+ * - Receives events from the write paths of the services, after the transaction commits.
+ * - Keeps the last {@code app.events.replay-size} events per owner, so a reconnecting client sending
+ *   {@code Last-Event-ID} gets what it missed. If the gap cannot be replayed, a single {@code resync}
+ *   event is sent instead.
+ * - Hands every event to the subscribers of the owner through a bounded queue per subscriber
+ *   ({@code app.events.subscriber-buffer}). A subscriber that does not keep up gets its queue dropped
+ *   and coalesced into one {@code resync} event, memory never grows without limit.
+ * <p>
+ * Idle connections cost no thread: the SseEmitter is asynchronous, and queues are drained by short-lived
+ * virtual threads only while there is something to send. Owner channels without subscribers are removed
+ * after {@code app.events.replay-retention-ms}.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. Publishing and subscribing for one owner are serialized on that owner's
+ *   channel, different owners never contend.
+ */
+@Component
+public class TaskEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventHub.class);
+
+    private final ConcurrentHashMap<UUID, OwnerChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final int replaySize;
+    private final int subscriberBuffer;
+    private final long timeoutMs;
+    private final long replayRetentionMs;
+
+    public TaskEventHub(@Value("${app.events.replay-size:256}") int replaySize,
+                        @Value("${app.events.subscriber-buffer:256}") int subscriberBuffer,
+                        @Value("${app.events.timeout-ms:1800000}") long timeoutMs,
+                        @Value("${app.events.replay-retention-ms:300000}") long replayRetentionMs) {
+        this.replaySize = replaySize;
+        this.subscriberBuffer = subscriberBuffer;
+        this.timeoutMs = timeoutMs;
+        this.replayRetentionMs = replayRetentionMs;
+    }
+
+    /**
+     * Publishes a change to all subscribers of the owner. Inside a transaction the event is held back
+     * until the commit and dropped on rollback.
+     *
+     * @param ownerId the unique identifier of the owner of the changed entity
+     * @param type the kind of change, one of the {@code TaskEvent} type constants
+     * @param entityId the unique identifier of the changed entity
+     * @param payload the new state of the entity, or null for deletions
+     */
+    public void publish(UUID ownerId, String type, UUID entityId, Object payload) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(ownerId, type, entityId, payload);
+                }
+            });
+        } else {
+            dispatch(ownerId, type, entityId, payload);
+        }
+    }
+
+    /**
+     * Opens a new event stream for the owner.
+     *
+     * @param ownerId the unique identifier of the authenticated owner
+     * @param lastEventId the last event ID the client has seen, or null for a fresh connection
+     * @return the SseEmitter to be returned by the controller
+     */
+    public SseEmitter subscribe(UUID ownerId, Long lastEventId) {
+        return subscribe(ownerId, lastEventId, new SseEmitter(timeoutMs));
+    }
+
+    /**
+     * Opens a new event stream for the owner on the given emitter.
+     *
+     * @param ownerId the unique identifier of the authenticated owner
+     * @param lastEventId the last event ID the client has seen, or null for a fresh connection
+     * @param emitter the emitter the events are sent to
+     * @return the given emitter
+     */
+    public SseEmitter subscribe(UUID ownerId, Long lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        boolean added = false;
+        while (!added) {
+            OwnerChannel channel = channels.computeIfAbsent(ownerId, id -> new OwnerChannel(sequence.get()));
+            synchronized (channel) {
+                // maintain() may have removed the empty channel before we locked it, then take a new one
+                if (channels.get(ownerId) == channel) {
+                    channel.subscribers.add(subscriber);
+                    if (lastEventId != null) {
+                        channel.replay(lastEventId, subscriber);
+                    }
+                    added = true;
+                }
+            }
+        }
+        Runnable remove = () -> unsubscribe(ownerId, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        subscriber.drain();
+        return emitter;
+    }
+
+    /**
+     * Retrieves the number of open event streams, over all owners.
+     *
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+    }
+
+    /**
+     * Sends a comment to every subscriber, so proxies keep idle connections open and broken
+     * connections are noticed, and removes owner channels that are no longer needed.
+     */
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-ms:30000}")
+    public void maintain() {
+        long now = System.currentTimeMillis();
+        channels.forEach((ownerId, channel) -> {
+            synchronized (channel) {
+                if (channel.subscribers.isEmpty() && now - channel.lastActivity > replayRetentionMs) {
+                    channels.remove(ownerId, channel);
+                }
+            }
+            channel.subscribers.forEach(Subscriber::heartbeat);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private void dispatch(UUID ownerId, String type, UUID entityId, Object payload) {
+        OwnerChannel channel = channels.get(ownerId);
+        if (channel == null) {
+            // nobody listens and nobody can reconnect with a replay, no need to keep the event
+            sequence.incrementAndGet();
+            return;
+        }
+        synchronized (channel) {
+            TaskEvent event = new TaskEvent(sequence.incrementAndGet(), type, entityId, payload);
+            channel.remember(event);
+            channel.subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    private void unsubscribe(UUID ownerId, Subscriber subscriber) {
+        OwnerChannel channel = channels.get(ownerId);
+        if (channel != null) {
+            synchronized (channel) {
+                channel.subscribers.remove(subscriber);
+                channel.lastActivity = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * The subscribers and the replay buffer of one owner. Guarded by its own monitor.
+     */
+    private final class OwnerChannel {
+
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final Deque<TaskEvent> recent = new ArrayDeque<>();
+        // events with an ID up to this one can no longer be replayed
+        private long forgottenUpTo;
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        private OwnerChannel(long createdAt) {
+            this.forgottenUpTo = createdAt;
+        }
+
+        private void remember(TaskEvent event) {
+            recent.addLast(event);
+            if (recent.size() > replaySize) {
+                forgottenUpTo = recent.removeFirst().id();
+            }
+            lastActivity = System.currentTimeMillis();
+        }
+
+        private void replay(long lastEventId, Subscriber subscriber) {
+            if (lastEventId < forgottenUpTo) {
+                subscriber.overflow();
+                return;
+            }
+            for (TaskEvent event : recent) {
+                if (event.id() > lastEventId) {
+                    subscriber.offer(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * One open event stream. Events are queued without blocking the publisher and sent by at most one
+     * virtual thread at a time, in order.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<TaskEvent> queue = new ArrayBlockingQueue<>(subscriberBuffer);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean heartbeat = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(TaskEvent event) {
+            if (!queue.offer(event)) {
+                overflow();
+            }
+            drain();
+        }
+
+        private void overflow() {
+            // slow consumer: drop what is queued, the client resyncs instead
+            overflowed.set(true);
+            queue.clear();
+        }
+
+        private void heartbeat() {
+            heartbeat.set(true);
+            drain();
+        }
+
+        private void drain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::sendQueued);
+            }
+        }
+
+        private void sendQueued() {
+            try {
+                while (true) {
+                    if (overflowed.getAndSet(false)) {
+                        queue.clear();
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(sequence.get()))
+                                .name(TaskEvent.RESYNC)
+                                .data(new TaskEvent(sequence.get(), TaskEvent.RESYNC, null, null), MediaType.APPLICATION_JSON));
+                    }
+                    TaskEvent event = queue.poll();
+                    if (event == null) {
+                        if (heartbeat.getAndSet(false)) {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                        }
+                        draining.set(false);
+                        // an event may have been queued after poll() but before draining was reset
+                        if ((queue.isEmpty() && !overflowed.get()) || !draining.compareAndSet(false, true)) {
+                            return;
+                        }
+                        continue;
+                    }
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(event.id()))
+                            .name(event.type())
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Event stream closed: {}", e.getMessage());
+                draining.set(false);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.waldhauser.tasklist.service.impl;
+
+import com.waldhauser.tasklist.domain.error.NotFoundException;
+import com.waldhauser.tasklist.domain.model.Task;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import com.waldhauser.tasklist.rest.model.batch.BatchOperation;
+import com.waldhauser.tasklist.rest.model.batch.BatchResult;
+import com.waldhauser.tasklist.rest.model.task.TaskCreateRequest;
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import com.waldhauser.tasklist.rest.model.task.TaskUpdateRequest;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistCreateRequest;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistUpdateRequest;
+import com.waldhauser.tasklist.service.api.BatchService;
+import com.waldhauser.tasklist.service.event.TaskEvent;
+import com.waldhauser.tasklist.service.event.TaskEventHub;
+import com.waldhauser.tasklist.service.support.ReadCoalescer;
+import com.waldhauser.tasklist.service.support.RepositoryGuard;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * BatchServiceImpl executes the operations of a {@code POST /batch} request in one transaction, run through the
+ * {@link RepositoryGuard} like the single writes: while the circuit breaker is open no connection is taken.
+ * <p>
+ * Entities created or loaded by earlier operations are kept for the rest of the batch, so a task created
+ * in a tasklist of the same batch needs no lookup query. Inserts and updates are only written at the end of
+ * the transaction (or before the next owner-scoped query), where Hibernate sends them as JDBC batches
+ * ({@code spring.jpa.properties.hibernate.jdbc.batch_size}).
+ * <p>
+ * Each operation is validated with the constraints of the corresponding single request DTO and is owner-scoped
+ * like the single endpoints. Events of the changes are published after the commit.
+ * <p>
+ * Thread Safety:
+ * - The service is stateless, the state of a batch lives in a {@code BatchContext} per call.
+ */
+@Service
+public class BatchServiceImpl implements BatchService {
+
+    private final TaskRepository taskRepository;
+    private final TasklistRepository tasklistRepository;
+    private final TaskEventHub taskEventHub;
+    private final ReadCoalescer readCoalescer;
+    private final RepositoryGuard repositoryGuard;
+    private final Validator validator;
+    private final int maxOperations;
+
+    public BatchServiceImpl(TaskRepository taskRepository,
+                            TasklistRepository tasklistRepository,
+                            TaskEventHub taskEventHub,
+                            ReadCoalescer readCoalescer,
+                            RepositoryGuard repositoryGuard,
+                            Validator validator,
+                            @Value("${app.batch.max-operations:500}") int maxOperations) {
+        this.taskRepository = taskRepository;
+        this.tasklistRepository = tasklistRepository;
+        this.taskEventHub = taskEventHub;
+        this.readCoalescer = readCoalescer;
+        this.repositoryGuard = repositoryGuard;
+        this.validator = validator;
+        this.maxOperations = maxOperations;
+    }
+
+    public List<BatchResult> execute(List<BatchOperation> operations, UUID ownerId) {
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("A batch can have at most " + maxOperations + " operations");
+        }
+
+        // the breaker is checked before the transaction takes a connection
+        return repositoryGuard.inTransaction(() -> {
+            // in-flight reads of the owner are detached once the batch commits
+            readCoalescer.invalidate(ownerId);
+            BatchContext context = new BatchContext(ownerId);
+            List<BatchResult> results = new ArrayList<>(operations.size());
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperation operation = operations.get(i);
+                try {
+                    results.add(execute(i, operation, context));
+                } catch (NotFoundException | IllegalArgumentException | ConstraintViolationException e) {
+                    // rolls back the whole batch
+                    throw new BatchOperationException(i, operation.getOp(), e);
+                }
+            }
+            return results;
+        });
+    }
+
+    private BatchResult execute(int index, BatchOperation operation, BatchContext context) {
+        if (operation.getOp() == null) {
+            throw new IllegalArgumentException("Operation cannot be null");
+        }
+        return switch (operation.getOp()) {
+            case "tasklist.create" -> createTasklist(index, operation, context);
+            case "tasklist.update" -> updateTasklist(index, operation, context);
+            case "tasklist.delete" -> deleteTasklist(index, operation, context);
+            case "task.create" -> createTask(index, operation, context);
+            case "task.update" -> updateTask(index, operation, context);
+            case "task.delete" -> deleteTask(index, operation, context);
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation.getOp());
+        };
+    }
+
+    // ---------- TASKLIST ----------
+    private BatchResult createTasklist(int index, BatchOperation operation, BatchContext context) {
+        TasklistCreateRequest request = validate(new TasklistCreateRequest(operation.getName(), operation.getDescription()));
+
+        Tasklist tasklist = tasklistRepository.save(
+                new Tasklist(context.ownerId, request.getName(), request.getDescription(), new ArrayList<>()));
+        context.tasklists.put(tasklist.getId(), tasklist);
+        context.register(operation.getRef(), tasklist.getId());
+
+        TasklistResponse response = toResponse(tasklist);
+        taskEventHub.publish(context.ownerId, TaskEvent.TASKLIST_CREATED, tasklist.getId(), response);
+        return new BatchResult(index, operation.getOp(), 200, tasklist.getId(), response, null);
+    }
+
+    private BatchResult updateTasklist(int index, BatchOperation operation, BatchContext context) {
+        TasklistUpdateRequest request = validate(
+                new TasklistUpdateRequest(context.resolve(operation.getId()), operation.getName(), operation.getDescription()));
+
+        // changes are written by dirty checking at flush time
+        Tasklist tasklist = context.tasklist(request.getId());
+        tasklist.setName(request.getName());
+        if (request.getDescription() != null) {
+            tasklist.setDescription(request.getDescription());
+        }
+
+        TasklistResponse response = toResponse(tasklist);
+        taskEventHub.publish(context.ownerId, TaskEvent.TASKLIST_UPDATED, tasklist.getId(), response);
+        return new BatchResult(index, operation.getOp(), 200, tasklist.getId(), response, null);
+    }
+
+    private BatchResult deleteTasklist(int index, BatchOperation operation, BatchContext context) {
+        UUID tasklistId = required(context.resolve(operation.getId()), "ID cannot be null");
+
+        // same owner-scoped statements as TasklistServiceImpl.delete
+        taskRepository.deleteByTasklistIdAndTasklistOwnerId(tasklistId, context.ownerId);
+        if (tasklistRepository.deleteByIdAndOwnerId(tasklistId, context.ownerId) == 0) {
+            throw NotFoundException.TASKLIST;
+        }
+        context.tasklists.remove(tasklistId);
+        context.tasks.values().removeIf(task -> task.getTasklist().getId().equals(tasklistId));
+
+        taskEventHub.publish(context.ownerId, TaskEvent.TASKLIST_DELETED, tasklistId, null);
+        return new BatchResult(index, operation.getOp(), 200, tasklistId, null, null);
+    }
+
+    // ---------- TASK ----------
+    private BatchResult createTask(int index, BatchOperation operation, BatchContext context) {
+        TaskCreateRequest request = new TaskCreateRequest();
+        request.setTasklistId(context.resolve(operation.getTasklistId()));
+        request.setName(operation.getName());
+        request.setDescription(operation.getDescription());
+        validate(request);
+
+        Task task = new Task();
+        task.setOwnerId(context.ownerId);
+        task.setName(request.getName());
+        task.setDescription(request.getDescription());
+        task.setTasklist(context.tasklist(request.getTasklistId()));
+        task = taskRepository.save(task);
+        context.tasks.put(task.getId(), task);
+        context.register(operation.getRef(), task.getId());
+
+        TaskResponse response = toResponse(task);
+        taskEventHub.publish(context.ownerId, TaskEvent.TASK_CREATED, task.getId(), response);
+        return new BatchResult(index, operation.getOp(), 200, task.getId(), response, null);
+    }
+
+    private BatchResult updateTask(int index, BatchOperation operation, BatchContext context) {
+        TaskUpdateRequest request = new TaskUpdateRequest();
+        request.setId(context.resolve(operation.getId()));
+        request.setName(operation.getName());
+        request.setDescription(operation.getDescription());
+        validate(request);
+
+        // changes are written by dirty checking at flush time
+        Task task = context.task(request.getId());
+        task.setName(request.getName());
+        if (request.getDescription() != null) {
+            task.setDescription(request.getDescription());
+        }
+
+        TaskResponse response = toResponse(task);
+        taskEventHub.publish(context.ownerId, TaskEvent.TASK_UPDATED, task.getId(), response);
+        return new BatchResult(index, operation.getOp(), 200, task.getId(), response, null);
+    }
+
+    private BatchResult deleteTask(int index, BatchOperation operation, BatchContext context) {
+        UUID taskId = required(context.resolve(operation.getId()), "ID cannot be null");
+
+        Task task = context.tasks.remove(taskId);
+        if (task != null) {
+            // known entity, the delete is batched with the other writes
+            taskRepository.delete(task);
+        } else if (taskRepository.deleteByIdAndOwnerId(taskId, context.ownerId) == 0) {
+            throw NotFoundException.TASK;
+        }
+
+        taskEventHub.publish(context.ownerId, TaskEvent.TASK_DELETED, taskId, null);
+        return new BatchResult(index, operation.getOp(), 200, taskId, null, null);
+    }
+
+    // ---------- helpers ----------
+    private <T> T validate(T request) {
+        Set<ConstraintViolation<T>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations.iterator().next().getMessage(), violations);
+        }
+        return request;
+    }
+
+    private static UUID required(UUID id, String message) {
+        if (id == null) {
+            throw new IllegalArgumentException(message);
+        }
+        return id;
+    }
+
+    private static TaskResponse toResponse(Task task) {
+        return new TaskResponse(
+                task.getId(),
+                task.getOwnerId(),
+                task.getName(),
+                task.getDescription(),
+                task.getTasklist().getId()
+        );
+    }
+
+    private static TasklistResponse toResponse(Tasklist tasklist) {
+        return new TasklistResponse(
+                tasklist.getId(),
+                tasklist.getOwnerId(),
+                tasklist.getName(),
+                tasklist.getDescription(),
+                null
+        );
+    }
+
+    /**
+     * The references and the entities known to one batch.
+     */
+    private final class BatchContext {
+
+        private final UUID ownerId;
+        private final Map<String, UUID> refs = new HashMap<>();
+        private final Map<UUID, Tasklist> tasklists = new HashMap<>();
+        private final Map<UUID, Task> tasks = new HashMap<>();
+
+        private BatchContext(UUID ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        private void register(String ref, UUID id) {
+            if (ref != null && refs.putIfAbsent(ref, id) != null) {
+                throw new IllegalArgumentException("Duplicate reference: " + ref);
+            }
+        }
+
+        // a UUID, or $name for an entity created earlier in the batch
+        private UUID resolve(String value) {
+            if (value == null) {
+                return null;
+            }
+            if (value.startsWith("$")) {
+                UUID id = refs.get(value.substring(1));
+                if (id == null) {
+                    throw new IllegalArgumentException("Unknown reference: " + value);
+                }
+                return id;
+            }
+            return UUID.fromString(value);
+        }
+
+        private Tasklist tasklist(UUID tasklistId) {
+            Tasklist tasklist = tasklists.get(tasklistId);
+            if (tasklist == null) {
+                tasklist = tasklistRepository.findByIdAndOwnerId(tasklistId, ownerId)
+                        .orElseThrow(() -> NotFoundException.TASKLIST);
+                tasklists.put(tasklistId, tasklist);
+            }
+            return tasklist;
+        }
+
+        private Task task(UUID taskId) {
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                task = taskRepository.findByIdAndOwnerId(taskId, ownerId)
+                        .orElseThrow(() -> NotFoundException.TASK);
+                tasks.put(taskId, task);
+            }
+            return task;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.waldhauser.tasklist.task;
 
+import com.waldhauser.tasklist.config.security.CurrentUser;
+import com.waldhauser.tasklist.domain.error.NotFoundException;
 import com.waldhauser.tasklist.domain.model.Task;
 import com.waldhauser.tasklist.domain.repository.TaskRepository;
 import com.waldhauser.tasklist.rest.model.task.TaskCreateRequest;
@@ -8,91 +10,135 @@ import com.waldhauser.tasklist.rest.model.task.TaskUpdateRequest;
 import com.waldhauser.tasklist.domain.model.Tasklist;
 import com.waldhauser.tasklist.domain.repository.TasklistRepository;
 import com.waldhauser.tasklist.service.api.TaskService;
-import jakarta.persistence.EntityNotFoundException;
+import com.waldhauser.tasklist.service.event.TaskEvent;
+import com.waldhauser.tasklist.service.event.TaskEventHub;
+import com.waldhauser.tasklist.service.support.KnownIds;
+import com.waldhauser.tasklist.service.support.ReadCoalescer;
+import com.waldhauser.tasklist.service.support.RepositoryGuard;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("tasklist.service")
 public class TaskServiceImpl implements TaskService {
 
+    private static final String TASKS_VIEW = "task.getAll";
+
     private final TaskRepository taskRepository;
     private final TasklistRepository tasklistRepository;
-
-    public TaskServiceImpl(TaskRepository taskRepository, TasklistRepository tasklistRepository) {
+    private final TaskEventHub taskEventHub;
+    private final ReadCoalescer readCoalescer;
+    private final RepositoryGuard repositoryGuard;
+    private final KnownIds knownIds;
+
+    public TaskServiceImpl(TaskRepository taskRepository, TasklistRepository tasklistRepository,
+                           TaskEventHub taskEventHub, ReadCoalescer readCoalescer, RepositoryGuard repositoryGuard,
+                           KnownIds knownIds) {
         this.taskRepository = taskRepository;
         this.tasklistRepository = tasklistRepository;
+        this.taskEventHub = taskEventHub;
+        this.readCoalescer = readCoalescer;
+        this.repositoryGuard = repositoryGuard;
+        this.knownIds = knownIds;
     }
 
     // ---------- Get all tasks by ownerId ----------
     public List<TaskResponse> getAllTasksByOwnerId(UUID ownerId) {
-        return taskRepository.findByOwnerId(ownerId).stream()
-                .map(task -> new TaskResponse(
-                        task.getId(),
-                        task.getOwnerId(),
-                        task.getName(),
-                        task.getDescription(),
-                        task.getTasklist().getId()
-                ))
-                .collect(Collectors.toList());
+        // concurrent identical calls (several devices, retries) share one query,
+        // while the database is unavailable the last result of the owner is served
+        return repositoryGuard.readView(TASKS_VIEW, ownerId, () -> readCoalescer.coalesce(TASKS_VIEW, ownerId,
+                () -> repositoryGuard.readOnly(() -> taskRepository.findByOwnerId(ownerId).stream()
+                        .map(task -> new TaskResponse(
+                                task.getId(),
+                                task.getOwnerId(),
+                                task.getName(),
+                                task.getDescription(),
+                                task.getTasklist().getId()
+                        ))
+                        .toList())));
     }
 
     // ---------- Get single task by its id ----------
-    public Optional<TaskResponse> getTaskById(UUID taskId) {
-        return taskRepository.findById(taskId)
+    public Optional<TaskResponse> getTaskById(UUID taskId, UUID ownerId) {
+        // an id that was never created is answered without a query
+        if (!knownIds.mightContainTask(taskId)) {
+            return Optional.empty();
+        }
+        return repositoryGuard.readFromView(TASKS_VIEW, ownerId, () -> repositoryGuard.readOnly(
+                () -> taskRepository.findByIdAndOwnerId(taskId, ownerId)
+                        .map(task -> new TaskResponse(
+                                task.getId(),
+                                task.getOwnerId(),
+                                task.getName(),
+                                task.getDescription(),
+                                task.getTasklist().getId()
+                        ))),
+                // a task missing in the snapshot is unknown, not absent
+                (List<TaskResponse> tasks) -> tasks.stream()
+                        .filter(task -> task.getId().equals(taskId))
+                        .findFirst()
+                        .map(Optional::of)
+                        .orElse(null));
+    }
+
+    // ---------- Get tasks of several tasklists, grouped by tasklist ----------
+    public Map<UUID, List<TaskResponse>> getTasksByTasklistIds(Collection<UUID> tasklistIds, UUID ownerId) {
+        return repositoryGuard.inReadOnlyTransaction(() -> taskRepository.findByTasklistIdInAndOwnerId(tasklistIds, ownerId)).stream()
                 .map(task -> new TaskResponse(
                         task.getId(),
                         task.getOwnerId(),
                         task.getName(),
                         task.getDescription(),
                         task.getTasklist().getId()
-                ));
+                ))
+                .collect(Collectors.groupingBy(TaskResponse::getTasklistId));
     }
 
     // ---------- CREATE ----------
     public TaskResponse create(TaskCreateRequest request, UUID tasklistId) {
-        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
+        UUID userId = CurrentUser.id();
 
-        // validate tasklist exists and get it
-        Tasklist tasklist = tasklistRepository.findById(tasklistId)
-                .orElseThrow(() -> new EntityNotFoundException("Tasklist not found"));
+        // validate tasklist exists, belongs to the user and get it
+        Tasklist tasklist = repositoryGuard.call(() -> tasklistRepository.findByIdAndOwnerId(tasklistId, userId))
+                .orElseThrow(() -> NotFoundException.TASKLIST);
 
         // create and populate task
         Task task = new Task();
-        task.setOwnerId(UUID.fromString(userId));
+        task.setOwnerId(userId);
         task.setName(request.getName());
         task.setDescription(request.getDescription());
         task.setTasklist(tasklist);
 
         // save task
-        Task savedTask = taskRepository.save(task);
+        Task savedTask = repositoryGuard.call(() -> taskRepository.save(task));
 
         // return TaskResponse to avoid circular reference
-        return new TaskResponse(
+        TaskResponse response = new TaskResponse(
                 savedTask.getId(),
                 savedTask.getOwnerId(),
                 savedTask.getName(), // This maps to 'title' in TaskResponse
                 savedTask.getDescription(),
                 savedTask.getTasklist().getId()
         );
+        changed(response.getOwnerId(), TaskEvent.TASK_CREATED, response.getId(), response);
+        return response;
     }
 
     // ---------- UPDATE ----------
-    public TaskResponse update(TaskUpdateRequest updatedTask) throws IllegalAccessException {
-        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
+    public TaskResponse update(TaskUpdateRequest updatedTask) {
+        UUID userId = CurrentUser.id();
 
-        Task task = taskRepository.findById(updatedTask.getId())
-                .orElseThrow(() -> new EntityNotFoundException("Task not found"));
-
-        // check owner
-        if(!task.getOwnerId().equals(UUID.fromString(userId))) {
-            throw new IllegalAccessException("You aren't allowed to update this task");
-        }
+        // owner is part of the query, tasks of other users are never loaded
+        Task task = repositoryGuard.call(() -> taskRepository.findByIdAndOwnerId(updatedTask.getId(), userId))
+                .orElseThrow(() -> NotFoundException.TASK);
 
         if(updatedTask.getName() != null) {
             task.setName(updatedTask.getName());
@@ -101,30 +147,40 @@ public class TaskServiceImpl implements TaskService {
             task.setDescription(updatedTask.getDescription());
         }
 
-        Task savedTask = taskRepository.save(task);
+        Task savedTask = repositoryGuard.call(() -> taskRepository.save(task));
 
         // Return TaskResponse to avoid circular reference
-        return new TaskResponse(
+        TaskResponse response = new TaskResponse(
                 savedTask.getId(),
                 savedTask.getOwnerId(),
                 savedTask.getName(), // This maps to 'title' in TaskResponse
                 savedTask.getDescription(),
                 savedTask.getTasklist().getId()
         );
+        changed(response.getOwnerId(), TaskEvent.TASK_UPDATED, response.getId(), response);
+        return response;
     }
 
     // ---------- DELETE ----------
-    public void delete(UUID taskId) throws IllegalAccessException {
-        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new EntityNotFoundException("Task not found"));
-
-        if(task.getOwnerId().equals(UUID.fromString(userId))) {
-            taskRepository.delete(task);
-        } else {
-            throw new IllegalAccessException("You aren't allowed to delete this task");
-        }
+    public void delete(UUID taskId) {
+        UUID userId = CurrentUser.id();
+
+        // the breaker is checked before the transaction takes a connection
+        repositoryGuard.inTransaction(() -> {
+            // single owner-scoped statement, nothing is deleted for tasks of other users
+            if (taskRepository.deleteByIdAndOwnerId(taskId, userId) == 0) {
+                throw NotFoundException.TASK;
+            }
+            // sent after the commit of this transaction
+            changed(userId, TaskEvent.TASK_DELETED, taskId, null);
+            return null;
+        });
+    }
 
+    // notifies subscribers and in-flight reads of a change, after the commit of a running transaction
+    private void changed(UUID ownerId, String type, UUID taskId, TaskResponse payload) {
+        readCoalescer.invalidate(ownerId);
+        taskEventHub.publish(ownerId, type, taskId, payload);
     }
 
 }
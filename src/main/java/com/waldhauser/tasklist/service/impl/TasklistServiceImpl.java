@@ -1,6 +1,7 @@
 package com.waldhauser.tasklist.service.impl;
 
-import com.waldhauser.tasklist.domain.model.Task;
+import com.waldhauser.tasklist.config.security.CurrentUser;
+import com.waldhauser.tasklist.domain.error.NotFoundException;
 import com.waldhauser.tasklist.domain.model.Tasklist;
 import com.waldhauser.tasklist.domain.repository.TaskRepository;
 import com.waldhauser.tasklist.domain.repository.TasklistRepository;
@@ -8,73 +9,82 @@ import com.waldhauser.tasklist.rest.model.task.TaskResponse;
 import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
 import com.waldhauser.tasklist.rest.model.tasklist.TasklistUpdateRequest;
 import com.waldhauser.tasklist.service.api.TasklistService;
-import jakarta.persistence.EntityNotFoundException;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.waldhauser.tasklist.service.event.TaskEvent;
+import com.waldhauser.tasklist.service.event.TaskEventHub;
+import com.waldhauser.tasklist.service.support.KnownIds;
+import com.waldhauser.tasklist.service.support.ReadCoalescer;
+import com.waldhauser.tasklist.service.support.RepositoryGuard;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("tasklist.service")
 public class TasklistServiceImpl implements TasklistService {
 
+    private static final String TASKLISTS_VIEW = "tasklist.getAll";
+
     private final TasklistRepository tasklistRepository;
     private final TaskRepository taskRepository;
-
-    public TasklistServiceImpl(TasklistRepository tasklistRepository, TaskRepository taskRepository) {
+    private final TaskEventHub taskEventHub;
+    private final ReadCoalescer readCoalescer;
+    private final RepositoryGuard repositoryGuard;
+    private final KnownIds knownIds;
+
+    public TasklistServiceImpl(TasklistRepository tasklistRepository, TaskRepository taskRepository,
+                               TaskEventHub taskEventHub, ReadCoalescer readCoalescer,
+                               RepositoryGuard repositoryGuard, KnownIds knownIds) {
         this.tasklistRepository = tasklistRepository;
         this.taskRepository = taskRepository;
+        this.taskEventHub = taskEventHub;
+        this.readCoalescer = readCoalescer;
+        this.repositoryGuard = repositoryGuard;
+        this.knownIds = knownIds;
     }
 
     // ---------- Get all tasklists by ownerId ----------
     public List<TasklistResponse> getAllTasklistsByOwnerId(UUID ownerId) {
-        return tasklistRepository.findByOwnerId(ownerId).stream()
-                .map(tasklist -> {
-                    List<TaskResponse> taskResponses = tasklist.getTasks().stream()
-                            .map(task -> new TaskResponse(
-                                    task.getId(),
-                                    task.getOwnerId(),
-                                    task.getName(),
-                                    task.getDescription(),
-                                    task.getTasklist().getId()
-                            ))
-                            .collect(Collectors.toList());
-
-                    return new TasklistResponse(
-                            tasklist.getId(),
-                            tasklist.getOwnerId(),
-                            tasklist.getName(),
-                            tasklist.getDescription(),
-                            taskResponses
-                    );
-                })
-                .collect(Collectors.toList());
+        // concurrent identical calls (several devices, retries) share one computation,
+        // while the database is unavailable the last result of the owner is served;
+        // the tasklists and their tasks are fetched with one statement
+        return repositoryGuard.readView(TASKLISTS_VIEW, ownerId, () -> readCoalescer.coalesce(TASKLISTS_VIEW, ownerId,
+                () -> repositoryGuard.readOnly(() -> tasklistRepository.findWithTasksByOwnerId(ownerId).stream()
+                        .map(this::toResponse)
+                        .toList())));
     }
 
     // ---------- Get single tasklist by tasklistId ----------
-    public TasklistResponse getTasklistById(UUID tasklistId) {
-        return tasklistRepository.findById(tasklistId)
-                .map(tasklist -> {
-                    List<TaskResponse> taskResponses = tasklist.getTasks().stream()
-                            .map(task -> new TaskResponse(
-                                    task.getId(),
-                                    task.getOwnerId(),
-                                    task.getName(),
-                                    task.getDescription(),
-                                    task.getTasklist().getId()
-                            ))
-                            .collect(Collectors.toList());
-
-                    return new TasklistResponse(
-                            tasklist.getId(),
-                            tasklist.getOwnerId(),
-                            tasklist.getName(),
-                            tasklist.getDescription(),
-                            taskResponses
-                    );
-                })
-                .orElseThrow(() -> new EntityNotFoundException("Tasklist not found with id: " + tasklistId));
+    public TasklistResponse getTasklistById(UUID tasklistId, UUID ownerId) {
+        // an id that was never created is answered without a query
+        if (!knownIds.mightContainTasklist(tasklistId)) {
+            throw NotFoundException.TASKLIST;
+        }
+        return repositoryGuard.readFromView(TASKLISTS_VIEW, ownerId, () -> repositoryGuard.readOnly(
+                        () -> tasklistRepository.findWithTasksByIdAndOwnerId(tasklistId, ownerId)
+                                .map(this::toResponse)
+                                .orElseThrow(() -> NotFoundException.TASKLIST)),
+                // a tasklist missing in the snapshot is unknown, not absent
+                (List<TasklistResponse> tasklists) -> tasklists.stream()
+                        .filter(tasklist -> tasklist.getId().equals(tasklistId))
+                        .findFirst()
+                        .orElse(null));
+    }
+
+    // ---------- Get tasklists without their tasks ----------
+    public List<TasklistResponse> getTasklistSummariesByOwnerId(UUID ownerId) {
+        return repositoryGuard.inReadOnlyTransaction(() -> tasklistRepository.findByOwnerId(ownerId)).stream()
+                .map(this::toSummary)
+                .collect(Collectors.toList());
+    }
+
+    public List<TasklistResponse> getTasklistSummariesByIds(Collection<UUID> tasklistIds, UUID ownerId) {
+        return repositoryGuard.inReadOnlyTransaction(() -> tasklistRepository.findByIdInAndOwnerId(tasklistIds, ownerId)).stream()
+                .map(this::toSummary)
+                .collect(Collectors.toList());
     }
 
     // -------------------- CREATE -------------------------\
@@ -82,37 +92,78 @@ public class TasklistServiceImpl implements TasklistService {
             tasklist.setName(tasklist.getName());
             tasklist.setDescription(tasklist.getDescription());
             tasklist.setOwnerId(tasklist.getOwnerId());
-            return tasklistRepository.save(tasklist);
+            Tasklist savedTasklist = repositoryGuard.call(() -> tasklistRepository.save(tasklist));
+            changed(savedTasklist.getOwnerId(), TaskEvent.TASKLIST_CREATED, savedTasklist.getId(), toSummary(savedTasklist));
+            return savedTasklist;
     }
 
     // ---------------------- UPDATE ------------------------
     public Tasklist update(TasklistUpdateRequest updatedTasklist) {
-            Tasklist tasklist = tasklistRepository.findById(updatedTasklist.getId())
-                    .orElseThrow(() -> new EntityNotFoundException("Tasklist not found"));
+            UUID userId = CurrentUser.id();
+            Tasklist tasklist = repositoryGuard.call(() -> tasklistRepository.findByIdAndOwnerId(updatedTasklist.getId(), userId))
+                    .orElseThrow(() -> NotFoundException.TASKLIST);
             if(updatedTasklist.getName() != null){tasklist.setName(updatedTasklist.getName());}
             if(updatedTasklist.getDescription() != null){tasklist.setDescription(updatedTasklist.getDescription());}
-            return tasklistRepository.save(tasklist);
+            Tasklist savedTasklist = repositoryGuard.call(() -> tasklistRepository.save(tasklist));
+            changed(savedTasklist.getOwnerId(), TaskEvent.TASKLIST_UPDATED, savedTasklist.getId(), toSummary(savedTasklist));
+            return savedTasklist;
     }
 
     // ---------- DELETE ----------
-    public void delete(UUID tasklistId) throws IllegalAccessException {
-        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
-        Tasklist tasklist = tasklistRepository.findById(tasklistId)
-                .orElseThrow(() -> new EntityNotFoundException("Tasklist not found"));
-
-        if(tasklist.getOwnerId().equals(UUID.fromString(userId))) {
-            // delete all tasks associated with this tasklist
-            List<Task> associatedTasks = taskRepository.findByTasklistId(tasklistId);
-            if (!associatedTasks.isEmpty()) {
-                taskRepository.deleteAll(associatedTasks);
-            }
+    public void delete(UUID tasklistId) {
+        UUID ownerId = CurrentUser.id();
+
+        // the breaker is checked before the transaction takes a connection
+        repositoryGuard.inTransaction(() -> {
+            // delete all tasks associated with this tasklist, only if the tasklist is owned by the user
+            taskRepository.deleteByTasklistIdAndTasklistOwnerId(tasklistId, ownerId);
 
             // delete the tasklist itself
-            tasklistRepository.delete(tasklist);
-        } else {
-            throw new IllegalAccessException("You aren't allowed to delete this tasklist");
-        }
+            if (tasklistRepository.deleteByIdAndOwnerId(tasklistId, ownerId) == 0) {
+                throw NotFoundException.TASKLIST;
+            }
+            // sent after the commit of this transaction, the deleted tasks are implied
+            changed(ownerId, TaskEvent.TASKLIST_DELETED, tasklistId, null);
+            return null;
+        });
+    }
+
+    // notifies subscribers and in-flight reads of a change, after the commit of a running transaction
+    private void changed(UUID ownerId, String type, UUID tasklistId, TasklistResponse payload) {
+        readCoalescer.invalidate(ownerId);
+        taskEventHub.publish(ownerId, type, tasklistId, payload);
     }
 
+    // tasklist with its tasks, which have to be fetched with it
+    private TasklistResponse toResponse(Tasklist tasklist) {
+        List<TaskResponse> taskResponses = tasklist.getTasks().stream()
+                .map(task -> new TaskResponse(
+                        task.getId(),
+                        task.getOwnerId(),
+                        task.getName(),
+                        task.getDescription(),
+                        task.getTasklist().getId()
+                ))
+                .collect(Collectors.toList());
+
+        return new TasklistResponse(
+                tasklist.getId(),
+                tasklist.getOwnerId(),
+                tasklist.getName(),
+                tasklist.getDescription(),
+                taskResponses
+        );
+    }
+
+    // tasklist without its tasks, for event payloads and callers loading the tasks separately
+    private TasklistResponse toSummary(Tasklist tasklist) {
+        return new TasklistResponse(
+                tasklist.getId(),
+                tasklist.getOwnerId(),
+                tasklist.getName(),
+                tasklist.getDescription(),
+                null
+        );
+    }
 
 }
@@ -5,10 +5,13 @@ import com.waldhauser.tasklist.domain.model.User;
 import com.waldhauser.tasklist.domain.repository.UserRepository;
 import com.waldhauser.tasklist.rest.model.user.LoginResponse;
 import com.waldhauser.tasklist.service.api.UserService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed("tasklist.service")
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
@@ -32,17 +35,14 @@ public class UserServiceImpl implements UserService {
     // ----------------------------------------------
 
     // ------------------- LOGIN --------------------
+    @Transactional(readOnly = true)
     public LoginResponse login(String name, String password) {
-        // find user
-        if (userRepository.findByName(name).isPresent()) {
-            // finds user and his password
-            User user = userRepository.findByName(name).get();
-            if (user.getPassword().equals(password)) {
-                return new LoginResponse(user.getId(), user.getName(),jwtMaker.generateToken(user));
-            }
-        } else { throw new IllegalStateException("Wrong username or password."); }
-
-        // default return, likely won't ever get here
+        // finds user and his password, with one query
+        User user = userRepository.findByName(name)
+                .orElseThrow(() -> new IllegalStateException("Wrong username or password."));
+        if (user.getPassword().equals(password)) {
+            return new LoginResponse(user.getId(), user.getName(),jwtMaker.generateToken(user));
+        }
         throw new IllegalStateException("Wrong username or password.");
     }
     // ----------------------------------------------
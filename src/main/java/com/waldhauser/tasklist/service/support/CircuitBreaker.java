@@ -0,0 +1,114 @@
+package com.waldhauser.tasklist.service.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CircuitBreaker is a small consecutive-failure circuit breaker.
+ * <p>
+ * States:
+ * - CLOSED: calls pass. After {@code failureThreshold} consecutive failures the breaker opens.
+ * - OPEN: calls are refused without being attempted, until {@code openMillis} have passed.
+ * - HALF_OPEN: a single trial call is let through. Its success closes the breaker, its failure opens it again.
+ * <p>
+ * Callers ask {@link #tryAcquirePermission()} before a call and report the outcome with {@link #onSuccess()} or
+ * {@link #onFailure()}. What counts as a failure is decided by the caller.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. The closed state is read without locking, transitions are synchronized.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    private long openUntil;
+
+    /**
+     * Constructs a closed CircuitBreaker.
+     *
+     * @param name the name used in log messages and metrics
+     * @param failureThreshold the number of consecutive failures opening the breaker
+     * @param openMillis how long the breaker stays open before a trial call is let through, in milliseconds
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        if (failureThreshold < 1 || openMillis < 0) {
+            throw new IllegalArgumentException("invalid circuit breaker settings for " + name);
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * Decides whether a call may be attempted.
+     *
+     * @return true if the breaker is closed, or if it is open long enough to let this caller make the trial call
+     */
+    public boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN && System.nanoTime() - openUntil >= 0) {
+                state = State.HALF_OPEN;
+                return true;
+            }
+            return state == State.CLOSED;
+        }
+    }
+
+    /**
+     * Records a successful call, closing the breaker if it was half open.
+     */
+    public void onSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+        synchronized (this) {
+            consecutiveFailures = 0;
+            if (state != State.CLOSED) {
+                state = State.CLOSED;
+                logger.info("Circuit breaker {} closed", name);
+            }
+        }
+    }
+
+    /**
+     * Records a failed call, opening the breaker after too many consecutive failures or a failed trial call.
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openUntil = System.nanoTime() + openNanos;
+            logger.warn("Circuit breaker {} opened after {} consecutive failures", name, consecutiveFailures);
+        }
+    }
+
+    /**
+     * Returns the time until the open breaker lets the next trial call through.
+     *
+     * @return the remaining open time in milliseconds, 0 if the breaker is not open
+     */
+    public synchronized long getRemainingOpenMillis() {
+        return state == State.OPEN ? Math.max(0, TimeUnit.NANOSECONDS.toMillis(openUntil - System.nanoTime())) : 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+}
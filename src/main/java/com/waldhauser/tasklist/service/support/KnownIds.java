@@ -0,0 +1,278 @@
+package com.waldhauser.tasklist.service.support;
+
+import com.waldhauser.tasklist.domain.model.Task;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * KnownIds keeps Bloom filters ({@link ScalableBloomFilter}) of the ids of all tasks and tasklists, so a lookup of
+ * an id that was never created, e.g. of a bot or a buggy client trying random UUIDs, is answered with 404 without
+ * a query.
+ * <p>
+ * Responsibilities:
+ * - Registers itself as Hibernate post-commit insert listener: every inserted task and tasklist is added once its
+ *   transaction committed, whichever service, batch or runner saves it. The listener runs before the commit
+ *   returns to the caller, so the id is known before any client can learn it. Ids of transactions rolled back
+ *   are never added.
+ * - {@link #rebuild()} builds new filters from a key scan of both tables, paged by id
+ *   ({@code findIdsAfter}), at startup and every {@code rebuild-interval-ms}. Deleted ids can not be removed
+ *   from a Bloom filter, the rebuild clears them. The new filters receive the commits from before the scan
+ *   starts, so an insert either committed in time to be read by the scan or is added by the listener.
+ * - Until the first rebuild finished, or if disabled or the scan failed at startup, every id is reported as
+ *   possibly known and the lookups query as before.
+ * - Exports the counter {@code tasklist.known-ids.rejected} (lookups answered without a query) and the gauges
+ *   {@code tasklist.known-ids.count} and {@code tasklist.known-ids.bytes}, tagged {@code type=task|tasklist}.
+ * <p>
+ * The filters are local to the instance. Several instances on one database do not see the inserts of each
+ * other until the next rebuild, so the filters are opt-in for single-instance deployments:
+ * {@code app.known-ids.enabled=true}, off by default.
+ * <p>
+ * Configuration ({@code app.known-ids.*}): {@code enabled}, {@code false-positive-rate}, {@code initial-capacity},
+ * {@code rebuild-interval-ms}, {@code scan-page-size}.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. The filters are replaced through volatile fields, rebuilds are serialized.
+ */
+@Component
+public class KnownIds implements PostCommitInsertEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnownIds.class);
+    private static final UUID NIL = new UUID(0, 0);
+
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final long initialCapacity;
+    private final int scanPageSize;
+    private final TaskRepository taskRepository;
+    private final TasklistRepository tasklistRepository;
+    private final RepositoryGuard repositoryGuard;
+    private final Counter rejectedTasks;
+    private final Counter rejectedTasklists;
+    // not synchronized: the scan queries, which would pin the carrier of a virtual thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile Filters current;
+    private volatile Filters next;
+
+    @Autowired
+    public KnownIds(@Value("${app.known-ids.enabled:false}") boolean enabled,
+                    @Value("${app.known-ids.false-positive-rate:0.01}") double falsePositiveRate,
+                    @Value("${app.known-ids.initial-capacity:10000}") long initialCapacity,
+                    @Value("${app.known-ids.scan-page-size:10000}") int scanPageSize,
+                    TaskRepository taskRepository, TasklistRepository tasklistRepository,
+                    RepositoryGuard repositoryGuard, ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                    ObjectProvider<MeterRegistry> meterRegistry) {
+        this(enabled, falsePositiveRate, initialCapacity, scanPageSize, taskRepository, tasklistRepository,
+                repositoryGuard, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (enabled && factory != null) {
+            factory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                    .requireService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_COMMIT_INSERT, this);
+        }
+    }
+
+    /**
+     * Constructs the filters without registering the Hibernate listener, e.g. for tests. Inserts are not added.
+     *
+     * @param enabled false to report every id as possibly known
+     * @param falsePositiveRate the upper bound of the false positive rate of the filters
+     * @param initialCapacity the minimum number of ids of the first stage of a filter
+     * @param scanPageSize the number of ids read per query of a rebuild
+     * @param taskRepository the repository scanned for the task ids
+     * @param tasklistRepository the repository scanned for the tasklist ids
+     * @param repositoryGuard the guard of the scan queries
+     * @param meterRegistry the registry of the metrics
+     */
+    public KnownIds(boolean enabled, double falsePositiveRate, long initialCapacity, int scanPageSize,
+                    TaskRepository taskRepository, TasklistRepository tasklistRepository,
+                    RepositoryGuard repositoryGuard, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.initialCapacity = initialCapacity;
+        this.scanPageSize = scanPageSize;
+        this.taskRepository = taskRepository;
+        this.tasklistRepository = tasklistRepository;
+        this.repositoryGuard = repositoryGuard;
+        this.rejectedTasks = rejected(meterRegistry, "task");
+        this.rejectedTasklists = rejected(meterRegistry, "tasklist");
+        gauge(meterRegistry, "tasklist.known-ids.count", "Ids in the filter", "task", filter -> filter.tasks().count());
+        gauge(meterRegistry, "tasklist.known-ids.count", "Ids in the filter", "tasklist", filter -> filter.tasklists().count());
+        gauge(meterRegistry, "tasklist.known-ids.bytes", "Size of the filter", "task", filter -> filter.tasks().sizeInBytes());
+        gauge(meterRegistry, "tasklist.known-ids.bytes", "Size of the filter", "tasklist", filter -> filter.tasklists().sizeInBytes());
+    }
+
+    /**
+     * @return disabled KnownIds, which report every id as possibly known, e.g. for tests of the services
+     */
+    public static KnownIds disabled() {
+        return new KnownIds(false, 0.01, 1, 1, null, null, null, new SimpleMeterRegistry());
+    }
+
+    /**
+     * @param taskId the id of a task
+     * @return false if no task with the id exists, true if one may exist
+     */
+    public boolean mightContainTask(UUID taskId) {
+        return mightContain(taskId, Filters::tasks, rejectedTasks);
+    }
+
+    /**
+     * @param tasklistId the id of a tasklist
+     * @return false if no tasklist with the id exists, true if one may exist
+     */
+    public boolean mightContainTasklist(UUID tasklistId) {
+        return mightContain(tasklistId, Filters::tasklists, rejectedTasklists);
+    }
+
+    /**
+     * Adds the id of a task that is read before its transaction commits, e.g. the synthetic task of the JIT
+     * warm-up, which is rolled back. A rolled-back id left in the filters costs one query when it is looked up.
+     *
+     * @param taskId the id of the task
+     */
+    public void addTask(UUID taskId) {
+        add(taskId, Filters::tasks);
+    }
+
+    /**
+     * Replaces the filters by new ones built from the ids in the database, which leaves out the deleted ids.
+     * Keeps the current filters if the scan fails, e.g. while the database is unavailable.
+     */
+    @Scheduled(fixedDelayString = "${app.known-ids.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        rebuildLock.lock();
+        long start = System.nanoTime();
+        try {
+            Filters building = new Filters(
+                    new ScalableBloomFilter(capacity(repositoryGuard.call(taskRepository::count)), falsePositiveRate),
+                    new ScalableBloomFilter(capacity(repositoryGuard.call(tasklistRepository::count)), falsePositiveRate));
+            // from here on commits go into both filters, earlier ones are visible to the scan
+            next = building;
+            scan(building.tasks(), taskRepository::findIdsAfter);
+            scan(building.tasklists(), tasklistRepository::findIdsAfter);
+
+            current = building;
+            logger.info("Known ids rebuilt in {} ms: {} task ids, {} tasklist ids, {} KB",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), building.tasks().count(),
+                    building.tasklists().count(), (building.tasks().sizeInBytes() + building.tasklists().sizeInBytes()) / 1024);
+        } catch (RuntimeException e) {
+            logger.warn("Rebuilding the known ids failed, keeping the current filters: {}", e.getMessage());
+        } finally {
+            next = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Task) {
+            add((UUID) event.getId(), Filters::tasks);
+        } else if (event.getEntity() instanceof Tasklist) {
+            add((UUID) event.getId(), Filters::tasklists);
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // rolled back, the id does not exist
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    private boolean mightContain(UUID id, Function<Filters, ScalableBloomFilter> type, Counter rejected) {
+        Filters filters = current;
+        if (filters == null || type.apply(filters).mightContain(id)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    private void add(UUID id, Function<Filters, ScalableBloomFilter> type) {
+        Filters filters = current;
+        if (filters != null) {
+            type.apply(filters).add(id);
+        }
+        Filters building = next;
+        if (building != null) {
+            type.apply(building).add(id);
+        }
+    }
+
+    private void scan(ScalableBloomFilter filter, BiFunction<UUID, Limit, List<UUID>> page) {
+        UUID after = NIL;
+        List<UUID> ids;
+        do {
+            UUID from = after;
+            // one short read-only transaction per page, the scan holds no connection between them
+            ids = repositoryGuard.inReadOnlyTransaction(() -> page.apply(from, Limit.of(scanPageSize)));
+            for (UUID id : ids) {
+                filter.add(id);
+            }
+            if (!ids.isEmpty()) {
+                after = ids.getLast();
+            }
+        } while (ids.size() == scanPageSize);
+    }
+
+    // room for twice the current ids, so the inserts until the next rebuild rarely need a second stage
+    private long capacity(long count) {
+        return Math.max(initialCapacity, 2 * count);
+    }
+
+    private static Counter rejected(MeterRegistry registry, String type) {
+        return Counter.builder("tasklist.known-ids.rejected")
+                .description("Lookups of unknown ids answered without a query")
+                .tag("type", type)
+                .register(registry);
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, String type,
+                       ToDoubleFunction<Filters> value) {
+        Gauge.builder(name, this, knownIds -> {
+                    Filters filters = knownIds.current;
+                    return filters == null ? 0 : value.applyAsDouble(filters);
+                })
+                .description(description)
+                .tag("type", type)
+                .register(registry);
+    }
+
+    private record Filters(ScalableBloomFilter tasks, ScalableBloomFilter tasklists) {
+    }
+}
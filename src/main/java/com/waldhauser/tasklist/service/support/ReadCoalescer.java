@@ -0,0 +1,138 @@
+package com.waldhauser.tasklist.service.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * ReadCoalescer lets identical concurrent reads of one owner share a single in-flight computation
+ * ("single flight").
+ * <p>
+ * Responsibilities:
+ * - The first caller for an (operation, owner) pair runs the loader, callers arriving while it runs wait for
+ *   and receive the same result (or exception) instead of running their own queries. Nothing is cached:
+ *   once the computation finishes, the next caller starts a new one.
+ * - Writes call {@link #invalidate(UUID)}. It detaches the in-flight computations of the owner after the
+ *   transaction commits, so a read arriving after a write never joins a computation that may have started
+ *   before it. Callers already waiting keep their result, their read overlapped the write.
+ * - Counts the calls in the Micrometer counter {@code tasklist.reads.coalesced}, tagged with the operation and
+ *   {@code result=executed} or {@code result=coalesced}.
+ * <p>
+ * The shared result is handed to every waiting caller, loaders must return results that are not modified
+ * afterwards.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe, the in-flight computations are kept in a ConcurrentHashMap.
+ */
+@Component
+public class ReadCoalescer {
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // registered once per operation, not on every read
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ReadCoalescer(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    /**
+     * Runs the loader, or joins the computation of an identical read already running for the owner.
+     *
+     * @param operation the name of the read, e.g. {@code tasklist.getAll}
+     * @param ownerId the unique identifier of the owner the read is scoped to
+     * @param loader the computation of the result
+     * @param <T> the type of the result
+     * @return the result of the own or the joined computation
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String operation, UUID ownerId, Supplier<T> loader) {
+        Key key = new Key(operation, ownerId);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, own);
+
+        Counters calls = counters(operation);
+        if (running != null) {
+            calls.coalesced().increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        calls.executed().increment();
+        try {
+            T result = loader.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            // only removes the own entry, not a newer one started after an invalidation
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Makes later reads of the owner start new computations. Inside a transaction this happens after the commit.
+     *
+     * @param ownerId the unique identifier of the owner whose data was changed
+     */
+    public void invalidate(UUID ownerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    detach(ownerId);
+                }
+            });
+        } else {
+            detach(ownerId);
+        }
+    }
+
+    /**
+     * Retrieves the number of calls that joined the computation of another call.
+     *
+     * @param operation the name of the read
+     * @return the number of coalesced calls of the read
+     */
+    public long getCoalescedCount(String operation) {
+        return (long) counters(operation).coalesced().count();
+    }
+
+    private void detach(UUID ownerId) {
+        inFlight.keySet().removeIf(key -> key.ownerId().equals(ownerId));
+    }
+
+    private Counters counters(String operation) {
+        return counters.computeIfAbsent(operation,
+                name -> new Counters(counter(name, "executed"), counter(name, "coalesced")));
+    }
+
+    private Counter counter(String operation, String result) {
+        return Counter.builder("tasklist.reads.coalesced")
+                .description("Reads executed or served by joining an identical in-flight read")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Key(String operation, UUID ownerId) {
+    }
+
+    private record Counters(Counter executed, Counter coalesced) {
+    }
+}
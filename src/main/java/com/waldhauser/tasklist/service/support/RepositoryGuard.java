@@ -0,0 +1,332 @@
+package com.waldhauser.tasklist.service.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.JDBCConnectionException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * RepositoryGuard runs the repository calls of the task and tasklist services behind a {@link CircuitBreaker},
+ * so a Postgres outage (e.g. a 30-60 s failover) turns into fast, well-defined answers instead of threads
+ * hanging on connection timeouts.
+ * <p>
+ * Responsibilities:
+ * - Counts connection-level failures only: no connection, a lost connection or a failed transaction begin.
+ *   Other errors, e.g. constraint violations, "not found", lock or query timeouts and deadlocks, are answers of
+ *   a healthy database and do not count. An {@link Error} leaves the outcome unknown and counts as a failure,
+ *   so a trial call of the half open breaker always reports back.
+ * - While the breaker is open, calls fail immediately with {@link DatabaseUnavailableException}.
+ * - Reads of an owner view ({@link #readView}) keep the last successful result per (view, owner) in a bounded
+ *   LRU snapshot. When the database fails or the breaker is open, the snapshot is served instead, and the age
+ *   of the snapshot is put into the request attribute {@link #STALE_AGE_ATTRIBUTE}, which the REST layer turns
+ *   into the {@code X-Stale-Age} response header. Snapshots older than the configured maximum age are not served.
+ * - Write methods which need a transaction use {@link #inTransaction}, the breaker is consulted before the
+ *   transaction takes a connection from the pool.
+ * - Reads run in read-only transactions ({@link #inReadOnlyTransaction}, {@link #readOnly} for the loaders of the
+ *   owner views): Hibernate loads the entities read-only without dirty-checking snapshots, does not flush
+ *   ({@code FlushMode.MANUAL}) and marks the JDBC connection read-only. Open-session-in-view is off, so the
+ *   transaction is the only time a read holds a connection, and everything a response needs has to be fetched in
+ *   it (see the fetch plans of the repositories).
+ * - Exports the gauge {@code tasklist.circuit.state} (0 closed, 1 half open, 2 open) and the counters
+ *   {@code tasklist.circuit.rejected} and {@code tasklist.circuit.fallback} (tags {@code view},
+ *   {@code result=stale|miss}).
+ * <p>
+ * Configuration ({@code app.circuit.*}): {@code failure-threshold}, {@code open-ms},
+ * {@code snapshot.max-owners}, {@code snapshot.max-age-ms}.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. The snapshots are kept in a synchronized LRU map, the breaker is thread-safe.
+ */
+@Component
+public class RepositoryGuard {
+
+    /**
+     * Request attribute holding the age in seconds of a stale response body.
+     */
+    public static final String STALE_AGE_ATTRIBUTE = RepositoryGuard.class.getName() + ".staleAge";
+
+    private final CircuitBreaker circuitBreaker;
+    private final long maxSnapshotAgeNanos;
+    private final Map<SnapshotKey, Snapshot> snapshots;
+    private final TransactionOperations transactionOperations;
+    private final TransactionOperations readOnlyTransactionOperations;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+    private final ConcurrentHashMap<String, Fallbacks> fallbacks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RepositoryGuard(@Value("${app.circuit.failure-threshold:5}") int failureThreshold,
+                           @Value("${app.circuit.open-ms:10000}") long openMs,
+                           @Value("${app.circuit.snapshot.max-owners:10000}") int maxSnapshots,
+                           @Value("${app.circuit.snapshot.max-age-ms:900000}") long maxSnapshotAgeMs,
+                           PlatformTransactionManager transactionManager,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this(new CircuitBreaker("repository", failureThreshold, openMs), maxSnapshots, maxSnapshotAgeMs,
+                new TransactionTemplate(transactionManager), readOnlyTemplate(new TransactionTemplate(transactionManager)),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * Constructs the guard with a given breaker and the same transactions for reads and writes, e.g. for tests.
+     *
+     * @param circuitBreaker the breaker guarding the repository calls
+     * @param maxSnapshots the maximum number of (view, owner) snapshots kept
+     * @param maxSnapshotAgeMs the maximum age of a snapshot that is still served, in milliseconds
+     * @param transactionOperations the transactions of {@link #inTransaction} and of the reads
+     * @param meterRegistry the registry of the breaker metrics
+     */
+    public RepositoryGuard(CircuitBreaker circuitBreaker, int maxSnapshots, long maxSnapshotAgeMs,
+                           TransactionOperations transactionOperations, MeterRegistry meterRegistry) {
+        this(circuitBreaker, maxSnapshots, maxSnapshotAgeMs, transactionOperations, transactionOperations, meterRegistry);
+    }
+
+    /**
+     * Constructs the guard with a given breaker, e.g. for tests.
+     *
+     * @param circuitBreaker the breaker guarding the repository calls
+     * @param maxSnapshots the maximum number of (view, owner) snapshots kept
+     * @param maxSnapshotAgeMs the maximum age of a snapshot that is still served, in milliseconds
+     * @param transactionOperations the transactions of {@link #inTransaction}
+     * @param readOnlyTransactionOperations the transactions of {@link #inReadOnlyTransaction} and {@link #readOnly}
+     * @param meterRegistry the registry of the breaker metrics
+     */
+    public RepositoryGuard(CircuitBreaker circuitBreaker, int maxSnapshots, long maxSnapshotAgeMs,
+                           TransactionOperations transactionOperations, TransactionOperations readOnlyTransactionOperations,
+                           MeterRegistry meterRegistry) {
+        this.circuitBreaker = circuitBreaker;
+        this.maxSnapshotAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxSnapshotAgeMs);
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SnapshotKey, Snapshot> eldest) {
+                return size() > maxSnapshots;
+            }
+        };
+        this.transactionOperations = transactionOperations;
+        this.readOnlyTransactionOperations = readOnlyTransactionOperations;
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("tasklist.circuit.rejected")
+                .description("Repository calls refused because the circuit breaker was open")
+                .tag("breaker", circuitBreaker.getName())
+                .register(meterRegistry);
+        Gauge.builder("tasklist.circuit.state", circuitBreaker, breaker -> switch (breaker.getState()) {
+                    case CLOSED -> 0;
+                    case HALF_OPEN -> 1;
+                    case OPEN -> 2;
+                })
+                .description("State of the circuit breaker (0 closed, 1 half open, 2 open)")
+                .tag("breaker", circuitBreaker.getName())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a repository call behind the circuit breaker.
+     *
+     * @param action the repository call
+     * @param <T> the type of the result
+     * @return the result of the call
+     * @throws DatabaseUnavailableException if the breaker is open
+     */
+    public <T> T call(Supplier<T> action) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejected.increment();
+            throw new DatabaseUnavailableException(circuitBreaker.getRemainingOpenMillis());
+        }
+        try {
+            T result = action.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (isDatabaseFailure(e)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } catch (Throwable e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the action in a new transaction behind the circuit breaker. Unlike {@code @Transactional} on the
+     * calling method, no connection is taken from the pool while the breaker is open.
+     *
+     * @param action the repository calls of the transaction
+     * @param <T> the type of the result
+     * @return the result of the action
+     * @throws DatabaseUnavailableException if the breaker is open
+     */
+    public <T> T inTransaction(Supplier<T> action) {
+        return call(() -> transactionOperations.execute(status -> action.get()));
+    }
+
+    /**
+     * Runs a read in a read-only transaction behind the circuit breaker.
+     *
+     * @param action the repository reads and the mapping of their result
+     * @param <T> the type of the result
+     * @return the result of the action
+     * @throws DatabaseUnavailableException if the breaker is open
+     */
+    public <T> T inReadOnlyTransaction(Supplier<T> action) {
+        return call(() -> readOnly(action));
+    }
+
+    /**
+     * Runs a read in a read-only transaction without consulting the breaker, for the loaders of {@link #readView}
+     * and {@link #readFromView}, which run behind it already. Used inside the read coalescing, only the call doing
+     * the read holds a connection, not the calls waiting for its result.
+     *
+     * @param action the repository reads and the mapping of their result
+     * @param <T> the type of the result
+     * @return the result of the action
+     */
+    public <T> T readOnly(Supplier<T> action) {
+        return readOnlyTransactionOperations.execute(status -> action.get());
+    }
+
+    /**
+     * Reads an owner view behind the circuit breaker and keeps the result as the snapshot of the view.
+     * If the database is unavailable, the snapshot is returned and the response is marked as stale.
+     *
+     * @param view the name of the view, e.g. {@code task.getAll}
+     * @param ownerId the unique identifier of the owner the view belongs to
+     * @param loader the repository read, its result must not be modified afterwards
+     * @param <T> the type of the view
+     * @return the current view, or the snapshot while the database is unavailable
+     */
+    public <T> T readView(String view, UUID ownerId, Supplier<T> loader) {
+        return readFromView(view, ownerId, () -> {
+            T result = loader.get();
+            synchronized (snapshots) {
+                snapshots.put(new SnapshotKey(view, ownerId), new Snapshot(result, System.nanoTime()));
+            }
+            return result;
+        }, Function.<T>identity());
+    }
+
+    /**
+     * Reads behind the circuit breaker, and derives the answer from the snapshot of an owner view while the
+     * database is unavailable, e.g. a single task from the snapshot of all tasks of the owner.
+     *
+     * @param view the name of the view the fallback is derived from
+     * @param ownerId the unique identifier of the owner the view belongs to
+     * @param loader the repository read
+     * @param fromView derives the answer from the snapshot, returns null if the snapshot cannot answer
+     * @param <V> the type of the view
+     * @param <T> the type of the result
+     * @return the current result, or the result derived from the snapshot while the database is unavailable
+     */
+    @SuppressWarnings("unchecked")
+    public <V, T> T readFromView(String view, UUID ownerId, Supplier<T> loader, Function<V, T> fromView) {
+        try {
+            return call(loader);
+        } catch (RuntimeException e) {
+            if (!(e instanceof DatabaseUnavailableException) && !isDatabaseFailure(e)) {
+                throw e;
+            }
+            Snapshot snapshot;
+            synchronized (snapshots) {
+                snapshot = snapshots.get(new SnapshotKey(view, ownerId));
+            }
+            long age = snapshot == null ? 0 : System.nanoTime() - snapshot.takenAt();
+            T result = snapshot == null || age > maxSnapshotAgeNanos ? null : fromView.apply((V) snapshot.value());
+            if (result == null) {
+                fallbacks(view).miss().increment();
+                throw e;
+            }
+            fallbacks(view).stale().increment();
+            RequestAttributes request = RequestContextHolder.getRequestAttributes();
+            if (request != null) {
+                request.setAttribute(STALE_AGE_ATTRIBUTE, TimeUnit.NANOSECONDS.toSeconds(age), RequestAttributes.SCOPE_REQUEST);
+            }
+            return result;
+        }
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    private Fallbacks fallbacks(String view) {
+        return fallbacks.computeIfAbsent(view, name -> new Fallbacks(fallback(name, "stale"), fallback(name, "miss")));
+    }
+
+    private Counter fallback(String view, String result) {
+        return Counter.builder("tasklist.circuit.fallback")
+                .description("Reads of an unavailable database answered from a snapshot (stale) or not (miss)")
+                .tag("view", view)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static TransactionTemplate readOnlyTemplate(TransactionTemplate transactionTemplate) {
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    // connection-level failures, as opposed to answers of a healthy database
+    private static boolean isDatabaseFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof JDBCConnectionException
+                    || cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Thrown instead of calling the database while the circuit breaker is open, for every request of the outage.
+     * Without a stack trace, which would only show the guard.
+     */
+    public static class DatabaseUnavailableException extends RuntimeException {
+
+        private final long retryAfterMillis;
+
+        public DatabaseUnavailableException(long retryAfterMillis) {
+            super("Database temporarily unavailable", null, false, false);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public long getRetryAfterMillis() { return retryAfterMillis; }
+    }
+
+    private record Fallbacks(Counter stale, Counter miss) {
+    }
+
+    private record SnapshotKey(String view, UUID ownerId) {
+    }
+
+    private record Snapshot(Object value, long takenAt) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.waldhauser.tasklist.service.support;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ScalableBloomFilter is a set of UUIDs answering "definitely not added" or "maybe added", in about 10 bits per
+ * id at a false positive rate of 1%.
+ * <p>
+ * Responsibilities:
+ * - Partitioned: a stage of k hash functions has k slices of bits, each function sets one bit in its own slice.
+ *   No two functions share a bit, which keeps the false positive rate of a full stage at its target.
+ * - Scalable: the number of ids needs not be known in advance. When the last stage holds its capacity, a stage
+ *   with twice the capacity and half the false positive rate is added, so the rate of all stages together stays
+ *   below the configured one (p * (1 - 1/2) * (1 + 1/2 + 1/4 + ...) = p).
+ * - An id is hashed once, the k bit positions are derived from two 64 bit hashes (double hashing).
+ * - Ids can not be removed. A filter of a changing set is replaced by a new one from time to time.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe and lock-free for lookups and additions, the bits are set with CAS. Only adding a
+ *   stage is synchronized. A lookup concurrent with the addition of an id may miss it.
+ */
+public final class ScalableBloomFilter {
+
+    // false positive rate of a stage relative to the one before
+    private static final double TIGHTENING = 0.5;
+
+    private final double falsePositiveRate;
+    private volatile Stage[] stages;
+
+    /**
+     * Constructs an empty filter.
+     *
+     * @param initialCapacity the number of ids of the first stage
+     * @param falsePositiveRate the upper bound of the probability that an id never added is reported as maybe added
+     */
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        if (initialCapacity < 1 || !(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("capacity must be positive, false positive rate in (0, 1)");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        this.stages = new Stage[]{new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING))};
+    }
+
+    /**
+     * Adds an id.
+     *
+     * @param id the id
+     */
+    public void add(UUID id) {
+        long h1 = hash(id);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        Stage[] current = stages;
+        for (Stage stage : current) {
+            if (stage.contains(h1, h2)) {
+                return;
+            }
+        }
+        Stage last = current[current.length - 1];
+        if (last.add(h1, h2) && last.count.incrementAndGet() >= last.capacity) {
+            grow(last);
+        }
+    }
+
+    /**
+     * @param id the id
+     * @return false if the id was definitely not added, true if it probably was
+     */
+    public boolean mightContain(UUID id) {
+        long h1 = hash(id);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (Stage stage : stages) {
+            if (stage.contains(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of ids added, ids already reported as maybe added are not counted
+     */
+    public long count() {
+        long count = 0;
+        for (Stage stage : stages) {
+            count += stage.count.get();
+        }
+        return count;
+    }
+
+    /**
+     * @return the size of the bit arrays of all stages in bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += stage.bits.length() * (long) Long.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the number of stages, 1 until the initial capacity is exceeded
+     */
+    public int stageCount() {
+        return stages.length;
+    }
+
+    /**
+     * @return the configured upper bound of the false positive rate
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    private synchronized void grow(Stage full) {
+        Stage[] current = stages;
+        if (current[current.length - 1] != full) {
+            return;
+        }
+        Stage[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = new Stage(full.capacity * 2, full.falsePositiveRate * TIGHTENING);
+        stages = grown;
+    }
+
+    private static long hash(UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    // finalizer of MurmurHash3, spreads every input bit over the output
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final int hashes;
+        private final long sliceBits;
+        private final AtomicLongArray bits;
+        private final AtomicLong count = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            // k = log2(1/p) slices of n * ln(1/p) / (k * ln(2)^2) bits, the optimum for n ids
+            this.hashes = Math.max(1, (int) Math.ceil(-Math.log(falsePositiveRate) / Math.log(2)));
+            long slice = (long) Math.ceil(capacity * -Math.log(falsePositiveRate) / (hashes * Math.log(2) * Math.log(2)));
+            this.sliceBits = Math.max(Long.SIZE, slice);
+            this.bits = new AtomicLongArray(Math.toIntExact((sliceBits * hashes + Long.SIZE - 1) / Long.SIZE));
+        }
+
+        // true if a bit was set by this call
+        private boolean add(long h1, long h2) {
+            boolean changed = false;
+            for (int i = 0; i < hashes; i++) {
+                long bit = position(h1, h2, i);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                if ((bits.get(word) & mask) == 0) {
+                    changed |= (bits.getAndAccumulate(word, mask, (value, set) -> value | set) & mask) == 0;
+                }
+            }
+            return changed;
+        }
+
+        private boolean contains(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = position(h1, h2, i);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // the bit of hash function i, in slice i
+        private long position(long h1, long h2, int i) {
+            return i * sliceBits + Math.floorMod(h1 + i * h2, sliceBits);
+        }
+    }
+}
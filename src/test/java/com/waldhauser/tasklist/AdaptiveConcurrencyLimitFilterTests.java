@@ -0,0 +1,319 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.waldhauser.tasklist.config.support.AdaptiveConcurrencyLimitFilter;
+import com.waldhauser.tasklist.config.support.AdaptiveLimit;
+import com.waldhauser.tasklist.config.support.RestResponseEntityExceptionHandler;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import com.waldhauser.tasklist.rest.controller.TaskController;
+import com.waldhauser.tasklist.service.api.TaskService;
+import com.waldhauser.tasklist.service.event.TaskEventHub;
+import com.waldhauser.tasklist.service.support.CircuitBreaker;
+import com.waldhauser.tasklist.service.support.KnownIds;
+import com.waldhauser.tasklist.service.support.ReadCoalescer;
+import com.waldhauser.tasklist.service.support.RepositoryGuard;
+import com.waldhauser.tasklist.task.TaskServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests of the adaptive concurrency limiter. The AIMD and probe transitions of the limit are checked on a fake
+ * clock. The load test runs the real TaskController and TaskServiceImpl against a TaskRepository slowed down to
+ * a database with 4 connections and 20 ms per query, once without and once with the limiter, and checks that the
+ * limiter keeps the tail latency of admitted requests bounded. It depends on the timing of the machine, run it
+ * with {@code mvn test -Dtest=AdaptiveConcurrencyLimitFilterTests -Dloadtest=true}.
+ */
+class AdaptiveConcurrencyLimitFilterTests {
+
+    private static final int DB_CONNECTIONS = 4;
+    private static final long QUERY_MILLIS = 20;
+    private static final int CLIENTS = 32;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final Semaphore database = new Semaphore(DB_CONNECTIONS, true);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRisesAndGrowsWhenItRecovers() throws Exception {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 2, 100, 2.0, 0.5, 1000);
+
+        // the first requests probe the no-load latency at the minimum limit
+        assertEquals(2, limit.getLimit());
+        limit.tryAcquire();
+        limit.release(System.nanoTime(), false);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limit.tryAcquire());
+            long start = System.nanoTime();
+            Thread.sleep(10);
+            limit.release(start, false);
+        }
+        assertEquals(20, limit.getLimit());
+
+        // queueing: latency far above tolerance
+        limit.tryAcquire();
+        limit.release(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(100), false);
+        assertEquals(10, limit.getLimit());
+
+        // healthy latency while the limit is used
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+        }
+        for (int i = 0; i < 30; i++) {
+            limit.release(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(10), false);
+            limit.tryAcquire();
+        }
+        assertTrue(limit.getLimit() > 10, "limit should grow again, is " + limit.getLimit());
+    }
+
+    @Test
+    void limitFollowsAimdAndProbesAgainOnFakeClock() {
+        AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+        AdaptiveLimit limit = new AdaptiveLimit(20, 2, 100, 2.0, 0.5, 20, now::get);
+
+        // probing at the minimum limit: the first sample only finds the backlog drained, 3 more measure 10 ms
+        assertEquals(2, limit.getLimit());
+        for (int i = 0; i < 4; i++) {
+            sample(limit, now, 10, false);
+        }
+        assertEquals(20, limit.getLimit());
+
+        // two queued requests finishing together halve the limit once, not twice
+        long start = now.get();
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        limit.release(start, false);
+        limit.release(start, false);
+        assertEquals(10, limit.getLimit());
+
+        // a failure one no-load latency later halves it again
+        sample(limit, now, 10, true);
+        assertEquals(5, limit.getLimit());
+
+        // healthy samples grow an unused limit no further
+        for (int i = 0; i < 5; i++) {
+            sample(limit, now, 10, false);
+        }
+        assertEquals(5, limit.getLimit());
+
+        // with 3 of 5 slots in flight every healthy sample adds 1 / limit
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        for (int i = 0; i < 6; i++) {
+            sample(limit, now, 10, false);
+        }
+        assertEquals(6, limit.getLimit());
+        limit.release(now.get() - TimeUnit.MILLISECONDS.toNanos(10), false);
+        limit.release(now.get() - TimeUnit.MILLISECONDS.toNanos(10), false);
+
+        // the 20th sample after the probe starts the next one
+        for (int i = 0; i < 3; i++) {
+            sample(limit, now, 10, false);
+        }
+        assertEquals(6, limit.getLimit());
+        sample(limit, now, 10, false);
+        assertEquals(2, limit.getLimit());
+
+        // the database got permanently slower: the probe takes 30 ms as the new no-load latency
+        for (int i = 0; i < 4; i++) {
+            sample(limit, now, 30, false);
+        }
+        assertEquals(6, limit.getLimit());
+        sample(limit, now, 50, false);
+        assertEquals(6, limit.getLimit());
+        sample(limit, now, 70, false);
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void fastSamplesBetweenProbesDoNotLowerTheNoLoadLatency() {
+        AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+        AdaptiveLimit limit = new AdaptiveLimit(20, 2, 100, 2.0, 0.5, 1000, now::get);
+        for (int i = 0; i < 4; i++) {
+            sample(limit, now, 10, false);
+        }
+        assertEquals(20, limit.getLimit());
+
+        // cheap responses far below the probed latency, e.g. answered from a cache
+        for (int i = 0; i < 50; i++) {
+            sample(limit, now, 0, false);
+        }
+        // still within tolerance of the probed 10 ms
+        sample(limit, now, 15, false);
+        assertEquals(20, limit.getLimit());
+        sample(limit, now, 25, false);
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void clientErrorsDoNotFeedTheLatencySignal() throws Exception {
+        AdaptiveLimit readLimit = new AdaptiveLimit(20, 2, 100, 2.0, 0.5, 1000);
+        TaskService taskService = mock(TaskService.class);
+        when(taskService.getTaskById(any(), any())).thenReturn(Optional.empty());
+        AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(true, readLimit,
+                new AdaptiveLimit(10, 2, 100, 2.0, 0.5, 1000), 1, objectMapper, new SimpleMeterRegistry());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new TaskController(taskService))
+                .setControllerAdvice(new RestResponseEntityExceptionHandler())
+                .addFilters(filter)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(UUID.randomUUID().toString(), null, List.of()));
+
+        // 404s free their slot but are no samples: the probe at the minimum limit is still waiting
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(get("/task/get/" + UUID.randomUUID())).andExpect(status().isNotFound());
+        }
+        assertEquals(2, readLimit.getLimit());
+        assertEquals(0, readLimit.getInFlight());
+
+        // successful reads finish it
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(get("/task/getAll")).andExpect(status().isOk());
+        }
+        assertEquals(20, readLimit.getLimit());
+    }
+
+    @Test
+    void requestsOverTheLimitAreRejectedWithRetryAfter() throws Exception {
+        AdaptiveLimit writeLimit = new AdaptiveLimit(1, 1, 1, 2.0, 0.9, 100);
+        AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(true,
+                new AdaptiveLimit(1, 1, 1, 2.0, 0.9, 100), writeLimit, 3, objectMapper, new SimpleMeterRegistry());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new TaskController(mock(TaskService.class)))
+                .addFilters(filter)
+                .build();
+
+        assertTrue(writeLimit.tryAcquire()); // the only write slot is taken
+        mockMvc.perform(post("/task/update").contentType("application/json").content("{}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest", matches = "true")
+    void limiterKeepsTailLatencyBoundedWhenDatabaseIsSlow() throws Exception {
+        LoadResult unlimited = runLoad(false);
+        LoadResult limited = runLoad(true);
+
+        System.out.printf("slow database, %d clients: without limiter p99 %d ms (%d ok), with limiter p99 %d ms (%d ok, %d rejected)%n",
+                CLIENTS, unlimited.p99Millis(), unlimited.ok(), limited.p99Millis(), limited.ok(), limited.rejected());
+
+        // without the limiter requests queue for the 4 connections, p99 ~ CLIENTS / DB_CONNECTIONS * QUERY_MILLIS
+        assertTrue(limited.p99Millis() * 2 < unlimited.p99Millis(),
+                "p99 with limiter " + limited.p99Millis() + " ms, without " + unlimited.p99Millis() + " ms");
+        assertTrue(limited.rejected() > 0);
+        // the database stays busy, the limiter does not throttle the throughput away
+        assertTrue(limited.ok() > unlimited.ok() / 2);
+    }
+
+    private static void sample(AdaptiveLimit limit, AtomicLong now, long millis, boolean failed) {
+        assertTrue(limit.tryAcquire());
+        long start = now.get();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        limit.release(start, failed);
+    }
+
+    private LoadResult runLoad(boolean limiterEnabled) throws Exception {
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        when(taskRepository.findByOwnerId(any())).thenAnswer(invocation -> {
+            database.acquire();
+            try {
+                Thread.sleep(QUERY_MILLIS);
+            } finally {
+                database.release();
+            }
+            return List.of();
+        });
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TaskServiceImpl taskService = new TaskServiceImpl(taskRepository, mock(TasklistRepository.class),
+                new TaskEventHub(16, 16, 0, 1000),
+                new ReadCoalescer(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class)),
+                new RepositoryGuard(new CircuitBreaker("repository", 5, 1000), 16, 60_000,
+                        TransactionOperations.withoutTransaction(), meterRegistry),
+                KnownIds.disabled());
+        AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(limiterEnabled,
+                new AdaptiveLimit(CLIENTS, 2, 200, 2.0, 0.9, 200),
+                new AdaptiveLimit(10, 2, 100, 2.0, 0.9, 200),
+                1, objectMapper, meterRegistry);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new TaskController(taskService))
+                .addFilters(filter)
+                .build();
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicLong warmupEnd = new AtomicLong(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1000));
+        long end = warmupEnd.get() + TimeUnit.MILLISECONDS.toNanos(2000);
+
+        List<Thread> clients = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            UUID owner = UUID.randomUUID(); // distinct owners, no read coalescing
+            clients.add(Thread.ofPlatform().start(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(owner.toString(), null, List.of()));
+                try {
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        MvcResult result = mockMvc.perform(get("/task/getAll")).andReturn();
+                        long latency = System.nanoTime() - start;
+                        boolean measured = start > warmupEnd.get();
+                        if (result.getResponse().getStatus() == 503) {
+                            if (measured) {
+                                rejected.incrementAndGet();
+                            }
+                            Thread.sleep(20); // client backs off
+                        } else if (measured) {
+                            latencies.add(latency);
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p99 = sorted.isEmpty() ? 0 : sorted.get((int) (sorted.size() * 0.99));
+        return new LoadResult(TimeUnit.NANOSECONDS.toMillis(p99), sorted.size(), rejected.get());
+    }
+
+    private record LoadResult(long p99Millis, int ok, int rejected) {
+    }
+}
@@ -0,0 +1,177 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waldhauser.tasklist.rest.model.batch.BatchOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end tests of POST /batch against the in-memory database, through the real security filter chain.
+ * <p>
+ * The benchmark compares the typical client action "create a tasklist with 20 tasks and rename one" sent
+ * as 22 individual requests and as one batch. Run with {@code mvn test -Dtest=BatchEndpointTests -Dbenchmark=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+class BatchEndpointTests {
+
+    private static final int TASKS_PER_LIST = 20;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = "user-" + UUID.randomUUID();
+        Map<String, String> user = Map.of("name", name, "password", "password123");
+        assertEquals(200, post("/auth/register", user, null).statusCode());
+        token = json(post("/auth/login", user, null)).get("token").asText();
+    }
+
+    @Test
+    void batchCreatesTasklistWithTasksAndResolvesReferences() throws Exception {
+        HttpResponse<String> response = post("/batch", createListWorkload(), token);
+
+        assertEquals(200, response.statusCode(), response.body());
+        JsonNode body = json(response);
+        assertTrue(body.get("committed").asBoolean());
+        assertEquals(TASKS_PER_LIST + 2, body.get("results").size());
+
+        String tasklistId = body.get("results").get(0).get("id").asText();
+        JsonNode tasklist = json(get("/tasklist/get/" + tasklistId));
+        assertEquals(TASKS_PER_LIST, tasklist.get("tasks").size());
+        assertTrue(tasklist.get("tasks").findValuesAsText("title").contains("Renamed task"));
+    }
+
+    @Test
+    void failingOperationRollsBackWholeBatch() throws Exception {
+        List<BatchOperation> operations = List.of(
+                new BatchOperation("tasklist.create", "list", null, null, "Groceries", "Weekly shopping"),
+                new BatchOperation("task.create", null, null, "$list", "Buy milk", "2 liters"),
+                new BatchOperation("task.create", null, null, UUID.randomUUID().toString(), "Buy bread", "whole grain"));
+
+        HttpResponse<String> response = post("/batch", operations, token);
+
+        assertEquals(404, response.statusCode(), response.body());
+        JsonNode failed = json(response).get("results").get(0);
+        assertEquals(2, failed.get("index").asInt());
+        assertEquals(0, json(get("/tasklist/getAll")).size());
+    }
+
+    @Test
+    void unknownReferenceIsBadRequest() throws Exception {
+        List<BatchOperation> operations = List.of(
+                new BatchOperation("task.create", null, null, "$missing", "Buy milk", "2 liters"));
+
+        HttpResponse<String> response = post("/batch", operations, token);
+
+        assertEquals(400, response.statusCode(), response.body());
+        assertFalse(json(response).get("committed").asBoolean());
+    }
+
+    @Test
+    void batchRequiresAuthentication() throws Exception {
+        HttpResponse<String> response = post("/batch", createListWorkload(), null);
+
+        assertEquals(401, response.statusCode());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkBatchAgainstIndividualCalls() throws Exception {
+        int warmup = 200;
+        int iterations = 1000;
+
+        for (int i = 0; i < warmup; i++) {
+            runIndividually();
+            runAsBatch();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            runIndividually();
+        }
+        double individualMs = (System.nanoTime() - start) / 1e6 / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            runAsBatch();
+        }
+        double batchMs = (System.nanoTime() - start) / 1e6 / iterations;
+
+        System.out.printf("create list + %d tasks + rename: %d individual calls %.2f ms, one batch %.2f ms (%.1fx)%n",
+                TASKS_PER_LIST, TASKS_PER_LIST + 2, individualMs, batchMs, individualMs / batchMs);
+    }
+
+    private void runIndividually() throws Exception {
+        String tasklistId = json(post("/tasklist/create", Map.of("name", "Groceries", "description", "Weekly shopping"), token))
+                .get("id").asText();
+        List<String> taskIds = new ArrayList<>();
+        for (int i = 0; i < TASKS_PER_LIST; i++) {
+            taskIds.add(json(post("/task/create",
+                    Map.of("tasklistId", tasklistId, "name", "Task number " + i, "description", "Something to do"), token))
+                    .get("id").asText());
+        }
+        assertEquals(200, post("/task/update", Map.of("id", taskIds.get(3), "name", "Renamed task"), token).statusCode());
+    }
+
+    private void runAsBatch() throws Exception {
+        assertEquals(200, post("/batch", createListWorkload(), token).statusCode());
+    }
+
+    private static List<BatchOperation> createListWorkload() {
+        List<BatchOperation> operations = new ArrayList<>();
+        operations.add(new BatchOperation("tasklist.create", "list", null, null, "Groceries", "Weekly shopping"));
+        for (int i = 0; i < TASKS_PER_LIST; i++) {
+            operations.add(new BatchOperation("task.create", "t" + i, null, "$list", "Task number " + i, "Something to do"));
+        }
+        operations.add(new BatchOperation("task.update", null, "$t3", null, "Renamed task", null));
+        return operations;
+    }
+
+    private HttpResponse<String> post(String path, Object body, String bearer) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode json(HttpResponse<String> response) throws Exception {
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,164 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.waldhauser.tasklist.config.support.Bulkhead;
+import com.waldhauser.tasklist.config.support.BulkheadFilter;
+import com.waldhauser.tasklist.rest.controller.TaskController;
+import com.waldhauser.tasklist.rest.controller.UserController;
+import com.waldhauser.tasklist.rest.model.user.LoginResponse;
+import com.waldhauser.tasklist.service.api.TaskService;
+import com.waldhauser.tasklist.service.api.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests of the bulkhead isolation. The read lane is saturated by reads blocked in the TaskService, and the
+ * tests check that excess reads are rejected while logins still pass through their own lane.
+ */
+class BulkheadFilterTests {
+
+    private final UUID userId = UUID.randomUUID();
+    private final CountDownLatch releaseReads = new CountDownLatch(1);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Bulkhead readLane = new Bulkhead("read", 2, 1, 300);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        TaskService taskService = mock(TaskService.class);
+        when(taskService.getAllTasksByOwnerId(any())).thenAnswer(invocation -> {
+            releaseReads.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        UserService userService = mock(UserService.class);
+        when(userService.login(anyString(), anyString())).thenReturn(new LoginResponse(userId, "alice-smith", "token"));
+
+        BulkheadFilter filter = new BulkheadFilter(true,
+                Map.of(BulkheadFilter.Lane.AUTH, new Bulkhead("auth", 2, 0, 100),
+                        BulkheadFilter.Lane.READ, readLane,
+                        BulkheadFilter.Lane.WRITE, new Bulkhead("write", 2, 0, 100)),
+                1, new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new TaskController(taskService), new UserController(userService))
+                .addFilters(filter)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseReads.countDown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void saturatedReadLaneRejectsReadsButNotLogins() throws Exception {
+        CompletableFuture<Integer> first = readAsync();
+        CompletableFuture<Integer> second = readAsync();
+        awaitCondition(() -> readLane.getActive() == 2);
+
+        // the third read waits in the queue, the fourth finds the queue full
+        CompletableFuture<Integer> queued = readAsync();
+        awaitCondition(() -> readLane.getWaiting() == 1);
+        authenticate();
+        mockMvc.perform(get("/task/getAll"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        // logins have their own lane
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"alice-smith\",\"password\":\"secret-password\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals(503, queued.get(5, TimeUnit.SECONDS));
+        releaseReads.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS));
+        assertEquals(200, second.get(5, TimeUnit.SECONDS));
+        assertEquals(0, readLane.getActive());
+
+        assertEquals(1.0, meterRegistry.get("tasklist.bulkhead.rejected")
+                .tag("lane", "read").tag("reason", "queue-full").counter().count());
+        assertEquals(1.0, meterRegistry.get("tasklist.bulkhead.rejected")
+                .tag("lane", "read").tag("reason", "timeout").counter().count());
+        assertEquals(1, meterRegistry.get("tasklist.bulkhead.wait").tag("lane", "auth").timer().count());
+    }
+
+    @Test
+    void headAndOptionsTakeTheReadLaneLikeInTheLimiter() throws Exception {
+        releaseReads.countDown();
+        authenticate();
+
+        mockMvc.perform(head("/task/getAll")).andExpect(status().isOk());
+        mockMvc.perform(options("/task/getAll")).andExpect(status().isOk());
+        mockMvc.perform(get("/task/getAll")).andExpect(status().isOk());
+
+        assertEquals(3, meterRegistry.get("tasklist.bulkhead.wait").tag("lane", "read").timer().count());
+        assertEquals(0, meterRegistry.get("tasklist.bulkhead.wait").tag("lane", "write").timer().count());
+    }
+
+    @Test
+    void bulkheadTurnsAwayCallersBeyondItsQueue() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 0, 1000);
+
+        assertEquals(Bulkhead.Admission.ADMITTED, bulkhead.tryEnter());
+        assertEquals(Bulkhead.Admission.QUEUE_FULL, bulkhead.tryEnter());
+        bulkhead.exit();
+        assertEquals(Bulkhead.Admission.ADMITTED, bulkhead.tryEnter());
+        assertEquals(1, bulkhead.getActive());
+    }
+
+    private CompletableFuture<Integer> readAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            authenticate();
+            try {
+                return mockMvc.perform(get("/task/getAll")).andReturn().getResponse().getStatus();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        }, runnable -> Thread.ofPlatform().start(runnable));
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId.toString(), null, List.of()));
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.waldhauser.tasklist;
+
+import com.waldhauser.tasklist.config.support.ConcurrencyLimitingDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitingDataSourceTests {
+
+    private static final int CLIENTS = 10_000;
+
+    @Test
+    void limitsConnectionsInUseUnderManyVirtualThreads() throws Exception {
+        SlowDataSource target = new SlowDataSource();
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 20, 30_000);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                executor.submit(() -> query(dataSource, 1));
+            }
+        }
+
+        assertTrue(target.maxOpen.get() <= 20, "at most 20 connections must be open at once, was " + target.maxOpen.get());
+        assertEquals(0, dataSource.getInUse());
+    }
+
+    @Test
+    void failsFastWhenNoPermitWithinTimeout() throws Exception {
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(new SlowDataSource(), 1, 50);
+
+        try (Connection ignored = dataSource.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+        assertEquals(0, dataSource.getInUse());
+    }
+
+    @Test
+    void releasesPermitOnlyOnceOnRepeatedClose() throws Exception {
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(new SlowDataSource(), 2, 50);
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        assertEquals(1, dataSource.getInUse());
+        second.close();
+        assertEquals(0, dataSource.getInUse());
+    }
+
+    private static void query(ConcurrencyLimitingDataSource dataSource, long durationMs) {
+        try (Connection ignored = dataSource.getConnection()) {
+            sleep(durationMs);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // stands in for the Hikari pool, counts how many connections are open at the same time
+    private static class SlowDataSource extends AbstractDataSource {
+
+        private final AtomicInteger open = new AtomicInteger();
+        private final AtomicInteger maxOpen = new AtomicInteger();
+
+        @Override
+        public Connection getConnection() {
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName())) {
+                            open.decrementAndGet();
+                        }
+                        return null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The error responses of the REST API: 404 for ids that do not exist or belong to another user, on reads and
+ * writes alike, and 401 with the bearer challenge for requests without a valid token.
+ * <p>
+ * The benchmark measures the throughput of the two error paths, e.g. a scanner trying random ids. Run with
+ * {@code mvn test -Dtest=ErrorResponseTests -Dbenchmark=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+class ErrorResponseTests {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        token = registerAndLogin();
+    }
+
+    @Test
+    void unknownIdsAreNotFound() throws Exception {
+        String id = UUID.randomUUID().toString();
+
+        assertNotFound(send("GET", "/task/get/" + id, null, token), "Task not found");
+        assertNotFound(send("POST", "/task/update", Map.of("id", id, "name", "Renamed"), token), "Task not found");
+        assertNotFound(send("DELETE", "/task/delete/" + id, null, token), "Task not found");
+        assertNotFound(send("POST", "/task/create", Map.of("name", "Write", "tasklistId", id), token), "Tasklist not found");
+        assertNotFound(send("GET", "/tasklist/get/" + id, null, token), "Tasklist not found");
+        assertNotFound(send("POST", "/tasklist/update", Map.of("id", id, "name", "Renamed"), token), "Tasklist not found");
+        assertNotFound(send("DELETE", "/tasklist/delete/" + id, null, token), "Tasklist not found");
+    }
+
+    @Test
+    void resourcesOfOtherUsersAreNotFound() throws Exception {
+        String tasklistId = json(send("POST", "/tasklist/create", Map.of("name", "Groceries", "description", "Weekly"), token)).get("id").asText();
+        String taskId = json(send("POST", "/task/create", Map.of("name", "Bread", "description", "Whole grain", "tasklistId", tasklistId), token)).get("id").asText();
+        String other = registerAndLogin();
+
+        assertNotFound(send("GET", "/task/get/" + taskId, null, other), "Task not found");
+        assertNotFound(send("POST", "/task/update", Map.of("id", taskId, "name", "Birthday cake"), other), "Task not found");
+        assertNotFound(send("DELETE", "/tasklist/delete/" + tasklistId, null, other), "Tasklist not found");
+        assertEquals(200, send("GET", "/task/get/" + taskId, null, token).statusCode());
+    }
+
+    @Test
+    void requestsWithoutValidTokenAreUnauthorized() throws Exception {
+        for (String bearer : new String[]{null, "not-a-token"}) {
+            HttpResponse<String> response = send("GET", "/task/getAll", null, bearer);
+
+            assertEquals(401, response.statusCode());
+            assertEquals("Bearer", response.headers().firstValue("WWW-Authenticate").orElse(null));
+        }
+        assertEquals(401, send("POST", "/tasklist/create", Map.of("name", "Groceries"), null).statusCode());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkErrorPaths() throws Exception {
+        int warmup = 2000;
+        int iterations = 5000;
+        String id = UUID.randomUUID().toString();
+
+        for (int i = 0; i < warmup; i++) {
+            send("GET", "/task/get/" + id, null, token);
+            send("GET", "/task/getAll", null, null);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            send("GET", "/task/get/" + id, null, token);
+        }
+        double notFoundMicros = (System.nanoTime() - start) / 1e3 / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            send("GET", "/task/getAll", null, null);
+        }
+        double unauthorizedMicros = (System.nanoTime() - start) / 1e3 / iterations;
+
+        System.out.printf("404 unknown task: %.0f µs (%.0f req/s), 401 without token: %.0f µs (%.0f req/s)%n",
+                notFoundMicros, 1e6 / notFoundMicros, unauthorizedMicros, 1e6 / unauthorizedMicros);
+    }
+
+    private void assertNotFound(HttpResponse<String> response, String message) throws Exception {
+        assertEquals(404, response.statusCode(), response.body());
+        JsonNode body = json(response);
+        assertEquals("NOT_FOUND", body.get("error").asText());
+        assertEquals(message, body.get("message").asText());
+    }
+
+    private String registerAndLogin() throws Exception {
+        Map<String, String> user = Map.of("name", "user-" + UUID.randomUUID(), "password", "password123");
+        assertEquals(200, send("POST", "/auth/register", user, null).statusCode());
+        return json(send("POST", "/auth/login", user, null)).get("token").asText();
+    }
+
+    private HttpResponse<String> send(String method, String path, Object body, String bearer) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode json(HttpResponse<String> response) throws Exception {
+        return objectMapper.readTree(response.body());
+    }
+}
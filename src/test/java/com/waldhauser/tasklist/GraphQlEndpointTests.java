@@ -0,0 +1,136 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waldhauser.tasklist.rest.model.batch.BatchOperation;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end tests of POST /graphql against the in-memory database: owner scoping, one statement per
+ * query level through the batch loaders, and rejection of too deep or too expensive queries.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+class GraphQlEndpointTests {
+
+    private static final int TASKLISTS = 3;
+    private static final int TASKS_PER_LIST = 5;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @LocalServerPort
+    private int port;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        token = registerAndLogin();
+
+        List<BatchOperation> operations = new ArrayList<>();
+        for (int l = 0; l < TASKLISTS; l++) {
+            operations.add(new BatchOperation("tasklist.create", "list" + l, null, null, "Tasklist " + l, "Description"));
+            for (int t = 0; t < TASKS_PER_LIST; t++) {
+                operations.add(new BatchOperation("task.create", null, null, "$list" + l, "Task number " + t, "Description"));
+            }
+        }
+        assertEquals(200, post("/batch", operations, token).statusCode());
+    }
+
+    @Test
+    void nestedQueryCostsOneStatementPerLevel() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        JsonNode data = query(token, "{ tasklists { name tasks { title tasklist { name } } } }").get("data");
+
+        assertEquals(TASKLISTS, data.get("tasklists").size());
+        for (JsonNode tasklist : data.get("tasklists")) {
+            assertEquals(TASKS_PER_LIST, tasklist.get("tasks").size());
+            assertEquals(tasklist.get("name"), tasklist.get("tasks").get(0).get("tasklist").get("name"));
+        }
+        // tasklists, their tasks, the tasklists of the tasks
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void queriesOnlySeeTheirOwnersData() throws Exception {
+        String otherToken = registerAndLogin();
+
+        JsonNode data = query(otherToken, "{ tasklists { id } tasks { id } }").get("data");
+
+        assertEquals(0, data.get("tasklists").size());
+        assertEquals(0, data.get("tasks").size());
+    }
+
+    @Test
+    void tooDeepQueryIsRejected() throws Exception {
+        JsonNode response = query(token,
+                "{ tasks { tasklist { tasks { tasklist { tasks { tasklist { tasks { title } } } } } } } }");
+
+        assertTrue(response.path("data").isNull() || response.path("data").isMissingNode());
+        assertTrue(response.get("errors").get(0).get("message").asText().contains("depth"));
+    }
+
+    @Test
+    void tooExpensiveQueryIsRejected() throws Exception {
+        JsonNode response = query(token, "{ tasklists { tasks { tasklist { tasks { title description } } } } }");
+
+        assertTrue(response.get("errors").get(0).get("message").asText().contains("complexity"));
+    }
+
+    @Test
+    void graphQlRequiresAuthentication() throws Exception {
+        HttpResponse<String> response = post("/graphql", Map.of("query", "{ tasks { id } }"), null);
+
+        assertEquals(401, response.statusCode());
+    }
+
+    private String registerAndLogin() throws Exception {
+        Map<String, String> user = Map.of("name", "user-" + UUID.randomUUID(), "password", "password123");
+        assertEquals(200, post("/auth/register", user, null).statusCode());
+        return objectMapper.readTree(post("/auth/login", user, null).body()).get("token").asText();
+    }
+
+    private JsonNode query(String bearer, String query) throws Exception {
+        HttpResponse<String> response = post("/graphql", Map.of("query", query), bearer);
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpResponse<String> post(String path, Object body, String bearer) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
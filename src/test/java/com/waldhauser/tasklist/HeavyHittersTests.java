@@ -0,0 +1,182 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waldhauser.tasklist.config.heavyhitters.HeavyHitters;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The heavy hitter counters: the top owners and endpoints and the distinct owners of a window among many light
+ * owners, the rolling of the windows, concurrent counting and {@code /actuator/heavyhitters}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.heavy-hitters.window=1h", "management.endpoints.web.exposure.include=health,heavyhitters"})
+@ActiveProfiles("h2")
+class HeavyHittersTests {
+
+    private static final int LIGHT_OWNERS = 20_000;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void heavyOwnersStandOutOfManyLightOnes() {
+        AtomicLong now = new AtomicLong(60_000);
+        HeavyHitters heavyHitters = new HeavyHitters(true, Duration.ofMinutes(1), 5, 2048, 4, now::get);
+        List<UUID> heavy = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            heavy.add(UUID.randomUUID());
+        }
+        UUID slowQueries = UUID.randomUUID();
+        for (int i = 0; i < LIGHT_OWNERS; i++) {
+            heavyHitters.record(UUID.randomUUID(), "GET /task/getAll", 1_000_000);
+            // 1000, 900, ..., 600 requests, spread over the light ones
+            if (i % 20 == 0) {
+                for (int owner = 0; owner < heavy.size(); owner++) {
+                    if (i / 20 < 1000 - 100 * owner) {
+                        heavyHitters.record(heavy.get(owner), "GET /task/get/{id}", 1_000_000);
+                    }
+                }
+            }
+        }
+        heavyHitters.record(slowQueries, "POST /batch", 5_000_000_000L);
+        now.addAndGet(30_000);
+
+        HeavyHitters.WindowSummary window = heavyHitters.summary().current();
+        assertEquals(LIGHT_OWNERS + 4000 + 1, window.requests());
+        assertEquals(heavy, window.ownersByRequests().stream().map(HeavyHitters.OwnerRate::owner).toList());
+        for (int owner = 0; owner < heavy.size(); owner++) {
+            long requests = 1000 - 100 * owner;
+            long estimate = window.ownersByRequests().get(owner).requests();
+            // never below, above by less than 0.14% of the 24001 requests
+            assertTrue(estimate >= requests && estimate <= requests + 34, String.valueOf(estimate));
+        }
+        assertEquals(1000 / 30.0, window.ownersByRequests().getFirst().perSecond(), 1.2);
+        assertEquals(slowQueries, window.ownersByDbTime().getFirst().owner());
+        double dbMillis = window.ownersByDbTime().getFirst().dbMillis();
+        assertTrue(dbMillis >= 5000 && dbMillis <= 5040, String.valueOf(dbMillis));
+        assertEquals(List.of("GET /task/getAll", "GET /task/get/{id}", "POST /batch"),
+                window.endpoints().stream().map(HeavyHitters.EndpointRate::endpoint).toList());
+        long owners = LIGHT_OWNERS + heavy.size() + 1;
+        assertEquals(owners, window.activeOwners(), owners * 0.05);
+    }
+
+    @Test
+    void windowsRollOver() {
+        AtomicLong now = new AtomicLong(60_000);
+        HeavyHitters heavyHitters = new HeavyHitters(true, Duration.ofMinutes(1), 5, 256, 4, now::get);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        heavyHitters.record(first, "GET /task/getAll", 0);
+        now.addAndGet(60_000);
+        assertNull(heavyHitters.summary().current());
+        assertEquals(first, heavyHitters.summary().previous().ownersByRequests().getFirst().owner());
+
+        heavyHitters.record(second, "GET /task/getAll", 0);
+        HeavyHitters.Summary summary = heavyHitters.summary();
+        assertEquals(List.of(second), summary.current().ownersByRequests().stream().map(HeavyHitters.OwnerRate::owner).toList());
+        assertEquals(List.of(first), summary.previous().ownersByRequests().stream().map(HeavyHitters.OwnerRate::owner).toList());
+        assertEquals(1, summary.previous().activeOwners());
+
+        // a gap: the window before is not the previous one
+        now.addAndGet(120_000);
+        heavyHitters.record(first, "GET /task/getAll", 0);
+        assertNull(heavyHitters.summary().previous());
+
+        now.addAndGet(120_000);
+        assertNull(heavyHitters.summary().current());
+        assertNull(heavyHitters.summary().previous());
+    }
+
+    @Test
+    void concurrentRequestsAreNotLost() throws Exception {
+        HeavyHitters heavyHitters = new HeavyHitters(true, Duration.ofHours(1), 5, 2048, 4, () -> 0);
+        UUID owner = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        heavyHitters.record(owner, "GET /task/getAll", 0);
+                        heavyHitters.record(UUID.randomUUID(), "GET /task/getAll", 0);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        HeavyHitters.WindowSummary window = heavyHitters.summary().current();
+        assertEquals(80_000, window.requests());
+        assertEquals(owner, window.ownersByRequests().getFirst().owner());
+        assertEquals(40_000, window.ownersByRequests().getFirst().requests(), 120);
+        assertEquals(80_000, window.endpoints().getFirst().requests());
+    }
+
+    @Test
+    void requestsAreCountedPerOwnerAndEndpoint() throws Exception {
+        String token = registerAndLogin();
+        String ownerId = objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1])).get("sub").asText();
+        for (int i = 0; i < 30; i++) {
+            assertEquals(200, send("/tasklist/getAll", token).statusCode());
+        }
+
+        JsonNode current = objectMapper.readTree(send("/actuator/heavyhitters", null).body()).get("current");
+        JsonNode top = current.get("ownersByRequests").get(0);
+        assertEquals(ownerId, top.get("owner").asText());
+        assertEquals(30, top.get("requests").asLong());
+        assertTrue(current.get("ownersByDbTime").findValuesAsText("owner").contains(ownerId));
+        assertTrue(current.get("endpoints").findValuesAsText("endpoint").contains("GET /tasklist/getAll"));
+    }
+
+    private String registerAndLogin() throws Exception {
+        Map<String, String> user = Map.of("name", "user-" + UUID.randomUUID(), "password", "password123");
+        assertEquals(200, post("/auth/register", user).statusCode());
+        return objectMapper.readTree(post("/auth/login", user).body()).get("token").asText();
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> send(String path, String bearer) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,106 @@
+package com.waldhauser.tasklist;
+
+import com.waldhauser.tasklist.config.support.JitWarmupRunner;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import com.waldhauser.tasklist.service.support.KnownIds;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the JIT warm-up: it runs before the application accepts traffic, leaves no synthetic data behind, and
+ * reads its uncommitted task with the known ids filters on.
+ */
+@SpringBootTest(properties = {"app.warmup.enabled=true", "app.warmup.iterations=200", "app.warmup.budget-ms=20000",
+        "app.known-ids.enabled=true"})
+@ActiveProfiles("h2")
+class JitWarmupTests {
+
+    @Autowired
+    private JitWarmupRunner jitWarmupRunner;
+
+    @Autowired
+    private ReadinessRecorder readinessRecorder;
+
+    @Autowired
+    private KnownIds knownIds;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TasklistRepository tasklistRepository;
+
+    @Test
+    void warmUpFinishesBeforeReadinessAndRollsBack() {
+        JitWarmupRunner.WarmupReport report = jitWarmupRunner.getReport();
+
+        assertNotNull(report);
+        assertEquals(200, report.iterations());
+        assertFalse(report.budgetExhausted());
+        assertTrue(report.firstRoundMicros() > 0 && report.lastRoundMicros() > 0);
+        assertSame(report, readinessRecorder.reportWhenReady.get(), "readiness must follow the warm-up");
+        assertTrue(taskRepository.findByOwnerId(report.ownerId()).isEmpty());
+        assertTrue(tasklistRepository.findByOwnerId(report.ownerId()).isEmpty());
+    }
+
+    @Test
+    void warmUpReadsItsUncommittedTaskWithKnownIds() throws Exception {
+        // the startup rebuild runs on the scheduler, wait until the filters answer for sure
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (knownIds.mightContainTask(UUID.randomUUID())) {
+            assertTrue(System.nanoTime() < deadline, "known ids not built");
+            Thread.sleep(10);
+        }
+        JitWarmupRunner.WarmupReport startup = jitWarmupRunner.getReport();
+
+        jitWarmupRunner.run(null);
+
+        JitWarmupRunner.WarmupReport report = jitWarmupRunner.getReport();
+        assertNotSame(startup, report, "the warm-up failed");
+        assertEquals(200, report.iterations());
+        assertTrue(taskRepository.findByOwnerId(report.ownerId()).isEmpty());
+    }
+
+    @TestConfiguration
+    static class ReadinessRecorderConfig {
+
+        @Bean
+        ReadinessRecorder readinessRecorder(JitWarmupRunner jitWarmupRunner) {
+            return new ReadinessRecorder(jitWarmupRunner);
+        }
+    }
+
+    /**
+     * Remembers the warm-up report at the moment the application starts accepting traffic.
+     */
+    static class ReadinessRecorder implements ApplicationListener<AvailabilityChangeEvent<ReadinessState>> {
+
+        private final JitWarmupRunner jitWarmupRunner;
+        private final AtomicReference<JitWarmupRunner.WarmupReport> reportWhenReady = new AtomicReference<>();
+
+        ReadinessRecorder(JitWarmupRunner jitWarmupRunner) {
+            this.jitWarmupRunner = jitWarmupRunner;
+        }
+
+        @Override
+        public void onApplicationEvent(AvailabilityChangeEvent<ReadinessState> event) {
+            if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                reportWhenReady.set(jitWarmupRunner.getReport());
+            }
+        }
+    }
+}
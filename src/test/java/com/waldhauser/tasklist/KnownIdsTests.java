@@ -0,0 +1,157 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waldhauser.tasklist.domain.model.Task;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import com.waldhauser.tasklist.service.support.KnownIds;
+import com.waldhauser.tasklist.service.support.ScalableBloomFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Bloom filters of the known ids: no false negatives and the configured false positive rate while the filter
+ * grows, lookups of unknown ids answered without a query, committed inserts known at once, rolled back ones never,
+ * and deletes cleared by a rebuild.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.known-ids.enabled=true")
+@ActiveProfiles("h2")
+class KnownIdsTests {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private KnownIds knownIds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TasklistRepository tasklistRepository;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void filterKeepsItsFalsePositiveRateWhileGrowing() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            UUID id = UUID.randomUUID();
+            filter.add(id);
+            added.add(id);
+        }
+
+        assertTrue(filter.stageCount() > 1);
+        assertTrue(filter.count() > 99_000, String.valueOf(filter.count()));
+        assertTrue(added.stream().allMatch(filter::mightContain));
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        // 6 full stages come close to the bound of 1%, the sampling error of 100000 lookups is about 0.03%
+        assertTrue(falsePositives < 1200, String.valueOf(falsePositives));
+    }
+
+    @Test
+    void unknownIdsAreRejectedAndDeletedOnesClearedByRebuild() throws Exception {
+        String token = registerAndLogin();
+        UUID ownerId = UUID.fromString(objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1])).get("sub").asText());
+        String tasklistId = objectMapper.readTree(send("POST", "/tasklist/create",
+                Map.of("name", "Groceries", "description", "Weekly"), token).body()).get("id").asText();
+        String taskId = createTask(tasklistId, token);
+        knownIds.rebuild();
+
+        double tasks = rejected("task");
+        assertEquals(404, send("GET", "/task/get/" + UUID.randomUUID(), null, token).statusCode());
+        assertEquals(tasks + 1, rejected("task"));
+        double tasklists = rejected("tasklist");
+        assertEquals(404, send("GET", "/tasklist/get/" + UUID.randomUUID(), null, token).statusCode());
+        assertEquals(tasklists + 1, rejected("tasklist"));
+
+        // known right after the commit, through the API or the repositories, without a rebuild
+        assertEquals(200, send("GET", "/task/get/" + taskId, null, token).statusCode());
+        assertEquals(200, send("GET", "/task/get/" + createTask(tasklistId, token), null, token).statusCode());
+        Tasklist saved = tasklistRepository.save(new Tasklist(ownerId, "Tasklist", "Description", new ArrayList<>()));
+        UUID savedTask = taskRepository.save(new Task(saved, ownerId, "Task", "Description")).getId();
+        assertEquals(200, send("GET", "/tasklist/get/" + saved.getId(), null, token).statusCode());
+        assertEquals(200, send("GET", "/task/get/" + savedTask, null, token).statusCode());
+        assertEquals(tasks + 1, rejected("task"));
+
+        // an insert rolled back after its flush is never added
+        UUID rolledBack = transactionOperations.execute(status -> {
+            UUID id = tasklistRepository.saveAndFlush(
+                    new Tasklist(ownerId, "Rolled back", "Description", new ArrayList<>())).getId();
+            status.setRollbackOnly();
+            return id;
+        });
+        assertFalse(knownIds.mightContainTasklist(rolledBack));
+
+        // a deleted id is still in the filter until the next rebuild
+        assertEquals(200, send("DELETE", "/task/delete/" + taskId, null, token).statusCode());
+        assertEquals(404, send("GET", "/task/get/" + taskId, null, token).statusCode());
+        assertEquals(tasks + 1, rejected("task"));
+        knownIds.rebuild();
+        assertEquals(404, send("GET", "/task/get/" + taskId, null, token).statusCode());
+        assertEquals(tasks + 2, rejected("task"));
+        assertEquals(200, send("GET", "/task/get/" + savedTask, null, token).statusCode());
+    }
+
+    private double rejected(String type) {
+        return meterRegistry.get("tasklist.known-ids.rejected").tag("type", type).counter().count();
+    }
+
+    private String createTask(String tasklistId, String token) throws Exception {
+        HttpResponse<String> response = send("POST", "/task/create",
+                Map.of("name", "Bread", "description", "Whole grain", "tasklistId", tasklistId), token);
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body()).get("id").asText();
+    }
+
+    private String registerAndLogin() throws Exception {
+        Map<String, String> user = Map.of("name", "user-" + UUID.randomUUID(), "password", "password123");
+        assertEquals(200, send("POST", "/auth/register", user, null).statusCode());
+        return objectMapper.readTree(send("POST", "/auth/login", user, null).body()).get("token").asText();
+    }
+
+    private HttpResponse<String> send(String method, String path, Object body, String bearer) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,356 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end load test: boots the application against the in-memory database, seeds users, tasklists and tasks
+ * through the REST endpoints and drives an open-loop request mix against it.
+ * <p>
+ * Open loop: requests are started on a fixed schedule ({@code loadtest.rate} per second), whether or not earlier
+ * requests have finished, and every latency is measured from the scheduled start. A slow server therefore shows up
+ * as high percentiles instead of a silently lower request rate (no coordinated omission).
+ * <p>
+ * Operations and their default weights ({@code loadtest.mix}):
+ * - {@code login=5}: POST /auth/login
+ * - {@code getAll=40}: GET /tasklist/getAll
+ * - {@code get=30}: GET /task/get/{id} of a seeded task
+ * - {@code create=10}: POST /task/create
+ * - {@code update=10}: POST /task/update of a seeded task
+ * - {@code delete=5}: DELETE /task/delete/{id} of a task created by the load test, a get while there is none
+ * <p>
+ * Parameters (system properties): {@code loadtest.users} (20), {@code loadtest.tasklists} per user (5),
+ * {@code loadtest.tasks} per tasklist (20), {@code loadtest.rate} (500), {@code loadtest.warmup-seconds} (10),
+ * {@code loadtest.seconds} (30), {@code loadtest.mix}, {@code loadtest.output} (target/loadtest/&lt;time&gt;.json).
+ * <p>
+ * The results (throughput, errors per status, p50/p90/p99/p99.9/max per operation, in milliseconds) are printed
+ * and written as JSON together with the commit and the parameters, so runs can be compared across commits.
+ * Requests shed by the admission control count as errors (503). Application properties can be passed as system
+ * properties too, e.g. {@code -Dapp.limiter.enabled=false -Dapp.bulkhead.enabled=false} to measure without it.
+ * <p>
+ * Run: {@code mvn test -Dtest=LoadTestHarnessTests -Dloadtest=true -Dloadtest.rate=1000}
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.waldhauser.tasklist.config.metrics.QueryBudgetFilter=error")
+@ActiveProfiles("h2")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class LoadTestHarnessTests {
+
+    enum Operation { LOGIN, GET_ALL, GET, CREATE, UPDATE, DELETE }
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final int users = Integer.getInteger("loadtest.users", 20);
+    private final int tasklists = Integer.getInteger("loadtest.tasklists", 5);
+    private final int tasks = Integer.getInteger("loadtest.tasks", 20);
+    private final int rate = Integer.getInteger("loadtest.rate", 500);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 10);
+    private final int seconds = Integer.getInteger("loadtest.seconds", 30);
+    private final String mix = System.getProperty("loadtest.mix", "login=5,getAll=40,get=30,create=10,update=10,delete=5");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void openLoopWorkload() throws Exception {
+        List<SeededUser> seeded = seed();
+        Map<Operation, Integer> weights = parseMix(mix);
+
+        run(seeded, weights, warmupSeconds);
+        Map<Operation, Stats> stats = run(seeded, weights, seconds);
+
+        Map<String, Object> result = result(stats);
+        Path output = Path.of(System.getProperty("loadtest.output",
+                "target/loadtest/" + Instant.now().toString().replace(':', '-') + ".json"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), result);
+
+        System.out.printf("%-8s %8s %8s %9s %9s %9s %9s %9s%n", "op", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.forEach((operation, operationStats) -> print(operation.name().toLowerCase(), operationStats));
+        print("total", total(stats));
+        System.out.printf("throughput %.0f req/s (target %d), results in %s%n", result.get("throughput"), rate, output);
+
+        assertTrue(total(stats).histogram.getTotalCount() > 0);
+    }
+
+    // ---------- Workload ----------
+
+    private Map<Operation, Stats> run(List<SeededUser> seeded, Map<Operation, Integer> weights, int durationSeconds) throws InterruptedException {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        weights.keySet().forEach(operation -> stats.put(operation, new Stats()));
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        Random random = new Random(42);
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = (long) rate * durationSeconds;
+        long start = System.nanoTime();
+        try (ExecutorService requestThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long scheduled = start + i * interval;
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = pick(weights, totalWeight, random.nextInt(totalWeight));
+                SeededUser user = seeded.get(random.nextInt(seeded.size()));
+                long seed = random.nextLong();
+                requestThreads.submit(() -> execute(operation, user, new Random(seed), scheduled, stats));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        stats.values().forEach(operationStats -> operationStats.elapsedNanos = elapsed);
+        return stats;
+    }
+
+    private void execute(Operation operation, SeededUser user, Random random, long scheduled, Map<Operation, Stats> stats) {
+        int status;
+        try {
+            status = switch (operation) {
+                case LOGIN -> send("POST", "/auth/login", user.credentials, null).statusCode();
+                case GET_ALL -> send("GET", "/tasklist/getAll", null, user.token).statusCode();
+                case GET -> get(user, random);
+                case CREATE -> {
+                    HttpResponse<String> response = send("POST", "/task/create", Map.of(
+                            "tasklistId", user.tasklistIds.get(random.nextInt(user.tasklistIds.size())),
+                            "name", "Load test task", "description", "Created by the load test"), user.token);
+                    if (response.statusCode() == 200) {
+                        user.createdTaskIds.add(objectMapper.readTree(response.body()).get("id").asText());
+                    }
+                    yield response.statusCode();
+                }
+                case UPDATE -> send("POST", "/task/update", Map.of(
+                        "id", user.taskIds.get(random.nextInt(user.taskIds.size())),
+                        "name", "Updated task " + random.nextInt(1000), "description", "Updated by the load test"), user.token).statusCode();
+                case DELETE -> {
+                    String taskId = user.createdTaskIds.pollFirst();
+                    yield taskId == null ? get(user, random) : send("DELETE", "/task/delete/" + taskId, null, user.token).statusCode();
+                }
+            };
+        } catch (Exception e) {
+            status = -1;
+        }
+        stats.get(operation).record(status, scheduled);
+    }
+
+    private int get(SeededUser user, Random random) throws IOException, InterruptedException {
+        return send("GET", "/task/get/" + user.taskIds.get(random.nextInt(user.taskIds.size())), null, user.token).statusCode();
+    }
+
+    private static Operation pick(Map<Operation, Integer> weights, int totalWeight, int value) {
+        for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+            value -= weight.getValue();
+            if (value < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("total weight " + totalWeight);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            Operation operation = switch (parts[0].trim()) {
+                case "login" -> Operation.LOGIN;
+                case "getAll" -> Operation.GET_ALL;
+                case "get" -> Operation.GET;
+                case "create" -> Operation.CREATE;
+                case "update" -> Operation.UPDATE;
+                case "delete" -> Operation.DELETE;
+                default -> throw new IllegalArgumentException("unknown operation in loadtest.mix: " + parts[0]);
+            };
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        return weights;
+    }
+
+    // ---------- Seeding ----------
+
+    private List<SeededUser> seed() throws Exception {
+        List<SeededUser> seeded = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            Map<String, String> credentials = Map.of("name", "load-" + UUID.randomUUID(), "password", "password123");
+            assertEquals(200, send("POST", "/auth/register", credentials, null).statusCode());
+            String token = objectMapper.readTree(send("POST", "/auth/login", credentials, null).body()).get("token").asText();
+            SeededUser user = new SeededUser(credentials, token);
+            for (int l = 0; l < tasklists; l++) {
+                HttpResponse<String> tasklist = send("POST", "/tasklist/create",
+                        Map.of("name", "Tasklist " + l, "description", "Seeded by the load test"), token);
+                assertEquals(200, tasklist.statusCode(), tasklist.body());
+                String tasklistId = objectMapper.readTree(tasklist.body()).get("id").asText();
+                user.tasklistIds.add(tasklistId);
+                for (int t = 0; t < tasks; t++) {
+                    HttpResponse<String> task = send("POST", "/task/create", Map.of("tasklistId", tasklistId,
+                            "name", "Task " + l + "." + t, "description", "Seeded by the load test"), token);
+                    assertEquals(200, task.statusCode(), task.body());
+                    user.taskIds.add(objectMapper.readTree(task.body()).get("id").asText());
+                }
+            }
+            seeded.add(user);
+        }
+        return seeded;
+    }
+
+    private HttpResponse<String> send(String method, String path, Object body, String bearer) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // ---------- Results ----------
+
+    private Map<String, Object> result(Map<Operation, Stats> stats) {
+        Stats total = total(stats);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("commit", commit());
+        result.put("timestamp", Instant.now().toString());
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("users", users);
+        parameters.put("tasklists", tasklists);
+        parameters.put("tasks", tasks);
+        parameters.put("rate", rate);
+        parameters.put("warmupSeconds", warmupSeconds);
+        parameters.put("seconds", seconds);
+        parameters.put("mix", mix);
+        result.put("parameters", parameters);
+        result.put("throughput", total.histogram.getTotalCount() / (total.elapsedNanos / 1e9));
+        result.put("total", total.toMap());
+        Map<String, Object> operations = new LinkedHashMap<>();
+        stats.forEach((operation, operationStats) -> operations.put(operation.name().toLowerCase(), operationStats.toMap()));
+        result.put("operations", operations);
+        return result;
+    }
+
+    private static Stats total(Map<Operation, Stats> stats) {
+        Stats total = new Stats();
+        stats.values().forEach(operationStats -> {
+            total.histogram.add(operationStats.histogram);
+            operationStats.statuses.forEach((status, count) ->
+                    total.statuses.computeIfAbsent(status, key -> new AtomicLong()).addAndGet(count.get()));
+            total.elapsedNanos = operationStats.elapsedNanos;
+        });
+        return total;
+    }
+
+    private static void print(String name, Stats stats) {
+        Histogram histogram = stats.histogram;
+        System.out.printf("%-8s %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(), stats.errors(),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String commit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String commit = new String(git.getInputStream().readAllBytes()).strip();
+            return git.waitFor() == 0 ? commit : "unknown";
+        } catch (IOException | InterruptedException e) {
+            return "unknown";
+        }
+    }
+
+    private static final class SeededUser {
+
+        final Map<String, String> credentials;
+        final String token;
+        final List<String> tasklistIds = new ArrayList<>();
+        final List<String> taskIds = new ArrayList<>();
+        final ConcurrentLinkedDeque<String> createdTaskIds = new ConcurrentLinkedDeque<>();
+
+        SeededUser(Map<String, String> credentials, String token) {
+            this.credentials = credentials;
+            this.token = token;
+        }
+    }
+
+    private static final class Stats {
+
+        final Histogram histogram = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        final Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+        long elapsedNanos;
+
+        void record(int status, long scheduled) {
+            // from the scheduled start, not the actual send: the time a request waited for its turn counts
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+            histogram.recordValue(Math.min(Math.max(micros, 1), HIGHEST_LATENCY_MICROS));
+            statuses.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+        }
+
+        long errors() {
+            return statuses.entrySet().stream()
+                    .filter(entry -> entry.getKey() < 200 || entry.getKey() >= 300)
+                    .mapToLong(entry -> entry.getValue().get())
+                    .sum();
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", histogram.getTotalCount());
+            map.put("errors", errors());
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            statuses.forEach((status, count) -> byStatus.put(status < 0 ? "exception" : String.valueOf(status), count.get()));
+            map.put("statuses", byStatus);
+            map.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+            map.put("p90Ms", millis(histogram.getValueAtPercentile(90)));
+            map.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+            map.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+            map.put("maxMs", millis(histogram.getMaxValue()));
+            return map;
+        }
+    }
+}
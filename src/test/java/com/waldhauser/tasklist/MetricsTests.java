@@ -0,0 +1,86 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scrapes {@code /actuator/prometheus} after a few API calls: the endpoint, service, repository and JWT timers are
+ * there with histogram buckets, and no series carries the id of the user.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.endpoints.web.exposure.include=health,prometheus")
+@AutoConfigureObservability
+@ActiveProfiles("h2")
+class MetricsTests {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void prometheusEndpointExportsLayeredTimersWithoutUserIds() throws Exception {
+        String token = registerAndLogin();
+        String userId = objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1])).get("sub").asText();
+        String tasklist = send("POST", "/tasklist/create", Map.of("name", "Tasklist", "description", "Description"), token).body();
+        String tasklistId = objectMapper.readTree(tasklist).get("id").asText();
+        assertEquals(200, send("POST", "/task/create",
+                Map.of("tasklistId", tasklistId, "name", "First task", "description", "Description"), token).statusCode());
+        assertEquals(200, send("GET", "/task/getAll", null, token).statusCode());
+        send("GET", "/task/getAll", null, "not-a-token");
+
+        HttpResponse<String> scrape = send("GET", "/actuator/prometheus", null, null);
+        assertEquals(200, scrape.statusCode());
+        String metrics = scrape.body();
+
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{"), "endpoint histogram");
+        assertTrue(metrics.matches("(?s).*http_server_requests_seconds_count\\{[^}]*uri=\"/task/getAll\".*"), "endpoint timer");
+        assertTrue(metrics.matches("(?s).*tasklist_service_seconds_bucket\\{[^}]*class=\"[^\"]*TaskServiceImpl\"[^}]*le=\"0\\.025\".*"),
+                "service timer with SLO bucket");
+        assertTrue(metrics.matches("(?s).*tasklist_service_seconds_count\\{[^}]*method=\"login\".*"), "user service timer");
+        assertTrue(metrics.matches("(?s).*spring_data_repository_invocations_seconds_bucket\\{[^}]*repository=\"TaskRepository\".*"),
+                "repository timer");
+        assertTrue(metrics.contains("tasklist_jwt_verify_seconds_count{outcome=\"valid\""), "valid JWT timer");
+        assertTrue(metrics.contains("tasklist_jwt_verify_seconds_count{outcome=\"invalid\"")
+                || metrics.contains("tasklist_jwt_verify_seconds_count{outcome=\"error\""), "rejected JWT timer");
+        assertTrue(metrics.contains("hikaricp_connections_active"), "pool gauge");
+
+        assertFalse(metrics.contains(userId), "user id in a tag");
+        assertFalse(metrics.contains(tasklistId), "tasklist id in a tag");
+    }
+
+    private String registerAndLogin() throws Exception {
+        Map<String, String> user = Map.of("name", "user-" + UUID.randomUUID(), "password", "password123");
+        assertEquals(200, send("POST", "/auth/register", user, null).statusCode());
+        return objectMapper.readTree(send("POST", "/auth/login", user, null).body()).get("token").asText();
+    }
+
+    private HttpResponse<String> send(String method, String path, Object body, String bearer) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,188 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.protobuf.ByteString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.waldhauser.tasklist.config.support.TaskProtobufHttpMessageConverter;
+import com.waldhauser.tasklist.rest.controller.TaskController;
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+import com.waldhauser.tasklist.rest.proto.ProtobufMapper;
+import com.waldhauser.tasklist.rest.proto.TaskMessageList;
+import com.waldhauser.tasklist.rest.proto.TasklistMessageList;
+import com.waldhauser.tasklist.service.api.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class PayloadEncodingTests {
+
+    @Mock
+    private TaskService taskService;
+
+    @InjectMocks
+    private TaskController taskController;
+
+    private MockMvc mockMvc;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(taskController)
+                .setMessageConverters(
+                        new MappingJackson2HttpMessageConverter(),
+                        new MappingJackson2SmileHttpMessageConverter(),
+                        new MappingJackson2CborHttpMessageConverter(),
+                        new TaskProtobufHttpMessageConverter())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId.toString(), null, List.of()));
+    }
+
+    @Test
+    void getAllNegotiatesCborWithBinaryUuids() throws Exception {
+        TaskResponse task = task(UUID.randomUUID(), 20);
+        when(taskService.getAllTasksByOwnerId(userId)).thenReturn(List.of(task));
+
+        byte[] body = mockMvc.perform(get("/task/getAll").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode first = new CBORMapper().readTree(body).get(0);
+        assertEquals(16, first.get("id").binaryValue().length);
+        assertEquals(task.getId(), ProtobufMapper.toUuid(ByteString.copyFrom(first.get("id").binaryValue())));
+    }
+
+    @Test
+    void getAllNegotiatesProtobuf() throws Exception {
+        TaskResponse task = task(UUID.randomUUID(), 20);
+        when(taskService.getAllTasksByOwnerId(userId)).thenReturn(List.of(task));
+
+        byte[] body = mockMvc.perform(get("/task/getAll").accept(TaskProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(TaskProtobufHttpMessageConverter.PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        TaskResponse decoded = ProtobufMapper.toResponse(TaskMessageList.parseFrom(body).getTasks(0));
+        assertEquals(task.getId(), decoded.getId());
+        assertEquals(task.getTasklistId(), decoded.getTasklistId());
+        assertEquals(task.getTitle(), decoded.getTitle());
+    }
+
+    @Test
+    void jsonStaysTheDefault() throws Exception {
+        when(taskService.getAllTasksByOwnerId(userId)).thenReturn(List.of(task(UUID.randomUUID(), 20)));
+
+        mockMvc.perform(get("/task/getAll"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void binaryEncodingsAreSmallerThanJsonForLargeTasklists() throws Exception {
+        List<TasklistResponse> tasklists = tasklists(10, 100, 200);
+        byte[] json = new ObjectMapper().writeValueAsBytes(tasklists);
+        byte[] cbor = new CBORMapper().writeValueAsBytes(tasklists);
+        byte[] smile = new SmileMapper().writeValueAsBytes(tasklists);
+        byte[] protobuf = protobuf(tasklists);
+
+        System.out.printf("10 lists x 100 tasks: json %d B, cbor %d B, smile %d B, protobuf %d B%n",
+                json.length, cbor.length, smile.length, protobuf.length);
+        assertTrue(cbor.length < json.length);
+        assertTrue(smile.length < json.length);
+        assertTrue(protobuf.length < cbor.length);
+    }
+
+    /**
+     * Serialization throughput of the same payload in every encoding.
+     * Run with {@code mvn test -Dtest=PayloadEncodingTests -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void serializationThroughput() throws Exception {
+        List<TasklistResponse> tasklists = tasklists(10, 100, 200);
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper cbor = new CBORMapper();
+        ObjectMapper smile = new SmileMapper();
+
+        report("json", () -> write(json, tasklists));
+        report("cbor", () -> write(cbor, tasklists));
+        report("smile", () -> write(smile, tasklists));
+        report("protobuf", () -> protobuf(tasklists));
+    }
+
+    private static void report(String name, Supplier<byte[]> serializer) {
+        // warm up, then measure for two seconds
+        for (int i = 0; i < 2_000; i++) {
+            serializer.get();
+        }
+        long operations = 0;
+        long bytes = 0;
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < 2_000_000_000L) {
+            bytes += serializer.get().length;
+            operations++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-8s %10.0f ops/s %8.1f MB/s%n", name, operations / seconds, bytes / seconds / 1e6);
+    }
+
+    private static byte[] write(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] protobuf(List<TasklistResponse> tasklists) {
+        TasklistMessageList.Builder builder = TasklistMessageList.newBuilder();
+        tasklists.forEach(tasklist -> builder.addTasklists(ProtobufMapper.toMessage(tasklist)));
+        return builder.build().toByteArray();
+    }
+
+    private List<TasklistResponse> tasklists(int lists, int tasksPerList, int descriptionLength) {
+        List<TasklistResponse> tasklists = new ArrayList<>();
+        for (int i = 0; i < lists; i++) {
+            UUID tasklistId = UUID.randomUUID();
+            List<TaskResponse> tasks = new ArrayList<>();
+            for (int j = 0; j < tasksPerList; j++) {
+                tasks.add(task(tasklistId, descriptionLength));
+            }
+            tasklists.add(new TasklistResponse(tasklistId, userId, "Tasklist " + i, "Description", tasks));
+        }
+        return tasklists;
+    }
+
+    private TaskResponse task(UUID tasklistId, int descriptionLength) {
+        return new TaskResponse(UUID.randomUUID(), userId, "Task name", "d".repeat(descriptionLength), tasklistId);
+    }
+}
@@ -0,0 +1,162 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waldhauser.tasklist.config.profiling.ProfileAggregates;
+import com.waldhauser.tasklist.domain.model.Task;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The JFR events of the service, repository and JWT calls, as aggregated and dumped by the continuous profiler
+ * through {@code /actuator/profiling}, and the rolling window of the aggregates.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.profiling.enabled=true", "management.endpoints.web.exposure.include=health,profiling"})
+@ActiveProfiles("h2")
+class ProfilingTests {
+
+    private static final int REQUESTS = 20;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private TasklistRepository tasklistRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void callsAreAggregatedAndDumped() throws Exception {
+        String token = registerAndLogin();
+        UUID ownerId = UUID.fromString(objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1])).get("sub").asText());
+        Tasklist tasklist = tasklistRepository.save(new Tasklist(ownerId, "Tasklist", "Description", new ArrayList<>()));
+        taskRepository.save(new Task(tasklist, ownerId, "Task", "Description"));
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals(200, send("GET", "/tasklist/getAll", token).statusCode());
+        }
+
+        // the stream consumes the recording about once per second
+        JsonNode service = null;
+        JsonNode repository = null;
+        JsonNode jwt = null;
+        JsonNode summary = null;
+        for (int attempt = 0; attempt < 50 && (service == null || repository == null || jwt == null); attempt++) {
+            Thread.sleep(200);
+            summary = objectMapper.readTree(send("GET", "/actuator/profiling", null).body());
+            service = operation(summary, "service", "TasklistServiceImpl.getAllTasklistsByOwnerId");
+            repository = operation(summary, "repository", "TasklistRepository.findWithTasksByOwnerId");
+            jwt = operation(summary, "jwt", "valid");
+        }
+        assertNotNull(service, String.valueOf(summary));
+        assertNotNull(repository, String.valueOf(summary));
+        assertNotNull(jwt, String.valueOf(summary));
+        assertEquals(REQUESTS, service.get("count").asLong());
+        assertEquals(REQUESTS, service.get("rows").asLong());
+        assertEquals(REQUESTS, repository.get("rows").asLong());
+        assertTrue(service.get("maxMillis").asDouble() > 0);
+
+        HttpResponse<byte[]> dump = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/profiling"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, dump.statusCode());
+        Path file = Files.createTempFile("profiling-test-", ".jfr");
+        try {
+            Files.write(file, dump.body());
+            List<RecordedEvent> calls = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("com.waldhauser.tasklist.ServiceCall"))
+                    .filter(event -> "TasklistServiceImpl.getAllTasklistsByOwnerId".equals(event.getString("operation")))
+                    .toList();
+            assertEquals(REQUESTS, calls.size());
+            assertEquals(ownerId.hashCode(), calls.getFirst().getInt("ownerHash"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void aggregatesRollOverTheWindow() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        ProfileAggregates aggregates = new ProfileAggregates(Duration.ofSeconds(10), 10, now::get);
+
+        aggregates.recordOperation("service", "old", 3_000_000, 1, false);
+        now.addAndGet(5_000);
+        aggregates.recordOperation("service", "new", 1_000_000, 2, false);
+        aggregates.recordOperation("service", "new", 2_000_000, 2, true);
+        aggregates.recordAllocation("Site.method:1", "byte[]", 1024);
+
+        List<ProfileAggregates.OperationStats> operations = aggregates.topOperations(10);
+        assertEquals(List.of("old", "new"), operations.stream().map(ProfileAggregates.OperationStats::operation).toList());
+        assertEquals(new ProfileAggregates.OperationStats("service", "new", 2, 1, 3.0, 1.5, 2.0, 4), operations.get(1));
+
+        now.addAndGet(5_000);
+        assertEquals(List.of("new"), aggregates.topOperations(10).stream().map(ProfileAggregates.OperationStats::operation).toList());
+        assertEquals(1024, aggregates.topAllocations(10).getFirst().bytes());
+
+        now.addAndGet(5_000);
+        assertTrue(aggregates.topOperations(10).isEmpty());
+        assertTrue(aggregates.topAllocations(10).isEmpty());
+    }
+
+    private static JsonNode operation(JsonNode summary, String type, String operation) {
+        for (JsonNode stats : summary.get("operations")) {
+            if (stats.get("type").asText().equals(type) && stats.get("operation").asText().equals(operation)
+                    && stats.get("count").asLong() >= REQUESTS) {
+                return stats;
+            }
+        }
+        return null;
+    }
+
+    private String registerAndLogin() throws Exception {
+        Map<String, String> user = Map.of("name", "user-" + UUID.randomUUID(), "password", "password123");
+        assertEquals(200, post("/auth/register", user).statusCode());
+        return objectMapper.readTree(post("/auth/login", user).body()).get("token").asText();
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> send(String method, String path, String bearer) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .method(method, HttpRequest.BodyPublishers.noBody());
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
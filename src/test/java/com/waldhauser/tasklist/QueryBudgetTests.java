@@ -0,0 +1,208 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waldhauser.tasklist.config.metrics.QueryBudget;
+import com.waldhauser.tasklist.config.metrics.QueryBudgetFilter;
+import com.waldhauser.tasklist.domain.model.Task;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+import com.waldhauser.tasklist.service.api.TaskService;
+import com.waldhauser.tasklist.service.api.TasklistService;
+import com.waldhauser.tasklist.service.support.RepositoryGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.waldhauser.tasklist.QueryCountExtension.assertQueries;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement counts of the TaskService and TasklistService reads, their read-only transactions, and the flagging
+ * of requests over the query budget or with repeated statements (N+1).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.query-budget.max-statements=3", "app.query-budget.repeated-threshold=3"})
+@ActiveProfiles("h2")
+@ExtendWith(QueryCountExtension.class)
+class QueryBudgetTests {
+
+    private static final int TASKLISTS = 3;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TasklistService tasklistService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TasklistRepository tasklistRepository;
+
+    @Autowired
+    private RepositoryGuard repositoryGuard;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void serviceReadsRunTheExpectedNumberOfStatements(QueryBudget.Recording recording) {
+        UUID ownerId = UUID.randomUUID();
+        UUID taskId = createTasklists(ownerId);
+
+        assertEquals(TASKLISTS * 2, assertQueries(1, () -> taskService.getAllTasksByOwnerId(ownerId)).size());
+        assertTrue(assertQueries(1, () -> taskService.getTaskById(taskId, ownerId)).isPresent());
+        assertEquals(TASKLISTS, assertQueries(1, () -> tasklistService.getTasklistSummariesByOwnerId(ownerId)).size());
+
+        // the tasklists are fetched with their tasks, no session is open around the call
+        List<TasklistResponse> tasklists = assertQueries(1, () -> tasklistService.getAllTasklistsByOwnerId(ownerId));
+        assertEquals(TASKLISTS, tasklists.size());
+        assertTrue(tasklists.stream().allMatch(tasklist -> tasklist.getTasks().size() == 2));
+        UUID tasklistId = tasklists.getFirst().getId();
+        assertEquals(2, assertQueries(1, () -> tasklistService.getTasklistById(tasklistId, ownerId)).getTasks().size());
+        assertTrue(recording.getRepeatedStatements(2).isEmpty());
+    }
+
+    @Test
+    void readsRunInReadOnlyTransactionsWithoutOpenSessionInView() {
+        UUID ownerId = UUID.randomUUID();
+        createTasklists(ownerId);
+
+        assertTrue(applicationContext.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+        repositoryGuard.readOnly(() -> {
+            Session session = entityManager.unwrap(Session.class);
+            assertTrue(session.isDefaultReadOnly());
+            assertEquals(FlushMode.MANUAL, session.getHibernateFlushMode());
+            Tasklist tasklist = tasklistRepository.findWithTasksByOwnerId(ownerId).getFirst();
+            // no dirty-checking snapshots of the loaded entities
+            assertTrue(session.isReadOnly(tasklist));
+            assertTrue(session.isReadOnly(tasklist.getTasks().getFirst()));
+            return null;
+        });
+    }
+
+    @Test
+    void requestsAreMeasured() throws Exception {
+        String token = registerAndLogin();
+        UUID ownerId = UUID.fromString(objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1])).get("sub").asText());
+        createTasklists(ownerId);
+        double tasksExceeded = count("tasklist.queries.budget.exceeded", "/task/getAll");
+        double exceeded = count("tasklist.queries.budget.exceeded", "/tasklist/getAll");
+
+        assertEquals(200, send("/task/getAll", token).statusCode());
+        assertEquals(tasksExceeded, count("tasklist.queries.budget.exceeded", "/task/getAll"));
+
+        assertEquals(200, send("/tasklist/getAll", token).statusCode());
+        assertEquals(exceeded, count("tasklist.queries.budget.exceeded", "/tasklist/getAll"));
+        assertEquals(1, meterRegistry.get("tasklist.request.queries").tag("uri", "/tasklist/getAll").summary().max());
+        Timer connectionHold = meterRegistry.get("tasklist.request.connection.hold").tag("uri", "/tasklist/getAll").timer();
+        assertTrue(connectionHold.count() > 0);
+        assertTrue(connectionHold.totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    void requestsOverTheBudgetAndWithRepeatedStatementsAreFlagged(QueryBudget.Recording recording) throws Exception {
+        // the filter only records requests outside of a recording
+        recording.close();
+        UUID ownerId = UUID.randomUUID();
+        createTasklists(ownerId);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        QueryBudgetFilter filter = new QueryBudgetFilter(true, 3, 3, 200, registry);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasklist/getAll");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/tasklist/getAll");
+
+        // one statement for the tasklists, one per tasklist for its tasks (N+1)
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> tasklistRepository.findByOwnerId(ownerId)
+                .forEach(tasklist -> taskRepository.findByTasklistId(tasklist.getId())));
+
+        assertEquals(1, registry.get("tasklist.queries.budget.exceeded").tag("uri", "/tasklist/getAll").counter().count());
+        assertEquals(1, registry.get("tasklist.queries.repeated").tag("uri", "/tasklist/getAll").counter().count());
+        assertEquals(1 + TASKLISTS, registry.get("tasklist.request.queries").tag("uri", "/tasklist/getAll").summary().max());
+        assertTrue(registry.get("tasklist.request.connection.hold").tag("uri", "/tasklist/getAll").timer().count() > 0);
+    }
+
+    @Test
+    void fingerprintsAreFreeOfValues() {
+        assertEquals("select * from tasks t where t.name=? and t.position>? and t.id in (?+) and t1_0.owner_id=?",
+                QueryBudget.fingerprint("select *  from tasks t\n where t.name='O''Brien' and t.position>-12.5"
+                        + " and t.id in (?, ?,?) and t1_0.owner_id=?"));
+    }
+
+    private UUID createTasklists(UUID ownerId) {
+        UUID taskId = null;
+        for (int i = 0; i < TASKLISTS; i++) {
+            Tasklist tasklist = tasklistRepository.save(new Tasklist(ownerId, "Tasklist " + i, "Description", new ArrayList<>()));
+            for (int j = 0; j < 2; j++) {
+                taskId = taskRepository.save(new Task(tasklist, ownerId, "Task " + i + "." + j, "Description")).getId();
+            }
+        }
+        return taskId;
+    }
+
+    private double count(String name, String uri) {
+        var counter = meterRegistry.find(name).tag("uri", uri).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private String registerAndLogin() throws Exception {
+        Map<String, String> user = Map.of("name", "user-" + UUID.randomUUID(), "password", "password123");
+        assertEquals(200, post("/auth/register", user).statusCode());
+        return objectMapper.readTree(post("/auth/login", user).body()).get("token").asText();
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> send(String path, String bearer) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + bearer)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
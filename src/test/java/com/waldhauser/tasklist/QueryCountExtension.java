@@ -0,0 +1,70 @@
+package com.waldhauser.tasklist;
+
+import com.waldhauser.tasklist.config.metrics.QueryBudget;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JUnit extension recording the SQL statements a test runs on its own thread, in a Spring Boot test with the
+ * query budget enabled (the default).
+ * <p>
+ * Usage: {@code @ExtendWith(QueryCountExtension.class)} and a {@link QueryBudget.Recording} parameter in the test
+ * method, or {@link #assertQueries(int, Supplier)} around the call under test:
+ * <pre>{@code
+ * List<TaskResponse> tasks = QueryCountExtension.assertQueries(1, () -> taskService.getAllTasksByOwnerId(ownerId));
+ * }</pre>
+ * On a mismatch the failure message lists the statement shapes that ran.
+ */
+public class QueryCountExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryCountExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(QueryBudget.Recording.class, QueryBudget.open(Long.MAX_VALUE));
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        QueryBudget.Recording recording = context.getStore(NAMESPACE).remove(QueryBudget.Recording.class, QueryBudget.Recording.class);
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == QueryBudget.Recording.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(QueryBudget.Recording.class, QueryBudget.Recording.class);
+    }
+
+    /**
+     * Runs the action and asserts the number of statements it ran on the current thread.
+     *
+     * @param expected the expected number of statements
+     * @param action the call under test
+     * @param <T> the type of the result
+     * @return the result of the action
+     */
+    public static <T> T assertQueries(int expected, Supplier<T> action) {
+        QueryBudget.Recording recording = QueryBudget.current();
+        if (recording == null) {
+            throw new IllegalStateException("no recording, use @ExtendWith(QueryCountExtension.class)");
+        }
+        recording.reset();
+        T result = action.get();
+        assertEquals(expected, recording.getStatementCount(), () -> "statements: " + recording.getStatements());
+        return result;
+    }
+}
@@ -0,0 +1,167 @@
+package com.waldhauser.tasklist;
+
+import com.waldhauser.tasklist.service.support.ReadCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the single-flight ReadCoalescer: sharing of concurrent identical reads, propagation of failures
+ * and detaching of in-flight reads by writes, after the commit.
+ */
+class ReadCoalescerTests {
+
+    private final UUID owner = UUID.randomUUID();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadCoalescer coalescer = new ReadCoalescer(
+            new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void concurrentIdenticalReadsShareOneComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = startBlockedRead(release);
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            followers.add(executor.submit(() -> coalescer.coalesce("task.getAll", owner, this::load)));
+        }
+        awaitCoalesced(9);
+        release.countDown();
+
+        String result = leader.get(5, TimeUnit.SECONDS);
+        for (Future<String> follower : followers) {
+            assertSame(result, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(9, meterRegistry.get("tasklist.reads.coalesced")
+                .tag("operation", "task.getAll").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    void differentOwnersAndOperationsAreNotShared() {
+        coalescer.coalesce("task.getAll", owner, this::load);
+        coalescer.coalesce("task.getAll", UUID.randomUUID(), this::load);
+        coalescer.coalesce("tasklist.getAll", owner, this::load);
+
+        assertEquals(3, loads.get());
+        assertEquals(0, coalescer.getCoalescedCount("task.getAll"));
+    }
+
+    @Test
+    void failureIsPropagatedToWaitingCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> coalescer.coalesce("task.getAll", owner, () -> {
+            await(release);
+            throw new IllegalStateException("database down");
+        }));
+        awaitInFlight();
+        Future<String> follower = executor.submit(() -> coalescer.coalesce("task.getAll", owner, this::load));
+        awaitCoalesced(1);
+        release.countDown();
+
+        Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+        assertInstanceOf(IllegalStateException.class, followerError.getCause());
+    }
+
+    @Test
+    void readAfterWriteStartsNewComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> before = startBlockedRead(release);
+
+        coalescer.invalidate(owner);
+        String after = coalescer.coalesce("task.getAll", owner, this::load);
+        release.countDown();
+
+        assertNotSame(after, before.get(5, TimeUnit.SECONDS));
+        assertEquals(2, loads.get());
+        assertEquals(0, coalescer.getCoalescedCount("task.getAll"));
+    }
+
+    @Test
+    void invalidationInsideTransactionWaitsForCommit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> before = startBlockedRead(release);
+
+        TransactionSynchronizationManager.initSynchronization();
+        coalescer.invalidate(owner);
+        // not committed yet, the change is not visible and sharing is still correct
+        Future<String> duringTransaction = executor.submit(() -> coalescer.coalesce("task.getAll", owner, this::load));
+        awaitCoalesced(1);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        String afterCommit = coalescer.coalesce("task.getAll", owner, this::load);
+        release.countDown();
+
+        assertSame(before.get(5, TimeUnit.SECONDS), duringTransaction.get(5, TimeUnit.SECONDS));
+        assertNotSame(before.get(), afterCommit);
+        assertEquals(2, loads.get());
+    }
+
+    private Future<String> startBlockedRead(CountDownLatch release) throws InterruptedException {
+        Future<String> future = executor.submit(() -> coalescer.coalesce("task.getAll", owner, () -> {
+            await(release);
+            return load();
+        }));
+        awaitInFlight();
+        return future;
+    }
+
+    private String load() {
+        return "result-" + loads.incrementAndGet();
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        // the leader registers its computation before it counts itself as executed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.find("tasklist.reads.coalesced").tag("result", "executed").counter() == null
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitCoalesced(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getCoalescedCount("task.getAll") < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, coalescer.getCoalescedCount("task.getAll"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
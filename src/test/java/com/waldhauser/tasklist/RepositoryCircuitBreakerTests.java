@@ -0,0 +1,214 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waldhauser.tasklist.rest.model.batch.BatchOperation;
+import com.waldhauser.tasklist.service.support.CircuitBreaker;
+import com.waldhauser.tasklist.service.support.RepositoryGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fault-injection test of the repository circuit breaker. The application runs against the in-memory database
+ * behind a DataSource that can be paused: while paused, every connection attempt hangs for a while and then fails,
+ * like during a Postgres failover.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.circuit.failure-threshold=2", "app.circuit.open-ms=1000"})
+@ActiveProfiles("h2")
+class RepositoryCircuitBreakerTests {
+
+    private static final long CONNECT_TIMEOUT_MILLIS = 300;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PausableDataSource dataSource;
+
+    @Autowired
+    private RepositoryGuard repositoryGuard;
+
+    @LocalServerPort
+    private int port;
+
+    @AfterEach
+    void tearDown() {
+        dataSource.resume();
+    }
+
+    @Test
+    void readsServeStaleSnapshotsAndWritesFailFastWhileDatabaseIsDown() throws Exception {
+        String token = registerAndLogin();
+        String otherToken = registerAndLogin();
+        List<BatchOperation> operations = List.of(
+                new BatchOperation("tasklist.create", "list", null, null, "Tasklist", "Description"),
+                new BatchOperation("task.create", null, null, "$list", "First task", "Description"));
+        JsonNode results = objectMapper.readTree(send("POST", "/batch", operations, token).body()).get("results");
+        String tasklistId = results.get(0).get("id").asText();
+        String taskId = results.get(1).get("id").asText();
+
+        HttpResponse<String> fresh = send("GET", "/task/getAll", null, token);
+        assertEquals(200, fresh.statusCode());
+        assertTrue(fresh.headers().firstValue("X-Stale-Age").isEmpty());
+        assertEquals(200, send("GET", "/tasklist/getAll", null, token).statusCode());
+
+        dataSource.pause();
+
+        // failing reads are answered from the snapshot, two failures open the breaker
+        HttpResponse<String> stale = send("GET", "/task/getAll", null, token);
+        assertEquals(200, stale.statusCode());
+        assertEquals(fresh.body(), stale.body());
+        assertTrue(stale.headers().firstValue("X-Stale-Age").isPresent());
+        HttpResponse<String> staleTasklists = send("GET", "/tasklist/getAll", null, token);
+        assertEquals(200, staleTasklists.statusCode());
+        assertTrue(staleTasklists.body().contains("First task"));
+        assertEquals(CircuitBreaker.State.OPEN, repositoryGuard.getState());
+
+        // while open, the database is not even asked
+        int attempts = dataSource.getAttempts();
+        long start = System.nanoTime();
+        HttpResponse<String> write = send("POST", "/task/create",
+                Map.of("tasklistId", tasklistId, "name", "Second task", "description", "Description"), token);
+        long writeMillis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(503, write.statusCode());
+        assertTrue(write.headers().firstValue("Retry-After").isPresent());
+        assertTrue(writeMillis < CONNECT_TIMEOUT_MILLIS, "write took " + writeMillis + " ms");
+        assertEquals(503, send("POST", "/batch", operations, token).statusCode());
+
+        HttpResponse<String> single = send("GET", "/task/get/" + taskId, null, token);
+        assertEquals(200, single.statusCode());
+        assertTrue(single.headers().firstValue("X-Stale-Age").isPresent());
+        assertEquals(503, send("GET", "/task/getAll", null, otherToken).statusCode());
+        assertEquals(attempts, dataSource.getAttempts());
+
+        // after the failover, the trial call closes the breaker again
+        dataSource.resume();
+        Thread.sleep(1100);
+        HttpResponse<String> recovered = send("GET", "/task/getAll", null, token);
+        assertEquals(200, recovered.statusCode());
+        assertTrue(recovered.headers().firstValue("X-Stale-Age").isEmpty());
+        assertEquals(CircuitBreaker.State.CLOSED, repositoryGuard.getState());
+        assertEquals(200, send("POST", "/task/create",
+                Map.of("tasklistId", tasklistId, "name", "Second task", "description", "Description"), token).statusCode());
+    }
+
+    private String registerAndLogin() throws Exception {
+        Map<String, String> user = Map.of("name", "user-" + UUID.randomUUID(), "password", "password123");
+        assertEquals(200, send("POST", "/auth/register", user, null).statusCode());
+        return objectMapper.readTree(send("POST", "/auth/login", user, null).body()).get("token").asText();
+    }
+
+    private HttpResponse<String> send(String method, String path, Object body, String bearer) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void errorInTheTrialCallOpensTheBreakerAgain() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("trial", 1, 50);
+        RepositoryGuard guard = new RepositoryGuard(breaker, 16, 60_000,
+                TransactionOperations.withoutTransaction(), new SimpleMeterRegistry());
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> guard.call(() -> { throw new DataAccessResourceFailureException("connection refused"); }));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // the trial call dies with an Error: the breaker opens again instead of waiting for the trial forever
+        Thread.sleep(60);
+        assertThrows(StackOverflowError.class, () -> guard.call(() -> { throw new StackOverflowError(); }));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(60);
+        assertEquals("ok", guard.call(() -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @TestConfiguration
+    static class PausableDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor pausableDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof PausableDataSource)
+                            ? new PausableDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * DataSource which, while paused, hangs for the connect timeout on every connection attempt and then fails.
+     */
+    static class PausableDataSource extends DelegatingDataSource {
+
+        private volatile boolean paused;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        PausableDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            attempts.incrementAndGet();
+            if (paused) {
+                try {
+                    Thread.sleep(CONNECT_TIMEOUT_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new SQLTransientConnectionException("Connection is not available, request timed out");
+            }
+            return super.getConnection();
+        }
+
+        void pause() {
+            paused = true;
+        }
+
+        void resume() {
+            paused = false;
+        }
+
+        int getAttempts() {
+            return attempts.get();
+        }
+    }
+}
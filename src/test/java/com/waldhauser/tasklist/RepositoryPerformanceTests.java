@@ -0,0 +1,308 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waldhauser.tasklist.config.metrics.QueryBudget;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import com.waldhauser.tasklist.domain.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Performance regression suite of the TaskRepository, TasklistRepository and UserRepository methods against
+ * skewed synthetic data ({@link SyntheticDataGenerator}) in the in-memory database in PostgreSQL mode.
+ * <p>
+ * {@code repositoryQueriesUseIndexes} always runs: it records the SQL every repository method issues and fails when
+ * the plan ({@code EXPLAIN}) of a statement scans a whole table instead of using an index.
+ * <p>
+ * {@code benchmarkRepositoryMethods} times every method at several data sizes, with a hot owner (most tasklists),
+ * a cold owner and the largest and smallest tasklist as parameters. It checks the plans at every size and fails
+ * when
+ * - a lookup whose result does not grow with the data (by id, by name, the cold owner's tasklists) gets more than
+ *   {@code repository-performance.growth-limit} times slower from the smallest to the largest size, or
+ * - a baseline is given and a median got more than {@code repository-performance.tolerance} times slower than in it.
+ * Times under {@value #FLOOR_MS} ms count as {@value #FLOOR_MS} ms, so noise in very fast calls does not fail the run.
+ * <p>
+ * Parameters (system properties): {@code repository-performance.scales} tasks (1000,10000,100000),
+ * {@code repository-performance.max-tasks-per-list} (100000), {@code repository-performance.owner-skew} (1.0),
+ * {@code repository-performance.iterations} (30), {@code repository-performance.growth-limit} (5),
+ * {@code repository-performance.tolerance} (1.5), {@code repository-performance.baseline} (an earlier result file),
+ * {@code repository-performance.output} (target/repository-performance/&lt;time&gt;.json).
+ * <p>
+ * Run: {@code mvn test -Dtest=RepositoryPerformanceTests -Dbenchmark=true -Drepository-performance.baseline=before.json}
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:repository-performance;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("h2")
+class RepositoryPerformanceTests {
+
+    private static final double FLOOR_MS = 0.5;
+    private static final long MAX_MEASURE_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final String scales = System.getProperty("repository-performance.scales", "1000,10000,100000");
+    private final int maxTasksPerList = Integer.getInteger("repository-performance.max-tasks-per-list", 100_000);
+    private final double ownerSkew = Double.parseDouble(System.getProperty("repository-performance.owner-skew", "1.0"));
+    private final int iterations = Integer.getInteger("repository-performance.iterations", 30);
+    private final double growthLimit = Double.parseDouble(System.getProperty("repository-performance.growth-limit", "5"));
+    private final double tolerance = Double.parseDouble(System.getProperty("repository-performance.tolerance", "1.5"));
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TasklistRepository tasklistRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void clear() {
+        new SyntheticDataGenerator(jdbcTemplate).clear();
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        SyntheticDataGenerator.Dataset dataset = new SyntheticDataGenerator(jdbcTemplate).generate(5_000, 500, ownerSkew, 42);
+
+        for (Case repositoryCase : cases(dataset)) {
+            assertIndexed(repositoryCase);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkRepositoryMethods() throws IOException {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(jdbcTemplate);
+        List<Integer> sizes = Arrays.stream(scales.split(",")).map(String::trim).map(Integer::valueOf).sorted().toList();
+
+        Map<String, Map<String, Timing>> results = new LinkedHashMap<>();
+        Set<String> selective = new LinkedHashSet<>();
+        for (int size : sizes) {
+            generator.clear();
+            long start = System.nanoTime();
+            SyntheticDataGenerator.Dataset dataset = generator.generate(size, maxTasksPerList, ownerSkew, 42);
+            System.out.printf("%d tasks in %d tasklists of %d owners generated in %d ms, largest tasklist %d tasks%n",
+                    dataset.taskCount(), dataset.tasklists().size(), dataset.ownerIds().size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), dataset.largestTasklist().taskCount());
+
+            for (Case repositoryCase : cases(dataset)) {
+                assertIndexed(repositoryCase);
+                results.computeIfAbsent(repositoryCase.name(), name -> new LinkedHashMap<>())
+                        .put(String.valueOf(size), measure(repositoryCase));
+                if (repositoryCase.selective()) {
+                    selective.add(repositoryCase.name());
+                }
+            }
+        }
+
+        System.out.printf("%-70s %8s %10s %10s %8s%n", "method", "tasks", "median ms", "p90 ms", "rows");
+        results.forEach((name, timings) -> timings.forEach((size, timing) -> System.out.printf("%-70s %8s %10.3f %10.3f %8d%n",
+                name, size, timing.medianMs(), timing.p90Ms(), timing.rows())));
+
+        Path output = Path.of(System.getProperty("repository-performance.output",
+                "target/repository-performance/" + Instant.now().toString().replace(':', '-') + ".json"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("commit", commit());
+        result.put("timestamp", Instant.now().toString());
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("scales", sizes);
+        parameters.put("maxTasksPerList", maxTasksPerList);
+        parameters.put("ownerSkew", ownerSkew);
+        parameters.put("iterations", iterations);
+        result.put("parameters", parameters);
+        result.put("results", results);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), result);
+        System.out.println("results in " + output);
+
+        List<String> regressions = new ArrayList<>();
+        String smallest = String.valueOf(sizes.getFirst());
+        String largest = String.valueOf(sizes.getLast());
+        for (String name : selective) {
+            double from = results.get(name).get(smallest).medianMs();
+            double to = results.get(name).get(largest).medianMs();
+            if (Math.max(to, FLOOR_MS) > growthLimit * Math.max(from, FLOOR_MS)) {
+                regressions.add(String.format("%s: %.3f ms at %s tasks, %.3f ms at %s tasks", name, from, smallest, to, largest));
+            }
+        }
+        String baseline = System.getProperty("repository-performance.baseline");
+        if (baseline != null) {
+            JsonNode baselineResults = objectMapper.readTree(Path.of(baseline).toFile()).path("results");
+            results.forEach((name, timings) -> timings.forEach((size, timing) -> {
+                JsonNode before = baselineResults.path(name).path(size).path("medianMs");
+                if (before.isNumber() && Math.max(timing.medianMs(), FLOOR_MS) > tolerance * Math.max(before.asDouble(), FLOOR_MS)) {
+                    regressions.add(String.format("%s at %s tasks: %.3f ms, baseline %.3f ms", name, size, timing.medianMs(), before.asDouble()));
+                }
+            }));
+        }
+        assertTrue(regressions.isEmpty(), () -> "regressions:\n" + String.join("\n", regressions));
+    }
+
+    // ---------- Cases ----------
+
+    private List<Case> cases(SyntheticDataGenerator.Dataset dataset) {
+        UUID hotOwner = dataset.hotOwner();
+        UUID coldOwner = dataset.coldOwner();
+        SyntheticDataGenerator.GeneratedTasklist coldTasklist = dataset.tasklistsOf(coldOwner).getFirst();
+        SyntheticDataGenerator.GeneratedTasklist largest = dataset.largestTasklist();
+        SyntheticDataGenerator.GeneratedTasklist smallest = dataset.tasklists().stream()
+                .min(Comparator.comparingInt(SyntheticDataGenerator.GeneratedTasklist::taskCount)).orElseThrow();
+        List<UUID> hotTasklistIds = dataset.tasklistsOf(hotOwner).stream()
+                .limit(100)
+                .map(SyntheticDataGenerator.GeneratedTasklist::id)
+                .toList();
+        String coldUserName = dataset.userNames().get(dataset.ownerIds().indexOf(coldOwner));
+
+        return List.of(
+                new Case("TaskRepository.findById", true, () -> taskRepository.findById(coldTasklist.firstTaskId())),
+                new Case("TaskRepository.findByIdAndOwnerId", true, () -> taskRepository.findByIdAndOwnerId(coldTasklist.firstTaskId(), coldOwner)),
+                new Case("TaskRepository.findByOwnerId(hot owner)", false, () -> taskRepository.findByOwnerId(hotOwner)),
+                new Case("TaskRepository.findByOwnerId(cold owner)", false, () -> taskRepository.findByOwnerId(coldOwner)),
+                new Case("TaskRepository.findByTasklistId(largest tasklist)", false, () -> taskRepository.findByTasklistId(largest.id())),
+                new Case("TaskRepository.findByTasklistId(smallest tasklist)", true, () -> taskRepository.findByTasklistId(smallest.id())),
+                new Case("TaskRepository.findByTasklistIdInAndOwnerId(hot owner)", false,
+                        () -> taskRepository.findByTasklistIdInAndOwnerId(hotTasklistIds, hotOwner)),
+                new Case("TaskRepository.deleteByIdAndOwnerId", true,
+                        () -> rolledBack(() -> taskRepository.deleteByIdAndOwnerId(coldTasklist.firstTaskId(), coldOwner))),
+                new Case("TaskRepository.deleteByTasklistIdAndTasklistOwnerId(largest tasklist)", false,
+                        () -> rolledBack(() -> taskRepository.deleteByTasklistIdAndTasklistOwnerId(largest.id(), largest.ownerId()))),
+                new Case("TasklistRepository.findById", true, () -> tasklistRepository.findById(coldTasklist.id())),
+                new Case("TasklistRepository.findByIdAndOwnerId", true, () -> tasklistRepository.findByIdAndOwnerId(coldTasklist.id(), coldOwner)),
+                new Case("TasklistRepository.findByOwnerId(hot owner)", false, () -> tasklistRepository.findByOwnerId(hotOwner)),
+                new Case("TasklistRepository.findByOwnerId(cold owner)", true, () -> tasklistRepository.findByOwnerId(coldOwner)),
+                new Case("TasklistRepository.findByIdInAndOwnerId(hot owner)", false,
+                        () -> tasklistRepository.findByIdInAndOwnerId(hotTasklistIds, hotOwner)),
+                // an unknown id: the tasks of an existing tasklist would have to be deleted first
+                new Case("TasklistRepository.deleteByIdAndOwnerId", true,
+                        () -> rolledBack(() -> tasklistRepository.deleteByIdAndOwnerId(UUID.randomUUID(), coldOwner))),
+                new Case("UserRepository.findByName", true, () -> userRepository.findByName(coldUserName)));
+    }
+
+    private Integer rolledBack(Supplier<Integer> delete) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            status.setRollbackOnly();
+            return delete.get();
+        });
+    }
+
+    // ---------- Plans ----------
+
+    private void assertIndexed(Case repositoryCase) {
+        Set<String> statements;
+        try (QueryBudget.Recording recording = QueryBudget.open(Long.MAX_VALUE)) {
+            repositoryCase.call().get();
+            statements = recording.getStatements().keySet();
+        }
+        assertFalse(statements.isEmpty(), repositoryCase.name() + " ran no statement");
+        for (String statement : statements) {
+            // the fingerprint collapses IN lists, a single parameter plans the same way
+            String plan = explain(statement.replace("(?+)", "(?)"));
+            assertFalse(plan.contains(".tableScan"), () -> repositoryCase.name() + " scans a table:\n" + plan);
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            // parameters may stay unset, EXPLAIN only plans the statement
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql);
+                 ResultSet resultSet = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    // ---------- Timing ----------
+
+    private Timing measure(Case repositoryCase) {
+        long warmupEnd = System.nanoTime() + MAX_MEASURE_NANOS / 4;
+        for (int i = 0; i < 20 && System.nanoTime() < warmupEnd; i++) {
+            repositoryCase.call().get();
+        }
+        long[] samples = new long[iterations];
+        int count = 0;
+        Object result = null;
+        long end = System.nanoTime() + MAX_MEASURE_NANOS;
+        while (count < iterations && (count < 3 || System.nanoTime() < end)) {
+            long start = System.nanoTime();
+            result = repositoryCase.call().get();
+            samples[count++] = System.nanoTime() - start;
+        }
+        long[] measured = Arrays.copyOf(samples, count);
+        Arrays.sort(measured);
+        return new Timing(measured[count / 2] / 1e6, measured[(int) Math.ceil(count * 0.9) - 1] / 1e6, rows(result));
+    }
+
+    private static long rows(Object result) {
+        return switch (result) {
+            case List<?> list -> list.size();
+            case Optional<?> optional -> optional.isPresent() ? 1 : 0;
+            case Integer deleted -> deleted;
+            default -> throw new IllegalArgumentException("unexpected result " + result);
+        };
+    }
+
+    private static String commit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String commit = new String(git.getInputStream().readAllBytes()).strip();
+            return git.waitFor() == 0 ? commit : "unknown";
+        } catch (IOException | InterruptedException e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * A repository method with its parameters.
+     *
+     * @param name the method and the kind of parameter
+     * @param selective whether the result size stays the same however much data there is
+     * @param call the call of the method
+     */
+    private record Case(String name, boolean selective, Supplier<?> call) {
+    }
+
+    private record Timing(double medianMs, double p90Ms, long rows) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waldhauser.tasklist.config.metrics.ServerTiming;
+import com.waldhauser.tasklist.config.metrics.ServerTimingFilter;
+import com.waldhauser.tasklist.domain.model.Task;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code Server-Timing} header of sampled requests: its phases, the unbuffered event stream and the
+ * requests left out of the sample.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.server-timing.enabled=true", "app.events.heartbeat-ms=200"})
+@ActiveProfiles("h2")
+class ServerTimingTests {
+
+    private static final Pattern METRIC = Pattern.compile("(\\w+);dur=(\\d+\\.\\d{3})(?:;desc=\"([^\"]*)\")?");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private TasklistRepository tasklistRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void responsesBreakDownIntoPhases() throws Exception {
+        String token = registerAndLogin();
+        UUID ownerId = UUID.fromString(objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1])).get("sub").asText());
+        for (int i = 0; i < 3; i++) {
+            Tasklist tasklist = tasklistRepository.save(new Tasklist(ownerId, "Tasklist " + i, "Description", new ArrayList<>()));
+            taskRepository.save(new Task(tasklist, ownerId, "Task " + i, "Description"));
+        }
+
+        HttpResponse<String> response = send("/tasklist/getAll", token);
+
+        assertEquals(200, response.statusCode());
+        assertEquals(3, objectMapper.readTree(response.body()).size());
+        Map<String, Double> durations = new LinkedHashMap<>();
+        Map<String, String> descriptions = new LinkedHashMap<>();
+        Matcher metric = METRIC.matcher(response.headers().firstValue(ServerTimingFilter.HEADER).orElseThrow());
+        while (metric.find()) {
+            durations.put(metric.group(1), Double.parseDouble(metric.group(2)));
+            if (metric.group(3) != null) {
+                descriptions.put(metric.group(1), metric.group(3));
+            }
+        }
+        assertEquals(List.of("jwt", "ctrl", "svc", "db", "ser", "total"), new ArrayList<>(durations.keySet()));
+        assertEquals("1 statement", descriptions.get("db"));
+        assertTrue(durations.get("jwt") > 0);
+        assertTrue(durations.get("db") > 0);
+        assertTrue(durations.get("ser") > 0);
+        double phases = durations.entrySet().stream().filter(entry -> !entry.getKey().equals("total")).mapToDouble(Map.Entry::getValue).sum();
+        // exclusive phases, rounded down to microseconds
+        assertTrue(phases <= durations.get("total") + 0.01, durations.toString());
+    }
+
+    @Test
+    void eventStreamIsNotBuffered() throws Exception {
+        CompletableFuture<HttpResponse<Stream<String>>> stream = client.sendAsync(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/events/stream"))
+                        .header("Authorization", "Bearer " + registerAndLogin())
+                        .GET()
+                        .build(), HttpResponse.BodyHandlers.ofLines());
+
+        // the headers come with the first heartbeat, a buffered stream would never send them
+        HttpResponse<Stream<String>> response = stream.get(10, TimeUnit.SECONDS);
+        try (Stream<String> lines = response.body()) {
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/event-stream"));
+            assertTrue(response.headers().firstValue(ServerTimingFilter.HEADER).isEmpty());
+        }
+    }
+
+    @Test
+    void unsampledRequestsAreNotTimed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new ServerTimingFilter(0).doFilter(new MockHttpServletRequest("GET", "/task/getAll"), response,
+                (request, chainResponse) -> {
+                    assertNull(ServerTiming.current());
+                    assertSame(response, chainResponse);
+                });
+
+        assertNull(response.getHeader(ServerTimingFilter.HEADER));
+    }
+
+    @Test
+    void phasesOutsideOfATimingAreIgnored() {
+        ServerTiming.enter(ServerTiming.Phase.DB);
+        ServerTiming.exit(ServerTiming.Phase.DB);
+        assertNull(ServerTiming.current());
+
+        try (ServerTiming.Timing timing = ServerTiming.start()) {
+            ServerTiming.enter(ServerTiming.Phase.SERVICE);
+            ServerTiming.enter(ServerTiming.Phase.DB);
+            // unmatched ends change nothing
+            ServerTiming.exit(ServerTiming.Phase.SERVICE);
+            ServerTiming.exit(ServerTiming.Phase.DB);
+            ServerTiming.exit(ServerTiming.Phase.SERVICE);
+            timing.stop();
+
+            assertEquals(1, timing.getStatementCount());
+            long phases = 0;
+            for (ServerTiming.Phase phase : ServerTiming.Phase.values()) {
+                phases += timing.getNanos(phase);
+            }
+            assertEquals(timing.getTotalNanos(), phases);
+        }
+        assertNull(ServerTiming.current());
+    }
+
+    private String registerAndLogin() throws Exception {
+        Map<String, String> user = Map.of("name", "user-" + UUID.randomUUID(), "password", "password123");
+        assertEquals(200, post("/auth/register", user).statusCode());
+        return objectMapper.readTree(post("/auth/login", user).body()).get("token").asText();
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> send(String path, String bearer) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + bearer)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,144 @@
+package com.waldhauser.tasklist;
+
+import org.h2.Driver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Startup benchmark: time from launching the JVM to the first successful request ({@code POST /auth/register}),
+ * for the plain jar and for the fast-start mode (AOT-processed context, AppCDS archive, fast-start profile).
+ * <p>
+ * Needs the output of {@code mvn -Pfast-start package}. Both variants run the extracted jar of
+ * {@code target/fast-start} against the same H2 file database: the plain run creates the schema with
+ * {@code ddl-auto=update}, the fast-start runs only validate it. The AppCDS archive is created by a training run
+ * of the benchmark itself, because the benchmark adds the H2 driver to the class path.
+ * <p>
+ * Run: {@code mvn -Pfast-start package -DskipTests && mvn test -Dtest=StartupBenchmarkTests -Dbenchmark=true}
+ */
+class StartupBenchmarkTests {
+
+    private static final int RUNS = 3;
+    private static final Path FAST_START = Path.of("target", "fast-start");
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkTimeToFirstRequest() throws Exception {
+        Path jar;
+        try (Stream<Path> files = Files.list(FAST_START)) {
+            jar = files.filter(file -> file.toString().endsWith(".jar")).findFirst().orElse(null);
+        } catch (IOException e) {
+            jar = null;
+        }
+        assumeTrue(jar != null, "run mvn -Pfast-start package first");
+
+        Path work = Files.createTempDirectory("startup-benchmark");
+        String classPath = jar.toAbsolutePath() + File.pathSeparator
+                + Path.of(Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<String> database = List.of(
+                "-Dspring.datasource.url=jdbc:h2:file:" + work.resolve("tasklist") + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                "-Dspring.datasource.username=sa",
+                "-Dspring.datasource.password=",
+                "-Dspring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "-Dapp.jwt-secret=benchmark-secret-benchmark-secret-benchmark",
+                "-Dapp.jwt-expiration-milliseconds=3600000",
+                "-Dapp.grpc.port=-1");
+        List<String> plain = new ArrayList<>(database);
+        plain.add("-Dspring.jpa.hibernate.ddl-auto=update");
+        List<String> fastStart = new ArrayList<>(database);
+        fastStart.addAll(List.of("-Dspring.aot.enabled=true", "-Dspring.profiles.active=fast-start"));
+
+        // creates the schema, validated by the fast-start runs
+        timeToFirstRequest(classPath, plain);
+
+        List<String> training = new ArrayList<>(fastStart);
+        training.addAll(List.of("-XX:ArchiveClassesAtExit=" + work.resolve("application.jsa"), "-Xlog:cds=error",
+                "-Dspring.context.exit=onRefresh"));
+        Process trainingRun = start(classPath, training, 0);
+        assertEquals(0, trainingRun.waitFor());
+        fastStart.add("-XX:SharedArchiveFile=" + work.resolve("application.jsa"));
+
+        long[] plainMillis = new long[RUNS];
+        long[] fastStartMillis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            plainMillis[i] = timeToFirstRequest(classPath, plain);
+            fastStartMillis[i] = timeToFirstRequest(classPath, fastStart);
+        }
+        Arrays.sort(plainMillis);
+        Arrays.sort(fastStartMillis);
+        long plainMedian = plainMillis[RUNS / 2];
+        long fastStartMedian = fastStartMillis[RUNS / 2];
+
+        System.out.printf("time to first request (median of %d): plain %d ms, fast-start %d ms (%.1fx)%n",
+                RUNS, plainMedian, fastStartMedian, (double) plainMedian / fastStartMedian);
+
+        try (Stream<Path> files = Files.walk(work)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private long timeToFirstRequest(String classPath, List<String> options) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        HttpRequest register = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"name\":\"user-" + UUID.randomUUID() + "\",\"password\":\"password123\"}"))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = start(classPath, options, port);
+        try {
+            while (true) {
+                assertTrue(process.isAlive(), "application exited with " + (process.isAlive() ? 0 : process.exitValue()));
+                assertTrue(System.nanoTime() - start < Duration.ofMinutes(2).toNanos(), "application did not start");
+                try {
+                    HttpResponse<String> response = client.send(register, HttpResponse.BodyHandlers.ofString());
+                    assertEquals(200, response.statusCode(), response.body());
+                    return (System.nanoTime() - start) / 1_000_000;
+                } catch (ConnectException e) {
+                    Thread.sleep(10);
+                }
+            }
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static Process start(String classPath, List<String> options, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options);
+        command.add("-Dserver.port=" + port);
+        command.addAll(List.of("-cp", classPath, TasklistApplication.class.getName()));
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+    }
+}
@@ -0,0 +1,208 @@
+package com.waldhauser.tasklist;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates skewed synthetic data directly into the users, tasklists and tasks tables, with JDBC batch inserts
+ * instead of the repositories.
+ * <p>
+ * The shape follows what real data looks like rather than a uniform spread:
+ * - Owners are picked Zipfian for every tasklist ({@code ownerSkew}, 1.0 is the classic 1/rank), so the first owner
+ *   holds far more tasklists than the last one.
+ * - Tasks per tasklist are log-uniform between 1 and {@code maxTasksPerList} (at most a tenth of all tasks), many
+ *   small lists and a few huge ones.
+ * <p>
+ * The generator is deterministic for a seed. After inserting it runs {@code ANALYZE}, so the optimizer plans with
+ * the statistics of the new data.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * SyntheticDataGenerator.Dataset dataset = new SyntheticDataGenerator(jdbcTemplate).generate(100_000, 100_000, 1.0, 42);
+ * taskRepository.findByOwnerId(dataset.hotOwner());
+ * }</pre>
+ */
+public class SyntheticDataGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+    // not a valid hash, the generated users are never logged in
+    private static final String PASSWORD = "synthetic";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts users, tasklists and tasks until the given number of tasks is reached.
+     *
+     * @param tasks the total number of tasks
+     * @param maxTasksPerList the upper bound of tasks in one tasklist
+     * @param ownerSkew the Zipf exponent of the owner distribution, 0 is uniform
+     * @param seed the seed of the random generator
+     * @return what was generated, for choosing the parameters of the queries
+     */
+    public Dataset generate(int tasks, int maxTasksPerList, double ownerSkew, long seed) {
+        Random random = new Random(seed);
+        int maxPerList = Math.max(1, Math.min(maxTasksPerList, tasks / 10));
+        int owners = Math.max(10, tasks / 1000);
+
+        List<UUID> ownerIds = new ArrayList<>(owners);
+        List<String> userNames = new ArrayList<>(owners);
+        List<Object[]> userRows = new ArrayList<>(owners);
+        for (int i = 0; i < owners; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            String name = "synthetic-user-" + i;
+            ownerIds.add(id);
+            userNames.add(name);
+            userRows.add(new Object[]{id, name, PASSWORD});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, password) values (?, ?, ?)", userRows);
+
+        double[] cumulative = zipfCumulative(owners, ownerSkew);
+        List<GeneratedTasklist> tasklists = new ArrayList<>();
+        List<Object[]> tasklistRows = new ArrayList<>();
+        List<Object[]> taskRows = new ArrayList<>(BATCH_SIZE);
+        int remaining = tasks;
+        while (remaining > 0) {
+            UUID ownerId = ownerIds.get(sample(cumulative, random.nextDouble()));
+            UUID tasklistId = new UUID(random.nextLong(), random.nextLong());
+            int size = Math.min(remaining, (int) Math.pow(maxPerList, random.nextDouble()));
+            tasklistRows.add(new Object[]{tasklistId, ownerId, "Tasklist " + tasklists.size(), text(random, 48)});
+
+            UUID firstTaskId = null;
+            for (int t = 0; t < size; t++) {
+                UUID taskId = new UUID(random.nextLong(), random.nextLong());
+                if (firstTaskId == null) {
+                    firstTaskId = taskId;
+                }
+                taskRows.add(new Object[]{taskId, ownerId, tasklistId, "Task " + t, text(random, 64)});
+                if (taskRows.size() == BATCH_SIZE) {
+                    flush(tasklistRows, taskRows);
+                }
+            }
+            tasklists.add(new GeneratedTasklist(tasklistId, ownerId, size, firstTaskId));
+            remaining -= size;
+        }
+        flush(tasklistRows, taskRows);
+        jdbcTemplate.execute("analyze");
+        return new Dataset(ownerIds, userNames, tasklists);
+    }
+
+    /**
+     * Deletes all users, tasklists and tasks.
+     */
+    public void clear() {
+        jdbcTemplate.execute("delete from tasks");
+        jdbcTemplate.execute("delete from tasklists");
+        jdbcTemplate.execute("delete from users");
+    }
+
+    private void flush(List<Object[]> tasklistRows, List<Object[]> taskRows) {
+        // tasklists first, the tasks reference them
+        if (!tasklistRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into tasklists (id, owner_id, name, description) values (?, ?, ?, ?)", tasklistRows);
+            tasklistRows.clear();
+        }
+        if (!taskRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into tasks (id, owner_id, tasklist_id, name, description) values (?, ?, ?, ?, ?)", taskRows);
+            taskRows.clear();
+        }
+    }
+
+    private static double[] zipfCumulative(int n, double skew) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, skew);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, double value) {
+        int index = Arrays.binarySearch(cumulative, value);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    private static String text(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = i % 6 == 5 ? ' ' : (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * A generated tasklist.
+     *
+     * @param id the id of the tasklist
+     * @param ownerId the owner of the tasklist and its tasks
+     * @param taskCount the number of tasks in it
+     * @param firstTaskId the id of one of its tasks
+     */
+    public record GeneratedTasklist(UUID id, UUID ownerId, int taskCount, UUID firstTaskId) {
+    }
+
+    /**
+     * The generated data.
+     *
+     * @param ownerIds the owners by Zipf rank, the first one holds the most tasklists
+     * @param userNames the names of the owners, in the same order
+     * @param tasklists the generated tasklists
+     */
+    public record Dataset(List<UUID> ownerIds, List<String> userNames, List<GeneratedTasklist> tasklists) {
+
+        /**
+         * @return the owner with the most tasklists
+         */
+        public UUID hotOwner() {
+            return ownerIds.getFirst();
+        }
+
+        /**
+         * @return the lowest ranked owner that has at least one tasklist
+         */
+        public UUID coldOwner() {
+            for (int i = ownerIds.size() - 1; i >= 0; i--) {
+                UUID ownerId = ownerIds.get(i);
+                if (!tasklistsOf(ownerId).isEmpty()) {
+                    return ownerId;
+                }
+            }
+            throw new IllegalStateException("no tasklists");
+        }
+
+        /**
+         * @param ownerId an owner
+         * @return the tasklists of the owner, in generation order
+         */
+        public List<GeneratedTasklist> tasklistsOf(UUID ownerId) {
+            return tasklists.stream().filter(tasklist -> tasklist.ownerId().equals(ownerId)).toList();
+        }
+
+        /**
+         * @return the tasklist with the most tasks
+         */
+        public GeneratedTasklist largestTasklist() {
+            return tasklists.stream().max(Comparator.comparingInt(GeneratedTasklist::taskCount)).orElseThrow();
+        }
+
+        /**
+         * @return the number of generated tasks
+         */
+        public int taskCount() {
+            return tasklists.stream().mapToInt(GeneratedTasklist::taskCount).sum();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.waldhauser.tasklist;
+
+import com.waldhauser.tasklist.service.event.TaskEvent;
+import com.waldhauser.tasklist.service.event.TaskEventHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the TaskEventHub fan-out: owner isolation, Last-Event-ID replay, coalescing of slow
+ * subscribers, holding back events until the transaction commits and subscribing while idle channels are removed.
+ */
+class TaskEventHubTests {
+
+    private final UUID owner = UUID.randomUUID();
+    private final UUID otherOwner = UUID.randomUUID();
+
+    private TaskEventHub hub = new TaskEventHub(256, 256, 0, 300_000);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void eventsAreOnlySentToTheOwner() throws Exception {
+        RecordingEmitter ownerStream = new RecordingEmitter();
+        RecordingEmitter otherStream = new RecordingEmitter();
+        hub.subscribe(owner, null, ownerStream);
+        hub.subscribe(otherOwner, null, otherStream);
+
+        hub.publish(owner, TaskEvent.TASK_CREATED, UUID.randomUUID(), null);
+
+        ownerStream.awaitEvents(1);
+        Thread.sleep(100);
+        assertEquals(List.of(TaskEvent.TASK_CREATED), ownerStream.names());
+        assertTrue(otherStream.names().isEmpty());
+        assertEquals(2, hub.getSubscriberCount());
+    }
+
+    @Test
+    void reconnectReplaysMissedEvents() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        hub.subscribe(owner, null, first);
+        hub.publish(owner, TaskEvent.TASK_CREATED, UUID.randomUUID(), null);
+        hub.publish(owner, TaskEvent.TASK_UPDATED, UUID.randomUUID(), null);
+        hub.publish(owner, TaskEvent.TASK_DELETED, UUID.randomUUID(), null);
+        first.awaitEvents(3);
+
+        RecordingEmitter reconnected = new RecordingEmitter();
+        hub.subscribe(owner, first.ids().get(0), reconnected);
+
+        reconnected.awaitEvents(2);
+        assertEquals(List.of(TaskEvent.TASK_UPDATED, TaskEvent.TASK_DELETED), reconnected.names());
+        assertEquals(first.ids().subList(1, 3), reconnected.ids());
+    }
+
+    @Test
+    void reconnectBehindReplayBufferGetsResync() throws Exception {
+        hub = new TaskEventHub(2, 256, 0, 300_000);
+        RecordingEmitter first = new RecordingEmitter();
+        hub.subscribe(owner, null, first);
+        for (int i = 0; i < 5; i++) {
+            hub.publish(owner, TaskEvent.TASK_UPDATED, UUID.randomUUID(), null);
+        }
+        first.awaitEvents(5);
+
+        RecordingEmitter reconnected = new RecordingEmitter();
+        hub.subscribe(owner, first.ids().get(0), reconnected);
+
+        reconnected.awaitEvents(1);
+        Thread.sleep(100);
+        assertEquals(List.of(TaskEvent.RESYNC), reconnected.names());
+    }
+
+    @Test
+    void slowSubscriberIsCoalescedIntoResync() throws Exception {
+        hub = new TaskEventHub(256, 4, 0, 300_000);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        hub.subscribe(owner, null, slow);
+
+        for (int i = 0; i < 100; i++) {
+            hub.publish(owner, TaskEvent.TASK_UPDATED, UUID.randomUUID(), null);
+        }
+        release.countDown();
+
+        slow.awaitEvents(2);
+        Thread.sleep(200);
+        List<String> names = slow.names();
+        assertTrue(names.contains(TaskEvent.RESYNC), "expected a resync, got " + names);
+        // one event in flight, one resync and at most a full buffer
+        assertTrue(names.size() <= 6, "expected coalescing, got " + names.size() + " events");
+    }
+
+    @Test
+    void publishInsideTransactionWaitsForCommit() throws Exception {
+        RecordingEmitter stream = new RecordingEmitter();
+        hub.subscribe(owner, null, stream);
+
+        TransactionSynchronizationManager.initSynchronization();
+        hub.publish(owner, TaskEvent.TASK_DELETED, UUID.randomUUID(), null);
+        Thread.sleep(100);
+        assertTrue(stream.names().isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        stream.awaitEvents(1);
+        assertEquals(List.of(TaskEvent.TASK_DELETED), stream.names());
+    }
+
+    @Test
+    void subscribeRacingWithMaintenanceKeepsTheSubscriber() throws Exception {
+        // every channel without subscribers is removed by maintain() at once
+        hub = new TaskEventHub(256, 256, 0, -1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> maintainers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            maintainers.add(Thread.ofPlatform().start(() -> {
+                while (running.get()) {
+                    hub.maintain();
+                }
+            }));
+        }
+        List<UUID> owners = new ArrayList<>();
+        List<RecordingEmitter> streams = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                UUID ownerId = UUID.randomUUID();
+                RecordingEmitter stream = new RecordingEmitter();
+                hub.subscribe(ownerId, null, stream);
+                owners.add(ownerId);
+                streams.add(stream);
+            }
+        } finally {
+            running.set(false);
+            for (Thread maintainer : maintainers) {
+                maintainer.join();
+            }
+        }
+
+        assertEquals(owners.size(), hub.getSubscriberCount());
+        owners.forEach(ownerId -> hub.publish(ownerId, TaskEvent.TASK_CREATED, UUID.randomUUID(), null));
+        for (RecordingEmitter stream : streams) {
+            stream.awaitEvents(1);
+        }
+    }
+
+    /**
+     * SseEmitter recording the name and ID of every sent event, optionally blocking on the first send
+     * to act as a slow consumer.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final List<Long> ids = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (!(part.getData() instanceof String text)) {
+                    continue;
+                }
+                for (String line : text.split("\n")) {
+                    if (line.startsWith("event:")) {
+                        names.add(line.substring(6));
+                    } else if (line.startsWith("id:")) {
+                        ids.add(Long.parseLong(line.substring(3)));
+                    }
+                }
+            }
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (names.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(names.size() >= count, "expected " + count + " events, got " + names);
+        }
+
+        List<String> names() {
+            return List.copyOf(names);
+        }
+
+        List<Long> ids() {
+            return List.copyOf(ids);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.waldhauser.tasklist;
+
+import com.google.protobuf.Empty;
+import com.waldhauser.tasklist.config.support.JwtChecker;
+import com.waldhauser.tasklist.config.support.JwtKeyProvider;
+import com.waldhauser.tasklist.config.support.JwtMaker;
+import com.waldhauser.tasklist.domain.model.User;
+import com.waldhauser.tasklist.grpc.JwtServerInterceptor;
+import com.waldhauser.tasklist.grpc.TaskGrpcService;
+import com.waldhauser.tasklist.grpc.proto.CreateTaskRequest;
+import com.waldhauser.tasklist.grpc.proto.TaskApiGrpc;
+import com.waldhauser.tasklist.grpc.proto.TaskIdRequest;
+import com.waldhauser.tasklist.rest.model.task.TaskCreateRequest;
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import com.waldhauser.tasklist.rest.proto.ProtobufMapper;
+import com.waldhauser.tasklist.rest.proto.TaskMessage;
+import com.waldhauser.tasklist.rest.proto.TaskMessageList;
+import com.waldhauser.tasklist.service.api.TaskService;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskGrpcServiceTests {
+
+    private final TaskService taskService = mock(TaskService.class);
+    private final JwtKeyProvider keyProvider = new JwtKeyProvider("test-secret-test-secret-test-secret-1234");
+    private final UUID userId = UUID.randomUUID();
+
+    private Server server;
+    private ManagedChannel channel;
+    private TaskApiGrpc.TaskApiBlockingStub blockingStub;
+    private TaskApiGrpc.TaskApiStub asyncStub;
+
+    @BeforeEach
+    void setup() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        TaskGrpcService service = new TaskGrpcService(taskService,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        server = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(ServerInterceptors.intercept(service, new JwtServerInterceptor(new JwtChecker(keyProvider))))
+                .build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+
+        String token = new JwtMaker(keyProvider, 60_000).generateToken(new User(userId, "grpcUser", "password"));
+        Metadata headers = new Metadata();
+        headers.put(Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER), "Bearer " + token);
+        blockingStub = TaskApiGrpc.newBlockingStub(channel).withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+        asyncStub = TaskApiGrpc.newStub(channel).withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void callsWithoutTokenAreUnauthenticated() {
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () -> TaskApiGrpc.newBlockingStub(channel)
+                .getTask(TaskIdRequest.newBuilder().setId(ProtobufMapper.toBytes(UUID.randomUUID())).build()));
+
+        assertEquals(Status.Code.UNAUTHENTICATED, e.getStatus().getCode());
+    }
+
+    @Test
+    void getTaskIsScopedToTokenOwner() {
+        UUID taskId = UUID.randomUUID();
+        when(taskService.getTaskById(taskId, userId))
+                .thenReturn(Optional.of(new TaskResponse(taskId, userId, "Task name", "Description", UUID.randomUUID())));
+
+        TaskMessage task = blockingStub.getTask(TaskIdRequest.newBuilder().setId(ProtobufMapper.toBytes(taskId)).build());
+
+        assertEquals(taskId, ProtobufMapper.toUuid(task.getId()));
+    }
+
+    @Test
+    void getUnknownTaskIsNotFound() {
+        when(taskService.getTaskById(any(), eq(userId))).thenReturn(Optional.empty());
+
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () -> blockingStub
+                .getTask(TaskIdRequest.newBuilder().setId(ProtobufMapper.toBytes(UUID.randomUUID())).build()));
+
+        assertEquals(Status.Code.NOT_FOUND, e.getStatus().getCode());
+    }
+
+    @Test
+    void listTasksStreamsAllTasksOfOwner() {
+        UUID tasklistId = UUID.randomUUID();
+        when(taskService.getAllTasksByOwnerId(userId)).thenReturn(List.of(
+                new TaskResponse(UUID.randomUUID(), userId, "First task", "", tasklistId),
+                new TaskResponse(UUID.randomUUID(), userId, "Second task", "", tasklistId)));
+
+        List<String> titles = new ArrayList<>();
+        Iterator<TaskMessage> tasks = blockingStub.listTasks(Empty.getDefaultInstance());
+        tasks.forEachRemaining(task -> titles.add(task.getTitle()));
+
+        assertEquals(List.of("First task", "Second task"), titles);
+    }
+
+    @Test
+    void bulkCreateTasksCreatesEveryStreamedTaskAsTokenOwner() throws Exception {
+        UUID tasklistId = UUID.randomUUID();
+        List<String> ownersSeenByService = new ArrayList<>();
+        when(taskService.create(any(TaskCreateRequest.class), eq(tasklistId))).thenAnswer(invocation -> {
+            ownersSeenByService.add(SecurityContextHolder.getContext().getAuthentication().getName());
+            TaskCreateRequest request = invocation.getArgument(0);
+            return new TaskResponse(UUID.randomUUID(), userId, request.getName(), request.getDescription(), tasklistId);
+        });
+
+        CompletableFuture<TaskMessageList> result = new CompletableFuture<>();
+        StreamObserver<CreateTaskRequest> requests = asyncStub.bulkCreateTasks(new StreamObserver<>() {
+            @Override
+            public void onNext(TaskMessageList value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            requests.onNext(CreateTaskRequest.newBuilder()
+                    .setTasklistId(ProtobufMapper.toBytes(tasklistId))
+                    .setName("Bulk task " + i)
+                    .build());
+        }
+        requests.onCompleted();
+
+        assertEquals(3, result.get(5, TimeUnit.SECONDS).getTasksCount());
+        assertEquals(List.of(userId.toString(), userId.toString(), userId.toString()), ownersSeenByService);
+    }
+
+    @Test
+    void callerSecurityContextSurvivesInProcessCall() {
+        UUID taskId = UUID.randomUUID();
+        when(taskService.getTaskById(taskId, userId))
+                .thenReturn(Optional.of(new TaskResponse(taskId, userId, "Task name", "Description", UUID.randomUUID())));
+        SecurityContext callerContext = SecurityContextHolder.createEmptyContext();
+        callerContext.setAuthentication(new TestingAuthenticationToken("caller", null));
+        SecurityContextHolder.setContext(callerContext);
+        try {
+            // the direct executors run the server callbacks on this thread
+            blockingStub.getTask(TaskIdRequest.newBuilder().setId(ProtobufMapper.toBytes(taskId)).build());
+
+            assertSame(callerContext, SecurityContextHolder.getContext());
+            assertEquals("caller", SecurityContextHolder.getContext().getAuthentication().getName());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void unexpectedErrorsDoNotLeakTheirMessage() {
+        when(taskService.getTaskById(any(), eq(userId))).thenThrow(new IllegalStateException("Connection to db-7:5432 refused"));
+
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () -> blockingStub
+                .getTask(TaskIdRequest.newBuilder().setId(ProtobufMapper.toBytes(UUID.randomUUID())).build()));
+
+        assertEquals(Status.Code.INTERNAL, e.getStatus().getCode());
+        assertEquals("Internal server error", e.getStatus().getDescription());
+    }
+
+    @Test
+    void invalidCreateRequestIsRejected() {
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () -> blockingStub.createTask(
+                CreateTaskRequest.newBuilder().setTasklistId(ProtobufMapper.toBytes(UUID.randomUUID())).setName("abc").build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, e.getStatus().getCode());
+    }
+}
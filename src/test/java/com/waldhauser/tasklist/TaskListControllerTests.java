@@ -1,5 +1,7 @@
 package com.waldhauser.tasklist;
 
+import com.waldhauser.tasklist.config.support.RestResponseEntityExceptionHandler;
+import com.waldhauser.tasklist.domain.error.NotFoundException;
 import com.waldhauser.tasklist.domain.model.Tasklist;
 import com.waldhauser.tasklist.rest.controller.TasklistController;
 import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
@@ -36,7 +38,10 @@ class TaskListControllerTests {
 
     @BeforeEach
     void setup() {
-        mockMvc = MockMvcBuilders.standaloneSetup(tasklistController).build();
+        // the exception handler maps the not found errors of the services to 404, as in the application
+        mockMvc = MockMvcBuilders.standaloneSetup(tasklistController)
+                .setControllerAdvice(new RestResponseEntityExceptionHandler())
+                .build();
     }
 
     @Test
@@ -68,7 +73,7 @@ class TaskListControllerTests {
         when(securityContext.getAuthentication()).thenReturn(authentication);
 
         org.springframework.security.core.context.SecurityContextHolder.setContext(securityContext);
-        when(tasklistService.getTasklistById(tasklistId)).thenReturn(response);
+        when(tasklistService.getTasklistById(tasklistId, userId)).thenReturn(response);
 
         mockMvc.perform(get("/tasklist/get/" + tasklistId))
                 .andExpect(status().isOk())
@@ -76,11 +81,9 @@ class TaskListControllerTests {
     }
 
     @Test
-    void getReturnsUnauthorizedWhenUserIsNotOwner() throws Exception {
-        UUID userId = UUID.randomUUID();
+    void getReturnsNotFoundWhenUserIsNotOwner() throws Exception {
         UUID otherUserId = UUID.randomUUID();
         UUID tasklistId = UUID.randomUUID();
-        TasklistResponse response = new TasklistResponse(tasklistId, userId, "ListName", null, null);
 
         org.springframework.security.core.Authentication authentication = org.mockito.Mockito.mock(org.springframework.security.core.Authentication.class);
         when(authentication.getName()).thenReturn(otherUserId.toString());
@@ -89,10 +92,13 @@ class TaskListControllerTests {
         when(securityContext.getAuthentication()).thenReturn(authentication);
 
         org.springframework.security.core.context.SecurityContextHolder.setContext(securityContext);
-        when(tasklistService.getTasklistById(tasklistId)).thenReturn(response);
+        when(tasklistService.getTasklistById(tasklistId, otherUserId)).thenThrow(NotFoundException.TASKLIST);
 
         mockMvc.perform(get("/tasklist/get/" + tasklistId))
-                .andExpect(status().isUnauthorized());
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.error").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.message").value("Tasklist not found"));
     }
 
     @Test
@@ -104,7 +110,7 @@ class TaskListControllerTests {
         org.springframework.security.core.context.SecurityContext securityContext = org.mockito.Mockito.mock(org.springframework.security.core.context.SecurityContext.class);
         when(securityContext.getAuthentication()).thenReturn(authentication);
         org.springframework.security.core.context.SecurityContextHolder.setContext(securityContext);
-        when(tasklistService.getTasklistById(tasklistId)).thenThrow(new RuntimeException("Not found"));
+        when(tasklistService.getTasklistById(tasklistId, userId)).thenThrow(new RuntimeException("Not found"));
 
         mockMvc.perform(get("/tasklist/get/" + tasklistId))
                 .andExpect(status().isInternalServerError());
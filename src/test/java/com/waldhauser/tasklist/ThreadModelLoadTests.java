@@ -0,0 +1,293 @@
+package com.waldhauser.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test comparing the platform-thread Tomcat pool with virtual threads on the real endpoints, with
+ * {@code loadtest.clients} concurrent clients against a slow database.
+ * <p>
+ * The application runs twice against the in-memory database, once per thread model
+ * ({@code spring.threads.virtual.enabled}). Every JDBC statement is delayed by {@code loadtest.db-latency-ms}, like
+ * a slow Postgres. The adaptive limiter and the bulkheads are off and Tomcat accepts all connections, so only the
+ * thread model differs. Each client is a closed loop of {@code loadtest.requests-per-client} GETs of random seeded
+ * tasks. Throughput, p50, p99 and the errors of both runs are printed side by side.
+ * <p>
+ * Parameters (system properties): {@code loadtest.clients} (10000), {@code loadtest.requests-per-client} (3),
+ * {@code loadtest.db-latency-ms} (10), {@code loadtest.users} (20), {@code loadtest.tasks} per user (20).
+ * The clients and the server share the JVM: the file descriptor limit has to be above twice the number of clients.
+ * <p>
+ * Run: {@code mvn test -Dtest=ThreadModelLoadTests -Dloadtest=true}
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ThreadModelLoadTests {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final long DB_LATENCY_MS = Long.getLong("loadtest.db-latency-ms", 10);
+    private static final Map<String, Result> RESULTS = new ConcurrentSkipListMap<>();
+
+    private final int clients = Integer.getInteger("loadtest.clients", 10_000);
+    private final int requestsPerClient = Integer.getInteger("loadtest.requests-per-client", 3);
+    private final int users = Integer.getInteger("loadtest.users", 20);
+    private final int tasks = Integer.getInteger("loadtest.tasks", 20);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @AfterAll
+    static void printComparison() {
+        // surefire runs the nested classes one by one, each with the lifecycle of this class: print once both ran
+        if (RESULTS.size() < 2) {
+            return;
+        }
+        System.out.printf("%-9s %8s %8s %10s %9s %9s %9s%n", "threads", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        RESULTS.forEach((name, result) -> System.out.printf("%-9s %8d %8d %10.0f %9.1f %9.1f %9.1f%n", name,
+                result.histogram.getTotalCount(), result.errors(), result.throughput(),
+                result.histogram.getValueAtPercentile(50) / 1000.0, result.histogram.getValueAtPercentile(99) / 1000.0,
+                result.histogram.getMaxValue() / 1000.0));
+        RESULTS.clear();
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.threads.virtual.enabled=false", "app.limiter.enabled=false", "app.bulkhead.enabled=false",
+            "server.tomcat.max-connections=100000", "server.tomcat.accept-count=10000",
+            "logging.level.com.waldhauser.tasklist.config.metrics.QueryBudgetFilter=error"})
+    @ActiveProfiles("h2")
+    @Import(SlowDatabaseConfig.class)
+    class PlatformThreads {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void measure() throws Exception {
+            ThreadModelLoadTests.this.measure("platform", port);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.threads.virtual.enabled=true", "app.limiter.enabled=false", "app.bulkhead.enabled=false",
+            "server.tomcat.max-connections=100000", "server.tomcat.accept-count=10000",
+            "logging.level.com.waldhauser.tasklist.config.metrics.QueryBudgetFilter=error"})
+    @ActiveProfiles("h2")
+    @Import(SlowDatabaseConfig.class)
+    class VirtualThreads {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void measure() throws Exception {
+            ThreadModelLoadTests.this.measure("virtual", port);
+        }
+    }
+
+    private void measure(String name, int port) throws Exception {
+        List<SeededUser> seeded = seed(port);
+        // warm-up with a fraction of the clients, not recorded
+        run(port, seeded, Math.min(clients, 200), new Result());
+
+        Result result = new Result();
+        run(port, seeded, clients, result);
+        RESULTS.put(name, result);
+
+        assertEquals((long) clients * requestsPerClient, result.histogram.getTotalCount());
+    }
+
+    private void run(int port, List<SeededUser> seeded, int clientCount, Result result) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientCount; c++) {
+                SeededUser user = seeded.get(c % seeded.size());
+                clientThreads.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        String taskId = user.taskIds.get(ThreadLocalRandom.current().nextInt(user.taskIds.size()));
+                        long sent = System.nanoTime();
+                        int status;
+                        try {
+                            status = send(port, "GET", "/task/get/" + taskId, null, user.token).statusCode();
+                        } catch (IOException e) {
+                            status = -1;
+                        }
+                        result.record(status, sent);
+                    }
+                    return null;
+                });
+            }
+            result.startNanos = System.nanoTime();
+            start.countDown();
+        }
+        result.elapsedNanos = System.nanoTime() - result.startNanos;
+    }
+
+    private List<SeededUser> seed(int port) throws Exception {
+        List<SeededUser> seeded = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            Map<String, String> credentials = Map.of("name", "threads-" + UUID.randomUUID(), "password", "password123");
+            assertEquals(200, send(port, "POST", "/auth/register", credentials, null).statusCode());
+            String token = objectMapper.readTree(send(port, "POST", "/auth/login", credentials, null).body()).get("token").asText();
+            HttpResponse<String> tasklist = send(port, "POST", "/tasklist/create",
+                    Map.of("name", "Tasklist", "description", "Seeded by the load test"), token);
+            assertEquals(200, tasklist.statusCode(), tasklist.body());
+            String tasklistId = objectMapper.readTree(tasklist.body()).get("id").asText();
+            SeededUser user = new SeededUser(token);
+            for (int t = 0; t < tasks; t++) {
+                HttpResponse<String> task = send(port, "POST", "/task/create", Map.of("tasklistId", tasklistId,
+                        "name", "Task " + t, "description", "Seeded by the load test"), token);
+                assertEquals(200, task.statusCode(), task.body());
+                user.taskIds.add(objectMapper.readTree(task.body()).get("id").asText());
+            }
+            seeded.add(user);
+        }
+        return seeded;
+    }
+
+    private HttpResponse<String> send(int port, String method, String path, Object body, String bearer) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(2))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @TestConfiguration
+    static class SlowDatabaseConfig {
+
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof SlowDataSource)
+                            ? new SlowDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * DataSource delaying the execution of every statement by {@code loadtest.db-latency-ms}, while the connection
+     * is held, like a slow database.
+     */
+    static class SlowDataSource extends DelegatingDataSource {
+
+        SlowDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object value = invoke(connection, method, args);
+                        return value instanceof Statement statement && method.getReturnType().isInterface()
+                                ? slow(statement, method.getReturnType()) : value;
+                    });
+        }
+
+        private static Object slow(Statement statement, Class<?> type) {
+            return Proxy.newProxyInstance(SlowDataSource.class.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute")) {
+                            Thread.sleep(DB_LATENCY_MS);
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    private static final class SeededUser {
+
+        final String token;
+        final List<String> taskIds = new ArrayList<>();
+
+        SeededUser(String token) {
+            this.token = token;
+        }
+    }
+
+    private static final class Result {
+
+        final Histogram histogram = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        final Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+        long startNanos;
+        long elapsedNanos;
+
+        void record(int status, long sent) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent);
+            histogram.recordValue(Math.min(Math.max(micros, 1), HIGHEST_LATENCY_MICROS));
+            statuses.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+        }
+
+        long errors() {
+            return statuses.entrySet().stream()
+                    .filter(entry -> entry.getKey() != 200)
+                    .mapToLong(entry -> entry.getValue().get())
+                    .sum();
+        }
+
+        double throughput() {
+            return histogram.getTotalCount() / (elapsedNanos / 1e9);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.waldhauser.tasklist.benchmark;
+
+import com.waldhauser.tasklist.domain.error.NotFoundException;
+import jakarta.persistence.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of a "not found" outcome thrown from below a request thread's stack of {@code depth} frames (a
+ * servlet request through the filter chain, the dispatcher and a proxied service is 100 to 150 frames deep) and
+ * caught at its top, as the exception handler does.
+ * <p>
+ * {@code entityNotFound} is the error path before the domain errors: the service threw a new
+ * EntityNotFoundException and the controller wrapped it in a new ResponseStatusException, each filling in its
+ * stack trace. {@code preallocated} throws the stackless {@link NotFoundException#TASK}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    @Param({"20", "150"})
+    private int depth;
+
+    @Benchmark
+    public Object entityNotFound() {
+        try {
+            return descend(depth, false);
+        } catch (EntityNotFoundException e) {
+            return new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    @Benchmark
+    public Object preallocated() {
+        try {
+            return descend(depth, true);
+        } catch (NotFoundException e) {
+            return e;
+        }
+    }
+
+    private static Object descend(int depth, boolean preallocated) {
+        if (depth > 0) {
+            return descend(depth - 1, preallocated);
+        }
+        if (preallocated) {
+            throw NotFoundException.TASK;
+        }
+        throw new EntityNotFoundException("Task not found");
+    }
+}
@@ -0,0 +1,102 @@
+package com.waldhauser.tasklist.benchmark;
+
+import com.waldhauser.tasklist.config.heavyhitters.HeavyHitters;
+import com.waldhauser.tasklist.config.security.JwtAuthenticationFilter;
+import com.waldhauser.tasklist.config.support.JwtChecker;
+import com.waldhauser.tasklist.config.support.JwtKeyProvider;
+import com.waldhauser.tasklist.config.support.JwtMaker;
+import com.waldhauser.tasklist.domain.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The authentication hot path: signing a token at login, verifying it and reading the user id on every request,
+ * and the whole JwtAuthenticationFilter from the Authorization header to the populated SecurityContext.
+ * {@code isValidRejectsTamperedToken} shows the cost of a rejected token, which fails with an exception.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private JwtMaker jwtMaker;
+    private JwtChecker jwtChecker;
+    private JwtAuthenticationFilter filter;
+    private User user;
+    private String token;
+    private String tamperedToken;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtKeyProvider keyProvider = new JwtKeyProvider(SECRET);
+        jwtMaker = new JwtMaker(keyProvider, 3_600_000);
+        jwtChecker = new JwtChecker(keyProvider);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        filter = new JwtAuthenticationFilter(jwtChecker, beanFactory.getBeanProvider(MeterRegistry.class),
+                beanFactory.getBeanProvider(HeavyHitters.class));
+        user = new User(UUID.randomUUID(), "benchmark-user", null);
+        token = jwtMaker.generateToken(user);
+        // flips a character of the signature
+        char last = token.charAt(token.length() - 2);
+        tamperedToken = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+        request = new MockHttpServletRequest("GET", "/task/getAll");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtMaker.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return jwtChecker.isValid(token);
+    }
+
+    @Benchmark
+    public boolean isValidRejectsTamperedToken() {
+        return jwtChecker.isValid(tamperedToken);
+    }
+
+    @Benchmark
+    public UUID getUserIdFromToken() {
+        return jwtChecker.getUserIdFromToken(token);
+    }
+
+    @Benchmark
+    public Authentication authenticationFilter() throws ServletException, IOException {
+        filter.doFilter(request, response, chain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,98 @@
+package com.waldhauser.tasklist.benchmark;
+
+import com.waldhauser.tasklist.domain.model.Task;
+import com.waldhauser.tasklist.domain.model.Tasklist;
+import com.waldhauser.tasklist.domain.repository.TaskRepository;
+import com.waldhauser.tasklist.domain.repository.TasklistRepository;
+import com.waldhauser.tasklist.service.event.TaskEventHub;
+import com.waldhauser.tasklist.service.impl.TasklistServiceImpl;
+import com.waldhauser.tasklist.service.support.CircuitBreaker;
+import com.waldhauser.tasklist.service.support.KnownIds;
+import com.waldhauser.tasklist.service.support.ReadCoalescer;
+import com.waldhauser.tasklist.service.support.RepositoryGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Synthetic data and wiring shared by the benchmarks: tasklists of one owner as loaded by the repository, and a
+ * TasklistServiceImpl on in-memory repositories, so the benchmarks measure the service code and not a database.
+ */
+final class TasklistFixtures {
+
+    static final int TASKLISTS = 10;
+
+    private TasklistFixtures() {
+    }
+
+    /**
+     * Creates the tasklists of an owner with their tasks, ids set as after loading.
+     *
+     * @param ownerId the owner of the tasklists and tasks
+     * @param tasksPerList the number of tasks of every tasklist
+     * @param descriptionLength the length of every task description
+     * @return the tasklists
+     */
+    static List<Tasklist> tasklists(UUID ownerId, int tasksPerList, int descriptionLength) {
+        // fixed seed, every fork sees the same data
+        Random random = new Random(42);
+        List<Tasklist> tasklists = new ArrayList<>(TASKLISTS);
+        for (int i = 0; i < TASKLISTS; i++) {
+            Tasklist tasklist = new Tasklist(new UUID(0, i), ownerId, "Tasklist " + i, text(random, 64), new ArrayList<>());
+            for (int j = 0; j < tasksPerList; j++) {
+                tasklist.getTasks().add(new Task(new UUID(i + 1, j), ownerId, tasklist, "Task " + i + "." + j,
+                        text(random, descriptionLength)));
+            }
+            tasklists.add(tasklist);
+        }
+        return tasklists;
+    }
+
+    /**
+     * Creates a TasklistServiceImpl whose repository returns the given tasklists for every owner.
+     *
+     * @param tasklists the result of {@code TasklistRepository.findByOwnerId} and {@code findWithTasksByOwnerId}
+     * @return the service
+     */
+    static TasklistServiceImpl tasklistService(List<Tasklist> tasklists) {
+        TasklistRepository tasklistRepository = repository(TasklistRepository.class, tasklists, "findByOwnerId", "findWithTasksByOwnerId");
+        TaskRepository taskRepository = repository(TaskRepository.class, null);
+        return new TasklistServiceImpl(tasklistRepository, taskRepository,
+                new TaskEventHub(256, 256, 1_800_000, 300_000),
+                new ReadCoalescer(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class)),
+                new RepositoryGuard(new CircuitBreaker("repository", 5, 10_000), 10_000, 900_000,
+                        TransactionOperations.withoutTransaction(), new SimpleMeterRegistry()),
+                KnownIds.disabled());
+    }
+
+    // repository answering the given query methods with the result, any other call fails
+    private static <T> T repository(Class<T> type, Object result, String... methods) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, invoked, args) -> {
+            if (Arrays.asList(methods).contains(invoked.getName())) {
+                return result;
+            }
+            return switch (invoked.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> type.getSimpleName();
+                default -> throw new UnsupportedOperationException(invoked.getName());
+            };
+        }));
+    }
+
+    private static String text(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(i % 6 == 5 ? ' ' : (char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package com.waldhauser.tasklist.benchmark;
+
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+import com.waldhauser.tasklist.service.impl.TasklistServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of {@code GET /tasklist/getAll}: TasklistServiceImpl turning the loaded Tasklist and Task
+ * entities of an owner into TasklistResponse and TaskResponse objects, including the circuit breaker and read
+ * coalescing around the repository call. The repository answers from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TasklistMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int tasksPerList;
+
+    @Param({"32", "1024"})
+    private int descriptionLength;
+
+    private final UUID ownerId = UUID.randomUUID();
+    private TasklistServiceImpl tasklistService;
+
+    @Setup
+    public void setUp() {
+        tasklistService = TasklistFixtures.tasklistService(TasklistFixtures.tasklists(ownerId, tasksPerList, descriptionLength));
+    }
+
+    @Benchmark
+    public List<TasklistResponse> getAllTasklists() {
+        return tasklistService.getAllTasklistsByOwnerId(ownerId);
+    }
+
+    @Benchmark
+    public List<TasklistResponse> getTasklistSummaries() {
+        return tasklistService.getTasklistSummariesByOwnerId(ownerId);
+    }
+}
@@ -0,0 +1,67 @@
+package com.waldhauser.tasklist.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the {@code GET /tasklist/getAll} response of large tasklists, with an ObjectMapper
+ * configured like the one of Spring Boot. {@code writeValueAsBytes} builds the whole body in memory,
+ * {@code writeToStream} streams it the way the message converter writes to the response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TasklistSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int tasksPerList;
+
+    @Param({"32", "1024"})
+    private int descriptionLength;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter listWriter;
+    private List<TasklistResponse> tasklists;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        UUID ownerId = UUID.randomUUID();
+        tasklists = TasklistFixtures.tasklistService(TasklistFixtures.tasklists(ownerId, tasksPerList, descriptionLength))
+                .getAllTasklistsByOwnerId(ownerId);
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, TasklistResponse.class));
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(tasklists);
+    }
+
+    @Benchmark
+    public void writeToStream() throws IOException {
+        listWriter.writeValue(OutputStream.nullOutputStream(), tasklists);
+    }
+}
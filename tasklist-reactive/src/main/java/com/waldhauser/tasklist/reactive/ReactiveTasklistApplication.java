@@ -0,0 +1,23 @@
+package com.waldhauser.tasklist.reactive;
+
+import com.waldhauser.tasklist.config.support.JwtChecker;
+import com.waldhauser.tasklist.config.support.JwtKeyProvider;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Entry point of the non-blocking variant of the task and tasklist API.
+ * <p>
+ * Runs on WebFlux and R2DBC against the same database as the servlet application and shares its
+ * request/response models ({@code rest.model}) and the JWT verification ({@link JwtChecker}).
+ */
+@SpringBootApplication
+@Import({JwtKeyProvider.class, JwtChecker.class})
+public class ReactiveTasklistApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveTasklistApplication.class, args);
+	}
+
+}
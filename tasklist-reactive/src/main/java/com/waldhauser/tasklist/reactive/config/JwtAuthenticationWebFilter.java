@@ -0,0 +1,64 @@
+package com.waldhauser.tasklist.reactive.config;
+
+import com.waldhauser.tasklist.config.support.JwtChecker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reactive counterpart of the JwtAuthenticationFilter of the servlet application.
+ * <p>
+ * Validates the "Authorization: Bearer" token with the shared {@link JwtChecker} and writes the
+ * authentication into the Reactor context instead of a ThreadLocal, so it is visible to every
+ * operator of the request regardless of the thread it runs on.
+ * <p>
+ * Requests without or with an invalid token proceed unauthenticated and are rejected by the
+ * authorization rules of ReactiveSecurityConfig.
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationWebFilter.class);
+    private final JwtChecker jwtChecker;
+
+    public JwtAuthenticationWebFilter(JwtChecker jwtChecker) {
+        this.jwtChecker = jwtChecker;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        String token = authHeader.substring(7);
+
+        try {
+            if (jwtChecker.isValid(token)) {
+                UUID userId = jwtChecker.getUserIdFromToken(token);
+                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                        userId.toString(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+                logger.debug("JWT authentication successful for userId: {}", userId);
+                return chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authenticationToken));
+            }
+            logger.debug("Invalid JWT token");
+        } catch (Exception e) {
+            logger.error("JWT processing failed: {}", e.getMessage());
+        }
+
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,39 @@
+package com.waldhauser.tasklist.reactive.config;
+
+import com.waldhauser.tasklist.config.support.JwtChecker;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Reactive counterpart of the SecurityConfig of the servlet application.
+ * <p>
+ * Stateless JWT authentication through {@link JwtAuthenticationWebFilter}, CSRF, HTTP basic and form login
+ * disabled, and the same URL rules: /task/** and /tasklist/** require authentication.
+ */
+@Configuration
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtChecker jwtChecker) {
+        return http
+                // Disable CSRF since we use JWT for stateless auth
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+
+                // Stateless, the security context is never stored between requests
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+
+                .authorizeExchange(auth -> auth
+                        .pathMatchers("/task/**", "/tasklist/**").authenticated() // Protected endpoints
+                        .anyExchange().permitAll()
+                )
+
+                .addFilterAt(new JwtAuthenticationWebFilter(jwtChecker), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.waldhauser.tasklist.reactive.controller;
+
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Resolves the authenticated user ID from the Reactor context, the reactive equivalent of
+ * {@code SecurityContextHolder.getContext().getAuthentication().getName()} in the servlet controllers.
+ */
+final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    static Mono<UUID> id() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> UUID.fromString(context.getAuthentication().getName()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.waldhauser.tasklist.reactive.controller;
+
+import com.waldhauser.tasklist.reactive.service.ReactiveTaskService;
+import com.waldhauser.tasklist.rest.model.task.TaskCreateRequest;
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import com.waldhauser.tasklist.rest.model.task.TaskUpdateRequest;
+import jakarta.validation.Valid;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of the TaskController of the servlet application, same paths and payloads.
+ */
+@RestController
+@RequestMapping(path = "task")
+public class ReactiveTaskController {
+
+    private final ReactiveTaskService taskService;
+
+    public ReactiveTaskController(ReactiveTaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    @GetMapping("/getAll")
+    public Flux<TaskResponse> getAllTasksByOwnerId() {
+        return CurrentUser.id().flatMapMany(taskService::getAllTasksByOwnerId);
+    }
+
+    @GetMapping("/get/{id}")
+    public Mono<TaskResponse> getTaskById(@PathVariable UUID id) {
+        return CurrentUser.id().flatMap(userId -> taskService.getTaskById(id, userId));
+    }
+
+    @PostMapping("/create")
+    public Mono<TaskResponse> createTask(@Valid @RequestBody TaskCreateRequest request) {
+        return CurrentUser.id().flatMap(userId -> taskService.create(request, userId));
+    }
+
+    @PostMapping("/update")
+    public Mono<TaskResponse> updateTask(@Valid @RequestBody TaskUpdateRequest task) {
+        return CurrentUser.id().flatMap(userId -> taskService.update(task, userId));
+    }
+
+    @DeleteMapping("/delete/{id}")
+    public Mono<Void> deleteTask(@PathVariable("id") UUID id) {
+        return CurrentUser.id().flatMap(userId -> taskService.delete(id, userId));
+    }
+}
@@ -0,0 +1,52 @@
+package com.waldhauser.tasklist.reactive.controller;
+
+import com.waldhauser.tasklist.reactive.service.ReactiveTasklistService;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistCreateRequest;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistUpdateRequest;
+import jakarta.validation.Valid;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of the TasklistController of the servlet application, same paths.
+ * Create and update answer with a {@code TasklistResponse} instead of the JPA entity.
+ */
+@RestController
+@RequestMapping(path = "tasklist")
+public class ReactiveTasklistController {
+
+    private final ReactiveTasklistService tasklistService;
+
+    public ReactiveTasklistController(ReactiveTasklistService tasklistService) {
+        this.tasklistService = tasklistService;
+    }
+
+    @GetMapping("/getAll")
+    public Flux<TasklistResponse> getAll() {
+        return CurrentUser.id().flatMapMany(tasklistService::getAllTasklistsByOwnerId);
+    }
+
+    @GetMapping("/get/{id}")
+    public Mono<TasklistResponse> get(@PathVariable("id") UUID id) {
+        return CurrentUser.id().flatMap(userId -> tasklistService.getTasklistById(id, userId));
+    }
+
+    @PostMapping("/create")
+    public Mono<TasklistResponse> create(@Valid @RequestBody TasklistCreateRequest tasklist) {
+        return CurrentUser.id().flatMap(userId -> tasklistService.create(tasklist, userId));
+    }
+
+    @PostMapping("/update")
+    public Mono<TasklistResponse> update(@Valid @RequestBody TasklistUpdateRequest tasklist) {
+        return CurrentUser.id().flatMap(userId -> tasklistService.update(tasklist, userId));
+    }
+
+    @DeleteMapping("/delete/{id}")
+    public Mono<Void> delete(@PathVariable("id") UUID id) {
+        return CurrentUser.id().flatMap(userId -> tasklistService.delete(id, userId));
+    }
+}
@@ -0,0 +1,28 @@
+package com.waldhauser.tasklist.reactive.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.UUID;
+
+/**
+ * R2DBC mapping of a row in the "tasks" table, created by the servlet application's Task entity.
+ * <p>
+ * Unlike the JPA entity, the tasklist is referenced by its id only, R2DBC does not resolve relations.
+ *
+ * @param id the unique identifier of the task, generated by the application before insert
+ * @param ownerId the unique identifier of the user who owns the task
+ * @param tasklistId the unique identifier of the task list the task belongs to
+ * @param name the name or title of the task
+ * @param description a detailed description of the task
+ */
+@Table("tasks")
+public record TaskRow(
+        @Id UUID id,
+        @Column("owner_id") UUID ownerId,
+        @Column("tasklist_id") UUID tasklistId,
+        String name,
+        String description
+) {
+}
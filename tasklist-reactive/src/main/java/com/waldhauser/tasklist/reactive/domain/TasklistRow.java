@@ -0,0 +1,26 @@
+package com.waldhauser.tasklist.reactive.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.UUID;
+
+/**
+ * R2DBC mapping of a row in the "tasklists" table, created by the servlet application's Tasklist entity.
+ * <p>
+ * Tasks are not part of the row, they are loaded separately through the ReactiveTaskRepository.
+ *
+ * @param id the unique identifier of the task list, generated by the application before insert
+ * @param ownerId the unique identifier of the user who owns the task list
+ * @param name the name or title of the task list
+ * @param description a detailed description of the task list
+ */
+@Table("tasklists")
+public record TasklistRow(
+        @Id UUID id,
+        @Column("owner_id") UUID ownerId,
+        String name,
+        String description
+) {
+}
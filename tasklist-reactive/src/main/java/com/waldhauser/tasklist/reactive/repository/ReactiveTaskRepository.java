@@ -0,0 +1,75 @@
+package com.waldhauser.tasklist.reactive.repository;
+
+import com.waldhauser.tasklist.reactive.domain.TaskRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of the TaskRepository of the servlet application.
+ * All lookups by id are owner-scoped, rows of other owners are never read.
+ */
+@Repository
+public interface ReactiveTaskRepository extends ReactiveCrudRepository<TaskRow, UUID> {
+
+    /**
+     * Retrieves the tasks associated with the specified owner.
+     *
+     * @param ownerId the unique identifier of the task owner
+     * @return a Flux emitting the tasks owned by the specified owner
+     */
+    Flux<TaskRow> findByOwnerId(UUID ownerId);
+
+    /**
+     * Retrieves the tasks that belong to the specified task list.
+     *
+     * @param tasklistId the unique identifier of the task list whose tasks are to be retrieved
+     * @return a Flux emitting the tasks of the task list
+     */
+    Flux<TaskRow> findByTasklistId(UUID tasklistId);
+
+    /**
+     * Retrieves the tasks that belong to any of the specified task lists.
+     *
+     * @param tasklistIds the unique identifiers of the task lists whose tasks are to be retrieved
+     * @return a Flux emitting the tasks of the task lists
+     */
+    Flux<TaskRow> findByTasklistIdIn(Collection<UUID> tasklistIds);
+
+    /**
+     * Retrieves a task by its unique identifier, but only if it belongs to the given owner.
+     *
+     * @param id the unique identifier of the task
+     * @param ownerId the unique identifier of the owner the task must belong to
+     * @return a Mono emitting the task, or an empty Mono if not found or owned by someone else
+     */
+    Mono<TaskRow> findByIdAndOwnerId(UUID id, UUID ownerId);
+
+    /**
+     * Deletes a task by its unique identifier, but only if it belongs to the given owner.
+     *
+     * @param id the unique identifier of the task to be deleted
+     * @param ownerId the unique identifier of the owner the task must belong to
+     * @return a Mono emitting the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM tasks WHERE id = :id AND owner_id = :ownerId")
+    Mono<Integer> deleteByIdAndOwnerId(UUID id, UUID ownerId);
+
+    /**
+     * Deletes all tasks of a task list, but only if the task list belongs to the given owner.
+     *
+     * @param tasklistId the unique identifier of the task list whose tasks are to be deleted
+     * @param ownerId the unique identifier of the owner the task list must belong to
+     * @return a Mono emitting the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM tasks WHERE tasklist_id IN (SELECT id FROM tasklists WHERE id = :tasklistId AND owner_id = :ownerId)")
+    Mono<Integer> deleteByTasklistIdAndTasklistOwnerId(UUID tasklistId, UUID ownerId);
+}
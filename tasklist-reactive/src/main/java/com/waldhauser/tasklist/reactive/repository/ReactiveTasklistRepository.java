@@ -0,0 +1,47 @@
+package com.waldhauser.tasklist.reactive.repository;
+
+import com.waldhauser.tasklist.reactive.domain.TasklistRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of the TasklistRepository of the servlet application.
+ * All lookups by id are owner-scoped, rows of other owners are never read.
+ */
+@Repository
+public interface ReactiveTasklistRepository extends ReactiveCrudRepository<TasklistRow, UUID> {
+
+    /**
+     * Retrieves the task lists associated with the specified owner.
+     *
+     * @param ownerId the unique identifier of the owner whose task lists are to be retrieved
+     * @return a Flux emitting the task lists of the owner
+     */
+    Flux<TasklistRow> findByOwnerId(UUID ownerId);
+
+    /**
+     * Retrieves a task list by its unique identifier, but only if it belongs to the given owner.
+     *
+     * @param id the unique identifier of the task list
+     * @param ownerId the unique identifier of the owner the task list must belong to
+     * @return a Mono emitting the task list, or an empty Mono if not found or owned by someone else
+     */
+    Mono<TasklistRow> findByIdAndOwnerId(UUID id, UUID ownerId);
+
+    /**
+     * Deletes a task list by its unique identifier, but only if it belongs to the given owner.
+     *
+     * @param id the unique identifier of the task list to be deleted
+     * @param ownerId the unique identifier of the owner the task list must belong to
+     * @return a Mono emitting the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM tasklists WHERE id = :id AND owner_id = :ownerId")
+    Mono<Integer> deleteByIdAndOwnerId(UUID id, UUID ownerId);
+}
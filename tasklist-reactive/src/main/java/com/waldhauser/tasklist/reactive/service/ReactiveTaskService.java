@@ -0,0 +1,87 @@
+package com.waldhauser.tasklist.reactive.service;
+
+import com.waldhauser.tasklist.reactive.domain.TaskRow;
+import com.waldhauser.tasklist.reactive.repository.ReactiveTaskRepository;
+import com.waldhauser.tasklist.reactive.repository.ReactiveTasklistRepository;
+import com.waldhauser.tasklist.rest.model.task.TaskCreateRequest;
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import com.waldhauser.tasklist.rest.model.task.TaskUpdateRequest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of the TaskServiceImpl of the servlet application.
+ * Every operation is scoped to the given owner, tasks of other owners are reported as not found.
+ */
+@Service
+public class ReactiveTaskService {
+
+    private final ReactiveTaskRepository taskRepository;
+    private final ReactiveTasklistRepository tasklistRepository;
+    private final R2dbcEntityTemplate template;
+
+    public ReactiveTaskService(ReactiveTaskRepository taskRepository,
+                               ReactiveTasklistRepository tasklistRepository,
+                               R2dbcEntityTemplate template) {
+        this.taskRepository = taskRepository;
+        this.tasklistRepository = tasklistRepository;
+        this.template = template;
+    }
+
+    // ---------- Get all tasks by ownerId ----------
+    public Flux<TaskResponse> getAllTasksByOwnerId(UUID ownerId) {
+        return taskRepository.findByOwnerId(ownerId).map(ReactiveTaskService::toResponse);
+    }
+
+    // ---------- Get single task by its id ----------
+    public Mono<TaskResponse> getTaskById(UUID taskId, UUID ownerId) {
+        return taskRepository.findByIdAndOwnerId(taskId, ownerId)
+                .map(ReactiveTaskService::toResponse)
+                .switchIfEmpty(notFound("Task not found"));
+    }
+
+    // ---------- CREATE ----------
+    public Mono<TaskResponse> create(TaskCreateRequest request, UUID ownerId) {
+        return tasklistRepository.findByIdAndOwnerId(request.getTasklistId(), ownerId)
+                .switchIfEmpty(notFound("Tasklist not found"))
+                // ids are generated by the application, same as Hibernate does for the servlet application
+                .flatMap(tasklist -> template.insert(new TaskRow(
+                        UUID.randomUUID(), ownerId, tasklist.id(), request.getName(), request.getDescription())))
+                .map(ReactiveTaskService::toResponse);
+    }
+
+    // ---------- UPDATE ----------
+    public Mono<TaskResponse> update(TaskUpdateRequest updatedTask, UUID ownerId) {
+        return taskRepository.findByIdAndOwnerId(updatedTask.getId(), ownerId)
+                .switchIfEmpty(notFound("Task not found"))
+                .flatMap(task -> template.update(new TaskRow(
+                        task.id(),
+                        task.ownerId(),
+                        task.tasklistId(),
+                        updatedTask.getName() != null ? updatedTask.getName() : task.name(),
+                        updatedTask.getDescription() != null ? updatedTask.getDescription() : task.description())))
+                .map(ReactiveTaskService::toResponse);
+    }
+
+    // ---------- DELETE ----------
+    @Transactional
+    public Mono<Void> delete(UUID taskId, UUID ownerId) {
+        return taskRepository.deleteByIdAndOwnerId(taskId, ownerId)
+                .flatMap(deleted -> deleted == 0 ? notFound("Task not found") : Mono.empty());
+    }
+
+    static TaskResponse toResponse(TaskRow task) {
+        return new TaskResponse(task.id(), task.ownerId(), task.name(), task.description(), task.tasklistId());
+    }
+
+    static <T> Mono<T> notFound(String message) {
+        return Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, message));
+    }
+}
@@ -0,0 +1,103 @@
+package com.waldhauser.tasklist.reactive.service;
+
+import com.waldhauser.tasklist.reactive.domain.TaskRow;
+import com.waldhauser.tasklist.reactive.domain.TasklistRow;
+import com.waldhauser.tasklist.reactive.repository.ReactiveTaskRepository;
+import com.waldhauser.tasklist.reactive.repository.ReactiveTasklistRepository;
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistCreateRequest;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistResponse;
+import com.waldhauser.tasklist.rest.model.tasklist.TasklistUpdateRequest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.waldhauser.tasklist.reactive.service.ReactiveTaskService.notFound;
+
+/**
+ * Non-blocking counterpart of the TasklistServiceImpl of the servlet application.
+ * Every operation is scoped to the given owner, tasklists of other owners are reported as not found.
+ */
+@Service
+public class ReactiveTasklistService {
+
+    private final ReactiveTasklistRepository tasklistRepository;
+    private final ReactiveTaskRepository taskRepository;
+    private final R2dbcEntityTemplate template;
+
+    public ReactiveTasklistService(ReactiveTasklistRepository tasklistRepository,
+                                   ReactiveTaskRepository taskRepository,
+                                   R2dbcEntityTemplate template) {
+        this.tasklistRepository = tasklistRepository;
+        this.taskRepository = taskRepository;
+        this.template = template;
+    }
+
+    // ---------- Get all tasklists by ownerId ----------
+    public Flux<TasklistResponse> getAllTasklistsByOwnerId(UUID ownerId) {
+        // two statements in total: the tasklists, then the tasks of all of them grouped by tasklist
+        return tasklistRepository.findByOwnerId(ownerId).collectList()
+                .flatMapMany(tasklists -> {
+                    if (tasklists.isEmpty()) {
+                        return Flux.empty();
+                    }
+                    List<UUID> ids = tasklists.stream().map(TasklistRow::id).toList();
+                    return taskRepository.findByTasklistIdIn(ids)
+                            .collectMultimap(TaskRow::tasklistId, ReactiveTaskService::toResponse)
+                            .flatMapMany(tasks -> Flux.fromIterable(tasklists)
+                                    .map(tasklist -> toResponse(tasklist, tasks)));
+                });
+    }
+
+    // ---------- Get single tasklist by tasklistId ----------
+    public Mono<TasklistResponse> getTasklistById(UUID tasklistId, UUID ownerId) {
+        return tasklistRepository.findByIdAndOwnerId(tasklistId, ownerId)
+                .switchIfEmpty(notFound("Tasklist not found with id: " + tasklistId))
+                .flatMap(tasklist -> taskRepository.findByTasklistId(tasklist.id())
+                        .map(ReactiveTaskService::toResponse)
+                        .collectList()
+                        .map(tasks -> toResponse(tasklist, tasks)));
+    }
+
+    // -------------------- CREATE -------------------------
+    public Mono<TasklistResponse> create(TasklistCreateRequest request, UUID ownerId) {
+        return template.insert(new TasklistRow(UUID.randomUUID(), ownerId, request.getName(), request.getDescription()))
+                .map(tasklist -> toResponse(tasklist, new ArrayList<>()));
+    }
+
+    // ---------------------- UPDATE ------------------------
+    public Mono<TasklistResponse> update(TasklistUpdateRequest updatedTasklist, UUID ownerId) {
+        return tasklistRepository.findByIdAndOwnerId(updatedTasklist.getId(), ownerId)
+                .switchIfEmpty(notFound("Tasklist not found"))
+                .flatMap(tasklist -> template.update(new TasklistRow(
+                        tasklist.id(),
+                        tasklist.ownerId(),
+                        updatedTasklist.getName() != null ? updatedTasklist.getName() : tasklist.name(),
+                        updatedTasklist.getDescription() != null ? updatedTasklist.getDescription() : tasklist.description())))
+                .flatMap(tasklist -> getTasklistById(tasklist.id(), ownerId));
+    }
+
+    // ---------- DELETE ----------
+    @Transactional
+    public Mono<Void> delete(UUID tasklistId, UUID ownerId) {
+        return taskRepository.deleteByTasklistIdAndTasklistOwnerId(tasklistId, ownerId)
+                .then(tasklistRepository.deleteByIdAndOwnerId(tasklistId, ownerId))
+                .flatMap(deleted -> deleted == 0 ? notFound("Tasklist not found") : Mono.empty());
+    }
+
+    private static TasklistResponse toResponse(TasklistRow tasklist, Map<UUID, Collection<TaskResponse>> tasks) {
+        return toResponse(tasklist, new ArrayList<>(tasks.getOrDefault(tasklist.id(), List.of())));
+    }
+
+    private static TasklistResponse toResponse(TasklistRow tasklist, List<TaskResponse> tasks) {
+        return new TasklistResponse(tasklist.id(), tasklist.ownerId(), tasklist.name(), tasklist.description(), tasks);
+    }
+}
@@ -0,0 +1,66 @@
+package com.waldhauser.tasklist.reactive;
+
+import com.waldhauser.tasklist.reactive.controller.ReactiveTaskController;
+import com.waldhauser.tasklist.reactive.service.ReactiveTaskService;
+import com.waldhauser.tasklist.rest.model.task.TaskResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveTaskControllerTests {
+
+    @Mock
+    private ReactiveTaskService taskService;
+
+    @InjectMocks
+    private ReactiveTaskController taskController;
+
+    private final UUID userId = UUID.randomUUID();
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setup() {
+        webTestClient = WebTestClient.bindToController(taskController)
+                .webFilter((exchange, chain) -> chain.filter(exchange).contextWrite(
+                        ReactiveSecurityContextHolder.withAuthentication(
+                                new UsernamePasswordAuthenticationToken(userId.toString(), null, List.of()))))
+                .build();
+    }
+
+    @Test
+    void getAllReturnsTasksOfAuthenticatedUser() {
+        TaskResponse task = new TaskResponse(UUID.randomUUID(), userId, "Task name", "Description", UUID.randomUUID());
+        when(taskService.getAllTasksByOwnerId(userId)).thenReturn(Flux.just(task));
+
+        webTestClient.get().uri("/task/getAll").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].ownerId").isEqualTo(userId.toString());
+    }
+
+    @Test
+    void getReturnsNotFoundForTaskOfOtherUser() {
+        UUID taskId = UUID.randomUUID();
+        when(taskService.getTaskById(taskId, userId))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found")));
+
+        webTestClient.get().uri("/task/get/" + taskId).exchange()
+                .expectStatus().isNotFound();
+    }
+}
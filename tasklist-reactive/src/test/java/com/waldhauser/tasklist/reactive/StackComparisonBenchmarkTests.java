@@ -0,0 +1,99 @@
+package com.waldhauser.tasklist.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark comparing the servlet and the reactive stack, both running against the same database.
+ * <p>
+ * For each stack it drives {@code benchmark.connections} concurrent clients against /tasklist/getAll for
+ * {@code benchmark.seconds} and reports throughput and resident memory per open connection, read from
+ * /proc of the server process (Linux only). Start both applications first, then run e.g.:
+ * <pre>
+ * mvn test -Dtest=StackComparisonBenchmarkTests \
+ *     -Dbenchmark.token=eyJ... \
+ *     -Dbenchmark.servlet.url=http://localhost:8080 -Dbenchmark.servlet.pid=1234 \
+ *     -Dbenchmark.reactive.url=http://localhost:8081 -Dbenchmark.reactive.pid=5678
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.token", matches = ".+")
+class StackComparisonBenchmarkTests {
+
+    private final String token = System.getProperty("benchmark.token");
+    private final int connections = Integer.getInteger("benchmark.connections", 2000);
+    private final int seconds = Integer.getInteger("benchmark.seconds", 30);
+
+    @Test
+    void compareServletAndReactiveStack() throws Exception {
+        for (String stack : new String[]{"servlet", "reactive"}) {
+            String url = System.getProperty("benchmark." + stack + ".url");
+            if (url != null) {
+                run(stack, url, Long.getLong("benchmark." + stack + ".pid", -1));
+            }
+        }
+    }
+
+    private void run(String stack, String url, long pid) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/tasklist/getAll"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        long rssBefore = residentKb(pid);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong rssPeak = new AtomicLong(rssBefore);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            (response.statusCode() == 200 ? completed : failed).incrementAndGet();
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            while (System.nanoTime() < deadline) {
+                Thread.sleep(500);
+                rssPeak.accumulateAndGet(residentKb(pid), Math::max);
+            }
+        }
+
+        System.out.printf("%-8s %6d connections: %8.0f req/s, %d failed, %s%n",
+                stack, connections, completed.get() / (double) seconds, failed.get(),
+                pid < 0 ? "memory not measured (no pid)"
+                        : String.format("%.1f KiB RSS per connection", (rssPeak.get() - rssBefore) / (double) connections));
+    }
+
+    private static long residentKb(long pid) throws Exception {
+        if (pid < 0) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(Path.of("/proc/" + pid + "/status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return 0;
+    }
+}